@@ -1,16 +1,39 @@
 package ru.trainithard.dunebot.configuration;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Registers application caches. Each cache is bounded by its Caffeine specification (size limit and expiration)
+ * and records hit, miss and eviction statistics. Caches not registered here are not created on demand.
+ */
 @Component
-public class CacheConfiguration implements CacheManagerCustomizer<ConcurrentMapCacheManager> {
+public class CacheConfiguration implements CacheManagerCustomizer<CaffeineCacheManager> {
+    public static final String SETTINGS_CACHE = "settings";
+    public static final String PLAYER_RATINGS_CACHE = "playerRatings";
+    public static final String PLAYERS_CACHE = "players";
+    public static final String MENTIONS_CACHE = "mentions";
+
+    private final Map<String, String> cacheSpecs;
+
+    public CacheConfiguration(@Value("${bot.cache.settings:maximumSize=100,expireAfterWrite=1h}") String settingsSpec,
+                              @Value("${bot.cache.player-ratings:maximumSize=20,expireAfterWrite=24h}") String playerRatingsSpec,
+                              @Value("${bot.cache.players:maximumSize=1000,expireAfterWrite=1h}") String playersSpec,
+                              @Value("${bot.cache.mentions:maximumSize=1000,expireAfterWrite=1h}") String mentionsSpec) {
+        this.cacheSpecs = Map.of(SETTINGS_CACHE, settingsSpec, PLAYER_RATINGS_CACHE, playerRatingsSpec, PLAYERS_CACHE, playersSpec,
+                MENTIONS_CACHE, mentionsSpec);
+    }
 
     @Override
-    public void customize(ConcurrentMapCacheManager cacheManager) {
-        cacheManager.setCacheNames(List.of("settings", "playerRatings"));
+    public void customize(CaffeineCacheManager cacheManager) {
+        cacheManager.setCacheNames(List.of());
+        cacheSpecs.forEach((cacheName, cacheSpec) ->
+                cacheManager.registerCustomCache(cacheName, Caffeine.from(cacheSpec).recordStats().build()));
     }
 }
@@ -6,10 +6,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskLease;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
+import ru.trainithard.dunebot.service.CacheStatisticsService;
 import ru.trainithard.dunebot.service.MatchExpirationService;
+import ru.trainithard.dunebot.service.TaskRecoveryService;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxDispatcher;
 import ru.trainithard.dunebot.service.report.WeeklyRatingReportTask;
 import ru.trainithard.dunebot.service.report.v2.RatingService;
 import ru.trainithard.dunebot.service.telegram.TelegramUpdateProcessor;
+import ru.trainithard.dunebot.service.telegram.UpdateDeduplicator;
 import ru.trainithard.dunebot.util.TimeUtil;
 
 import java.time.Clock;
@@ -24,19 +30,31 @@ import java.time.temporal.ChronoUnit;
 @RequiredArgsConstructor
 public class ScheduledTasksConfiguration {
     private static final Duration DAY_INTERVAL = Duration.ofDays(1);
+    private static final Duration OUTBOX_DISPATCH_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration CACHE_STATISTICS_INTERVAL = Duration.ofHours(1);
+    private static final Duration EXPIRATION_SWEEP_INTERVAL = Duration.ofHours(1);
+    private static final Duration TASK_RECOVERY_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration UPDATES_WATERMARK_STORE_INTERVAL = Duration.ofSeconds(5);
     private final TaskScheduler taskScheduler;
+    private final DuneBotTaskScheduler duneBotTaskScheduler;
+    private final DuneBotTaskLease taskLease;
+    private final TaskRecoveryService taskRecoveryService;
     private final TelegramUpdateProcessor updateProcessor;
+    private final UpdateDeduplicator updateDeduplicator;
     private final WeeklyRatingReportTask weeklyRatingReportTask;
     private final MatchExpirationService expirationService;
     private final RatingService ratingService;
+    private final OutboxDispatcher outboxDispatcher;
+    private final CacheStatisticsService cacheStatisticsService;
     private final Clock clock;
 
     @PostConstruct
     void createScheduledTasks() {
         Instant now = Instant.now(clock);
 
-        taskScheduler.scheduleWithFixedDelay(updateProcessor::process, Duration.ofMillis(5));
-        log.info("Scheduled TelegramUpdateProcessor#process for execution every 5 ms");
+        updateProcessor.startProcessing();
+        taskScheduler.scheduleWithFixedDelay(updateDeduplicator::storeWatermark, now.plus(UPDATES_WATERMARK_STORE_INTERVAL),
+                UPDATES_WATERMARK_STORE_INTERVAL);
 
         //RATING IS DISABLED
 /*        Instant ratingReportStartTime = TimeUtil.getRounded(now, 23, 0);
@@ -48,9 +66,22 @@ public class ScheduledTasksConfiguration {
         Instant ratingUpdateStartTime = getClosestExecutionTime(now, 3);
         taskScheduler.scheduleWithFixedDelay(ratingService::buildFullRating, ratingUpdateStartTime, DAY_INTERVAL);
 
-        Instant expirationServiceStartTime = getClosestExecutionTime(now, 12);
-        taskScheduler.scheduleAtFixedRate(expirationService::expireUnusedMatches, expirationServiceStartTime, Duration.ofHours(12));
-        log.info("Scheduled MatchExpirationService#run for execution every 12 hours, starting at {}", expirationServiceStartTime);
+        taskScheduler.scheduleWithFixedDelay(expirationService::expireUnusedMatches, now, EXPIRATION_SWEEP_INTERVAL);
+        log.info("Scheduled MatchExpirationService#expireUnusedMatches for execution every {}, starting now", EXPIRATION_SWEEP_INTERVAL);
+
+        taskScheduler.scheduleWithFixedDelay(outboxDispatcher::dispatchPending, now, OUTBOX_DISPATCH_INTERVAL);
+        taskScheduler.scheduleWithFixedDelay(outboxDispatcher::purgeDelivered, getClosestExecutionTime(now, 4), DAY_INTERVAL);
+        log.info("Scheduled OutboxDispatcher#dispatchPending for execution every {}, starting now", OUTBOX_DISPATCH_INTERVAL);
+
+        Duration heartbeatInterval = taskLease.getDuration().dividedBy(3);
+        taskScheduler.scheduleWithFixedDelay(duneBotTaskScheduler::renewLeases, now.plus(heartbeatInterval), heartbeatInterval);
+        taskScheduler.scheduleWithFixedDelay(outboxDispatcher::renewLeases, now.plus(heartbeatInterval), heartbeatInterval);
+        taskScheduler.scheduleWithFixedDelay(taskRecoveryService::recoverTasks, now.plus(TASK_RECOVERY_INTERVAL), TASK_RECOVERY_INTERVAL);
+        log.info("Scheduled task and outbox lease heartbeat every {} and task recovery every {}",
+                heartbeatInterval, TASK_RECOVERY_INTERVAL);
+
+        taskScheduler.scheduleAtFixedRate(cacheStatisticsService::logStatistics, now.plus(CACHE_STATISTICS_INTERVAL),
+                CACHE_STATISTICS_INTERVAL);
     }
 
     private Instant getClosestExecutionTime(Instant now, int desiredHour) {
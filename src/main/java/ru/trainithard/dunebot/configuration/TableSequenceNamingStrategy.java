@@ -0,0 +1,37 @@
+package ru.trainithard.dunebot.configuration;
+
+import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.boot.model.relational.QualifiedName;
+import org.hibernate.boot.model.relational.QualifiedSequenceName;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.ImplicitDatabaseObjectNamingStrategy;
+import org.hibernate.id.enhanced.StandardNamingStrategy;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Names entity id sequences after their tables, the same way PostgreSQL names <code>BIGSERIAL</code> sequences
+ * (<code>players</code> table - <code>players_id_seq</code>), so entities and column defaults share one sequence.
+ */
+public class TableSequenceNamingStrategy implements ImplicitDatabaseObjectNamingStrategy {
+    private final StandardNamingStrategy standardNamingStrategy = new StandardNamingStrategy();
+
+    @Override
+    public QualifiedName determineSequenceName(Identifier catalogName, Identifier schemaName, Map<?, ?> configValues,
+                                               ServiceRegistry serviceRegistry) {
+        String tableName = ConfigurationHelper.getString(PersistentIdentifierGenerator.TABLE, configValues);
+        String sequenceName = Identifier.toIdentifier(tableName).getText().toLowerCase(Locale.ROOT) + "_id_seq";
+        Identifier sequenceIdentifier = serviceRegistry.getService(JdbcEnvironment.class).getIdentifierHelper().toIdentifier(sequenceName);
+        return new QualifiedSequenceName(catalogName, schemaName, sequenceIdentifier);
+    }
+
+    @Override
+    public QualifiedName determineTableName(Identifier catalogName, Identifier schemaName, Map<?, ?> configValues,
+                                            ServiceRegistry serviceRegistry) {
+        return standardNamingStrategy.determineTableName(catalogName, schemaName, configValues, serviceRegistry);
+    }
+}
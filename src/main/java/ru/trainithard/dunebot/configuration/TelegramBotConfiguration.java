@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import ru.trainithard.dunebot.service.telegram.TelegramBot;
+import ru.trainithard.dunebot.service.telegram.UpdateRecorder;
 
 @Configuration
 @Profile(value = "!test")
@@ -13,9 +14,11 @@ public class TelegramBotConfiguration {
     private String botToken;
     @Value("${bot.username}")
     private String botUsername;
+    @Value("${bot.updates.queue-capacity:10000}")
+    private int updatesQueueCapacity;
 
     @Bean
-    TelegramBot telegramBot() {
-        return new TelegramBot(botUsername, botToken);
+    TelegramBot telegramBot(UpdateRecorder updateRecorder) {
+        return new TelegramBot(botUsername, botToken, updatesQueueCapacity, updateRecorder);
     }
 }
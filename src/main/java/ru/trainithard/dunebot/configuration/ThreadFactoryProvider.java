@@ -0,0 +1,78 @@
+package ru.trainithard.dunebot.configuration;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.service.LogId;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Provides named threads for updates processing and messaging. When callback threads count is positive, messaging
+ * callbacks run on a dedicated pool of that size, so blocking database calls made from callbacks do not occupy
+ * telegram client pool threads. Otherwise callbacks run in the thread completed the API call. The pool is enabled
+ * in <code>prod</code> and <code>dev</code> profiles: virtual threads would fit better, but they require Java 21,
+ * while the bot is built and run on Java 17.
+ */
+@Slf4j
+@Component
+public class ThreadFactoryProvider {
+    private static final String CALLBACK_THREAD_NAME_PREFIX = "dunebot-callback-";
+
+    private final ExecutorService callbackExecutor;
+
+    public ThreadFactoryProvider(@Value("${bot.callback-threads:0}") int callbackThreadsCount) {
+        this.callbackExecutor = callbackThreadsCount > 0
+                ? Executors.newFixedThreadPool(callbackThreadsCount, getThreadFactory(CALLBACK_THREAD_NAME_PREFIX))
+                : null;
+        log.info("Messaging callbacks execution: {}", callbackThreadsCount > 0 ? callbackThreadsCount + " threads pool" : "client threads");
+    }
+
+    /**
+     * @param namePrefix prefix of created threads names
+     * @return factory of platform threads with the given name prefix
+     */
+    public ThreadFactory getThreadFactory(String namePrefix) {
+        return new CustomizableThreadFactory(namePrefix);
+    }
+
+    /**
+     * Makes dependent stages of the future to be executed on a callback pool thread with the caller's logging ID.
+     * Does nothing when callback pool is disabled.
+     *
+     * @param future future completed by external system client thread
+     * @return future completed on a callback thread
+     */
+    public <T> CompletableFuture<T> toCallbackThread(CompletableFuture<T> future) {
+        if (callbackExecutor == null) {
+            return future;
+        }
+        int logId = LogId.get();
+        CompletableFuture<T> callbackFuture = new CompletableFuture<>();
+        future.whenCompleteAsync((result, throwable) -> {
+            LogId.init(logId);
+            try {
+                if (throwable == null) {
+                    callbackFuture.complete(result);
+                } else {
+                    callbackFuture.completeExceptionally(throwable);
+                }
+            } finally {
+                LogId.clear();
+            }
+        }, callbackExecutor);
+        return callbackFuture;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (callbackExecutor != null) {
+            callbackExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.trainithard.dunebot.configuration.scheduler;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lease of the tasks run by this application instance. Task is claimed by the instance for the lease duration, and the
+ * lease is prolonged by the instance heartbeats while the task runs. Tasks with expired leases are recovered by any
+ * alive instance.
+ */
+@Slf4j
+@Getter
+@Component
+public class DuneBotTaskLease {
+    private final String instanceId;
+    private final Duration duration;
+    private final Clock clock;
+
+    public DuneBotTaskLease(@Value("${bot.scheduler.instance-id:}") String instanceId,
+                            @Value("${bot.scheduler.lease-duration:5m}") Duration duration, Clock clock) {
+        this.instanceId = instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.duration = duration;
+        this.clock = clock;
+        log.info("Scheduler instance ID: {}", this.instanceId);
+    }
+
+    public Instant now() {
+        return Instant.now(clock);
+    }
+
+    public Instant getLeaseEnd() {
+        return now().plus(duration);
+    }
+}
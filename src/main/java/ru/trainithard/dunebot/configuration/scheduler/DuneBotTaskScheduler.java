@@ -1,15 +1,19 @@
 package ru.trainithard.dunebot.configuration.scheduler;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.trainithard.dunebot.model.scheduler.DuneBotTask;
 import ru.trainithard.dunebot.model.scheduler.StateRunnable;
-import ru.trainithard.dunebot.model.scheduler.TaskStatus;
 import ru.trainithard.dunebot.repository.DunebotTaskRepository;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
@@ -21,16 +25,22 @@ public class DuneBotTaskScheduler extends ThreadPoolTaskScheduler {
     private static final int THREAD_POOL_SIZE = 2;
     private final transient DunebotTaskRepository taskRepository;
     private final transient BiFunction<Runnable, DuneBotTaskId, StateRunnable> stateTaskFactory;
+    private final transient DuneBotTaskLease taskLease;
+    private final transient TransactionTemplate newTransactionTemplate;
     private final Map<DuneBotTaskId, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
 
     public DuneBotTaskScheduler(DunebotTaskRepository taskRepository, Clock clock,
-                                BiFunction<Runnable, DuneBotTaskId, StateRunnable> stateTaskFactory) {
+                                BiFunction<Runnable, DuneBotTaskId, StateRunnable> stateTaskFactory, DuneBotTaskLease taskLease,
+                                PlatformTransactionManager transactionManager) {
         super();
         setPoolSize(THREAD_POOL_SIZE);
         setClock(clock);
         setThreadNamePrefix("dunebot-scheduler");
         this.taskRepository = taskRepository;
         this.stateTaskFactory = stateTaskFactory;
+        this.taskLease = taskLease;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     public ScheduledFuture<?> rescheduleSingleRunTask(Runnable taskRunnable, DuneBotTaskId taskId, Instant startTime) {
@@ -44,23 +54,58 @@ public class DuneBotTaskScheduler extends ThreadPoolTaskScheduler {
         return scheduledFeature;
     }
 
+    /**
+     * Runs overdue task immediately, e.g. task scheduled by a dead instance. The task is run only if it is still not
+     * claimed by another instance.
+     */
+    public void runOverdueTask(Runnable taskRunnable, DuneBotTaskId taskId) {
+        Runnable stateRunnable = stateTaskFactory.apply(taskRunnable, taskId);
+        scheduledTasks.put(taskId, schedule(stateRunnable, getClock().instant()));
+        log.debug("0: overdue task of type {} is scheduled for immediate run", taskId);
+    }
+
+    /**
+     * Heartbeat of this instance: prolongs leases of the tasks run by the instance.
+     */
+    public void renewLeases() {
+        int renewedLeasesCount = taskRepository.renewLeases(taskLease.getInstanceId(), taskLease.getLeaseEnd());
+        if (renewedLeasesCount > 0) {
+            log.debug("0: renewed {} task leases", renewedLeasesCount);
+        }
+    }
+
+    /**
+     * Updates scheduled task or inserts a new one. Scheduled task is unique by its ID in the database, so when another
+     * instance inserts the same task concurrently, insertion fails and the task inserted by another instance is updated.
+     */
     private void saveTask(DuneBotTaskId taskId, Instant startTime) {
-        DuneBotTask task = taskRepository
-                .findByTypeAndEntityIdAndStatus(taskId.getTaskType(), taskId.getEntityId(), TaskStatus.SCHEDULED)
-                .orElse(new DuneBotTask(taskId, startTime));
-        task.setStatus(TaskStatus.SCHEDULED);
-        task.setStartTime(startTime);
-        taskRepository.save(task);
+        if (taskRepository.reschedule(taskId, startTime) == 0 && !insertTask(taskId, startTime)) {
+            taskRepository.reschedule(taskId, startTime);
+        }
         log.debug("0: saved task of type {}", taskId);
     }
 
+    private boolean insertTask(DuneBotTaskId taskId, Instant startTime) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> taskRepository.saveAndFlush(new DuneBotTask(taskId, startTime)));
+            return true;
+        } catch (DataIntegrityViolationException exception) {
+            log.debug("0: task of type {} is concurrently scheduled by another instance", taskId);
+            return false;
+        }
+    }
+
     public void cancelSingleRunTask(DuneBotTaskId taskId) {
-        cancel(taskId);
-        taskRepository.findByTypeAndEntityIdAndStatus(taskId.getTaskType(), taskId.getEntityId(), TaskStatus.SCHEDULED)
-                .ifPresent(task -> {
-                    task.setStatus(TaskStatus.CANCELLED);
-                    taskRepository.save(task);
-                });
+        cancelSingleRunTasks(taskId.getEntityId(), taskId.getTaskType());
+    }
+
+    /**
+     * Cancels related tasks of the entity with a single database update.
+     */
+    public void cancelSingleRunTasks(Long entityId, DuneTaskType... taskTypes) {
+        List<DuneTaskType> cancelledTaskTypes = List.of(taskTypes);
+        cancelledTaskTypes.forEach(taskType -> cancel(new DuneBotTaskId(taskType, entityId)));
+        taskRepository.cancel(entityId, cancelledTaskTypes);
     }
 
     private void cancel(DuneBotTaskId taskId) {
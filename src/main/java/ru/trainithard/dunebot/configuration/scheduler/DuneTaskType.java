@@ -1,5 +1,5 @@
 package ru.trainithard.dunebot.configuration.scheduler;
 
 public enum DuneTaskType {
-    SUBMIT_TIMEOUT, SUBMIT_TIMEOUT_NOTIFICATION, SUBMIT_ACCEPT_TIMEOUT, START_MESSAGE, SHUTDOWN
+    SUBMIT_TIMEOUT, SUBMIT_TIMEOUT_NOTIFICATION, SUBMIT_ACCEPT_TIMEOUT, START_MESSAGE, MATCH_EXPIRATION, SHUTDOWN
 }
@@ -10,14 +10,15 @@ import ru.trainithard.dunebot.repository.MatchPlayerRepository;
 import ru.trainithard.dunebot.repository.MatchRepository;
 import ru.trainithard.dunebot.service.AppSettingsService;
 import ru.trainithard.dunebot.service.MatchFinishingService;
-import ru.trainithard.dunebot.service.messaging.MessagingService;
+import ru.trainithard.dunebot.service.PlayerMentionService;
+import ru.trainithard.dunebot.service.messaging.CoalescingMessageEditor;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxService;
 import ru.trainithard.dunebot.service.task.StartMatchTask;
 import ru.trainithard.dunebot.service.task.SubmitAcceptTimeoutTask;
 import ru.trainithard.dunebot.service.task.SubmitTimeoutNotificationTask;
 import ru.trainithard.dunebot.service.task.SubmitTimeoutTask;
 import ru.trainithard.dunebot.service.telegram.factory.messaging.ExternalMessageFactory;
 
-import java.time.Clock;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -26,12 +27,14 @@ import java.util.function.Function;
 public class TasksConfiguration {
     private final MatchRepository matchRepository;
     private final MatchPlayerRepository matchPlayerRepository;
-    private final MessagingService messagingService;
+    private final OutboxService outboxService;
+    private final CoalescingMessageEditor messageEditor;
     private final MatchFinishingService matchFinishingService;
     private final ExternalMessageFactory messageFactory;
+    private final PlayerMentionService mentionService;
     private final DunebotTaskRepository taskRepository;
     private final AppSettingsService appSettingsService;
-    private final Clock clock;
+    private final DuneBotTaskLease taskLease;
 
     @Bean
     public Function<Long, StartMatchTask> startMatchTaskFactory() {
@@ -41,7 +44,8 @@ public class TasksConfiguration {
     @Bean
     @Scope("prototype")
     public StartMatchTask startMatchTask(long matchId) {
-        return new StartMatchTask(matchRepository, matchPlayerRepository, messagingService, messageFactory, clock, matchId);
+        return new StartMatchTask(matchRepository, matchPlayerRepository, outboxService, messageEditor, messageFactory, mentionService,
+                matchId);
     }
 
     @Bean
@@ -63,7 +67,7 @@ public class TasksConfiguration {
     @Bean
     @Scope("prototype")
     public StateRunnable stateTask(Runnable runnable, DuneBotTaskId taksId) {
-        return new StateRunnable(taskRepository, taksId, runnable);
+        return new StateRunnable(taskRepository, taskLease, taksId, runnable);
     }
 
     @Bean
@@ -74,7 +78,7 @@ public class TasksConfiguration {
     @Bean
     @Scope("prototype")
     public SubmitTimeoutNotificationTask submitTimeoutNotificationTask(long matchId) {
-        return new SubmitTimeoutNotificationTask(matchRepository, messagingService, messageFactory, appSettingsService, matchId);
+        return new SubmitTimeoutNotificationTask(matchRepository, outboxService, messageFactory, appSettingsService, matchId);
     }
 
     @Bean
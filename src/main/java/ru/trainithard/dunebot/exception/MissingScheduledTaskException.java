@@ -1,7 +0,0 @@
-package ru.trainithard.dunebot.exception;
-
-public class MissingScheduledTaskException extends DuneBotException {
-    public MissingScheduledTaskException(String message) {
-        super(message);
-    }
-}
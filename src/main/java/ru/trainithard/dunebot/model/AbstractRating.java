@@ -37,6 +37,21 @@ public abstract class AbstractRating extends BaseEntity {
 
     public abstract Long getEntityId();
 
+    /**
+     * Copies calculated statistics of another instance of the same rating, e.g. changes of the detached instance
+     * to the managed one.
+     */
+    public void copyStatistics(AbstractRating source) {
+        ratingDate = source.ratingDate;
+        matchesCount = source.matchesCount;
+        efficiency = source.efficiency;
+        winRate = source.winRate;
+        firstPlaceCount = source.firstPlaceCount;
+        secondPlaceCount = source.secondPlaceCount;
+        thirdPlaceCount = source.thirdPlaceCount;
+        fourthPlaceCount = source.fourthPlaceCount;
+    }
+
     void calculateSpecificFields(MatchPlayer matchPlayer) {
     }
 
@@ -16,7 +16,7 @@ import java.util.Objects;
 @MappedSuperclass
 public class BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
     @CreatedDate
     private Instant createdAt;
@@ -0,0 +1,49 @@
+package ru.trainithard.dunebot.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Reference to the latest rating of the leader. Maintained on every rating update, so the latest ratings
+ * are selected without rating history scan. Created references are always inserted, replaced references
+ * must be deleted first.
+ */
+@Getter
+@Entity
+@Table(name = "CURRENT_LEADER_RATINGS")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CurrentLeaderRating implements Persistable<Long> {
+    @Id
+    private Long leaderId;
+    @Setter
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "LEADER_RATING_ID")
+    private LeaderRating leaderRating;
+    @Transient
+    private boolean isNew = true;
+
+    public CurrentLeaderRating(LeaderRating leaderRating) {
+        this.leaderId = leaderRating.getEntityId();
+        this.leaderRating = leaderRating;
+    }
+
+    @Override
+    public Long getId() {
+        return leaderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        isNew = false;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.trainithard.dunebot.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Reference to the latest rating of the player. Maintained on every rating update, so the latest ratings
+ * are selected without rating history scan. Created references are always inserted, replaced references
+ * must be deleted first.
+ */
+@Getter
+@Entity
+@Table(name = "CURRENT_PLAYER_RATINGS")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CurrentPlayerRating implements Persistable<Long> {
+    @Id
+    private Long playerId;
+    @Setter
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "PLAYER_RATING_ID")
+    private PlayerRating playerRating;
+    @Transient
+    private boolean isNew = true;
+
+    public CurrentPlayerRating(PlayerRating playerRating) {
+        this.playerId = playerRating.getEntityId();
+        this.playerRating = playerRating;
+    }
+
+    @Override
+    public Long getId() {
+        return playerId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        isNew = false;
+    }
+}
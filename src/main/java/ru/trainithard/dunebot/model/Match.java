@@ -8,7 +8,11 @@ import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
 import ru.trainithard.dunebot.model.messaging.ExternalPollId;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Entity describing specific game match.c
@@ -19,6 +23,8 @@ import java.util.List;
 @Table(name = "MATCHES")
 @NoArgsConstructor
 public class Match extends BaseEntity {
+    private static final String MENTIONED_PLAYER_IDS_DELIMITER = ",";
+
     /**
      * Positively voted players for the match.
      */
@@ -48,6 +54,10 @@ public class Match extends BaseEntity {
     @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "EXTERNAL_START_ID")
     private ExternalMessageId externalStartId;
+    /**
+     * IDs of players mentioned in the start message, separated by comma.
+     */
+    private String startMentionedPlayerIds;
     /**
      * External ID of the message sent, when match has been submitted.
      */
@@ -83,6 +93,19 @@ public class Match extends BaseEntity {
         this.state = MatchState.NEW;
     }
 
+    public Set<Long> getStartMentionedPlayerIdsSet() {
+        if (startMentionedPlayerIds == null || startMentionedPlayerIds.isEmpty()) {
+            return Set.of();
+        }
+        return Arrays.stream(startMentionedPlayerIds.split(MENTIONED_PLAYER_IDS_DELIMITER))
+                .map(Long::valueOf)
+                .collect(Collectors.toSet());
+    }
+
+    public static String joinMentionedPlayerIds(Collection<Long> playerIds) {
+        return playerIds.stream().sorted().map(String::valueOf).collect(Collectors.joining(MENTIONED_PLAYER_IDS_DELIMITER));
+    }
+
     public boolean isResubmitAllowed(int resubmitsLimit) {
         return submitsRetryCount < resubmitsLimit;
     }
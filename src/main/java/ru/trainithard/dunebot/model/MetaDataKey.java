@@ -1,5 +1,5 @@
 package ru.trainithard.dunebot.model;
 
 public enum MetaDataKey {
-    PLAYER_RATING_DATE, LEADER_RATING_DATE
+    PLAYER_RATING_DATE, LEADER_RATING_DATE, LAST_UPDATE_ID
 }
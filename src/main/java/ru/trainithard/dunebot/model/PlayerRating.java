@@ -33,6 +33,16 @@ public class PlayerRating extends AbstractRating {
         return this.getPlayer().getId();
     }
 
+    @Override
+    public void copyStatistics(AbstractRating source) {
+        super.copyStatistics(source);
+        if (source instanceof PlayerRating playerRating) {
+            this.currentStrikeLength = playerRating.currentStrikeLength;
+            this.maxStrikeLength = playerRating.maxStrikeLength;
+            this.previouslyWon = playerRating.previouslyWon;
+        }
+    }
+
     @Override
     void calculateSpecificFields(MatchPlayer matchPlayer) {
         int matchPlace = Objects.requireNonNull(matchPlayer.getPlace());
@@ -0,0 +1,15 @@
+package ru.trainithard.dunebot.model.messaging;
+
+/**
+ * Action performed in the same transaction that marks outbox message delivered.
+ */
+public enum OutboxCallbackType {
+    /**
+     * New match creation for the delivered poll. Callback entity is the poll owner player, callback data is match mod type.
+     */
+    NEW_MATCH_POLL,
+    /**
+     * Match start message id storage. Callback entity is the match.
+     */
+    MATCH_START
+}
@@ -0,0 +1,63 @@
+package ru.trainithard.dunebot.model.messaging;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.trainithard.dunebot.model.BaseEntity;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Outbound message persisted in the same transaction as the state change it notifies about.
+ * The message is considered sent only when it has <code>DELIVERED</code> status. Message being sent has
+ * <code>IN_FLIGHT</code> status and is locked by the sending application instance until the lease end.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "OUTBOX_MESSAGES")
+@NoArgsConstructor
+public class OutboxMessage extends BaseEntity {
+    private static final String POLL_OPTIONS_DELIMITER = "\n";
+
+    @Enumerated(EnumType.STRING)
+    private OutboxMessageType messageType;
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status = OutboxStatus.PENDING;
+    @Enumerated(EnumType.STRING)
+    private MessagePriority priority;
+    private String chatId;
+    private Integer topicId;
+    private Integer replyId;
+    private String text;
+    /**
+     * Poll options separated by new line. Telegram doesn't allow multiline options.
+     */
+    private String pollOptions;
+    @Enumerated(EnumType.STRING)
+    private OutboxCallbackType callbackType;
+    private Long callbackEntityId;
+    private String callbackData;
+    private int attempts;
+    private Instant deliveredAt;
+    /**
+     * ID of the application instance sending the message.
+     */
+    private String lockedBy;
+    /**
+     * End of the sending lease. Message with expired lease is considered abandoned by a dead instance and is sent again.
+     */
+    private Instant lockedUntil;
+
+    public List<String> getPollOptionsList() {
+        return pollOptions == null ? List.of() : Arrays.asList(pollOptions.split(POLL_OPTIONS_DELIMITER));
+    }
+
+    public void setPollOptionsList(List<String> options) {
+        this.pollOptions = String.join(POLL_OPTIONS_DELIMITER, options);
+    }
+}
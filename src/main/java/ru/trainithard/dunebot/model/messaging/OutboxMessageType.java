@@ -0,0 +1,5 @@
+package ru.trainithard.dunebot.model.messaging;
+
+public enum OutboxMessageType {
+    MESSAGE, POLL
+}
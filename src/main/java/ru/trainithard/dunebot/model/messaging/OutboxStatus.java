@@ -0,0 +1,5 @@
+package ru.trainithard.dunebot.model.messaging;
+
+public enum OutboxStatus {
+    PENDING, IN_FLIGHT, DELIVERED, FAILED
+}
@@ -0,0 +1,32 @@
+package ru.trainithard.dunebot.model.messaging;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.trainithard.dunebot.model.BaseEntity;
+
+/**
+ * File uploaded to external messenger, which can be sent again by its ID instead of uploading the content.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "UPLOADED_FILES")
+@NoArgsConstructor
+public class UploadedFile extends BaseEntity {
+    /**
+     * Hex encoded SHA-256 hash of the file content.
+     */
+    private String contentHash;
+    /**
+     * External messenger's file ID.
+     */
+    private String fileId;
+
+    public UploadedFile(String contentHash, String fileId) {
+        this.contentHash = contentHash;
+        this.fileId = fileId;
+    }
+}
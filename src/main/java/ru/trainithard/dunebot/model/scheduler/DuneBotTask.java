@@ -21,10 +21,23 @@ public class DuneBotTask extends BaseEntity {
     protected Instant startTime;
     @Enumerated(EnumType.STRING)
     protected TaskStatus status;
+    /**
+     * ID of the application instance running the task.
+     */
+    protected String lockedBy;
+    /**
+     * End of the running task lease. Lease is prolonged by the running instance heartbeats, task with expired lease
+     * is considered abandoned by a dead instance.
+     */
+    protected Instant lockedUntil;
 
     public DuneBotTask(DuneBotTaskId duneBotTaskId, Instant startTime) {
         this.duneBotTaskId = duneBotTaskId;
         this.startTime = startTime;
         this.status = TaskStatus.SCHEDULED;
     }
+
+    public boolean isLeaseActive(Instant now) {
+        return status == TaskStatus.RUN && lockedUntil != null && lockedUntil.isAfter(now);
+    }
 }
@@ -3,36 +3,46 @@ package ru.trainithard.dunebot.model.scheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
-import ru.trainithard.dunebot.exception.MissingScheduledTaskException;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskLease;
 import ru.trainithard.dunebot.repository.DunebotTaskRepository;
 
+import java.time.Duration;
+
+/**
+ * Runs the task only if this instance claims it in the database, so every task is run once among all application instances.
+ */
 @Slf4j
 @RequiredArgsConstructor
 public class StateRunnable implements Runnable {
+    /**
+     * Timer may fire slightly ahead of the task start time.
+     */
+    private static final Duration EARLY_START_TOLERANCE = Duration.ofSeconds(1);
     private final DunebotTaskRepository taskRepository;
+    private final DuneBotTaskLease taskLease;
     private final DuneBotTaskId taskId;
     private final Runnable originalRunnable;
 
     @Override
     public void run() {
-        DuneBotTask task = taskRepository
-                .findByTypeAndEntityIdAndStatus(taskId.getTaskType(), taskId.getEntityId(), TaskStatus.SCHEDULED)
-                .orElseThrow(() -> new MissingScheduledTaskException("Task can't be run as it is missing in database or already run"));
-        task.setStatus(TaskStatus.RUN);
-        taskRepository.save(task);
+        String instanceId = taskLease.getInstanceId();
+        if (taskRepository.claim(taskId, instanceId, taskLease.now().plus(EARLY_START_TOLERANCE), taskLease.getLeaseEnd()) > 0) {
+            runClaimed(instanceId);
+        } else {
+            log.info("Task {} is skipped: it is not due, cancelled or claimed by another instance", taskId);
+        }
+    }
 
+    private void runClaimed(String instanceId) {
+        TaskStatus resultStatus = TaskStatus.FINISHED;
         try {
-            log.info("Task {} of type {} execution...", task.getId(), taskId.getTaskType());
+            log.info("Task {} execution...", taskId);
             originalRunnable.run();
-            log.info("Task {} has been successfully finished", task.getId());
+            log.info("Task {} has been successfully finished", taskId);
         } catch (Exception e) {
-            log.error("Task " + task.getId() + " failed due to an exception.", e);
-            task.setStatus(TaskStatus.FAILED);
-            taskRepository.save(task);
-            return;
+            log.error("Task " + taskId + " failed due to an exception.", e);
+            resultStatus = TaskStatus.FAILED;
         }
-
-        task.setStatus(TaskStatus.FINISHED);
-        taskRepository.save(task);
+        taskRepository.finish(taskId, instanceId, resultStatus);
     }
 }
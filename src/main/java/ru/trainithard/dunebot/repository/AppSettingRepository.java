@@ -1,9 +1,16 @@
 package ru.trainithard.dunebot.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import ru.trainithard.dunebot.model.AppSetting;
 import ru.trainithard.dunebot.model.AppSettingKey;
 
 public interface AppSettingRepository extends JpaRepository<AppSetting, Long> {
     AppSetting findByKey(AppSettingKey key);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AppSetting s where s.key = :key")
+    AppSetting findForUpdateByKey(AppSettingKey key);
 }
@@ -0,0 +1,7 @@
+package ru.trainithard.dunebot.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.trainithard.dunebot.model.CurrentPlayerRating;
+
+public interface CurrentPlayerRatingRepository extends JpaRepository<CurrentPlayerRating, Long> {
+}
@@ -1,21 +1,120 @@
 package ru.trainithard.dunebot.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
 import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
 import ru.trainithard.dunebot.model.scheduler.DuneBotTask;
 import ru.trainithard.dunebot.model.scheduler.TaskStatus;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface DunebotTaskRepository extends JpaRepository<DuneBotTask, Long> {
-    @Query("select t from DuneBotTask t " +
-           "where t.duneBotTaskId.taskType = :taskType and " +
-           "((t.duneBotTaskId.entityId is null and :entityId is null) or t.duneBotTaskId.entityId = :entityId) " +
-           "and t.status = :status")
-    Optional<DuneBotTask> findByTypeAndEntityIdAndStatus(DuneTaskType taskType, Long entityId, TaskStatus status);
-
     List<DuneBotTask> findAllByStatusIn(Collection<TaskStatus> taskStatuses);
+
+    List<DuneBotTask> findAllByStatusAndStartTimeBefore(TaskStatus status, Instant startTime);
+
+    /**
+     * Atomically moves due <code>SCHEDULED</code> task to <code>RUN</code> state, locked by the instance until the lease end.
+     *
+     * @return 1 if the task is claimed, 0 if the task is not due, already claimed by another instance or cancelled
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update DuneBotTask t
+            set t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.RUN, t.lockedBy = :instanceId, t.lockedUntil = :lockedUntil
+            where t.duneBotTaskId.taskType = :#{#taskId.taskType}
+            and ((t.duneBotTaskId.entityId is null and :#{#taskId.entityId} is null) or t.duneBotTaskId.entityId = :#{#taskId.entityId})
+            and t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.SCHEDULED and t.startTime <= :dueTime
+            """)
+    int claim(DuneBotTaskId taskId, String instanceId, Instant dueTime, Instant lockedUntil);
+
+    /**
+     * Moves scheduled task to the new start time.
+     *
+     * @return 1 if the task is rescheduled, 0 if there is no scheduled task with such ID
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update DuneBotTask t set t.startTime = :startTime
+            where t.duneBotTaskId.taskType = :#{#taskId.taskType}
+            and ((t.duneBotTaskId.entityId is null and :#{#taskId.entityId} is null) or t.duneBotTaskId.entityId = :#{#taskId.entityId})
+            and t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.SCHEDULED
+            """)
+    int reschedule(DuneBotTaskId taskId, Instant startTime);
+
+    /**
+     * Cancels scheduled tasks of given types related to the entity.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update DuneBotTask t set t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.CANCELLED
+            where t.duneBotTaskId.taskType in :taskTypes
+            and ((t.duneBotTaskId.entityId is null and :entityId is null) or t.duneBotTaskId.entityId = :entityId)
+            and t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.SCHEDULED
+            """)
+    int cancel(Long entityId, Collection<DuneTaskType> taskTypes);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update DuneBotTask t set t.status = :status, t.lockedUntil = null
+            where t.duneBotTaskId.taskType = :#{#taskId.taskType}
+            and ((t.duneBotTaskId.entityId is null and :#{#taskId.entityId} is null) or t.duneBotTaskId.entityId = :#{#taskId.entityId})
+            and t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.RUN and t.lockedBy = :instanceId
+            """)
+    int finish(DuneBotTaskId taskId, String instanceId, TaskStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update DuneBotTask t set t.lockedUntil = :lockedUntil " +
+           "where t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.RUN and t.lockedBy = :instanceId")
+    int renewLeases(String instanceId, Instant lockedUntil);
+
+    /**
+     * Cancels running tasks of dead instances (with expired leases) which are scheduled again already, as such task
+     * can't be returned to <code>SCHEDULED</code> state: only one scheduled task with the same ID may exist.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update DuneBotTask t
+            set t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.CANCELLED, t.lockedBy = null, t.lockedUntil = null
+            where t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.RUN
+            and (t.lockedUntil is null or t.lockedUntil < :now)
+            and exists (select s.id from DuneBotTask s
+                where s.duneBotTaskId.taskType = t.duneBotTaskId.taskType
+                and ((s.duneBotTaskId.entityId is null and t.duneBotTaskId.entityId is null)
+                    or s.duneBotTaskId.entityId = t.duneBotTaskId.entityId)
+                and s.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.SCHEDULED)
+            """)
+    int cancelRescheduledExpiredLeases(Instant now);
+
+    /**
+     * Returns running tasks of dead instances (with expired leases) to <code>SCHEDULED</code> state. Shutdown tasks are not
+     * returned, as running shutdown task is expected to stop its instance. Tasks scheduled again already are not returned
+     * either, see {@link #cancelRescheduledExpiredLeases(Instant)}.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update DuneBotTask t
+            set t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.SCHEDULED, t.lockedBy = null, t.lockedUntil = null
+            where t.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.RUN
+            and (t.lockedUntil is null or t.lockedUntil < :now)
+            and t.duneBotTaskId.taskType <> ru.trainithard.dunebot.configuration.scheduler.DuneTaskType.SHUTDOWN
+            and not exists (select s.id from DuneBotTask s
+                where s.duneBotTaskId.taskType = t.duneBotTaskId.taskType
+                and ((s.duneBotTaskId.entityId is null and t.duneBotTaskId.entityId is null)
+                    or s.duneBotTaskId.entityId = t.duneBotTaskId.entityId)
+                and s.status = ru.trainithard.dunebot.model.scheduler.TaskStatus.SCHEDULED)
+            """)
+    int releaseExpiredLeases(Instant now);
 }
@@ -7,6 +7,12 @@ import ru.trainithard.dunebot.model.LeaderRating;
 import java.util.List;
 
 public interface LeaderRatingRepository extends JpaRepository<LeaderRating, Long> {
+    @Query("select lr from CurrentLeaderRating clr join clr.leaderRating lr join fetch lr.leader")
+    List<LeaderRating> findLatestLeaderRatings();
+
+    /**
+     * Selects the latest ratings by the whole rating history scan. Use only for the current ratings consistency check.
+     */
     @Query(value = """
             with max_dates(lid, max_date) as
                 (select lr1.leader_id, max(rating_date)
@@ -15,5 +21,5 @@ public interface LeaderRatingRepository extends JpaRepository<LeaderRating, Long
             select lr2.*
             from leader_ratings lr2, max_dates md
             where lr2.leader_id = md.lid and lr2.rating_date = md.max_date""", nativeQuery = true)
-    List<LeaderRating> findLatestLeaderRatings();
+    List<LeaderRating> findLatestLeaderRatingsFromHistory();
 }
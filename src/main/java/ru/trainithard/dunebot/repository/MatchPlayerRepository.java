@@ -27,4 +27,10 @@ public interface MatchPlayerRepository extends JpaRepository<MatchPlayer, Long>
     List<MatchPlayer> findByMatchDates(LocalDate from, LocalDate to, MatchState matchState, ModType modType);
 
     List<MatchPlayer> findByMatch(Match match);
+
+    @Query("""
+            select mp from MatchPlayer mp
+            join fetch mp.player
+            where mp.match.id = :matchId""")
+    List<MatchPlayer> findWithPlayersByMatchId(long matchId);
 }
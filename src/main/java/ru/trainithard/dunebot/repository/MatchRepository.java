@@ -1,10 +1,14 @@
 package ru.trainithard.dunebot.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.MatchState;
+import ru.trainithard.dunebot.model.ModType;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
@@ -49,6 +53,50 @@ public interface MatchRepository extends JpaRepository<Match, Long> {
 
     List<Match> findAllByStateIn(Collection<MatchState> states);
 
-    @Query("select min(m.finishDate) from Match m")
-    LocalDate findEarliestFinishDate();
+    @Query("select m.id from Match m where m.state = ru.trainithard.dunebot.model.MatchState.NEW and m.createdAt < :createdBefore")
+    List<Long> findNewMatchIdsCreatedBefore(Instant createdBefore);
+
+    /**
+     * Expires <code>NEW</code> matches of given mod types, created before the given instant: matches with missing players
+     * become <code>EXPIRED</code>, matches with all players become <code>NOT_SUBMITTED</code>.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update Match m set m.state = case when m.positiveAnswersCount < :playersCount
+                then ru.trainithard.dunebot.model.MatchState.EXPIRED
+                else ru.trainithard.dunebot.model.MatchState.NOT_SUBMITTED end
+            where m.state = ru.trainithard.dunebot.model.MatchState.NEW
+            and m.modType in :modTypes and m.createdAt < :createdBefore
+            """)
+    int expireNewMatches(Collection<ModType> modTypes, int playersCount, Instant createdBefore);
+
+    /**
+     * Expires the match if it is still in <code>NEW</code> state, see {@link #expireNewMatches}.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update Match m set m.state = case when m.positiveAnswersCount < :playersCount
+                then ru.trainithard.dunebot.model.MatchState.EXPIRED
+                else ru.trainithard.dunebot.model.MatchState.NOT_SUBMITTED end
+            where m.id = :matchId and m.state = ru.trainithard.dunebot.model.MatchState.NEW
+            """)
+    int expireNewMatch(long matchId, int playersCount);
+
+    /**
+     * Applies result of poll votes batch, if the match state is not changed since the batch was started.
+     *
+     * @param positiveAnswersDelta change of positive answers count made by the batch
+     * @param batchState           match state the batch was applied to
+     * @param newState             match state after the batch
+     * @return updated matches count, 0 if the match state is changed concurrently
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update Match m set m.positiveAnswersCount = m.positiveAnswersCount + :positiveAnswersDelta, m.state = :newState
+            where m.id = :matchId and m.state = :batchState
+            """)
+    int applyVotes(long matchId, int positiveAnswersDelta, MatchState batchState, MatchState newState);
 }
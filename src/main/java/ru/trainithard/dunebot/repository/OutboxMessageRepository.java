@@ -0,0 +1,54 @@
+package ru.trainithard.dunebot.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.trainithard.dunebot.model.messaging.OutboxMessage;
+import ru.trainithard.dunebot.model.messaging.OutboxStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    List<OutboxMessage> findTop100ByStatusAndIdGreaterThanOrderById(OutboxStatus status, long id);
+
+    /**
+     * Atomically moves <code>PENDING</code> message to <code>IN_FLIGHT</code> state, locked by the instance until the lease end.
+     *
+     * @return 1 if the message is claimed, 0 if the message is already claimed by another instance, delivered or failed
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update OutboxMessage m
+            set m.status = ru.trainithard.dunebot.model.messaging.OutboxStatus.IN_FLIGHT,
+            m.lockedBy = :instanceId, m.lockedUntil = :lockedUntil
+            where m.id = :id and m.status = ru.trainithard.dunebot.model.messaging.OutboxStatus.PENDING
+            """)
+    int claim(long id, String instanceId, Instant lockedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("update OutboxMessage m set m.lockedUntil = :lockedUntil " +
+           "where m.status = ru.trainithard.dunebot.model.messaging.OutboxStatus.IN_FLIGHT and m.lockedBy = :instanceId")
+    int renewLeases(String instanceId, Instant lockedUntil);
+
+    /**
+     * Returns messages being sent by dead instances (with expired leases) to <code>PENDING</code> state.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update OutboxMessage m
+            set m.status = ru.trainithard.dunebot.model.messaging.OutboxStatus.PENDING, m.lockedBy = null, m.lockedUntil = null
+            where m.status = ru.trainithard.dunebot.model.messaging.OutboxStatus.IN_FLIGHT
+            and (m.lockedUntil is null or m.lockedUntil < :now)
+            """)
+    int releaseExpiredLeases(Instant now);
+
+    @Modifying
+    @Query("delete from OutboxMessage m where m.status = ru.trainithard.dunebot.model.messaging.OutboxStatus.DELIVERED " +
+           "and m.deliveredAt < :deliveredBefore")
+    int deleteDeliveredBefore(Instant deliveredBefore);
+}
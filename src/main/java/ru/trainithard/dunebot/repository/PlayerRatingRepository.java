@@ -1,6 +1,5 @@
 package ru.trainithard.dunebot.repository;
 
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.trainithard.dunebot.model.PlayerRating;
@@ -9,6 +8,12 @@ import java.time.LocalDate;
 import java.util.List;
 
 public interface PlayerRatingRepository extends JpaRepository<PlayerRating, Long> {
+    @Query("select pr from CurrentPlayerRating cpr join cpr.playerRating pr join fetch pr.player")
+    List<PlayerRating> findLatestPlayerRatings();
+
+    /**
+     * Selects the latest ratings by the whole rating history scan. Use only for the current ratings consistency check.
+     */
     @Query(value = """
             with max_dates(pid, max_date) as
                 (select pr1.player_id, max(rating_date)
@@ -17,9 +22,8 @@ public interface PlayerRatingRepository extends JpaRepository<PlayerRating, Long
             select pr2.*
             from player_ratings pr2, max_dates md
             where pr2.player_id = md.pid and pr2.rating_date = md.max_date""", nativeQuery = true)
-    List<PlayerRating> findLatestPlayerRatings();
+    List<PlayerRating> findLatestPlayerRatingsFromHistory();
 
-    @Cacheable(value = "playerRatings", key = "{#from, #to}")
     @Query("select pr from PlayerRating pr where pr.ratingDate between :from and :to")
     List<PlayerRating> findAllBy(LocalDate from, LocalDate to);
 }
@@ -1,21 +1,39 @@
 package ru.trainithard.dunebot.repository;
 
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.trainithard.dunebot.configuration.CacheConfiguration;
 import ru.trainithard.dunebot.model.Player;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PlayerRepository extends JpaRepository<Player, Long> {
     Optional<Player> findByExternalId(long externalId);
 
+    List<Player> findAllByExternalIdIn(Collection<Long> externalIds);
+
     Optional<Player> findBySteamName(String steamName);
 
-    @Query("select (count(p) > 0) from Player p where p.externalId = :externalId and not p.guest")
-    boolean existsNonGuestByTelegramId(Long externalId);
+    @Query("select p.externalChatId from Player p where p.chatBlocked")
+    List<Long> findBlockedChatIds();
+
+    @Modifying
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfiguration.PLAYERS_CACHE, allEntries = true)
+    @Query("update Player p set p.chatBlocked = true where p.externalChatId = :externalChatId")
+    int markChatBlocked(long externalChatId);
 
     @Override
-    @CacheEvict(cacheNames = "playerRatings", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.PLAYER_RATINGS_CACHE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfiguration.PLAYERS_CACHE, key = "#p0.externalId"),
+            @CacheEvict(cacheNames = CacheConfiguration.MENTIONS_CACHE, key = "#p0.externalId")
+    })
     Player save(Player entity);
 }
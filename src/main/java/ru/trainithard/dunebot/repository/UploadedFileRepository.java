@@ -0,0 +1,10 @@
+package ru.trainithard.dunebot.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.trainithard.dunebot.model.messaging.UploadedFile;
+
+import java.util.Optional;
+
+public interface UploadedFileRepository extends JpaRepository<UploadedFile, Long> {
+    Optional<UploadedFile> findByContentHash(String contentHash);
+}
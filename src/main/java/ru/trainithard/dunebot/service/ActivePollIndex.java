@@ -0,0 +1,76 @@
+package ru.trainithard.dunebot.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.model.Match;
+import ru.trainithard.dunebot.model.MatchState;
+import ru.trainithard.dunebot.model.messaging.ExternalPollId;
+import ru.trainithard.dunebot.repository.MatchRepository;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of polls of <code>NEW</code> matches by external poll ID and by owner's external ID. Allows to reject
+ * answers to foreign or stale polls and to find the match of a poll answer or owner's command without database queries.
+ * Matches are registered on creation and must be evicted when leaving <code>NEW</code> state. The index is rebuilt
+ * from the database on startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActivePollIndex {
+    private final MatchRepository matchRepository;
+    private final Map<String, Long> matchIdsByPollId = new ConcurrentHashMap<>();
+    private final Map<Long, Long> matchIdsByOwnerExternalId = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void rebuild() {
+        matchIdsByPollId.clear();
+        matchIdsByOwnerExternalId.clear();
+        for (Match match : matchRepository.findAllByStateIn(Collections.singleton(MatchState.NEW))) {
+            ExternalPollId externalPollId = match.getExternalPollId();
+            if (externalPollId != null && externalPollId.getPollId() != null) {
+                matchIdsByPollId.put(externalPollId.getPollId(), match.getId());
+            }
+            if (match.getOwner() != null) {
+                matchIdsByOwnerExternalId.merge(match.getOwner().getExternalId(), match.getId(), Math::max);
+            }
+        }
+        log.info("Restored active polls index. Active polls: {}", matchIdsByPollId.size());
+    }
+
+    public void register(String pollId, long matchId, long ownerExternalId) {
+        matchIdsByPollId.put(pollId, matchId);
+        matchIdsByOwnerExternalId.put(ownerExternalId, matchId);
+    }
+
+    /**
+     * @param pollId external poll ID
+     * @return ID of the <code>NEW</code> match of the poll, or empty optional for foreign or stale poll
+     */
+    public Optional<Long> findMatchId(String pollId) {
+        return Optional.ofNullable(matchIdsByPollId.get(pollId));
+    }
+
+    /**
+     * @param ownerExternalId external ID of the match owner
+     * @return ID of the latest <code>NEW</code> match owned by the user, or empty optional if there is no such match
+     */
+    public Optional<Long> findOwnedMatchId(long ownerExternalId) {
+        return Optional.ofNullable(matchIdsByOwnerExternalId.get(ownerExternalId));
+    }
+
+    public boolean contains(String pollId) {
+        return matchIdsByPollId.containsKey(pollId);
+    }
+
+    public void evict(long matchId) {
+        matchIdsByPollId.values().remove(matchId);
+        matchIdsByOwnerExternalId.values().remove(matchId);
+    }
+}
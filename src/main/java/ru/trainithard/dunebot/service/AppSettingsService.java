@@ -2,6 +2,8 @@ package ru.trainithard.dunebot.service;
 
 import ru.trainithard.dunebot.model.AppSettingKey;
 
+import java.util.List;
+
 public interface AppSettingsService {
 
     Integer getIntSetting(AppSettingKey key);
@@ -10,5 +12,18 @@ public interface AppSettingsService {
 
     String getStringSetting(AppSettingKey key);
 
+    /**
+     * @return IDs of configured chat topics, refreshed when any of the topic settings is saved
+     */
+    List<Integer> getTopicIds();
+
     void saveSetting(AppSettingKey key, String value);
+
+    /**
+     * Adds delta to the integer setting holding the setting's row lock till the end of the current transaction,
+     * so concurrent increments are neither lost nor return the same value.
+     *
+     * @return setting value before the increment
+     */
+    int getAndAddIntSetting(AppSettingKey key, int delta);
 }
@@ -3,15 +3,22 @@ package ru.trainithard.dunebot.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.trainithard.dunebot.model.AppSetting;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.repository.AppSettingRepository;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class AppSettingsServiceImpl implements AppSettingsService {
+    private static final List<AppSettingKey> TOPIC_KEYS = List.of(AppSettingKey.TOPIC_ID_CLASSIC, AppSettingKey.TOPIC_ID_UPRISING);
+
     private final AppSettingRepository appSettingRepository;
 
     @Override
@@ -36,7 +43,23 @@ public class AppSettingsServiceImpl implements AppSettingsService {
     }
 
     @Override
-    @CacheEvict(value = "settings", key = "#key")
+    @Cacheable(value = "settings", key = "'TOPIC_IDS'")
+    public List<Integer> getTopicIds() {
+        List<Integer> topicIds = new ArrayList<>(TOPIC_KEYS.size());
+        for (AppSettingKey topicKey : TOPIC_KEYS) {
+            AppSetting appSetting = appSettingRepository.findByKey(topicKey);
+            if (appSetting != null) {
+                topicIds.add(Integer.parseInt(appSetting.getValue()));
+            }
+        }
+        return Collections.unmodifiableList(topicIds);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(value = "settings", key = "#key"),
+            @CacheEvict(value = "settings", key = "'TOPIC_IDS'", condition = "#key.name().startsWith('TOPIC_ID')")
+    })
     @Transactional
     public void saveSetting(AppSettingKey key, String value) {
         AppSetting existingAppSetting = appSettingRepository.findByKey(key);
@@ -47,4 +70,15 @@ public class AppSettingsServiceImpl implements AppSettingsService {
             appSettingRepository.save(new AppSetting(key, value));
         }
     }
+
+    @Override
+    @CacheEvict(value = "settings", key = "#key")
+    @Transactional
+    public int getAndAddIntSetting(AppSettingKey key, int delta) {
+        AppSetting appSetting = appSettingRepository.findForUpdateByKey(key);
+        int value = Integer.parseInt(appSetting.getValue());
+        appSetting.setValue(Integer.toString(value + delta));
+        appSettingRepository.save(appSetting);
+        return value;
+    }
 }
@@ -0,0 +1,56 @@
+package ru.trainithard.dunebot.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides usage statistics of the application caches.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+    private final CacheManager cacheManager;
+
+    public List<CacheStatistics> getStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                statistics.add(new CacheStatistics(cacheName, nativeCache.estimatedSize(), stats.hitCount(),
+                        stats.missCount(), stats.evictionCount()));
+            }
+        }
+        return statistics;
+    }
+
+    public void logStatistics() {
+        getStatistics().forEach(statistics -> log.info("0: cache {}: size {}, hits {}, misses {}, evictions {}, hit rate {}",
+                statistics.name(), statistics.size(), statistics.hitCount(), statistics.missCount(),
+                statistics.evictionCount(), String.format("%.2f", statistics.hitRate())));
+    }
+
+    /**
+     * @param name          cache name
+     * @param size          approximate count of cached entries
+     * @param hitCount      count of lookups which returned cached value since startup
+     * @param missCount     count of lookups which loaded the value since startup
+     * @param evictionCount count of entries evicted due to size limit or expiration since startup
+     */
+    public record CacheStatistics(String name, long size, long hitCount, long missCount, long evictionCount) {
+        public double hitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.trainithard.dunebot.service;
+
+import com.google.common.collect.Lists;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.model.Leader;
+import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.repository.LeaderRepository;
+import ru.trainithard.dunebot.service.messaging.dto.ButtonDto;
+import ru.trainithard.dunebot.service.telegram.command.CallbackSymbol;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory catalog of leaders. Leaders are static reference data, so they are loaded once at startup
+ * and reloaded only on admin request. Returned leaders are shared between callers and must not be modified.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LeaderCatalog {
+    private static final int KEYBOARD_ROW_SIZE = 2;
+
+    private final LeaderRepository leaderRepository;
+    private volatile Catalog catalog = new Catalog(Map.of(), Map.of(), Map.of());
+
+    @PostConstruct
+    public void reload() {
+        List<Leader> sortedLeaders = leaderRepository.findAll(Sort.sort(Leader.class).by(Leader::getName));
+        Map<Long, Leader> leadersById = new HashMap<>();
+        Map<ModType, List<Leader>> leadersByModType = new EnumMap<>(ModType.class);
+        for (Leader leader : sortedLeaders) {
+            leadersById.put(leader.getId(), leader);
+            leadersByModType.computeIfAbsent(leader.getModType(), modType -> new ArrayList<>()).add(leader);
+        }
+        Map<ModType, List<Leader>> immutableLeadersByModType = new EnumMap<>(ModType.class);
+        Map<ModType, List<List<ButtonDto>>> keyboardsByModType = new EnumMap<>(ModType.class);
+        leadersByModType.forEach((modType, leaders) -> {
+            immutableLeadersByModType.put(modType, List.copyOf(leaders));
+            keyboardsByModType.put(modType, getKeyboardTemplate(leaders));
+        });
+        catalog = new Catalog(Map.copyOf(leadersById), immutableLeadersByModType, keyboardsByModType);
+        log.info("Leader catalog loaded. Leaders: {}", leadersById.size());
+    }
+
+    public Optional<Leader> findById(long leaderId) {
+        return Optional.ofNullable(catalog.leadersById().get(leaderId));
+    }
+
+    /**
+     * @return unmodifiable list of the mod leaders, sorted by name
+     */
+    public List<Leader> getLeaders(ModType modType) {
+        return catalog.leadersByModType().getOrDefault(modType, List.of());
+    }
+
+    /**
+     * @return unmodifiable rows of the leader submit buttons. Button callbacks lack match ID prefix,
+     * which must be prepended before sending.
+     */
+    public List<List<ButtonDto>> getSubmitKeyboardTemplate(ModType modType) {
+        return catalog.keyboardsByModType().getOrDefault(modType, List.of());
+    }
+
+    private List<List<ButtonDto>> getKeyboardTemplate(List<Leader> leaders) {
+        List<ButtonDto> buttons = leaders.stream()
+                .map(leader -> new ButtonDto(leader.getShortName(),
+                        CallbackSymbol.SUBMIT_LEADERS_CALLBACK_SYMBOL.getSymbol() + leader.getId()))
+                .toList();
+        return Lists.partition(buttons, KEYBOARD_ROW_SIZE).stream().map(List::copyOf).toList();
+    }
+
+    private record Catalog(Map<Long, Leader> leadersById, Map<ModType, List<Leader>> leadersByModType,
+                           Map<ModType, List<List<ButtonDto>>> keyboardsByModType) {
+    }
+}
@@ -21,6 +21,15 @@ public class LogId {
         loggingIdByThreadId.put(getThreadId(), random.nextInt(0, 1_000_000));
     }
 
+    /**
+     * Assigns already existing logging ID to the current thread, to continue logging of the work started in another thread.
+     *
+     * @param logId logging ID of the thread started the work
+     */
+    public static void init(int logId) {
+        loggingIdByThreadId.put(getThreadId(), logId);
+    }
+
     public static int get() {
         return Objects.requireNonNullElse(loggingIdByThreadId.get(getThreadId()), -1);
     }
@@ -4,14 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.trainithard.dunebot.model.AppSettingKey;
-import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.ModType;
 import ru.trainithard.dunebot.model.Player;
-import ru.trainithard.dunebot.repository.MatchRepository;
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
 import ru.trainithard.dunebot.repository.PlayerRepository;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
-import ru.trainithard.dunebot.service.messaging.MessagingService;
 import ru.trainithard.dunebot.service.messaging.dto.PollMessageDto;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxService;
 
 import java.util.List;
 
@@ -24,8 +23,7 @@ public class MatchCreationServiceImpl implements MatchCreationService {
     private static final String NEW_POLL_MESSAGE_TEMPLATE = "Игрок %s призывает всех на матч в %s";
 
     private final PlayerRepository playerRepository;
-    private final MatchRepository matchRepository;
-    private final MessagingService messagingService;
+    private final OutboxService outboxService;
     private final AppSettingsService appSettingsService;
 
     @Override
@@ -33,16 +31,9 @@ public class MatchCreationServiceImpl implements MatchCreationService {
         int logId = LogId.get();
         playerRepository.findByExternalId(creatorExternalId)
                 .ifPresent(player -> {
-                    messagingService.sendPollAsync(getNewPollMessage(player, modType))
-                            .thenAccept(telegramPollDto -> {
-                                log.debug("{}: match creation request callback received", logId);
-                                Match match = new Match(modType);
-                                match.setExternalPollId(telegramPollDto.toExternalPollId());
-                                match.setOwner(player);
-                                Match savedMatch = matchRepository.save(match);
-                                log.debug("{}: new match {} saved", logId, savedMatch.getId());
-                            });
-                    log.debug("{}: match creation request sent", logId);
+                    outboxService.enqueue(getNewPollMessage(player, modType),
+                            OutboxCallbackType.NEW_MATCH_POLL, player.getId(), modType.name());
+                    log.debug("{}: match creation request enqueued", logId);
                 });
     }
 
@@ -3,45 +3,55 @@ package ru.trainithard.dunebot.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.MatchState;
+import ru.trainithard.dunebot.model.ModType;
 import ru.trainithard.dunebot.repository.MatchRepository;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+/**
+ * Expires matches left in <code>NEW</code> state for {@link #EXPIRATION_TIMEOUT}. Each match is expired by its own
+ * <code>MATCH_EXPIRATION</code> task, {@link #expireUnusedMatches()} is a sweep for matches missed by the tasks.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MatchExpirationService {
-    private static final int EXPIRATION_TIMEOUT = 12 * 60;
+    public static final Duration EXPIRATION_TIMEOUT = Duration.ofHours(12);
+    private static final Map<Integer, List<ModType>> modTypesByPlayersCount = Arrays.stream(ModType.values())
+            .collect(Collectors.groupingBy(ModType::getPlayersCount));
     private final MatchRepository matchRepository;
+    private final ActivePollIndex activePollIndex;
     private final Clock clock;
 
+    public void expireMatch(long matchId) {
+        matchRepository.findById(matchId)
+                .filter(match -> match.getState() == MatchState.NEW)
+                .ifPresent(match -> {
+                    if (matchRepository.expireNewMatch(matchId, match.getModType().getPlayersCount()) > 0) {
+                        activePollIndex.evict(matchId);
+                        log.debug("0: match {} expired", matchId);
+                    }
+                });
+    }
+
     public void expireUnusedMatches() {
         log.debug("0: match expiration service started...");
-        List<Match> newMatches = matchRepository.findAllByStateIn(Collections.singleton(MatchState.NEW));
-        log.debug("0: found {} matches with NEW state", newMatches.size());
-        LocalDateTime now = LocalDateTime.now(clock);
-        newMatches.forEach(match -> {
-            Instant expirationInstant = match.getCreatedAt().plus(EXPIRATION_TIMEOUT, ChronoUnit.MINUTES);
-            LocalDateTime expirationTime = expirationInstant.atZone(ZoneId.systemDefault()).toLocalDateTime();
-            if (now.isAfter(expirationTime)) {
-                if (match.hasMissingPlayers()) {
-                    match.setState(MatchState.EXPIRED);
-                    log.debug("0: expiring match {}", match.getId());
-                } else {
-                    match.setState(MatchState.NOT_SUBMITTED);
-                    log.debug("0: set not_submitted for match {}", match.getId());
-                }
-            }
-        });
-        matchRepository.saveAll(newMatches);
-        log.debug("0: expired matches saved");
+        Instant createdBefore = Instant.now(clock).minus(EXPIRATION_TIMEOUT);
+        List<Long> expiredMatchIds = matchRepository.findNewMatchIdsCreatedBefore(createdBefore);
+        if (expiredMatchIds.isEmpty()) {
+            log.debug("0: no matches to expire found");
+            return;
+        }
+        modTypesByPlayersCount.forEach((playersCount, modTypes) ->
+                matchRepository.expireNewMatches(modTypes, playersCount, createdBefore));
+        expiredMatchIds.forEach(activePollIndex::evict);
+        log.debug("0: expired matches {}", expiredMatchIds);
     }
 }
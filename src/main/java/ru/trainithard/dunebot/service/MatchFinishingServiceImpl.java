@@ -10,8 +10,9 @@ import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.repository.MatchPlayerRepository;
 import ru.trainithard.dunebot.repository.MatchRepository;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
-import ru.trainithard.dunebot.service.messaging.MessagingService;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxService;
 import ru.trainithard.dunebot.service.telegram.factory.messaging.ExternalMessageFactory;
 
 import java.time.Clock;
@@ -25,7 +26,7 @@ public class MatchFinishingServiceImpl implements MatchFinishingService {
     private final MatchRepository matchRepository;
     private final MatchPlayerRepository matchPlayerRepository;
     private final TransactionTemplate transactionTemplate;
-    private final MessagingService messagingService;
+    private final OutboxService outboxService;
     private final Clock clock;
     private final ExternalMessageFactory messageFactory;
 
@@ -43,12 +44,15 @@ public class MatchFinishingServiceImpl implements MatchFinishingService {
 
         match.setState(MatchState.FINISHED);
         match.setFinishDate(LocalDate.now(clock));
-        matchRepository.save(match);
-
-        if (Objects.isNull(match.getExternalSubmitId())) {
-            ExternalMessage matchSuccessfulFinishMessage = messageFactory.getMatchSuccessfulFinishMessage(match);
-            messagingService.sendMessageAsync(new MessageDto(match.getExternalPollId(), matchSuccessfulFinishMessage));
-        }
+        transactionTemplate.executeWithoutResult(status -> {
+            matchRepository.save(match);
+            if (Objects.isNull(match.getExternalSubmitId())) {
+                ExternalMessage matchSuccessfulFinishMessage = messageFactory.getMatchSuccessfulFinishMessage(match);
+                MessageDto messageDto = new MessageDto(match.getExternalPollId(), matchSuccessfulFinishMessage);
+                messageDto.setPriority(MessagePriority.NOTIFICATION);
+                outboxService.enqueue(messageDto);
+            }
+        });
 
         log.debug("{}: finishing submitted match ended", logId);
     }
@@ -66,17 +70,18 @@ public class MatchFinishingServiceImpl implements MatchFinishingService {
         }
 
         failMatchAndPlayers(match);
+        ExternalMessage finishReasonMessage = isFailedByResubmitsLimit
+                ? messageFactory.getFailByResubmitLimitExceededMessage(matchId)
+                : messageFactory.getPartialSubmittedMatchFinishMessage(match);
+        MessageDto messageDto = new MessageDto(match.getExternalPollId(), finishReasonMessage);
+        messageDto.setPriority(MessagePriority.NOTIFICATION);
         transactionTemplate.executeWithoutResult(status -> {
             matchRepository.save(match);
             matchPlayerRepository.saveAll(match.getMatchPlayers());
+            outboxService.enqueue(messageDto);
             log.debug("{}: match {} and its player has been saved", logId, matchId);
         });
 
-        ExternalMessage finishReasonMessage = isFailedByResubmitsLimit
-                ? messageFactory.getFailByResubmitLimitExceededMessage(matchId)
-                : messageFactory.getPartialSubmittedMatchFinishMessage(match);
-        messagingService.sendMessageAsync(new MessageDto(match.getExternalPollId(), finishReasonMessage));
-
         log.debug("{}: finishing not submitted match ended", logId);
     }
 
@@ -30,4 +30,21 @@ public class MetaDataService {
         curentMetaData.setValue(dateString);
         metaDataRepository.save(curentMetaData);
     }
+
+    /**
+     * @return ID of the last processed Telegram update, or 0 if no updates were processed
+     */
+    public int findLastUpdateId() {
+        return metaDataRepository.findByType(MetaDataKey.LAST_UPDATE_ID)
+                .map(metaData -> Integer.parseInt(metaData.getValue()))
+                .orElse(0);
+    }
+
+    public void saveLastUpdateId(int updateId) {
+        String updateIdString = Integer.toString(updateId);
+        MetaData lastUpdateIdMetaData = metaDataRepository.findByType(MetaDataKey.LAST_UPDATE_ID)
+                .orElse(new MetaData(MetaDataKey.LAST_UPDATE_ID, updateIdString));
+        lastUpdateIdMetaData.setValue(updateIdString);
+        metaDataRepository.save(lastUpdateIdMetaData);
+    }
 }
@@ -0,0 +1,80 @@
+package ru.trainithard.dunebot.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
+import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
+import ru.trainithard.dunebot.model.Match;
+import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
+import ru.trainithard.dunebot.model.messaging.OutboxMessage;
+import ru.trainithard.dunebot.repository.MatchRepository;
+import ru.trainithard.dunebot.repository.PlayerRepository;
+import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.ExternalPollDto;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxCallbackHandler;
+import ru.trainithard.dunebot.service.task.DuneScheduledTaskFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Creates new match for the delivered match poll. Only the committed match is indexed and gets its expiration scheduled.
+ */
+@Slf4j
+@Component
+public class NewMatchPollCallbackHandler implements OutboxCallbackHandler {
+    private final PlayerRepository playerRepository;
+    private final MatchRepository matchRepository;
+    private final ActivePollIndex activePollIndex;
+    private final DuneBotTaskScheduler taskScheduler;
+    private final DuneScheduledTaskFactory taskFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    /**
+     * Scheduler and task factory are lazy, as tasks depend on the outbox, which depends on this handler.
+     */
+    public NewMatchPollCallbackHandler(PlayerRepository playerRepository, MatchRepository matchRepository,
+                                       ActivePollIndex activePollIndex, @Lazy DuneBotTaskScheduler taskScheduler,
+                                       @Lazy DuneScheduledTaskFactory taskFactory, TransactionTemplate transactionTemplate,
+                                       Clock clock) {
+        this.playerRepository = playerRepository;
+        this.matchRepository = matchRepository;
+        this.activePollIndex = activePollIndex;
+        this.taskScheduler = taskScheduler;
+        this.taskFactory = taskFactory;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+    }
+
+    @Override
+    public OutboxCallbackType getCallbackType() {
+        return OutboxCallbackType.NEW_MATCH_POLL;
+    }
+
+    @Override
+    public void onDelivered(OutboxMessage message, ExternalMessageDto deliveredMessage) {
+        int logId = LogId.get();
+        log.debug("{}: match creation request callback received", logId);
+        ExternalPollDto pollDto = (ExternalPollDto) deliveredMessage;
+        Match savedMatch = transactionTemplate.execute(status -> {
+            Match match = new Match(ModType.valueOf(message.getCallbackData()));
+            match.setExternalPollId(pollDto.toExternalPollId());
+            match.setOwner(playerRepository.findById(message.getCallbackEntityId()).orElseThrow());
+            return matchRepository.save(match);
+        });
+        activePollIndex.register(pollDto.getPollId(), savedMatch.getId(), savedMatch.getOwner().getExternalId());
+        log.debug("{}: new match {} saved", logId, savedMatch.getId());
+        scheduleExpiration(savedMatch.getId());
+    }
+
+    private void scheduleExpiration(long matchId) {
+        DuneBotTaskId expirationTaskId = new DuneBotTaskId(DuneTaskType.MATCH_EXPIRATION, matchId);
+        Instant expirationTime = Instant.now(clock).plus(MatchExpirationService.EXPIRATION_TIMEOUT);
+        taskScheduler.rescheduleSingleRunTask(taskFactory.createInstance(expirationTaskId), expirationTaskId, expirationTime);
+    }
+}
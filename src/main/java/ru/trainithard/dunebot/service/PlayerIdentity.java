@@ -0,0 +1,19 @@
+package ru.trainithard.dunebot.service;
+
+import ru.trainithard.dunebot.model.Player;
+
+/**
+ * Immutable snapshot of the player's registration state, which is enough for most of the commands.
+ *
+ * @param id             player's ID
+ * @param externalId     user ID in external messaging system
+ * @param externalChatId chat ID in external messaging system
+ * @param guest          <code>true</code> if player was registered by voting in poll without /profile command
+ * @param chatBlocked    <code>true</code> if player has blocked chat with the bot
+ */
+public record PlayerIdentity(long id, long externalId, long externalChatId, boolean guest, boolean chatBlocked) {
+    public static PlayerIdentity of(Player player) {
+        return new PlayerIdentity(player.getId(), player.getExternalId(), player.getExternalChatId(),
+                player.isGuest(), player.isChatBlocked());
+    }
+}
@@ -0,0 +1,12 @@
+package ru.trainithard.dunebot.service;
+
+import java.util.Optional;
+
+public interface PlayerIdentityService {
+
+    /**
+     * @return cached identity of the player, refreshed when the player is saved. Absence of the player is cached too,
+     * so repeated commands of unregistered users do not query the database.
+     */
+    Optional<PlayerIdentity> findByExternalId(long externalId);
+}
@@ -0,0 +1,21 @@
+package ru.trainithard.dunebot.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import ru.trainithard.dunebot.configuration.CacheConfiguration;
+import ru.trainithard.dunebot.repository.PlayerRepository;
+
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class PlayerIdentityServiceImpl implements PlayerIdentityService {
+    private final PlayerRepository playerRepository;
+
+    @Override
+    @Cacheable(value = CacheConfiguration.PLAYERS_CACHE, key = "#externalId")
+    public Optional<PlayerIdentity> findByExternalId(long externalId) {
+        return playerRepository.findByExternalId(externalId).map(PlayerIdentity::of);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.trainithard.dunebot.service;
+
+import ru.trainithard.dunebot.model.Player;
+
+public interface PlayerMentionService {
+
+    /**
+     * @return cached markdown mention of the player, refreshed when the player is saved
+     */
+    String getMention(Player player);
+}
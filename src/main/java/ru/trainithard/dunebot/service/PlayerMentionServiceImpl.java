@@ -0,0 +1,17 @@
+package ru.trainithard.dunebot.service;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import ru.trainithard.dunebot.configuration.CacheConfiguration;
+import ru.trainithard.dunebot.model.Player;
+import ru.trainithard.dunebot.util.MarkdownEscaper;
+
+@Service
+public class PlayerMentionServiceImpl implements PlayerMentionService {
+
+    @Override
+    @Cacheable(value = CacheConfiguration.MENTIONS_CACHE, key = "#player.externalId")
+    public String getMention(Player player) {
+        return MarkdownEscaper.getEscapedMention(player.getMentionTag(), player.getExternalId());
+    }
+}
@@ -0,0 +1,55 @@
+package ru.trainithard.dunebot.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskLease;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
+import ru.trainithard.dunebot.model.scheduler.DuneBotTask;
+import ru.trainithard.dunebot.model.scheduler.TaskStatus;
+import ru.trainithard.dunebot.repository.DunebotTaskRepository;
+import ru.trainithard.dunebot.service.task.DuneScheduledTaskFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Recovers tasks of dead application instances: tasks whose lease expired are returned to scheduled state (or cancelled,
+ * if they are scheduled again already), and overdue scheduled tasks, which have no timer in this instance, are run immediately.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskRecoveryService {
+    /**
+     * Delay after the task start time, given to the instance owning the task timer before the task is considered overdue.
+     */
+    private static final Duration OVERDUE_DELAY = Duration.ofMinutes(1);
+    private final DunebotTaskRepository taskRepository;
+    private final DuneBotTaskScheduler taskScheduler;
+    private final DuneScheduledTaskFactory taskFactory;
+    private final DuneBotTaskLease taskLease;
+
+    public void recoverTasks() {
+        Instant now = taskLease.now();
+        int cancelledTasksCount = taskRepository.cancelRescheduledExpiredLeases(now);
+        if (cancelledTasksCount > 0) {
+            log.warn("0: {} tasks with expired lease cancelled as scheduled again", cancelledTasksCount);
+        }
+        int releasedTasksCount = taskRepository.releaseExpiredLeases(now);
+        if (releasedTasksCount > 0) {
+            log.warn("0: {} tasks with expired lease returned to schedule", releasedTasksCount);
+        }
+
+        for (DuneBotTask task : taskRepository.findAllByStatusAndStartTimeBefore(TaskStatus.SCHEDULED, now.minus(OVERDUE_DELAY))) {
+            DuneBotTaskId taskId = task.getDuneBotTaskId();
+            ScheduledFuture<?> localTask = taskScheduler.get(taskId);
+            if (localTask == null || localTask.isDone()) {
+                taskScheduler.runOverdueTask(taskFactory.createInstance(taskId), taskId);
+                log.info("0: overdue task {} recovered", taskId);
+            }
+        }
+    }
+}
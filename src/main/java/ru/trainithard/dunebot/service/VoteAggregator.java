@@ -0,0 +1,134 @@
+package ru.trainithard.dunebot.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
+import ru.trainithard.dunebot.service.telegram.PartitionedUpdateDispatcher;
+import ru.trainithard.dunebot.service.telegram.UpdateDeduplicator;
+import ru.trainithard.dunebot.service.telegram.UpdatePartitionKeyResolver;
+import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Collects votes of the same poll received within a short window, so a burst of votes is processed as a single batch.
+ * When the window elapses, the batch is processed in the poll's update partition worker, see
+ * {@link PartitionedUpdateDispatcher}, so batches are ordered with other updates of the same match and never run
+ * concurrently with them. Updates of collected votes stay in progress until their batch is processed, and pending
+ * batches are processed on shutdown. Zero window disables collecting, and each vote is processed immediately
+ * in the calling thread as a single vote batch.
+ */
+@Slf4j
+@Component
+public class VoteAggregator {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final long batchWindowMillis;
+    private final ScheduledThreadPoolExecutor windowExecutor;
+    private final PartitionedUpdateDispatcher updateDispatcher;
+    private final UpdatePartitionKeyResolver partitionKeyResolver;
+    private final UpdateDeduplicator updateDeduplicator;
+    private final Map<String, PendingBatch> pendingBatchesByPollId = new HashMap<>();
+
+    public VoteAggregator(@Value("${bot.votes.batch-window-millis:0}") long batchWindowMillis,
+                          ThreadFactoryProvider threadFactoryProvider, PartitionedUpdateDispatcher updateDispatcher,
+                          UpdatePartitionKeyResolver partitionKeyResolver, UpdateDeduplicator updateDeduplicator) {
+        this.batchWindowMillis = batchWindowMillis;
+        this.updateDispatcher = updateDispatcher;
+        this.partitionKeyResolver = partitionKeyResolver;
+        this.updateDeduplicator = updateDeduplicator;
+        this.windowExecutor = batchWindowMillis > 0
+                ? new ScheduledThreadPoolExecutor(1, threadFactoryProvider.getThreadFactory("dunebot-votes-"))
+                : null;
+    }
+
+    /**
+     * Adds vote to its poll's pending batch. The batch is passed to the processor when the window since the first
+     * batch's vote elapses.
+     *
+     * @param vote           poll vote command
+     * @param batchProcessor processor of poll votes batch, receiving votes in order of their submission
+     */
+    public void submit(CommandMessage vote, Consumer<List<CommandMessage>> batchProcessor) {
+        if (windowExecutor == null || windowExecutor.isShutdown()) {
+            batchProcessor.accept(List.of(vote));
+            return;
+        }
+        String pollId = vote.getPollVote().pollId();
+        synchronized (pendingBatchesByPollId) {
+            PendingBatch pendingBatch = pendingBatchesByPollId.get(pollId);
+            if (pendingBatch == null) {
+                pendingBatch = new PendingBatch(new ArrayList<>(), batchProcessor);
+                pendingBatchesByPollId.put(pollId, pendingBatch);
+                windowExecutor.schedule(() -> dispatchBatch(pollId), batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+            pendingBatch.votes().add(vote);
+            updateDeduplicator.retain(vote.getUpdateId());
+        }
+    }
+
+    private Future<?> dispatchBatch(String pollId) {
+        return updateDispatcher.dispatch(partitionKeyResolver.getPollPartitionKey(pollId), () -> processBatch(pollId));
+    }
+
+    private void processBatch(String pollId) {
+        PendingBatch batch;
+        synchronized (pendingBatchesByPollId) {
+            batch = pendingBatchesByPollId.remove(pollId);
+        }
+        if (batch == null) {
+            return;
+        }
+        LogId.init();
+        try {
+            log.debug("{}: processing batch of {} votes of poll {}", LogId.get(), batch.votes().size(), pollId);
+            batch.processor().accept(batch.votes());
+        } catch (Exception exception) {
+            log.error(LogId.get() + ": votes batch processing failed", exception);
+        } finally {
+            batch.votes().forEach(vote -> updateDeduplicator.markProcessed(vote.getUpdateId()));
+            LogId.clear();
+        }
+    }
+
+    /**
+     * Processes all pending batches without waiting for their windows, and waits for their completion.
+     */
+    @PreDestroy
+    void shutdown() {
+        if (windowExecutor != null) {
+            windowExecutor.shutdownNow();
+            List<String> pendingPollIds;
+            synchronized (pendingBatchesByPollId) {
+                pendingPollIds = new ArrayList<>(pendingBatchesByPollId.keySet());
+            }
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MILLIS);
+            pendingPollIds.forEach(pollId -> awaitBatch(pollId, deadlineNanos));
+        }
+    }
+
+    private void awaitBatch(String pollId, long deadlineNanos) {
+        try {
+            dispatchBatch(pollId).get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while processing pending votes batch of poll {}", pollId);
+        } catch (ExecutionException | TimeoutException | RuntimeException exception) {
+            log.error("Pending votes batch of poll " + pollId + " is not processed on shutdown", exception);
+        }
+    }
+
+    private record PendingBatch(List<CommandMessage> votes, Consumer<List<CommandMessage>> processor) {
+    }
+}
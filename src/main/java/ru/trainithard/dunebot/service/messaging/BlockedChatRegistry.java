@@ -0,0 +1,46 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.repository.PlayerRepository;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Negative cache of private chats which blocked the bot, backed by <code>Player.chatBlocked</code> flag.
+ * Messages to these chats are pointless until the player unblocks the bot and refreshes the profile.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlockedChatRegistry {
+    private final PlayerRepository playerRepository;
+    private final Set<Long> blockedChatIds = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void restore() {
+        blockedChatIds.addAll(playerRepository.findBlockedChatIds());
+        log.info("Restored blocked chats registry. Blocked chats: {}", blockedChatIds.size());
+    }
+
+    public boolean isBlocked(long chatId) {
+        return blockedChatIds.contains(chatId);
+    }
+
+    public void block(long chatId) {
+        if (blockedChatIds.add(chatId)) {
+            int playersCount = playerRepository.markChatBlocked(chatId);
+            log.debug("Chat {} is blocked. Players marked: {}", chatId, playersCount);
+        }
+    }
+
+    /**
+     * Removes chat from the registry. The caller is responsible for <code>Player.chatBlocked</code> flag reset.
+     */
+    public void unblock(long chatId) {
+        blockedChatIds.remove(chatId);
+    }
+}
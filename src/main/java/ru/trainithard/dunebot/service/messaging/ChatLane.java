@@ -0,0 +1,140 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+
+/**
+ * Queue of outbound requests of a single chat, limited by the chat's rate limit. The lane is busy from execution
+ * of its request until the request is completed, and only a retry of the busy request may be executed meanwhile.
+ * The lane may be paused when Telegram rate limits the chat.
+ * The lane without token bucket holds requests not related to a chat: they are neither rate limited nor ordered.
+ * Not thread safe.
+ */
+class ChatLane {
+    private static final int PRIVATE_CHAT_BURST = 3;
+
+    private final Deque<QueuedMessage> messages = new ArrayDeque<>();
+    @Nullable
+    private final TokenBucket bucket;
+    private boolean isBusy;
+    private boolean isPaused;
+    private long pausedUntilNanos;
+
+    ChatLane(@Nullable TokenBucket bucket) {
+        this.bucket = bucket;
+    }
+
+    /**
+     * @return lane limited per minute for group chats, per second for private chats, or not limited lane for requests
+     * not related to a chat
+     */
+    static ChatLane create(@Nullable String chatId, int groupChatRatePerMinute, int privateChatRatePerSecond, long now) {
+        if (chatId == null) {
+            return new ChatLane(null);
+        }
+        return new ChatLane(chatId.startsWith("-")
+                ? new TokenBucket(groupChatRatePerMinute, Duration.ofMinutes(1), now)
+                : new TokenBucket(PRIVATE_CHAT_BURST, Duration.ofSeconds(PRIVATE_CHAT_BURST).dividedBy(privateChatRatePerSecond), now));
+    }
+
+    /**
+     * @return lane having dispatchable message and available token, which message goes first, or <code>null</code>
+     * if there are no such lanes
+     */
+    @Nullable
+    static ChatLane findReady(Collection<ChatLane> lanes, long now) {
+        ChatLane readyLane = null;
+        for (ChatLane lane : lanes) {
+            if (lane.hasDispatchableMessage() && lane.nanosUntilToken(now) == 0 && (readyLane == null || lane.precedes(readyLane))) {
+                readyLane = lane;
+            }
+        }
+        return readyLane;
+    }
+
+    /**
+     * @return time until the nearest token of lanes having dispatchable messages, or {@link Long#MAX_VALUE} if there
+     * are no such lanes: all pending messages wait for completion of their lanes' requests
+     */
+    static long nanosUntilNearestToken(Collection<ChatLane> lanes, long now) {
+        long nearestTokenNanos = Long.MAX_VALUE;
+        for (ChatLane lane : lanes) {
+            if (lane.hasDispatchableMessage()) {
+                nearestTokenNanos = Math.min(nearestTokenNanos, lane.nanosUntilToken(now));
+            }
+        }
+        return nearestTokenNanos;
+    }
+
+    void addLast(QueuedMessage message) {
+        messages.addLast(message);
+    }
+
+    /**
+     * Queues the retry of the busy request ahead of other requests.
+     */
+    void addFirst(QueuedMessage message) {
+        messages.addFirst(message);
+    }
+
+    QueuedMessage pollFirst() {
+        return messages.pollFirst();
+    }
+
+    boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    boolean isIdle(long now) {
+        return messages.isEmpty() && !isBusy && (!isPaused || now >= pausedUntilNanos) && (bucket == null || bucket.isFull(now));
+    }
+
+    boolean isBusy() {
+        return isBusy;
+    }
+
+    boolean hasDispatchableMessage() {
+        return !messages.isEmpty() && (!isBusy || messages.getFirst().isRetry());
+    }
+
+    long nanosUntilToken(long now) {
+        long bucketNanos = bucket == null ? 0 : bucket.nanosUntilToken(now);
+        return isPaused ? Math.max(bucketNanos, pausedUntilNanos - now) : bucketNanos;
+    }
+
+    /**
+     * Holds the lane's requests until the given time, prolonging the current pause if needed.
+     */
+    void pauseUntil(long untilNanos) {
+        pausedUntilNanos = isPaused ? Math.max(pausedUntilNanos, untilNanos) : untilNanos;
+        isPaused = true;
+    }
+
+    /**
+     * Takes a token for the request execution and makes the lane busy.
+     */
+    void consume(long now) {
+        if (bucket != null) {
+            bucket.consume(now);
+            isBusy = true;
+        }
+    }
+
+    void release() {
+        isBusy = false;
+    }
+
+    boolean precedes(ChatLane other) {
+        QueuedMessage head = messages.getFirst();
+        QueuedMessage otherHead = other.messages.getFirst();
+        int priorityComparison = head.priority().compareTo(otherHead.priority());
+        return priorityComparison < 0 || priorityComparison == 0 && head.sequence() < otherHead.sequence();
+    }
+
+    record QueuedMessage(MessagePriority priority, long sequence, long queuedNanos, boolean isRetry, Runnable sendAction) {
+    }
+}
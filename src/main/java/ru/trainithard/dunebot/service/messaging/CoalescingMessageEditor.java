@@ -0,0 +1,78 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Edits frequently changing messages, like match status. The edit is delayed for coalescing period, and all edits
+ * of the same message requested within the period are replaced by the single edit with the latest content.
+ */
+@Slf4j
+@Component
+public class CoalescingMessageEditor {
+    private final MessagingService messagingService;
+    private final ScheduledExecutorService executor;
+    private final long coalesceMillis;
+    private final Map<EditedMessageKey, EditMessageDto> pendingEdits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CoalescingMessageEditor(MessagingService messagingService, ThreadFactoryProvider threadFactoryProvider,
+                                   @Value("${bot.outbound.edit-coalesce-millis:1500}") long coalesceMillis) {
+        this(messagingService, new ScheduledThreadPoolExecutor(1, threadFactoryProvider.getThreadFactory("dunebot-edit-")),
+                coalesceMillis);
+    }
+
+    CoalescingMessageEditor(MessagingService messagingService, ScheduledExecutorService executor, long coalesceMillis) {
+        this.messagingService = messagingService;
+        this.executor = executor;
+        this.coalesceMillis = coalesceMillis;
+    }
+
+    /**
+     * Schedules the message edit, replacing the content of not yet executed edit of the same message, if any.
+     */
+    public void edit(EditMessageDto editMessage) {
+        EditedMessageKey key = new EditedMessageKey(editMessage.getChatId(), editMessage.getMessageId());
+        if (pendingEdits.put(key, editMessage) == null) {
+            executor.schedule(() -> flush(key), coalesceMillis, TimeUnit.MILLISECONDS);
+        } else {
+            log.debug("0: edit of message {} in chat {} coalesced", key.messageId(), key.chatId());
+        }
+    }
+
+    private void flush(EditedMessageKey key) {
+        EditMessageDto editMessage = pendingEdits.remove(key);
+        if (editMessage == null) {
+            return;
+        }
+        try {
+            messagingService.editMessageAsync(editMessage).whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    log.warn("0: edit of message {} in chat {} failed: {}",
+                            key.messageId(), key.chatId(), TelegramApiFailure.of(throwable));
+                }
+            });
+        } catch (Exception exception) {
+            log.error("0: edit of message {} in chat {} failed", key.messageId(), key.chatId(), exception);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private record EditedMessageKey(String chatId, int messageId) {
+    }
+}
@@ -0,0 +1,22 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import ru.trainithard.dunebot.service.messaging.dto.DirectMessageResult;
+import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fan-out of private messages to players.
+ */
+public interface DirectMessagingService {
+    /**
+     * Sends private messages concurrently within outbound rate limits. Messages to chats known to block the bot
+     * are skipped; chats detected as blocking the bot are registered in {@link BlockedChatRegistry}.
+     *
+     * @param messages private messages, each with its recipient chat ID
+     * @return future completed when all messages are processed, holding outcomes in the order of messages. Never
+     * completes exceptionally
+     */
+    CompletableFuture<List<DirectMessageResult>> sendAsync(List<MessageDto> messages);
+}
@@ -0,0 +1,61 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.trainithard.dunebot.service.LogId;
+import ru.trainithard.dunebot.service.messaging.dto.DirectMessageResult;
+import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DirectMessagingServiceImpl implements DirectMessagingService {
+    private static final int FORBIDDEN = 403;
+
+    private final MessagingService messagingService;
+    private final BlockedChatRegistry blockedChatRegistry;
+
+    @Override
+    public CompletableFuture<List<DirectMessageResult>> sendAsync(List<MessageDto> messages) {
+        int logId = LogId.get();
+        List<CompletableFuture<DirectMessageResult>> resultFutures = new ArrayList<>(messages.size());
+        for (MessageDto message : messages) {
+            long chatId = Long.parseLong(message.getChatId());
+            if (blockedChatRegistry.isBlocked(chatId)) {
+                log.debug("{}: message to blocked chat {} skipped", logId, chatId);
+                resultFutures.add(CompletableFuture.completedFuture(
+                        new DirectMessageResult(message, DirectMessageResult.Status.SKIPPED_BLOCKED, null)));
+            } else {
+                resultFutures.add(send(message, chatId, logId));
+            }
+        }
+        return CompletableFuture.allOf(resultFutures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> resultFutures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private CompletableFuture<DirectMessageResult> send(MessageDto message, long chatId, int logId) {
+        try {
+            return messagingService.sendMessageAsync(message)
+                    .thenApply(delivered -> new DirectMessageResult(message, DirectMessageResult.Status.DELIVERED, delivered))
+                    .exceptionally(throwable -> getFailureResult(message, chatId, throwable, logId));
+        } catch (Exception exception) {
+            return CompletableFuture.completedFuture(getFailureResult(message, chatId, exception, logId));
+        }
+    }
+
+    private DirectMessageResult getFailureResult(MessageDto message, long chatId, Throwable throwable, int logId) {
+        Integer errorCode = TelegramApiFailure.of(throwable).errorCode();
+        if (errorCode != null && errorCode == FORBIDDEN) {
+            blockedChatRegistry.block(chatId);
+            log.debug("{}: chat {} blocked the bot", logId, chatId);
+            return new DirectMessageResult(message, DirectMessageResult.Status.BLOCKED, null);
+        }
+        log.debug("{}: message to chat {} failed", logId, chatId, throwable);
+        return new DirectMessageResult(message, DirectMessageResult.Status.FAILED, null);
+    }
+}
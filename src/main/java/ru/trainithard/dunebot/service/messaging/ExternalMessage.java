@@ -22,17 +22,21 @@ public class ExternalMessage {
     }
 
     public ExternalMessage append(Object text) {
-        stringBuilder.append(MarkdownEscaper.getEscaped(text.toString()));
+        MarkdownEscaper.appendEscaped(stringBuilder, text.toString());
         return this;
     }
 
     public ExternalMessage appendBold(Object text) {
-        stringBuilder.append("*").append(MarkdownEscaper.getEscaped(text.toString())).append("*");
+        stringBuilder.append('*');
+        MarkdownEscaper.appendEscaped(stringBuilder, text.toString());
+        stringBuilder.append('*');
         return this;
     }
 
     public ExternalMessage appendInline(Object text) {
-        stringBuilder.append("`").append(MarkdownEscaper.getEscaped(text.toString())).append("`");
+        stringBuilder.append('`');
+        MarkdownEscaper.appendEscaped(stringBuilder, text.toString());
+        stringBuilder.append('`');
         return this;
     }
 
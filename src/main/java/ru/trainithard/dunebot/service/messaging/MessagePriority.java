@@ -0,0 +1,20 @@
+package ru.trainithard.dunebot.service.messaging;
+
+/**
+ * Priority class of outbound message. When Telegram rate limits are exhausted, messages of higher priority
+ * class (lower ordinal) are sent first. Order of messages to the same chat is preserved regardless of priority.
+ */
+public enum MessagePriority {
+    /**
+     * Direct replies to user commands.
+     */
+    INTERACTIVE,
+    /**
+     * Match lifecycle notifications, e.g. match start, submit results and timeouts.
+     */
+    NOTIFICATION,
+    /**
+     * Scheduled and service messages to topics, e.g. rating reports and bot restart announcements.
+     */
+    BROADCAST
+}
@@ -12,6 +12,11 @@ public interface MessagingService {
 
     CompletableFuture<ExternalMessageDto> sendFileAsync(FileMessageDto fileMessage);
 
+    /**
+     * Replaces text and keyboard of the sent message.
+     */
+    CompletableFuture<Void> editMessageAsync(EditMessageDto editMessage);
+
     void deleteMessageAsync(ExternalMessageId externalMessageId);
 
     CompletableFuture<TelegramFileDetailsDto> getFileDetails(String fileId);
@@ -0,0 +1,233 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
+import ru.trainithard.dunebot.service.messaging.ChatLane.QueuedMessage;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Schedules outbound Telegram API requests according to Telegram rate limits: global limit of the bot and limits
+ * of each chat (per minute for group chats, per second for private chats). A request is executed immediately in
+ * the calling thread when limits allow it and no requests are waiting. Otherwise the request is queued in its chat
+ * lane and executed by the dispatcher thread when tokens are available. Among chats having available tokens, the
+ * request of higher {@link MessagePriority} goes first, while requests of the same chat are always executed in order
+ * of submission: a chat lane is busy from execution of its request until the request is completed with
+ * {@link #complete(String)}, and a retry of the busy lane's request is queued ahead of the lane's other requests, see
+ * {@link #resubmit(String, MessagePriority, Runnable)}. Requests of a chat are held while the chat is paused after
+ * Telegram's rate limit error, and all requests are held while {@link TelegramCircuitBreaker} is open.
+ */
+@Slf4j
+@Component
+public class OutboundMessageScheduler {
+    private static final int IDLE_LANES_CLEANUP_THRESHOLD = 100;
+    private static final long NO_DISPATCH_SCHEDULED = Long.MAX_VALUE;
+
+    private final int groupChatRatePerMinute;
+    private final int privateChatRatePerSecond;
+    private final ScheduledExecutorService dispatcher;
+    private final LongSupplier nanoClock;
+    private final TelegramCircuitBreaker circuitBreaker;
+    private final TokenBucket globalBucket;
+    private final Map<String, ChatLane> chatLanes = new HashMap<>();
+    private final Map<MessagePriority, PriorityStatistics> statistics = new EnumMap<>(MessagePriority.class);
+    private int pendingCount;
+    private long sequence;
+    private long dispatchScheduledAtNanos = NO_DISPATCH_SCHEDULED;
+
+    @Autowired
+    public OutboundMessageScheduler(@Value("${bot.outbound.global-rate-per-second:30}") int globalRatePerSecond,
+                                    @Value("${bot.outbound.group-chat-rate-per-minute:20}") int groupChatRatePerMinute,
+                                    @Value("${bot.outbound.private-chat-rate-per-second:1}") int privateChatRatePerSecond,
+                                    ThreadFactoryProvider threadFactoryProvider, TelegramCircuitBreaker circuitBreaker) {
+        this(globalRatePerSecond, groupChatRatePerMinute, privateChatRatePerSecond,
+                new ScheduledThreadPoolExecutor(1, threadFactoryProvider.getThreadFactory("dunebot-outbound-")),
+                System::nanoTime, circuitBreaker);
+    }
+
+    OutboundMessageScheduler(int globalRatePerSecond, int groupChatRatePerMinute, int privateChatRatePerSecond,
+                             ScheduledExecutorService dispatcher, LongSupplier nanoClock, TelegramCircuitBreaker circuitBreaker) {
+        this.groupChatRatePerMinute = groupChatRatePerMinute;
+        this.privateChatRatePerSecond = privateChatRatePerSecond;
+        this.dispatcher = dispatcher;
+        this.nanoClock = nanoClock;
+        this.circuitBreaker = circuitBreaker;
+        this.globalBucket = new TokenBucket(globalRatePerSecond, Duration.ofSeconds(1), nanoClock.getAsLong());
+        for (MessagePriority priority : MessagePriority.values()) {
+            statistics.put(priority, new PriorityStatistics());
+        }
+    }
+
+    /**
+     * Executes API request when Telegram rate limits allow it.
+     *
+     * @param chatId     ID of the chat the request is addressed to, or <code>null</code> for requests not related to a chat
+     * @param priority   priority class of the request
+     * @param sendAction action performing the API request. Must not block
+     */
+    public void submit(@Nullable String chatId, MessagePriority priority, Runnable sendAction) {
+        boolean isSendNow;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            if (chatLanes.size() > IDLE_LANES_CLEANUP_THRESHOLD) {
+                removeIdleLanes(now);
+            }
+            ChatLane lane = getLane(chatId, now);
+            isSendNow = pendingCount == 0 && !lane.isBusy() && lane.nanosUntilToken(now) == 0 && globalBucket.hasToken(now)
+                        && circuitBreaker.tryAcquirePermission();
+            if (isSendNow) {
+                lane.consume(now);
+                globalBucket.consume(now);
+                statistics.get(priority).registerSent();
+            } else {
+                lane.addLast(new QueuedMessage(priority, sequence++, now, false, sendAction));
+                pendingCount++;
+                statistics.get(priority).registerQueued();
+            }
+        }
+        if (isSendNow) {
+            send(sendAction);
+        } else {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    /**
+     * Queues retry of the chat's busy request ahead of other requests of the chat. Rate limits still apply to the retry.
+     *
+     * @param chatId     ID of the chat of the retried request
+     * @param priority   priority class of the request
+     * @param sendAction action performing the API request. Must not block
+     */
+    public void resubmit(@Nullable String chatId, MessagePriority priority, Runnable sendAction) {
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            getLane(chatId, now).addFirst(new QueuedMessage(priority, sequence++, now, true, sendAction));
+            pendingCount++;
+            statistics.get(priority).registerQueued();
+        }
+        dispatcher.execute(this::dispatch);
+    }
+
+    /**
+     * Releases the chat lane when its request is completed: succeeded or failed without further retries.
+     *
+     * @param chatId ID of the chat of the completed request
+     */
+    public void complete(@Nullable String chatId) {
+        synchronized (this) {
+            ChatLane lane = chatLanes.get(chatId);
+            if (lane != null) {
+                lane.release();
+            }
+        }
+        dispatcher.execute(this::dispatch);
+    }
+
+    /**
+     * Holds requests of the chat for the time requested by Telegram in rate limit error.
+     *
+     * @param chatId      ID of the rate limited chat
+     * @param delayMillis time to hold the chat's requests
+     */
+    public synchronized void pause(@Nullable String chatId, long delayMillis) {
+        long now = nanoClock.getAsLong();
+        getLane(chatId, now).pauseUntil(now + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+    }
+
+    /**
+     * @return queue depth, sent requests count and waiting time statistics by priority class
+     */
+    public synchronized Map<MessagePriority, PriorityMetrics> getMetrics() {
+        Map<MessagePriority, PriorityMetrics> metrics = new EnumMap<>(MessagePriority.class);
+        statistics.forEach((priority, priorityStatistics) -> metrics.put(priority, priorityStatistics.toMetrics()));
+        return metrics;
+    }
+
+    void dispatch() {
+        QueuedMessage message = pollReadyMessage();
+        while (message != null) {
+            send(message.sendAction());
+            message = pollReadyMessage();
+        }
+    }
+
+    private synchronized QueuedMessage pollReadyMessage() {
+        long now = nanoClock.getAsLong();
+        if (now >= dispatchScheduledAtNanos) {
+            dispatchScheduledAtNanos = NO_DISPATCH_SCHEDULED;
+        }
+        if (pendingCount == 0) {
+            return null;
+        }
+        ChatLane readyLane = ChatLane.findReady(chatLanes.values(), now);
+        long globalTokenNanos = globalBucket.nanosUntilToken(now);
+        if (readyLane == null || globalTokenNanos > 0) {
+            long laneTokenNanos = ChatLane.nanosUntilNearestToken(chatLanes.values(), now);
+            if (laneTokenNanos != Long.MAX_VALUE) {
+                scheduleDispatch(now, Math.max(laneTokenNanos, globalTokenNanos));
+            }
+            return null;
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            scheduleDispatch(now, circuitBreaker.nanosUntilPermission());
+            return null;
+        }
+        globalBucket.consume(now);
+        readyLane.consume(now);
+        QueuedMessage message = readyLane.pollFirst();
+        pendingCount--;
+        statistics.get(message.priority()).registerDequeuedSent(now - message.queuedNanos());
+        return message;
+    }
+
+    private void scheduleDispatch(long now, long delayNanos) {
+        long dispatchAtNanos = now + delayNanos;
+        if (dispatchAtNanos < dispatchScheduledAtNanos) {
+            dispatchScheduledAtNanos = dispatchAtNanos;
+            dispatcher.schedule(this::dispatch, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private ChatLane getLane(@Nullable String chatId, long now) {
+        return chatLanes.computeIfAbsent(chatId, key -> ChatLane.create(key, groupChatRatePerMinute, privateChatRatePerSecond, now));
+    }
+
+    private void removeIdleLanes(long now) {
+        chatLanes.values().removeIf(lane -> lane.isIdle(now));
+    }
+
+    private void send(Runnable sendAction) {
+        try {
+            sendAction.run();
+        } catch (Exception exception) {
+            log.error("Outbound request execution failed", exception);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    /**
+     * @param queueDepth        count of currently queued requests
+     * @param sentCount         count of executed requests since startup
+     * @param averageWaitMillis average waiting time of executed requests
+     * @param maxWaitMillis     maximal waiting time of executed requests
+     */
+    public record PriorityMetrics(int queueDepth, long sentCount, long averageWaitMillis, long maxWaitMillis) {
+    }
+}
@@ -0,0 +1,34 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound requests counters of a single {@link MessagePriority} class. Not thread safe.
+ */
+class PriorityStatistics {
+    private int queueDepth;
+    private long sentCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    void registerQueued() {
+        queueDepth++;
+    }
+
+    void registerSent() {
+        sentCount++;
+    }
+
+    void registerDequeuedSent(long waitNanos) {
+        queueDepth--;
+        sentCount++;
+        totalWaitNanos += waitNanos;
+        maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+    }
+
+    OutboundMessageScheduler.PriorityMetrics toMetrics() {
+        long averageWaitNanos = sentCount == 0 ? 0 : totalWaitNanos / sentCount;
+        return new OutboundMessageScheduler.PriorityMetrics(queueDepth, sentCount,
+                TimeUnit.NANOSECONDS.toMillis(averageWaitNanos), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.springframework.lang.Nullable;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classified failure of Telegram API request.
+ *
+ * @param type             failure class, defining retry and circuit breaker behaviour
+ * @param errorCode        HTTP error code returned by Telegram, or <code>null</code> for failures without response
+ * @param retryAfterMillis time to wait before the next request, requested by Telegram along with 429 error code
+ */
+public record TelegramApiFailure(Type type, @Nullable Integer errorCode, long retryAfterMillis) {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int BAD_REQUEST = 400;
+    private static final int INTERNAL_SERVER_ERROR = 500;
+
+    public static TelegramApiFailure of(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TelegramApiRequestException requestException && requestException.getErrorCode() != null) {
+            int errorCode = requestException.getErrorCode();
+            if (errorCode == TOO_MANY_REQUESTS) {
+                ResponseParameters parameters = requestException.getParameters();
+                Integer retryAfterSeconds = parameters == null ? null : parameters.getRetryAfter();
+                long retryAfterMillis = retryAfterSeconds == null ? 0 : TimeUnit.SECONDS.toMillis(retryAfterSeconds);
+                return new TelegramApiFailure(Type.RATE_LIMITED, errorCode, retryAfterMillis);
+            }
+            Type type = errorCode >= BAD_REQUEST && errorCode < INTERNAL_SERVER_ERROR ? Type.CLIENT_ERROR : Type.TRANSIENT;
+            return new TelegramApiFailure(type, errorCode, 0);
+        }
+        return new TelegramApiFailure(Type.TRANSIENT, null, 0);
+    }
+
+    public enum Type {
+        /**
+         * 429 error: the bot exceeded Telegram rate limits and must wait before sending anything
+         */
+        RATE_LIMITED,
+        /**
+         * 4xx errors, e.g. malformed request or the bot is blocked by user. Repeating the request won't help
+         */
+        CLIENT_ERROR,
+        /**
+         * 5xx errors and network failures. The request may succeed later
+         */
+        TRANSIENT
+    }
+}
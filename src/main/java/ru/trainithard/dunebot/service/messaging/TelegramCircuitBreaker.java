@@ -0,0 +1,131 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Pauses all outbound Telegram API requests when the API is failing. The circuit opens after a number of consecutive
+ * transient failures, or on rate limit errors for the time requested by Telegram. Rate limit error of a chat's request
+ * only limits the chat, see {@link OutboundMessageScheduler#pause(String, long)}, thus the circuit opens when a number
+ * of different chats are rate limited within a minute, or immediately on rate limit error of a request not related
+ * to a chat. When the open period elapses, a single trial request is permitted: its success closes the circuit,
+ * its failure opens it again. Client errors mean that the API is reachable, thus they are considered successes.
+ */
+@Slf4j
+@Component
+public class TelegramCircuitBreaker {
+    private static final long TRIAL_RECHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long RATE_LIMIT_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int rateLimitedChatsThreshold;
+    private final LongSupplier nanoClock;
+    private final Map<String, Long> lastRateLimitNanosByChatId = new HashMap<>();
+    private int consecutiveFailures;
+    private boolean isOpen;
+    private boolean isTrialInFlight;
+    private long openUntilNanos;
+
+    @Autowired
+    public TelegramCircuitBreaker(@Value("${bot.outbound.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                  @Value("${bot.outbound.circuit-breaker.open-millis:30000}") long openMillis,
+                                  @Value("${bot.outbound.circuit-breaker.rate-limited-chats-threshold:3}") int rateLimitedChatsThreshold) {
+        this(failureThreshold, openMillis, rateLimitedChatsThreshold, System::nanoTime);
+    }
+
+    TelegramCircuitBreaker(int failureThreshold, long openMillis, int rateLimitedChatsThreshold, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.rateLimitedChatsThreshold = rateLimitedChatsThreshold;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Checks whether a request may be sent now. In half-open state the call permits the trial request.
+     *
+     * @return <code>true</code> if the request may be sent
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (!isOpen) {
+            return true;
+        }
+        if (isTrialInFlight || nanoClock.getAsLong() < openUntilNanos) {
+            return false;
+        }
+        isTrialInFlight = true;
+        log.info("Telegram API circuit is half-open. Sending trial request...");
+        return true;
+    }
+
+    /**
+     * @return time until the next permission check makes sense, or zero if requests are permitted
+     */
+    public synchronized long nanosUntilPermission() {
+        if (!isOpen) {
+            return 0;
+        }
+        return isTrialInFlight ? TRIAL_RECHECK_NANOS : Math.max(0, openUntilNanos - nanoClock.getAsLong());
+    }
+
+    public synchronized void recordSuccess() {
+        if (isOpen) {
+            log.info("Telegram API circuit is closed");
+        }
+        isOpen = false;
+        isTrialInFlight = false;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * @param chatId  ID of the chat the failed request is addressed to, or <code>null</code> for requests not related
+     *                to a chat
+     * @param failure failure of the request
+     */
+    public synchronized void recordFailure(@Nullable String chatId, TelegramApiFailure failure) {
+        if (failure.type() == TelegramApiFailure.Type.CLIENT_ERROR) {
+            recordSuccess();
+        } else if (failure.type() == TelegramApiFailure.Type.RATE_LIMITED) {
+            recordRateLimit(chatId, TimeUnit.MILLISECONDS.toNanos(failure.retryAfterMillis()));
+        } else {
+            consecutiveFailures++;
+            if (isTrialInFlight || consecutiveFailures >= failureThreshold) {
+                open(openNanos);
+            }
+        }
+    }
+
+    private void recordRateLimit(@Nullable String chatId, long retryAfterNanos) {
+        long now = nanoClock.getAsLong();
+        if (chatId != null) {
+            lastRateLimitNanosByChatId.values().removeIf(rateLimitNanos -> now - rateLimitNanos >= RATE_LIMIT_WINDOW_NANOS);
+            lastRateLimitNanosByChatId.put(chatId, now);
+        }
+        if (chatId == null || isTrialInFlight || lastRateLimitNanosByChatId.size() >= rateLimitedChatsThreshold) {
+            open(retryAfterNanos);
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return isOpen;
+    }
+
+    private void open(long durationNanos) {
+        long openUntil = nanoClock.getAsLong() + durationNanos;
+        if (!isOpen || openUntil > openUntilNanos) {
+            openUntilNanos = openUntil;
+        }
+        isOpen = true;
+        isTrialInFlight = false;
+        log.warn("Telegram API circuit is open for {} ms. Consecutive failures: {}",
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), consecutiveFailures);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.model.messaging.UploadedFile;
+import ru.trainithard.dunebot.repository.UploadedFileRepository;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Telegram file IDs of uploaded files by content hash. Files with known ID are sent by the ID, without uploading
+ * the content again. The cache is persisted and restored from the database on startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TelegramFileIdCache {
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final UploadedFileRepository uploadedFileRepository;
+    private final Map<String, String> fileIdsByContentHash = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void restore() {
+        uploadedFileRepository.findAll()
+                .forEach(uploadedFile -> fileIdsByContentHash.put(uploadedFile.getContentHash(), uploadedFile.getFileId()));
+        log.info("Restored uploaded files cache. Files: {}", fileIdsByContentHash.size());
+    }
+
+    public static String getContentHash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(HASH_ALGORITHM).digest(content));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not supported", exception);
+        }
+    }
+
+    public Optional<String> findFileId(String contentHash) {
+        return Optional.ofNullable(fileIdsByContentHash.get(contentHash));
+    }
+
+    /**
+     * Saves file ID of the content. The same content may be uploaded concurrently, e.g. to different chats, then file ID
+     * of the latest upload is kept.
+     */
+    public void put(String contentHash, String fileId) {
+        if (!fileId.equals(fileIdsByContentHash.put(contentHash, fileId))) {
+            try {
+                save(contentHash, fileId);
+            } catch (DataIntegrityViolationException exception) {
+                log.debug("File ID of content {} is saved concurrently, updating...", contentHash);
+                save(contentHash, fileId);
+            }
+        }
+    }
+
+    private void save(String contentHash, String fileId) {
+        UploadedFile uploadedFile = uploadedFileRepository.findByContentHash(contentHash)
+                .orElseGet(() -> new UploadedFile(contentHash, fileId));
+        uploadedFile.setFileId(fileId);
+        uploadedFileRepository.save(uploadedFile);
+    }
+
+    /**
+     * Removes file ID rejected by Telegram, so that the file is uploaded again.
+     */
+    public void evict(String contentHash) {
+        fileIdsByContentHash.remove(contentHash);
+        uploadedFileRepository.findByContentHash(contentHash).ifPresent(uploadedFileRepository::delete);
+    }
+}
@@ -1,78 +1,87 @@
 package ru.trainithard.dunebot.service.messaging;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.methods.GetFile;
 import org.telegram.telegrambots.meta.api.methods.commands.SetMyCommands;
 import org.telegram.telegrambots.meta.api.methods.polls.SendPoll;
 import org.telegram.telegrambots.meta.api.methods.send.SendDocument;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.InputFile;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.commands.BotCommand;
 import org.telegram.telegrambots.meta.api.objects.commands.scope.BotCommandScopeDefault;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import ru.trainithard.dunebot.exception.TelegramRetryException;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
 import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
 import ru.trainithard.dunebot.service.messaging.dto.*;
 import ru.trainithard.dunebot.service.telegram.TelegramBot;
+import ru.trainithard.dunebot.service.telegram.UpdateRecorder;
 
 import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.io.Serializable;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TelegramMessagingService implements MessagingService {
-    private static final String ASYNC_MESSAGE_CALLBACK_EXCEPTION_MESSAGE = "asyncRetrySend() call encounters API exception. Chat id: ";
     private static final String SEND_DOCUMENT_CALLBACK_EXCEPTION_MESSAGE = "sendDocumentAsync() call encounters API exception";
-    private static final String SET_COMMANDS_LIST_EXCEPTION_MESSAGE = "sendSetCommands() call encounters API exception";
-    private static final String DELETE_MESSAGE_CALLBACK_EXCEPTION_MESSAGE = "deleteMessageAsync() call encounters API exception";
     private static final String MARKDOWN2_PARSE_MODE = "MarkdownV2";
-    private static final int MAX_RETRY = 3;
-    private static final Random random = new Random();
+    private static final int BAD_REQUEST = 400;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final Map<Integer, Long> retryDelayByTryNumber = Map.of(
-            1, 1000L,
-            2, 2000L,
-            3, 3000L,
-            4, 5000L);
-
-    private final ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(2);
     private final TelegramBot telegramBot;
+    private final ThreadFactoryProvider threadFactoryProvider;
+    private final UpdateRecorder updateRecorder;
+    private final TelegramRequestExecutor requestExecutor;
+    private final TelegramFileIdCache fileIdCache;
 
     @Override
     public void deleteMessageAsync(ExternalMessageId externalMessageId) {
-        try {
-            DeleteMessage deleteMessage = new DeleteMessage(externalMessageId.getChatIdString(), externalMessageId.getMessageId());
-            telegramBot.executeAsync(deleteMessage);
-        } catch (TelegramApiException exception) {
-            log.error(DELETE_MESSAGE_CALLBACK_EXCEPTION_MESSAGE, exception);
+        String chatId = externalMessageId.getChatIdString();
+        DeleteMessage deleteMessage = new DeleteMessage(chatId, externalMessageId.getMessageId());
+        TelegramRequest<Boolean> request = new TelegramRequest<>(DeleteMessage.PATH, chatId, MessagePriority.INTERACTIVE,
+                ThreadLocalRandom.current().nextLong(), () -> telegramBot.executeAsync(deleteMessage));
+        requestExecutor.execute(request, new CompletableFuture<>(), Function.identity());
+    }
+
+    @Override
+    public CompletableFuture<Void> editMessageAsync(EditMessageDto editMessage) {
+        CompletableFuture<Void> requestFuture = new CompletableFuture<>();
+        requestExecutor.execute(TelegramRequest.of(telegramBot, getEditMessageText(editMessage), editMessage.getPriority()),
+                requestFuture, result -> null);
+        return threadFactoryProvider.toCallbackThread(requestFuture);
+    }
+
+    private EditMessageText getEditMessageText(EditMessageDto editMessage) {
+        EditMessageText editMessageText = new EditMessageText(editMessage.getText());
+        editMessageText.setChatId(editMessage.getChatId());
+        editMessageText.setMessageId(editMessage.getMessageId());
+        editMessageText.setParseMode(MARKDOWN2_PARSE_MODE);
+        editMessageText.setDisableWebPagePreview(true);
+        if (editMessage.getKeyboard() != null) {
+            editMessageText.setReplyMarkup(getInlineKeyboard(editMessage));
         }
+        return editMessageText;
     }
 
     @Override
     public CompletableFuture<ExternalPollDto> sendPollAsync(PollMessageDto pollMessage) {
         CompletableFuture<ExternalPollDto> requestFuture = new CompletableFuture<>();
-        executeRetryAsync(getSendPoll(pollMessage), requestFuture, ExternalPollDto::new, 0, random.nextLong());
-        return requestFuture;
+        requestExecutor.execute(TelegramRequest.of(telegramBot, getSendPoll(pollMessage), pollMessage.getPriority()),
+                requestFuture, ExternalPollDto::new);
+        if (updateRecorder.isEnabled()) {
+            requestFuture.thenAccept(externalPoll -> updateRecorder.recordSentPoll(externalPoll.getPollId()));
+        }
+        return threadFactoryProvider.toCallbackThread(requestFuture);
     }
 
     private SendPoll getSendPoll(PollMessageDto pollMessage) {
@@ -86,8 +95,9 @@ public class TelegramMessagingService implements MessagingService {
     @Override
     public CompletableFuture<ExternalMessageDto> sendMessageAsync(MessageDto messageDto) {
         CompletableFuture<ExternalMessageDto> requestFuture = new CompletableFuture<>();
-        executeRetryAsync(getSendMessage(messageDto), requestFuture, ExternalMessageDto::new, 0, random.nextLong());
-        return requestFuture;
+        requestExecutor.execute(TelegramRequest.of(telegramBot, getSendMessage(messageDto), messageDto.getPriority()),
+                requestFuture, ExternalMessageDto::new);
+        return threadFactoryProvider.toCallbackThread(requestFuture);
     }
 
     private SendMessage getSendMessage(MessageDto message) {
@@ -117,22 +127,65 @@ public class TelegramMessagingService implements MessagingService {
 
     @Override
     public CompletableFuture<ExternalMessageDto> sendFileAsync(FileMessageDto fileMessage) {
-        CompletableFuture<ExternalMessageDto> telegramMessageCompletableFuture = new CompletableFuture<>();
-        CompletableFuture<Message> sendMessageCompletableFuture = telegramBot.executeAsync(getSendDocument(fileMessage));
-        sendMessageCompletableFuture.whenComplete((message, throwable) -> {
+        CompletableFuture<ExternalMessageDto> requestFuture = new CompletableFuture<>();
+        String contentHash = TelegramFileIdCache.getContentHash(fileMessage.getFile());
+        fileIdCache.findFileId(contentHash).ifPresentOrElse(
+                fileId -> sendUploadedFile(fileMessage, contentHash, fileId, requestFuture),
+                () -> uploadFile(fileMessage, contentHash, requestFuture));
+        return threadFactoryProvider.toCallbackThread(requestFuture);
+    }
+
+    private void uploadFile(FileMessageDto fileMessage, String contentHash, CompletableFuture<ExternalMessageDto> requestFuture) {
+        CompletableFuture<Message> uploadFuture = new CompletableFuture<>();
+        Supplier<InputFile> inputFileSupplier =
+                () -> new InputFile(new ByteArrayInputStream(fileMessage.getFile()), fileMessage.getFileName());
+        requestExecutor.execute(getSendDocumentRequest(fileMessage, inputFileSupplier), uploadFuture, Function.identity());
+        uploadFuture.whenComplete((message, throwable) -> {
+            if (throwable == null) {
+                requestFuture.complete(new ExternalMessageDto(message));
+                if (message.hasDocument()) {
+                    cacheFileId(contentHash, message.getDocument().getFileId());
+                }
+            } else {
+                log.error(SEND_DOCUMENT_CALLBACK_EXCEPTION_MESSAGE, throwable);
+                requestFuture.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    private void cacheFileId(String contentHash, String fileId) {
+        try {
+            fileIdCache.put(contentHash, fileId);
+        } catch (Exception exception) {
+            log.error("Uploaded file ID " + fileId + " caching failed", exception);
+        }
+    }
+
+    private void sendUploadedFile(FileMessageDto fileMessage, String contentHash, String fileId,
+                                  CompletableFuture<ExternalMessageDto> requestFuture) {
+        CompletableFuture<Message> sendFuture = new CompletableFuture<>();
+        requestExecutor.execute(getSendDocumentRequest(fileMessage, () -> new InputFile(fileId)), sendFuture, Function.identity());
+        sendFuture.whenComplete((message, throwable) -> {
             if (throwable == null) {
-                telegramMessageCompletableFuture.complete(new ExternalMessageDto(message));
+                requestFuture.complete(new ExternalMessageDto(message));
+            } else if (Objects.equals(TelegramApiFailure.of(throwable).errorCode(), BAD_REQUEST)) {
+                log.warn("File ID {} is rejected by Telegram. Uploading file {}...", fileId, fileMessage.getFileName());
+                fileIdCache.evict(contentHash);
+                uploadFile(fileMessage, contentHash, requestFuture);
             } else {
-                telegramMessageCompletableFuture.completeExceptionally(throwable);
                 log.error(SEND_DOCUMENT_CALLBACK_EXCEPTION_MESSAGE, throwable);
+                requestFuture.completeExceptionally(throwable);
             }
         });
-        return telegramMessageCompletableFuture;
     }
 
-    private SendDocument getSendDocument(FileMessageDto fileMessageDto) {
-        InputStream fileInputStream = new ByteArrayInputStream(fileMessageDto.getFile());
-        InputFile inputFile = new InputFile(fileInputStream, fileMessageDto.getFileName());
+    private TelegramRequest<Message> getSendDocumentRequest(FileMessageDto fileMessage, Supplier<InputFile> inputFileSupplier) {
+        return new TelegramRequest<>(SendDocument.PATH, fileMessage.getChatId(), fileMessage.getPriority(),
+                ThreadLocalRandom.current().nextLong(),
+                () -> telegramBot.executeAsync(getSendDocument(fileMessage, inputFileSupplier.get())));
+    }
+
+    private SendDocument getSendDocument(FileMessageDto fileMessageDto, InputFile inputFile) {
         SendDocument sendDocument = new SendDocument(fileMessageDto.getChatId(), inputFile);
         sendDocument.setReplyToMessageId(fileMessageDto.getTopicId());
         sendDocument.setCaption(fileMessageDto.getText());
@@ -143,65 +196,19 @@ public class TelegramMessagingService implements MessagingService {
     @Override
     public CompletableFuture<TelegramFileDetailsDto> getFileDetails(String fileId) {
         CompletableFuture<TelegramFileDetailsDto> requestFuture = new CompletableFuture<>();
-        executeRetryAsync(new GetFile(fileId), requestFuture, TelegramFileDetailsDto::new, 0, random.nextLong());
-        return requestFuture;
+        requestExecutor.execute(TelegramRequest.of(telegramBot, new GetFile(fileId), MessagePriority.INTERACTIVE),
+                requestFuture, TelegramFileDetailsDto::new);
+        return threadFactoryProvider.toCallbackThread(requestFuture);
 
     }
 
     @Override
     public void sendSetCommands(SetCommandsDto setCommandsDto) {
-        try {
-            List<BotCommand> botCommands = setCommandsDto.getCommandDescriptionsByName().entrySet().stream()
-                    .map(entry -> new BotCommand(entry.getKey(), entry.getValue()))
-                    .toList();
-            SetMyCommands setMyCommands = new SetMyCommands(botCommands, new BotCommandScopeDefault(), null);
-            telegramBot.executeAsync(setMyCommands);
-        } catch (TelegramApiException exception) {
-            log.error(SET_COMMANDS_LIST_EXCEPTION_MESSAGE, exception);
-        }
-    }
-
-    public <R, T extends Serializable, Method extends BotApiMethod<T>>
-    void executeRetryAsync(Method method, CompletableFuture<R> requestFuture, Function<T, R> factory, int retry, long logId) {
-        if (retry > MAX_RETRY) {
-            requestFuture.completeExceptionally(new TelegramRetryException());
-        }
-
-        Long retryDelay = retryDelayByTryNumber.get(retry + 1);
-        try {
-            CompletableFuture<T> retryFuture = telegramBot.executeAsync(method);
-            retryFuture.whenComplete((message, throwable) -> {
-                if (throwable == null) {
-                    requestFuture.complete(factory.apply(message));
-                    log.debug("{}: successful callback received", logId);
-                } else {
-                    log.debug("{}: pre-exception object: {}", logId, getFailedObject(method));
-                    rescheduleIfNeeded(method, requestFuture, factory, retry, logId, throwable, retryDelay);
-                }
-            });
-        } catch (TelegramApiException e) {
-            log.debug("{}: pre-exception object: {}", logId, getFailedObject(method));
-            rescheduleIfNeeded(method, requestFuture, factory, retry, logId, e, retryDelay);
-        }
-    }
-
-    private <Method extends BotApiMethod<? extends Serializable>> String getFailedObject(Method method) {
-        try {
-            return objectMapper.writeValueAsString(method);
-        } catch (JsonProcessingException e) {
-            return "failed serialization";
-        }
-    }
-
-    private <R, T extends Serializable, Method extends BotApiMethod<T>> void rescheduleIfNeeded(
-            Method method, CompletableFuture<R> requestFuture, Function<T, R> factory,
-            int retry, long logId, Throwable exception, Long retryDelay) {
-        log.error(logId + ": " + ASYNC_MESSAGE_CALLBACK_EXCEPTION_MESSAGE, exception);
-        if (retry > MAX_RETRY) {
-            requestFuture.completeExceptionally(exception);
-        } else {
-            executorService.schedule(() -> executeRetryAsync(method, requestFuture, factory, retry + 1, logId),
-                    retryDelay, TimeUnit.MILLISECONDS);
-        }
+        List<BotCommand> botCommands = setCommandsDto.getCommandDescriptionsByName().entrySet().stream()
+                .map(entry -> new BotCommand(entry.getKey(), entry.getValue()))
+                .toList();
+        SetMyCommands setMyCommands = new SetMyCommands(botCommands, new BotCommandScopeDefault(), null);
+        requestExecutor.execute(TelegramRequest.of(telegramBot, setMyCommands, MessagePriority.BROADCAST),
+                new CompletableFuture<>(), Function.identity());
     }
 }
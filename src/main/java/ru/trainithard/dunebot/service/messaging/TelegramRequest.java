@@ -0,0 +1,53 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.springframework.lang.Nullable;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.polls.SendPoll;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import ru.trainithard.dunebot.service.telegram.TelegramBot;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Telegram API request which may be executed several times. The call must build a new API method on each execution,
+ * if the method can't be reused (e.g. holds consumed file stream).
+ *
+ * @param methodName API method name for logging
+ * @param chatId     target chat, or <code>null</code> if the request doesn't send anything to a chat
+ * @param priority   outbound scheduling priority
+ * @param logId      request ID for logging
+ * @param call       API call execution
+ * @param <T>        API call result type
+ */
+public record TelegramRequest<T>(String methodName, @Nullable String chatId, MessagePriority priority, long logId,
+                                 TelegramApiCall<T> call) {
+
+    public static <T extends Serializable> TelegramRequest<T> of(TelegramBot telegramBot, BotApiMethod<T> method,
+                                                                 MessagePriority priority) {
+        return new TelegramRequest<>(method.getMethod(), getChatId(method), priority, ThreadLocalRandom.current().nextLong(),
+                () -> telegramBot.executeAsync(method));
+    }
+
+    @Nullable
+    private static String getChatId(BotApiMethod<?> method) {
+        if (method instanceof SendMessage sendMessage) {
+            return sendMessage.getChatId();
+        }
+        if (method instanceof SendPoll sendPoll) {
+            return sendPoll.getChatId();
+        }
+        if (method instanceof EditMessageText editMessageText) {
+            return editMessageText.getChatId();
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    public interface TelegramApiCall<T> {
+        CompletableFuture<T> execute() throws TelegramApiException;
+    }
+}
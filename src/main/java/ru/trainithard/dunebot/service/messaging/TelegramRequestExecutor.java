@@ -0,0 +1,119 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import ru.trainithard.dunebot.exception.TelegramRetryException;
+
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Executes Telegram API requests through {@link OutboundMessageScheduler}, retrying failed requests
+ * according to {@link TelegramRetryPolicy} and reporting outcomes to {@link TelegramCircuitBreaker}. The request's chat
+ * lane stays busy until the request is completed, so retries are not overtaken by later requests of the same chat.
+ * Rate limit error pauses the request's chat for the time requested by Telegram.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TelegramRequestExecutor {
+    private static final String REQUEST_EXCEPTION_MESSAGE = "Telegram API request encounters exception. Chat id: ";
+
+    private final ScheduledExecutorService retryExecutor = new ScheduledThreadPoolExecutor(2);
+    private final OutboundMessageScheduler outboundMessageScheduler;
+    private final TelegramRetryPolicy retryPolicy;
+    private final TelegramCircuitBreaker circuitBreaker;
+
+    /**
+     * @param request       request to execute
+     * @param requestFuture future completed with the converted result of the first successful attempt, or exceptionally
+     *                      when the request can't be retried anymore
+     * @param factory       API call result converter
+     */
+    public <T, R> void execute(TelegramRequest<T> request, CompletableFuture<R> requestFuture, Function<T, R> factory) {
+        execute(new RequestExecution<>(request, requestFuture, factory), 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryExecutor.shutdownNow();
+    }
+
+    private <T, R> void execute(RequestExecution<T, R> execution, int retry) {
+        TelegramRequest<T> request = execution.request();
+        if (retry == 0) {
+            outboundMessageScheduler.submit(request.chatId(), request.priority(), () -> executeAttempt(execution, retry));
+        } else {
+            outboundMessageScheduler.resubmit(request.chatId(), request.priority(), () -> executeAttempt(execution, retry));
+        }
+    }
+
+    private <T, R> void executeAttempt(RequestExecution<T, R> execution, int retry) {
+        try {
+            execution.request().call().execute().whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    circuitBreaker.recordSuccess();
+                    complete(execution, result);
+                } else {
+                    rescheduleIfNeeded(execution, retry, throwable);
+                }
+            });
+        } catch (TelegramApiException exception) {
+            rescheduleIfNeeded(execution, retry, exception);
+        } catch (RuntimeException exception) {
+            circuitBreaker.recordFailure(execution.request().chatId(), TelegramApiFailure.of(exception));
+            log.error(execution.request().logId() + ": " + REQUEST_EXCEPTION_MESSAGE + execution.request().chatId() +
+                      ", method: " + execution.request().methodName(), exception);
+            completeExceptionally(execution, exception);
+        }
+    }
+
+    private <T, R> void complete(RequestExecution<T, R> execution, T result) {
+        outboundMessageScheduler.complete(execution.request().chatId());
+        try {
+            execution.requestFuture().complete(execution.factory().apply(result));
+            log.debug("{}: successful callback received", execution.request().logId());
+        } catch (RuntimeException exception) {
+            log.error(execution.request().logId() + ": API call result conversion failed", exception);
+            execution.requestFuture().completeExceptionally(exception);
+        }
+    }
+
+    private <T, R> void completeExceptionally(RequestExecution<T, R> execution, Throwable exception) {
+        outboundMessageScheduler.complete(execution.request().chatId());
+        execution.requestFuture().completeExceptionally(exception);
+    }
+
+    private <T, R> void rescheduleIfNeeded(RequestExecution<T, R> execution, int retry, Throwable exception) {
+        TelegramRequest<T> request = execution.request();
+        TelegramApiFailure failure = TelegramApiFailure.of(exception);
+        if (failure.type() == TelegramApiFailure.Type.RATE_LIMITED) {
+            outboundMessageScheduler.pause(request.chatId(), failure.retryAfterMillis());
+        }
+        circuitBreaker.recordFailure(request.chatId(), failure);
+        String failureDescription = request.logId() + ": " + REQUEST_EXCEPTION_MESSAGE + request.chatId() +
+                                    ", method: " + request.methodName() + ", failure: " + failure;
+        if (failure.type() == TelegramApiFailure.Type.CLIENT_ERROR) {
+            log.warn(failureDescription + ", " + exception.getMessage());
+        } else {
+            log.error(failureDescription, exception);
+        }
+        OptionalLong retryDelay = retryPolicy.getRetryDelayMillis(failure, retry);
+        if (retryDelay.isPresent()) {
+            retryExecutor.schedule(() -> execute(execution, retry + 1), retryDelay.getAsLong(), TimeUnit.MILLISECONDS);
+        } else {
+            completeExceptionally(execution, failure.type() == TelegramApiFailure.Type.CLIENT_ERROR
+                    ? exception : new TelegramRetryException(exception));
+        }
+    }
+
+    private record RequestExecution<T, R>(TelegramRequest<T> request, CompletableFuture<R> requestFuture, Function<T, R> factory) {
+    }
+}
@@ -0,0 +1,45 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Defines whether and when failed Telegram API request is retried. Client errors are never retried. Rate limited
+ * requests are retried after the time requested by Telegram, other failures are retried with exponential backoff.
+ * Random jitter of up to 20% is added to the delays, so that requests failed together are not retried together.
+ */
+@Component
+public class TelegramRetryPolicy {
+    private static final int JITTER_PERCENT = 20;
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public TelegramRetryPolicy(@Value("${bot.outbound.max-retries:3}") int maxRetries,
+                               @Value("${bot.outbound.retry-base-delay-millis:1000}") long baseDelayMillis,
+                               @Value("${bot.outbound.retry-max-delay-millis:30000}") long maxDelayMillis) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * @param failure failure of the last request attempt
+     * @param retry   number of the last attempt's retry, zero for the first attempt
+     * @return delay before the next attempt, or empty optional if the request must not be retried
+     */
+    public OptionalLong getRetryDelayMillis(TelegramApiFailure failure, int retry) {
+        if (failure.type() == TelegramApiFailure.Type.CLIENT_ERROR || retry >= maxRetries) {
+            return OptionalLong.empty();
+        }
+        long delayMillis = failure.type() == TelegramApiFailure.Type.RATE_LIMITED
+                ? Math.max(failure.retryAfterMillis(), baseDelayMillis)
+                : Math.min(maxDelayMillis, baseDelayMillis << retry);
+        long jitterMillis = ThreadLocalRandom.current().nextLong(delayMillis * JITTER_PERCENT / 100 + 1);
+        return OptionalLong.of(delayMillis + jitterMillis);
+    }
+}
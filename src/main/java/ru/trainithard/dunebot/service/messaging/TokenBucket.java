@@ -0,0 +1,45 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import java.time.Duration;
+
+/**
+ * Token bucket holding up to <code>capacity</code> tokens and refilling <code>capacity</code> tokens
+ * per <code>refillPeriod</code>. Implemented as generic cell rate algorithm, so that the state is a single
+ * theoretical time when the bucket becomes full, and no floating point arithmetic is needed. Not thread safe.
+ */
+class TokenBucket {
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private long fullAtNanos;
+
+    TokenBucket(int capacity, Duration refillPeriod, long nowNanos) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Token bucket capacity must be positive, but was " + capacity);
+        }
+        this.nanosPerToken = refillPeriod.toNanos() / capacity;
+        this.burstNanos = nanosPerToken * (capacity - 1);
+        this.fullAtNanos = nowNanos;
+    }
+
+    boolean hasToken(long nowNanos) {
+        return nanosUntilToken(nowNanos) == 0;
+    }
+
+    /**
+     * Takes a token. Must be called only after {@link #hasToken(long)} returned <code>true</code>.
+     */
+    void consume(long nowNanos) {
+        fullAtNanos = Math.max(fullAtNanos, nowNanos) + nanosPerToken;
+    }
+
+    boolean isFull(long nowNanos) {
+        return fullAtNanos <= nowNanos;
+    }
+
+    /**
+     * @return time until the next token is available, or zero if the bucket has a token
+     */
+    long nanosUntilToken(long nowNanos) {
+        return Math.max(0, fullAtNanos - burstNanos - nowNanos);
+    }
+}
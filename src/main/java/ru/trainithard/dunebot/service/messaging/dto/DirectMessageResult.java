@@ -0,0 +1,29 @@
+package ru.trainithard.dunebot.service.messaging.dto;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Outcome of a private message sending.
+ *
+ * @param message          sent message
+ * @param status           delivery status
+ * @param deliveredMessage external messenger's identifiers of the message, present only for delivered message
+ */
+public record DirectMessageResult(MessageDto message, Status status, @Nullable ExternalMessageDto deliveredMessage) {
+    public boolean isDelivered() {
+        return status == Status.DELIVERED;
+    }
+
+    public enum Status {
+        DELIVERED,
+        /**
+         * The recipient has blocked the bot. Detected by the sending attempt
+         */
+        BLOCKED,
+        /**
+         * The recipient is known to block the bot, thus sending is not attempted
+         */
+        SKIPPED_BLOCKED,
+        FAILED
+    }
+}
@@ -0,0 +1,31 @@
+package ru.trainithard.dunebot.service.messaging.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.lang.Nullable;
+import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
+import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
+
+import java.util.List;
+
+/**
+ * New text and keyboard of already sent message. The message's keyboard is removed if no keyboard provided.
+ */
+@Getter
+@NoArgsConstructor
+public class EditMessageDto extends MessageDto {
+    private int messageId;
+
+    public EditMessageDto(ExternalMessageId externalMessageId, ExternalMessage externalMessage,
+                          @Nullable List<List<ButtonDto>> linedButtons) {
+        super(externalMessageId.getChatIdString(), externalMessage, externalMessageId.getReplyId(), linedButtons);
+        this.messageId = externalMessageId.getMessageId();
+    }
+
+    public EditMessageDto(CommandMessage commandMessage, ExternalMessage externalMessage,
+                          @Nullable List<List<ButtonDto>> linedButtons) {
+        super(Long.toString(commandMessage.getChatId()), externalMessage, commandMessage.getTopicId(), linedButtons);
+        this.messageId = commandMessage.getMessageId();
+    }
+}
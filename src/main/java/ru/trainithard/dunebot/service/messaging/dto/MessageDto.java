@@ -7,6 +7,7 @@ import org.springframework.lang.Nullable;
 import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 
 import java.util.List;
@@ -20,6 +21,8 @@ public class MessageDto {
     protected String chatId;
     protected Integer topicId;
     protected List<List<ButtonDto>> keyboard;
+    @Setter
+    protected MessagePriority priority = MessagePriority.INTERACTIVE;
 
     public MessageDto(String chatId, ExternalMessage externalMessage, @Nullable Integer topicId,
                       @Nullable Integer replyMessageId, @Nullable List<List<ButtonDto>> linedButtons) {
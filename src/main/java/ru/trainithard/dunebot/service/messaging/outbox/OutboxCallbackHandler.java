@@ -0,0 +1,19 @@
+package ru.trainithard.dunebot.service.messaging.outbox;
+
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
+import ru.trainithard.dunebot.model.messaging.OutboxMessage;
+import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
+
+/**
+ * Action performed after outbox message delivery is recorded. Handler manages its own transaction: failed action is not
+ * retried, as the message is delivered already, and marks the message failed instead.
+ */
+public interface OutboxCallbackHandler {
+    OutboxCallbackType getCallbackType();
+
+    /**
+     * @param message          delivered outbox message
+     * @param deliveredMessage external messenger's identifiers of the delivered message
+     */
+    void onDelivered(OutboxMessage message, ExternalMessageDto deliveredMessage);
+}
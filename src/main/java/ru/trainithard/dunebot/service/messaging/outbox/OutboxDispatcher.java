@@ -0,0 +1,228 @@
+package ru.trainithard.dunebot.service.messaging.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskLease;
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
+import ru.trainithard.dunebot.model.messaging.OutboxMessage;
+import ru.trainithard.dunebot.model.messaging.OutboxMessageType;
+import ru.trainithard.dunebot.model.messaging.OutboxStatus;
+import ru.trainithard.dunebot.repository.OutboxMessageRepository;
+import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.messaging.MessagingService;
+import ru.trainithard.dunebot.service.messaging.TelegramApiFailure;
+import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.PollMessageDto;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends outbox messages and records their delivery. Before sending, the message is claimed in the database by this
+ * application instance for the lease duration of {@link DuneBotTaskLease}, so each message is sent by at most one
+ * instance at a time. A message is sent again only if its delivery was not recorded or its sending instance died,
+ * thus delivery is at-least-once.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+    private static final Duration DELIVERED_RETENTION = Duration.ofDays(7);
+    private static final long AWAIT_CHECK_MILLIS = 50;
+
+    private final OutboxMessageRepository outboxRepository;
+    private final MessagingService messagingService;
+    private final TransactionTemplate newTransactionTemplate;
+    private final DuneBotTaskLease lease;
+    private final Map<OutboxCallbackType, OutboxCallbackHandler> callbackHandlers = new EnumMap<>(OutboxCallbackType.class);
+    private final Set<Long> inFlightMessageIds = ConcurrentHashMap.newKeySet();
+    private final Clock clock;
+    private final int maxAttempts;
+
+    public OutboxDispatcher(OutboxMessageRepository outboxRepository, MessagingService messagingService,
+                            PlatformTransactionManager transactionManager, List<OutboxCallbackHandler> callbackHandlers,
+                            DuneBotTaskLease lease, Clock clock, @Value("${bot.outbox.max-attempts:5}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.messagingService = messagingService;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.lease = lease;
+        callbackHandlers.forEach(handler -> this.callbackHandlers.put(handler.getCallbackType(), handler));
+        this.clock = clock;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Sends all pending messages in batches, e.g. messages left undelivered by the previous application run. Messages
+     * abandoned by dead instances are returned to pending state first.
+     */
+    public void dispatchPending() {
+        int releasedCount = outboxRepository.releaseExpiredLeases(lease.now());
+        if (releasedCount > 0) {
+            log.info("Released {} outbox messages with expired leases", releasedCount);
+        }
+        long lastId = 0;
+        List<OutboxMessage> batch;
+        do {
+            batch = outboxRepository.findTop100ByStatusAndIdGreaterThanOrderById(OutboxStatus.PENDING, lastId);
+            for (OutboxMessage outboxMessage : batch) {
+                lastId = outboxMessage.getId();
+                dispatch(outboxMessage);
+            }
+        } while (!batch.isEmpty());
+    }
+
+    /**
+     * Sends the message unless it is being sent already by this or another instance.
+     */
+    public void dispatch(OutboxMessage outboxMessage) {
+        long id = outboxMessage.getId();
+        if (inFlightMessageIds.add(id)) {
+            boolean isClaimed = false;
+            try {
+                isClaimed = claim(id);
+                if (isClaimed) {
+                    send(outboxMessage).whenComplete((deliveredMessage, throwable) -> registerResult(id, deliveredMessage, throwable));
+                } else {
+                    inFlightMessageIds.remove(id);
+                    log.debug("Outbox message {} is claimed by another instance or already sent", id);
+                }
+            } catch (Exception exception) {
+                log.error("Outbox message {} sending failed", id, exception);
+                if (isClaimed) {
+                    registerResult(id, null, exception);
+                } else {
+                    inFlightMessageIds.remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Heartbeat of this instance: prolongs leases of the messages being sent by the instance.
+     */
+    public void renewLeases() {
+        int renewedLeasesCount = outboxRepository.renewLeases(lease.getInstanceId(), lease.getLeaseEnd());
+        if (renewedLeasesCount > 0) {
+            log.debug("0: renewed {} outbox message leases", renewedLeasesCount);
+        }
+    }
+
+    /**
+     * Waits until delivery of all messages being sent by this instance is recorded, but no longer than the timeout.
+     *
+     * @return <code>true</code> if no messages are being sent anymore
+     */
+    public boolean awaitInFlight(Duration timeout) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        while (!inFlightMessageIds.isEmpty() && System.nanoTime() < deadlineNanos) {
+            Thread.sleep(AWAIT_CHECK_MILLIS);
+        }
+        return inFlightMessageIds.isEmpty();
+    }
+
+    /**
+     * Deletes delivered messages which are not needed anymore.
+     */
+    public void purgeDelivered() {
+        Instant deliveredBefore = Instant.now(clock).minus(DELIVERED_RETENTION);
+        Integer deletedCount = newTransactionTemplate.execute(status -> outboxRepository.deleteDeliveredBefore(deliveredBefore));
+        log.info("Purged {} delivered outbox messages", deletedCount);
+    }
+
+    private boolean claim(long id) {
+        Integer claimedCount = newTransactionTemplate.execute(status ->
+                outboxRepository.claim(id, lease.getInstanceId(), lease.getLeaseEnd()));
+        return claimedCount != null && claimedCount > 0;
+    }
+
+    private void registerResult(long id, @Nullable ExternalMessageDto deliveredMessage, @Nullable Throwable throwable) {
+        try {
+            if (throwable == null) {
+                markDelivered(id, deliveredMessage);
+            } else {
+                registerFailure(id, throwable);
+            }
+        } catch (Exception exception) {
+            log.error("Outbox message {} delivery registration failed", id, exception);
+        } finally {
+            inFlightMessageIds.remove(id);
+        }
+    }
+
+    private CompletableFuture<? extends ExternalMessageDto> send(OutboxMessage outboxMessage) {
+        ExternalMessage externalMessage = new ExternalMessage().appendRaw(outboxMessage.getText());
+        MessageDto messageDto = outboxMessage.getMessageType() == OutboxMessageType.POLL
+                ? new PollMessageDto(outboxMessage.getChatId(), externalMessage, outboxMessage.getTopicId(),
+                outboxMessage.getPollOptionsList())
+                : new MessageDto(outboxMessage.getChatId(), externalMessage, outboxMessage.getTopicId(),
+                outboxMessage.getReplyId(), null);
+        messageDto.setPriority(outboxMessage.getPriority());
+        return messageDto instanceof PollMessageDto pollMessageDto
+                ? messagingService.sendPollAsync(pollMessageDto)
+                : messagingService.sendMessageAsync(messageDto);
+    }
+
+    private void markDelivered(long id, ExternalMessageDto deliveredMessage) {
+        OutboxMessage deliveredOutboxMessage = newTransactionTemplate.execute(status -> outboxRepository.findById(id)
+                .map(outboxMessage -> {
+                    outboxMessage.setStatus(OutboxStatus.DELIVERED);
+                    outboxMessage.setDeliveredAt(Instant.now(clock));
+                    outboxMessage.setLockedBy(null);
+                    outboxMessage.setLockedUntil(null);
+                    return outboxRepository.save(outboxMessage);
+                })
+                .orElse(null));
+        log.debug("Outbox message {} delivered", id);
+        if (deliveredOutboxMessage != null && deliveredOutboxMessage.getCallbackType() != null) {
+            runCallback(deliveredOutboxMessage, deliveredMessage);
+        }
+    }
+
+    /**
+     * Runs callback of the delivered message. Delivered message is never sent again, so the message failed by its
+     * callback is not retried and stays failed for investigation.
+     */
+    private void runCallback(OutboxMessage outboxMessage, ExternalMessageDto deliveredMessage) {
+        try {
+            callbackHandlers.get(outboxMessage.getCallbackType()).onDelivered(outboxMessage, deliveredMessage);
+        } catch (Exception exception) {
+            log.error("Outbox message {} delivery callback failed", outboxMessage.getId(), exception);
+            markCallbackFailed(outboxMessage.getId());
+        }
+    }
+
+    private void markCallbackFailed(long id) {
+        newTransactionTemplate.executeWithoutResult(status -> outboxRepository.findById(id).ifPresent(outboxMessage -> {
+            outboxMessage.setAttempts(outboxMessage.getAttempts() + 1);
+            outboxMessage.setStatus(OutboxStatus.FAILED);
+            outboxRepository.save(outboxMessage);
+        }));
+    }
+
+    private void registerFailure(long id, Throwable throwable) {
+        TelegramApiFailure failure = TelegramApiFailure.of(throwable);
+        newTransactionTemplate.executeWithoutResult(status -> outboxRepository.findById(id).ifPresent(outboxMessage -> {
+            outboxMessage.setAttempts(outboxMessage.getAttempts() + 1);
+            boolean isFailed = failure.type() == TelegramApiFailure.Type.CLIENT_ERROR || outboxMessage.getAttempts() >= maxAttempts;
+            outboxMessage.setStatus(isFailed ? OutboxStatus.FAILED : OutboxStatus.PENDING);
+            outboxMessage.setLockedBy(null);
+            outboxMessage.setLockedUntil(null);
+            outboxRepository.save(outboxMessage);
+            log.warn("Outbox message {} delivery failed (attempt {}, status {}): {}",
+                    id, outboxMessage.getAttempts(), outboxMessage.getStatus(), failure);
+        }));
+    }
+}
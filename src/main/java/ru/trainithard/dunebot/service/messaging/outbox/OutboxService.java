@@ -0,0 +1,30 @@
+package ru.trainithard.dunebot.service.messaging.outbox;
+
+import org.springframework.lang.Nullable;
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
+import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+
+/**
+ * Guaranteed delivery of outbound messages. Messages are persisted in the caller's transaction, so that a message
+ * is sent if and only if the state change it notifies about is committed.
+ */
+public interface OutboxService {
+    /**
+     * Persists the message in the current transaction. The message is sent after the transaction commit,
+     * or immediately when called without transaction.
+     *
+     * @param messageDto text or poll message without keyboard
+     */
+    void enqueue(MessageDto messageDto);
+
+    /**
+     * Persists the message in the current transaction, see {@link #enqueue(MessageDto)}.
+     * The callback is invoked once the message is delivered.
+     *
+     * @param messageDto       text or poll message without keyboard
+     * @param callbackType     type of the action performed on delivery
+     * @param callbackEntityId ID of the entity the action is performed for
+     * @param callbackData     additional data required for the action
+     */
+    void enqueue(MessageDto messageDto, OutboxCallbackType callbackType, long callbackEntityId, @Nullable String callbackData);
+}
@@ -0,0 +1,72 @@
+package ru.trainithard.dunebot.service.messaging.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
+import ru.trainithard.dunebot.model.messaging.OutboxMessage;
+import ru.trainithard.dunebot.model.messaging.OutboxMessageType;
+import ru.trainithard.dunebot.repository.OutboxMessageRepository;
+import ru.trainithard.dunebot.service.LogId;
+import ru.trainithard.dunebot.service.messaging.dto.FileMessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.PollMessageDto;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+    private final OutboxMessageRepository outboxRepository;
+    private final OutboxDispatcher outboxDispatcher;
+
+    @Override
+    public void enqueue(MessageDto messageDto) {
+        save(toOutboxMessage(messageDto));
+    }
+
+    @Override
+    public void enqueue(MessageDto messageDto, OutboxCallbackType callbackType, long callbackEntityId, @Nullable String callbackData) {
+        OutboxMessage outboxMessage = toOutboxMessage(messageDto);
+        outboxMessage.setCallbackType(callbackType);
+        outboxMessage.setCallbackEntityId(callbackEntityId);
+        outboxMessage.setCallbackData(callbackData);
+        save(outboxMessage);
+    }
+
+    private void save(OutboxMessage outboxMessage) {
+        OutboxMessage savedMessage = outboxRepository.save(outboxMessage);
+        log.debug("{}: outbox message {} saved", LogId.get(), savedMessage.getId());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxDispatcher.dispatch(savedMessage);
+                }
+            });
+        } else {
+            outboxDispatcher.dispatch(savedMessage);
+        }
+    }
+
+    private OutboxMessage toOutboxMessage(MessageDto messageDto) {
+        if (messageDto instanceof FileMessageDto || messageDto.getKeyboard() != null) {
+            throw new IllegalArgumentException("Outbox supports only text and poll messages without keyboard");
+        }
+        OutboxMessage outboxMessage = new OutboxMessage();
+        outboxMessage.setChatId(messageDto.getChatId());
+        outboxMessage.setTopicId(messageDto.getTopicId());
+        outboxMessage.setReplyId(messageDto.getReplyMessageId());
+        outboxMessage.setText(messageDto.getText());
+        outboxMessage.setPriority(messageDto.getPriority());
+        if (messageDto instanceof PollMessageDto pollMessageDto) {
+            outboxMessage.setMessageType(OutboxMessageType.POLL);
+            outboxMessage.setPollOptionsList(pollMessageDto.getOptions());
+        } else {
+            outboxMessage.setMessageType(OutboxMessageType.MESSAGE);
+        }
+        return outboxMessage;
+    }
+}
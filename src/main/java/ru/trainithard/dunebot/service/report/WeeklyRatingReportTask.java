@@ -9,6 +9,7 @@ import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.ModType;
 import ru.trainithard.dunebot.service.AppSettingsService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
 import ru.trainithard.dunebot.service.messaging.MessagingService;
 import ru.trainithard.dunebot.service.messaging.dto.FileMessageDto;
 
@@ -103,6 +104,7 @@ public class WeeklyRatingReportTask implements Runnable {
         String chatId = appSettingsService.getStringSetting(AppSettingKey.CHAT_ID);
         FileMessageDto fileMessageDto =
                 new FileMessageDto(chatId, new ExternalMessage(ratingName).append(":"), getTopicId(modType), pdfFile, ratingName + ".pdf");
+        fileMessageDto.setPriority(MessagePriority.BROADCAST);
         messagingService.sendFileAsync(fileMessageDto);
     }
 
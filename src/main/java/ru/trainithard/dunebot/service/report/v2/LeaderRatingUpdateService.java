@@ -2,13 +2,16 @@ package ru.trainithard.dunebot.service.report.v2;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.trainithard.dunebot.model.CurrentLeaderRating;
 import ru.trainithard.dunebot.model.LeaderRating;
 import ru.trainithard.dunebot.model.MatchPlayer;
 import ru.trainithard.dunebot.model.MetaDataKey;
+import ru.trainithard.dunebot.repository.CurrentLeaderRatingRepository;
 import ru.trainithard.dunebot.repository.LeaderRatingRepository;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -16,6 +19,7 @@ import java.util.function.Function;
 @RequiredArgsConstructor
 public class LeaderRatingUpdateService extends RatingUpdateService<LeaderRating> {
     private final LeaderRatingRepository leaderRatingRepository;
+    private final CurrentLeaderRatingRepository currentLeaderRatingRepository;
 
     @Override
     Function<MatchPlayer, Long> getEntityIdSupplier() {
@@ -30,7 +34,9 @@ public class LeaderRatingUpdateService extends RatingUpdateService<LeaderRating>
 
     @Override
     void saveRatings(Collection<LeaderRating> ratings) {
-        leaderRatingRepository.saveAll(ratings);
+        List<LeaderRating> savedRatings = leaderRatingRepository.saveAll(toManagedRatings(ratings, leaderRatingRepository::findAllById));
+        currentLeaderRatingRepository.deleteAllByIdInBatch(savedRatings.stream().map(LeaderRating::getEntityId).toList());
+        currentLeaderRatingRepository.saveAll(savedRatings.stream().map(CurrentLeaderRating::new).toList());
     }
 
     @Override
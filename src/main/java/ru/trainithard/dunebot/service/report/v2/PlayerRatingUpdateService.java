@@ -2,13 +2,16 @@ package ru.trainithard.dunebot.service.report.v2;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.trainithard.dunebot.model.CurrentPlayerRating;
 import ru.trainithard.dunebot.model.MatchPlayer;
 import ru.trainithard.dunebot.model.MetaDataKey;
 import ru.trainithard.dunebot.model.PlayerRating;
+import ru.trainithard.dunebot.repository.CurrentPlayerRatingRepository;
 import ru.trainithard.dunebot.repository.PlayerRatingRepository;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -16,6 +19,7 @@ import java.util.function.Function;
 @RequiredArgsConstructor
 public class PlayerRatingUpdateService extends RatingUpdateService<PlayerRating> {
     private final PlayerRatingRepository playerRatingRepository;
+    private final CurrentPlayerRatingRepository currentPlayerRatingRepository;
 
     @Override
     Function<MatchPlayer, Long> getEntityIdSupplier() {
@@ -30,7 +34,9 @@ public class PlayerRatingUpdateService extends RatingUpdateService<PlayerRating>
 
     @Override
     void saveRatings(Collection<PlayerRating> ratings) {
-        playerRatingRepository.saveAll(ratings);
+        List<PlayerRating> savedRatings = playerRatingRepository.saveAll(toManagedRatings(ratings, playerRatingRepository::findAllById));
+        currentPlayerRatingRepository.deleteAllByIdInBatch(savedRatings.stream().map(PlayerRating::getEntityId).toList());
+        currentPlayerRatingRepository.saveAll(savedRatings.stream().map(CurrentPlayerRating::new).toList());
     }
 
     @Override
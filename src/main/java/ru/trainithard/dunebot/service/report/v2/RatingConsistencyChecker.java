@@ -0,0 +1,91 @@
+package ru.trainithard.dunebot.service.report.v2;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.trainithard.dunebot.model.CurrentLeaderRating;
+import ru.trainithard.dunebot.model.CurrentPlayerRating;
+import ru.trainithard.dunebot.model.LeaderRating;
+import ru.trainithard.dunebot.model.PlayerRating;
+import ru.trainithard.dunebot.repository.CurrentLeaderRatingRepository;
+import ru.trainithard.dunebot.repository.CurrentPlayerRatingRepository;
+import ru.trainithard.dunebot.repository.LeaderRatingRepository;
+import ru.trainithard.dunebot.repository.PlayerRatingRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that current ratings reference the latest ratings of the rating history, and repairs mismatched references.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RatingConsistencyChecker {
+    private final PlayerRatingRepository playerRatingRepository;
+    private final LeaderRatingRepository leaderRatingRepository;
+    private final CurrentPlayerRatingRepository currentPlayerRatingRepository;
+    private final CurrentLeaderRatingRepository currentLeaderRatingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public RatingConsistencyReport checkAndRepair() {
+        RatingConsistencyReport report = transactionTemplate.execute(status ->
+                new RatingConsistencyReport(repairPlayerRatings(), repairLeaderRatings()));
+        if (Objects.requireNonNull(report).isConsistent()) {
+            log.info("0: current ratings are consistent");
+        } else {
+            log.warn("0: repaired current ratings: {} players, {} leaders",
+                    report.repairedPlayerRatings(), report.repairedLeaderRatings());
+        }
+        return report;
+    }
+
+    private int repairPlayerRatings() {
+        Map<Long, CurrentPlayerRating> currentRatingsByPlayerId = currentPlayerRatingRepository.findAll().stream()
+                .collect(Collectors.toMap(CurrentPlayerRating::getPlayerId, Function.identity()));
+        List<CurrentPlayerRating> missingRatings = new ArrayList<>();
+        int repairedRatingsCount = 0;
+        for (PlayerRating latestRating : playerRatingRepository.findLatestPlayerRatingsFromHistory()) {
+            CurrentPlayerRating currentRating = currentRatingsByPlayerId.remove(latestRating.getEntityId());
+            if (currentRating == null) {
+                missingRatings.add(new CurrentPlayerRating(latestRating));
+            } else if (!currentRating.getPlayerRating().getId().equals(latestRating.getId())) {
+                currentRating.setPlayerRating(latestRating);
+                repairedRatingsCount++;
+            }
+        }
+        currentPlayerRatingRepository.saveAll(missingRatings);
+        currentPlayerRatingRepository.deleteAll(currentRatingsByPlayerId.values());
+        return repairedRatingsCount + missingRatings.size() + currentRatingsByPlayerId.size();
+    }
+
+    private int repairLeaderRatings() {
+        Map<Long, CurrentLeaderRating> currentRatingsByLeaderId = currentLeaderRatingRepository.findAll().stream()
+                .collect(Collectors.toMap(CurrentLeaderRating::getLeaderId, Function.identity()));
+        List<CurrentLeaderRating> missingRatings = new ArrayList<>();
+        int repairedRatingsCount = 0;
+        for (LeaderRating latestRating : leaderRatingRepository.findLatestLeaderRatingsFromHistory()) {
+            CurrentLeaderRating currentRating = currentRatingsByLeaderId.remove(latestRating.getEntityId());
+            if (currentRating == null) {
+                missingRatings.add(new CurrentLeaderRating(latestRating));
+            } else if (!currentRating.getLeaderRating().getId().equals(latestRating.getId())) {
+                currentRating.setLeaderRating(latestRating);
+                repairedRatingsCount++;
+            }
+        }
+        currentLeaderRatingRepository.saveAll(missingRatings);
+        currentLeaderRatingRepository.deleteAll(currentRatingsByLeaderId.values());
+        return repairedRatingsCount + missingRatings.size() + currentRatingsByLeaderId.size();
+    }
+
+    public record RatingConsistencyReport(int repairedPlayerRatings, int repairedLeaderRatings) {
+        public boolean isConsistent() {
+            return repairedPlayerRatings == 0 && repairedLeaderRatings == 0;
+        }
+    }
+}
@@ -4,7 +4,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import ru.trainithard.dunebot.configuration.CacheConfiguration;
 import ru.trainithard.dunebot.model.*;
 import ru.trainithard.dunebot.repository.LeaderRatingRepository;
 import ru.trainithard.dunebot.repository.MatchRepository;
@@ -67,8 +69,17 @@ public class RatingService {
         clearCache();
     }
 
+    /**
+     * @return unmodifiable list of player ratings calculated in the given period. The list is cached, thus it is
+     * shared between callers and must not be modified.
+     */
+    @Cacheable(value = CacheConfiguration.PLAYER_RATINGS_CACHE, key = "{#from, #to}")
+    public List<PlayerRating> getPlayerRatings(LocalDate from, LocalDate to) {
+        return List.copyOf(playerRatingRepository.findAllBy(from, to));
+    }
+
     private void clearCache() {
-        Cache playerRatingsCache = cacheManager.getCache("playerRatings");
+        Cache playerRatingsCache = cacheManager.getCache(CacheConfiguration.PLAYER_RATINGS_CACHE);
         if (!Objects.isNull(playerRatingsCache)) {
             playerRatingsCache.clear();
         }
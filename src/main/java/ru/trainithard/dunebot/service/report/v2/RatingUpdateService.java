@@ -87,10 +87,40 @@ public abstract class RatingUpdateService<T extends AbstractRating> {
         return latestRating.getRatingDate().isBefore(matchPlayer.getMatch().getFinishDate());
     }
 
+    /**
+     * Replaces already persisted ratings with their managed instances, loaded by single query, and copies calculated
+     * statistics to them. Thus saving the ratings doesn't merge detached ratings selecting them one by one.
+     *
+     * @param ratings               new and detached persisted ratings
+     * @param persistedRatingLoader loader of managed ratings by IDs
+     * @return new ratings and managed instances of persisted ratings
+     */
+    List<T> toManagedRatings(Collection<T> ratings, Function<Collection<Long>, List<T>> persistedRatingLoader) {
+        List<Long> persistedRatingIds = ratings.stream().map(T::getId).filter(Objects::nonNull).toList();
+        Map<Long, T> managedRatingsById = persistedRatingLoader.apply(persistedRatingIds).stream()
+                .collect(Collectors.toMap(T::getId, Function.identity()));
+        return ratings.stream()
+                .map(rating -> {
+                    T managedRating = rating.getId() == null ? null : managedRatingsById.get(rating.getId());
+                    if (managedRating == null) {
+                        return rating;
+                    }
+                    managedRating.copyStatistics(rating);
+                    return managedRating;
+                })
+                .toList();
+    }
+
     abstract Function<MatchPlayer, Long> getEntityIdSupplier();
 
     abstract T createNewRating(MatchPlayer matchPlayer);
 
+    /**
+     * Saves ratings and makes them current ratings of their entities. Called in the transaction for each month
+     * in chronological order, thus the latest saved rating of the entity is its current rating.
+     * Implementations save ratings with <code>saveAll</code> calls, which are executed as JDBC batches; already
+     * persisted ratings are replaced with their managed instances first, see {@link #toManagedRatings}.
+     */
     abstract void saveRatings(Collection<T> ratings);
 
     abstract MetaDataKey getMetaDataKey();
@@ -3,6 +3,7 @@ package ru.trainithard.dunebot.service.task;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
+import ru.trainithard.dunebot.service.MatchExpirationService;
 
 import java.util.function.Function;
 
@@ -13,6 +14,7 @@ public class DuneScheduledTaskFactory {
     private final Function<Long, SubmitTimeoutTask> submitTimeoutTaskFactory;
     private final Function<Long, SubmitTimeoutNotificationTask> submitTimeoutNotificationTaskFactory;
     private final Function<Long, SubmitAcceptTimeoutTask> submitAcceptTimeoutTaskFactory;
+    private final MatchExpirationService matchExpirationService;
     private final ShutdownTask shutdownTask;
 
     public DunebotRunnable createInstance(DuneBotTaskId duneBotTaskId) {
@@ -22,6 +24,7 @@ public class DuneScheduledTaskFactory {
             case SUBMIT_TIMEOUT -> submitTimeoutTaskFactory.apply(entityId);
             case SUBMIT_TIMEOUT_NOTIFICATION -> submitTimeoutNotificationTaskFactory.apply(entityId);
             case SUBMIT_ACCEPT_TIMEOUT -> submitAcceptTimeoutTaskFactory.apply(entityId);
+            case MATCH_EXPIRATION -> new MatchExpirationTask(matchExpirationService, entityId);
             case SHUTDOWN -> shutdownTask;
         };
     }
@@ -0,0 +1,18 @@
+package ru.trainithard.dunebot.service.task;
+
+import ru.trainithard.dunebot.service.MatchExpirationService;
+
+public class MatchExpirationTask implements DunebotRunnable {
+    private final MatchExpirationService matchExpirationService;
+    private final long matchId;
+
+    public MatchExpirationTask(MatchExpirationService matchExpirationService, long matchId) {
+        this.matchExpirationService = matchExpirationService;
+        this.matchId = matchId;
+    }
+
+    @Override
+    public void run() {
+        matchExpirationService.expireMatch(matchId);
+    }
+}
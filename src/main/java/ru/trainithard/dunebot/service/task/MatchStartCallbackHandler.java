@@ -0,0 +1,57 @@
+package ru.trainithard.dunebot.service.task;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
+import ru.trainithard.dunebot.model.messaging.OutboxMessage;
+import ru.trainithard.dunebot.repository.MatchRepository;
+import ru.trainithard.dunebot.service.messaging.MessagingService;
+import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxCallbackHandler;
+
+/**
+ * Saves delivered match start message ID and its mentioned players. Later start updates edit this message unless they
+ * add mentions. If the match got another start message meanwhile (start was enqueued again before the first delivery,
+ * or the message was sent again to notify added players), the previous one is deleted after the new one is saved.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MatchStartCallbackHandler implements OutboxCallbackHandler {
+    private final MatchRepository matchRepository;
+    private final MessagingService messagingService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public OutboxCallbackType getCallbackType() {
+        return OutboxCallbackType.MATCH_START;
+    }
+
+    @Override
+    public void onDelivered(OutboxMessage message, ExternalMessageDto deliveredMessage) {
+        long matchId = message.getCallbackEntityId();
+        log.debug("0: match {} start callback received", matchId);
+        ExternalMessageId oldStartId = transactionTemplate.execute(status -> matchRepository.findById(matchId)
+                .map(match -> {
+                    ExternalMessageId previousStartId = copyOf(match.getExternalStartId());
+                    match.setExternalStartId(new ExternalMessageId(deliveredMessage));
+                    match.setStartMentionedPlayerIds(message.getCallbackData());
+                    matchRepository.save(match);
+                    return previousStartId;
+                })
+                .orElse(null));
+        if (oldStartId != null) {
+            messagingService.deleteMessageAsync(oldStartId);
+        }
+    }
+
+    @Nullable
+    private ExternalMessageId copyOf(@Nullable ExternalMessageId externalMessageId) {
+        return externalMessageId == null ? null
+                : new ExternalMessageId(externalMessageId.getMessageId(), externalMessageId.getChatId(), externalMessageId.getReplyId());
+    }
+}
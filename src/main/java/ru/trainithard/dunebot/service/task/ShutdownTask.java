@@ -8,34 +8,55 @@ import org.springframework.stereotype.Component;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.service.AppSettingsService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
-import ru.trainithard.dunebot.service.messaging.MessagingService;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxDispatcher;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxService;
+
+import java.time.Duration;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ShutdownTask implements DunebotRunnable {
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(30);
+
     private final ConfigurableApplicationContext applicationContext;
-    private final MessagingService messagingService;
+    private final OutboxService outboxService;
+    private final OutboxDispatcher outboxDispatcher;
     private final AppSettingsService appSettingsService;
 
     @Override
     public void run() {
         sendTopicsMessages("⚠️ Бот перезагружается.");
+        awaitDelivery();
         log.info("Bot shutdown...");
         SpringApplication.exit(applicationContext, () -> 0);
     }
 
+    private void awaitDelivery() {
+        try {
+            if (!outboxDispatcher.awaitInFlight(DELIVERY_TIMEOUT)) {
+                log.warn("Outbox messages are not delivered in {}, they will be sent after restart", DELIVERY_TIMEOUT);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while awaiting outbox messages delivery");
+        }
+    }
+
     private void sendTopicsMessages(String message) {
         String chatId = appSettingsService.getStringSetting(AppSettingKey.CHAT_ID);
         int up4Topic = appSettingsService.getIntSetting(AppSettingKey.TOPIC_ID_UPRISING);
         int duneTopic = appSettingsService.getIntSetting(AppSettingKey.TOPIC_ID_CLASSIC);
         ExternalMessage userMessage = new ExternalMessage(message);
         MessageDto up4UserMessageDto = new MessageDto(chatId, userMessage, up4Topic, null);
-        messagingService.sendMessageAsync(up4UserMessageDto);
+        up4UserMessageDto.setPriority(MessagePriority.BROADCAST);
+        outboxService.enqueue(up4UserMessageDto);
         if (up4Topic != duneTopic) {
             MessageDto duneUserMessageDto = new MessageDto(chatId, userMessage, duneTopic, null);
-            messagingService.sendMessageAsync(duneUserMessageDto);
+            duneUserMessageDto.setPriority(MessagePriority.BROADCAST);
+            outboxService.enqueue(duneUserMessageDto);
         }
     }
 }
@@ -5,16 +5,18 @@ import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.MatchPlayer;
 import ru.trainithard.dunebot.model.Player;
 import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
 import ru.trainithard.dunebot.repository.MatchPlayerRepository;
 import ru.trainithard.dunebot.repository.MatchRepository;
+import ru.trainithard.dunebot.service.PlayerMentionService;
+import ru.trainithard.dunebot.service.messaging.CoalescingMessageEditor;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
-import ru.trainithard.dunebot.service.messaging.MessagingService;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxService;
 import ru.trainithard.dunebot.service.telegram.factory.messaging.ExternalMessageFactory;
-import ru.trainithard.dunebot.util.MarkdownEscaper;
 
-import java.time.Clock;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -23,21 +25,29 @@ import java.util.Optional;
 public class StartMatchTask implements DunebotRunnable {
     private final MatchRepository matchRepository;
     private final MatchPlayerRepository matchPlayerRepository;
-    private final MessagingService messagingService;
+    private final OutboxService outboxService;
+    private final CoalescingMessageEditor messageEditor;
     private final ExternalMessageFactory messageFactory;
-    private final Clock clock;
+    private final PlayerMentionService mentionService;
     private final long matchId;
 
     public StartMatchTask(MatchRepository matchRepository, MatchPlayerRepository matchPlayerRepository,
-                          MessagingService messagingService, ExternalMessageFactory messageFactory, Clock clock, long matchId) {
+                          OutboxService outboxService, CoalescingMessageEditor messageEditor,
+                          ExternalMessageFactory messageFactory, PlayerMentionService mentionService, long matchId) {
         this.matchRepository = matchRepository;
         this.matchPlayerRepository = matchPlayerRepository;
-        this.messagingService = messagingService;
+        this.outboxService = outboxService;
+        this.messageEditor = messageEditor;
         this.messageFactory = messageFactory;
-        this.clock = clock;
+        this.mentionService = mentionService;
         this.matchId = matchId;
     }
 
+    /**
+     * Sends the match start message, mentioning all match players. If the match already has the start message, and
+     * no players were added to its mentions, the message is edited in place. Otherwise, a new message is sent instead
+     * of the existing one, as Telegram doesn't notify players mentioned by message edit.
+     */
     @Override
     public void run() {
         Optional<Match> freshMatch = matchRepository.findWithMatchPlayersBy(matchId);
@@ -45,37 +55,44 @@ public class StartMatchTask implements DunebotRunnable {
             log.debug("0: match {} start not found the match", matchId);
             return;
         }
-        messagingService.sendMessageAsync(getMatchStartMessage(freshMatch.get()))
-                .whenComplete((externalMessageDto, throwable) -> {
-                    log.debug("0: match {} start callback received. Current time: {}",
-                            matchId, Instant.now(clock));
-                    if (throwable != null) {
-                        log.error("0: match {} start callback failure...", matchId, throwable);
-                    }
-                    matchRepository.findById(matchId).ifPresent(cbMatch -> {
-                        deleteExistingOldSubmitMessage(cbMatch);
-                        cbMatch.setExternalStartId(new ExternalMessageId(externalMessageDto));
-                        matchRepository.save(cbMatch);
-                    });
-                });
+        Match match = freshMatch.get();
+        List<MatchPlayer> matchPlayers = matchPlayerRepository.findByMatch(match);
+        List<Long> mentionedPlayerIds = matchPlayers.stream().map(matchPlayer -> matchPlayer.getPlayer().getId()).toList();
+        ExternalMessage startMessage = getMatchStartMessage(match, matchPlayers);
+        ExternalMessageId externalStartId = match.getExternalStartId();
+        String joinedMentionedPlayerIds = Match.joinMentionedPlayerIds(mentionedPlayerIds);
+        if (externalStartId == null || !match.getStartMentionedPlayerIdsSet().containsAll(mentionedPlayerIds)) {
+            MessageDto messageDto = getNewStartMessage(match, startMessage);
+            outboxService.enqueue(messageDto, OutboxCallbackType.MATCH_START, matchId, joinedMentionedPlayerIds);
+            log.debug("0: match {} start message enqueued", matchId);
+        } else {
+            EditMessageDto editMessageDto = new EditMessageDto(externalStartId, startMessage, null);
+            editMessageDto.setPriority(MessagePriority.NOTIFICATION);
+            messageEditor.edit(editMessageDto);
+            matchRepository.findById(matchId).ifPresent(editedMatch -> {
+                editedMatch.setStartMentionedPlayerIds(joinedMentionedPlayerIds);
+                matchRepository.save(editedMatch);
+            });
+            log.debug("0: match {} start message edit scheduled", matchId);
+        }
     }
 
-    private void deleteExistingOldSubmitMessage(Match match) {
-        if (match.getExternalStartId() != null) {
-            Integer externalMessageId = match.getExternalStartId().getMessageId();
-            Long externalChatId = match.getExternalStartId().getChatId();
-            Integer externalMessageReplyId = match.getExternalStartId().getReplyId();
-            messagingService.deleteMessageAsync(new ExternalMessageId(externalMessageId, externalChatId, externalMessageReplyId));
-        }
+    private MessageDto getNewStartMessage(Match match, ExternalMessage startMessage) {
+        String matchTopicChatId = match.getExternalPollId().getChatIdString();
+        Integer topicId = match.getExternalPollId().getReplyId();
+        Integer replyMessageId = match.getExternalPollId().getMessageId();
+        MessageDto messageDto = new MessageDto(matchTopicChatId, startMessage, topicId, replyMessageId, null);
+        messageDto.setPriority(MessagePriority.NOTIFICATION);
+        return messageDto;
     }
 
-    private MessageDto getMatchStartMessage(Match match) {
+    private ExternalMessage getMatchStartMessage(Match match, List<MatchPlayer> matchPlayers) {
         List<String> regularPlayerMentions = new ArrayList<>();
         List<String> guestPlayerMentions = new ArrayList<>();
         List<String> blockedChatMentions = new ArrayList<>();
-        for (MatchPlayer matchPlayer : matchPlayerRepository.findByMatch(match)) {
+        for (MatchPlayer matchPlayer : matchPlayers) {
             Player player = matchPlayer.getPlayer();
-            String mention = MarkdownEscaper.getEscapedMention(player.getMentionTag(), player.getExternalId());
+            String mention = mentionService.getMention(player);
             log.debug("0: match {} start message building... player {} (guest: {}, chat_blocked: {})",
                     match.getId(), player.getId(), player.isGuest(), player.isChatBlocked());
             if (player.isChatBlocked()) {
@@ -86,11 +103,6 @@ public class StartMatchTask implements DunebotRunnable {
                 regularPlayerMentions.add(mention);
             }
         }
-        String matchTopicChatId = match.getExternalPollId().getChatIdString();
-        Integer topicId = match.getExternalPollId().getReplyId();
-        Integer replyMessageId = match.getExternalPollId().getMessageId();
-        ExternalMessage startMessage = messageFactory
-                .getStartMessage(match, regularPlayerMentions, guestPlayerMentions, blockedChatMentions);
-        return new MessageDto(matchTopicChatId, startMessage, topicId, replyMessageId, null);
+        return messageFactory.getStartMessage(match, regularPlayerMentions, guestPlayerMentions, blockedChatMentions);
     }
 }
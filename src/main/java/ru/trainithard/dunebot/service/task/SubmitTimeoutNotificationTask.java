@@ -6,22 +6,23 @@ import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.repository.MatchRepository;
 import ru.trainithard.dunebot.service.AppSettingsService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
-import ru.trainithard.dunebot.service.messaging.MessagingService;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+import ru.trainithard.dunebot.service.messaging.outbox.OutboxService;
 import ru.trainithard.dunebot.service.telegram.factory.messaging.ExternalMessageFactory;
 
 @Slf4j
 public class SubmitTimeoutNotificationTask implements DunebotRunnable {
     private final MatchRepository matchRepository;
-    private final MessagingService messagingService;
+    private final OutboxService outboxService;
     private final ExternalMessageFactory messageFactory;
     private final AppSettingsService appSettingsService;
     private final long matchId;
 
-    public SubmitTimeoutNotificationTask(MatchRepository matchRepository, MessagingService messagingService,
+    public SubmitTimeoutNotificationTask(MatchRepository matchRepository, OutboxService outboxService,
                                          ExternalMessageFactory messageFactory, AppSettingsService appSettingsService, long matchId) {
         this.matchRepository = matchRepository;
-        this.messagingService = messagingService;
+        this.outboxService = outboxService;
         this.messageFactory = messageFactory;
         this.appSettingsService = appSettingsService;
         this.matchId = matchId;
@@ -36,7 +37,8 @@ public class SubmitTimeoutNotificationTask implements DunebotRunnable {
                 log.debug("0: submit notification timeout received: {} minutes", timeout);
                 ExternalMessage externalMessage = messageFactory.getPreSubmitTimeoutNotificationMessage(match, timeout);
                 MessageDto message = new MessageDto(match.getExternalPollId(), externalMessage);
-                messagingService.sendMessageAsync(message);
+                message.setPriority(MessagePriority.NOTIFICATION);
+                outboxService.enqueue(message);
             }
         });
     }
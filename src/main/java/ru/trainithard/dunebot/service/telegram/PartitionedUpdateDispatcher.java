@@ -0,0 +1,116 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches updates processing to partition workers. Partition is selected by update's key, see
+ * {@link UpdatePartitionKeyResolver}, so updates of the same match are processed sequentially in order of arrival,
+ * while updates of unrelated matches and chats are processed concurrently. When parallel processing is disabled,
+ * updates are processed in the calling thread.
+ */
+@Slf4j
+@Component
+public class PartitionedUpdateDispatcher {
+    private final boolean parallelProcessingEnabled;
+    private final UpdatePartitionKeyResolver partitionKeyResolver;
+    private final List<ThreadPoolExecutor> partitionExecutors;
+
+    public PartitionedUpdateDispatcher(@Value("${bot.updates.parallel-processing:false}") boolean parallelProcessingEnabled,
+                                       @Value("${bot.updates.partitions:4}") int partitionsCount,
+                                       ThreadFactoryProvider threadFactoryProvider,
+                                       UpdatePartitionKeyResolver partitionKeyResolver) {
+        this.parallelProcessingEnabled = parallelProcessingEnabled;
+        this.partitionKeyResolver = partitionKeyResolver;
+        this.partitionExecutors = parallelProcessingEnabled
+                ? createPartitionExecutors(partitionsCount, threadFactoryProvider)
+                : Collections.emptyList();
+        log.info("Updates processing mode: {}", parallelProcessingEnabled ? partitionsCount + " partitions" : "single-threaded");
+    }
+
+    private static List<ThreadPoolExecutor> createPartitionExecutors(int partitionsCount, ThreadFactoryProvider threadFactoryProvider) {
+        if (partitionsCount < 1) {
+            throw new IllegalArgumentException("Updates partitions count must be positive, but was " + partitionsCount);
+        }
+        List<ThreadPoolExecutor> executors = new ArrayList<>(partitionsCount);
+        for (int i = 0; i < partitionsCount; i++) {
+            ThreadFactory threadFactory = threadFactoryProvider.getThreadFactory("dunebot-update-" + i + "-");
+            executors.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory));
+        }
+        return Collections.unmodifiableList(executors);
+    }
+
+    /**
+     * Executes update processing task in the update's partition worker, or in the calling thread
+     * if parallel processing is disabled.
+     *
+     * @param update     update to select partition for
+     * @param updateTask task processing the update
+     */
+    public void dispatch(Update update, Runnable updateTask) {
+        if (!parallelProcessingEnabled) {
+            updateTask.run();
+            return;
+        }
+        int partition = getPartition(update);
+        partitionExecutors.get(partition).execute(updateTask);
+    }
+
+    /**
+     * Executes task in the partition worker of the given key, after already dispatched updates of the partition,
+     * or in the calling thread if parallel processing is disabled.
+     *
+     * @param partitionKey partition key, see {@link UpdatePartitionKeyResolver}
+     * @param task         task to execute
+     * @return future completed when the task is executed
+     */
+    public Future<?> dispatch(String partitionKey, Runnable task) {
+        if (!parallelProcessingEnabled) {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        return partitionExecutors.get(getPartition(partitionKey)).submit(task);
+    }
+
+    /**
+     * @return queue depth and completed tasks count of each partition. Empty list in single-threaded mode
+     */
+    public List<PartitionMetrics> getPartitionMetrics() {
+        List<PartitionMetrics> partitionMetrics = new ArrayList<>(partitionExecutors.size());
+        for (int i = 0; i < partitionExecutors.size(); i++) {
+            ThreadPoolExecutor executor = partitionExecutors.get(i);
+            partitionMetrics.add(new PartitionMetrics(i, executor.getQueue().size(), executor.getCompletedTaskCount()));
+        }
+        return partitionMetrics;
+    }
+
+    int getPartition(Update update) {
+        return getPartition(partitionKeyResolver.getPartitionKey(update));
+    }
+
+    private int getPartition(String partitionKey) {
+        return Math.floorMod(partitionKey.hashCode(), partitionExecutors.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        partitionExecutors.forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    public record PartitionMetrics(int partition, int queueDepth, long completedCount) {
+    }
+}
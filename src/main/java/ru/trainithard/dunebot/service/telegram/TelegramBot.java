@@ -1,20 +1,40 @@
 package ru.trainithard.dunebot.service.telegram;
 
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.updates.AllowedUpdates;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
 
 /**
  * Class responsible for receiving and sending messages to Telegram.
  */
 public class TelegramBot extends TelegramLongPollingBot {
-    private final ConcurrentLinkedQueue<Update> updates = new ConcurrentLinkedQueue<>();
+    private static final String POLL_ANSWER_UPDATE_TYPE = "poll_answer";
+
+    private final UpdateIngressQueue updates;
     private final String botUserName;
+    private final UpdateRecorder updateRecorder;
+
+    public TelegramBot(String botUserName, String botToken, int updatesQueueCapacity) {
+        this(botUserName, botToken, updatesQueueCapacity, null);
+    }
 
-    public TelegramBot(String botUserName, String botToken) {
-        super(botToken);
+    public TelegramBot(String botUserName, String botToken, int updatesQueueCapacity, UpdateRecorder updateRecorder) {
+        super(getBotOptions(), botToken);
         this.botUserName = botUserName;
+        this.updates = new UpdateIngressQueue(updatesQueueCapacity);
+        this.updateRecorder = updateRecorder;
+    }
+
+    /**
+     * Restricts received updates to types processed by the bot, so Telegram doesn't send updates which are discarded anyway.
+     */
+    private static DefaultBotOptions getBotOptions() {
+        DefaultBotOptions botOptions = new DefaultBotOptions();
+        botOptions.setAllowedUpdates(List.of(AllowedUpdates.MESSAGE, AllowedUpdates.CALLBACKQUERY, POLL_ANSWER_UPDATE_TYPE));
+        return botOptions;
     }
 
     @Override
@@ -24,10 +44,33 @@ public class TelegramBot extends TelegramLongPollingBot {
 
     @Override
     public void onUpdateReceived(Update update) {
-        updates.add(update);
+        if (updateRecorder != null) {
+            updateRecorder.recordUpdate(update);
+        }
+        updates.offer(update);
     }
 
+    /**
+     * @return next received update, or <code>null</code> if no updates received
+     */
     public Update poll() {
         return updates.poll();
     }
+
+    /**
+     * Waits until an update is received and returns it.
+     *
+     * @return next received update
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Update take() throws InterruptedException {
+        return updates.take();
+    }
+
+    /**
+     * @return counters of queued and dropped updates and updates waiting time
+     */
+    public UpdateIngressQueue.IngressMetrics getIngressMetrics() {
+        return updates.getMetrics();
+    }
 }
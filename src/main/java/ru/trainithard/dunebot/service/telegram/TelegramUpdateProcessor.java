@@ -1,9 +1,11 @@
 package ru.trainithard.dunebot.service.telegram;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
 import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.service.LogId;
 import ru.trainithard.dunebot.service.messaging.MessagingService;
@@ -30,36 +32,91 @@ public class TelegramUpdateProcessor {
     private final ValidationStrategyFactory validationStrategyFactory;
     private final CommandProcessorFactory commandProcessorFactory;
     private final CommonCommandMessageValidator commonCommandMessageValidator;
+    private final PartitionedUpdateDispatcher updateDispatcher;
+    private final UpdateDeduplicator updateDeduplicator;
+    private final ThreadFactoryProvider threadFactoryProvider;
+    private Thread processingThread;
 
+    /**
+     * Starts dedicated thread, which parks while no updates received and is woken up by each received update.
+     */
+    public synchronized void startProcessing() {
+        if (processingThread != null) {
+            throw new IllegalStateException("Updates processing is already started");
+        }
+        processingThread = threadFactoryProvider.getThreadFactory("dunebot-updates-").newThread(this::awaitAndProcess);
+        processingThread.setDaemon(true);
+        processingThread.start();
+        log.info("Started updates processing thread");
+    }
+
+    @PreDestroy
+    synchronized void stopProcessing() {
+        if (processingThread != null) {
+            processingThread.interrupt();
+            processingThread = null;
+        }
+    }
+
+    private void awaitAndProcess() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                dispatch(telegramBot.take());
+                process();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } catch (Exception exception) {
+                log.error("Updates processing thread encountered an exception", exception);
+            }
+        }
+        log.info("Updates processing thread stopped");
+    }
+
+    /**
+     * Processes all received updates without waiting for new ones.
+     */
     public void process() {
         Update update = telegramBot.poll();
         while (update != null) {
-            LogId.init();
-            int logId = LogId.get();
-            try {
-                CommandMessage commandMessage = commandMessageFactory.getInstance(update);
-                if (commandMessage != null) {
-                    //TODO delete after fixing:
-                    if (commandMessage.getCommand() == null) {
-                        log.debug("{}: NULL command from Update {}", logId, update);
-                    }
-                    log.debug("{}: received {} command from {}", logId, commandMessage.getCommand(), commandMessage.getUserId());
+            dispatch(update);
+            update = telegramBot.poll();
+        }
+    }
+
+    private void dispatch(Update update) {
+        if (updateDeduplicator.isDuplicate(update.getUpdateId())) {
+            log.debug("Skipped duplicated update {}", update.getUpdateId());
+            return;
+        }
+        updateDispatcher.dispatch(update, () -> processUpdate(update));
+    }
 
-                    boolean isProcessingRequired = commonCommandMessageValidator.validate(commandMessage);
-                    log.debug("{}: common validation: pass, process: {}", logId, isProcessingRequired);
-                    if (isProcessingRequired) {
-                        validateCommand(commandMessage, logId);
-                        processCommand(commandMessage, logId);
-                    }
+    private void processUpdate(Update update) {
+        LogId.init();
+        int logId = LogId.get();
+        try {
+            CommandMessage commandMessage = commandMessageFactory.getInstance(update);
+            if (commandMessage != null) {
+                //TODO delete after fixing:
+                if (commandMessage.getCommand() == null) {
+                    log.debug("{}: NULL command from Update {}", logId, update);
+                }
+                log.debug("{}: received {} command from {}", logId, commandMessage.getCommand(), commandMessage.getUserId());
+
+                boolean isProcessingRequired = commonCommandMessageValidator.validate(commandMessage);
+                log.debug("{}: common validation: pass, process: {}", logId, isProcessingRequired);
+                if (isProcessingRequired) {
+                    validateCommand(commandMessage, logId);
+                    processCommand(commandMessage, logId);
                 }
-            } catch (AnswerableDuneBotException answerableException) {
-                sendAnswerableExceptionMessage(answerableException, logId);
-            } catch (Exception exception) {
-                log.error(logId + ": command failed due to an exception", exception);
-            } finally {
-                LogId.clear();
-                update = telegramBot.poll();
             }
+        } catch (AnswerableDuneBotException answerableException) {
+            sendAnswerableExceptionMessage(answerableException, logId);
+        } catch (Exception exception) {
+            log.error(logId + ": command failed due to an exception", exception);
+        } finally {
+            updateDeduplicator.markProcessed(update.getUpdateId());
+            LogId.clear();
         }
     }
 
@@ -0,0 +1,149 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.trainithard.dunebot.service.MetaDataService;
+
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Detects updates redelivered by Telegram, e.g. after bot restart or crash. Keeps sliding window of recently received
+ * update IDs. As updates are processed concurrently and out of order, the stored value is a watermark: the highest
+ * update ID, below which all received updates are processed. It is stored periodically, and on startup the window
+ * is restored with IDs preceding it, as Telegram assigns update IDs sequentially. Updates above the watermark are
+ * processed again after a crash. Processing of an update may be extended beyond its command processing by
+ * {@link #retain(Integer)}, e.g. when the update is applied later in a batch.
+ */
+@Slf4j
+@Component
+public class UpdateDeduplicator {
+    private final MetaDataService metaDataService;
+    private final int windowSize;
+    private final int[] windowIds;
+    private final Set<Integer> windowIdsSet;
+    private final NavigableMap<Integer, Integer> inProgressHoldsCounts = new TreeMap<>();
+    private final Object persistenceLock = new Object();
+    private int windowPosition;
+    private int windowFilledSize;
+    private int lastReceivedUpdateId;
+    private int storedWatermark;
+
+    public UpdateDeduplicator(MetaDataService metaDataService, @Value("${bot.updates.dedup-window:1000}") int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Updates deduplication window size must be positive, but was " + windowSize);
+        }
+        this.metaDataService = metaDataService;
+        this.windowSize = windowSize;
+        this.windowIds = new int[windowSize];
+        this.windowIdsSet = new HashSet<>(windowSize * 2);
+    }
+
+    @PostConstruct
+    void restoreWindow() {
+        int watermark = metaDataService.findLastUpdateId();
+        synchronized (persistenceLock) {
+            storedWatermark = watermark;
+        }
+        if (watermark > 0) {
+            synchronized (this) {
+                lastReceivedUpdateId = watermark;
+                for (int updateId = Math.max(1, watermark - windowSize + 1); updateId <= watermark; updateId++) {
+                    register(updateId);
+                }
+            }
+        }
+        log.info("Restored updates deduplication window. Processed updates watermark: {}", watermark);
+    }
+
+    /**
+     * Checks whether update with the same ID has already been received, and registers the ID in the window otherwise.
+     * Registered update holds the watermark until it is marked processed.
+     *
+     * @param updateId ID of received update. Updates without ID are never considered duplicates
+     * @return <code>true</code> if the update has already been received
+     */
+    public synchronized boolean isDuplicate(Integer updateId) {
+        if (updateId == null) {
+            return false;
+        }
+        if (windowIdsSet.contains(updateId)) {
+            return true;
+        }
+        register(updateId);
+        if (lastReceivedUpdateId - updateId >= windowSize) {
+            log.info("Update {} is far below last received update {}. Updates IDs sequence restarted", updateId, lastReceivedUpdateId);
+            inProgressHoldsCounts.clear();
+            lastReceivedUpdateId = updateId;
+        } else {
+            lastReceivedUpdateId = Math.max(lastReceivedUpdateId, updateId);
+        }
+        inProgressHoldsCounts.put(updateId, 1);
+        return false;
+    }
+
+    /**
+     * Adds one more hold of the watermark to the in-progress update, so the update stays in progress until one more
+     * {@link #markProcessed(Integer)} call.
+     *
+     * @param updateId ID of in-progress update
+     */
+    public synchronized void retain(Integer updateId) {
+        if (updateId != null) {
+            inProgressHoldsCounts.computeIfPresent(updateId, (id, holdsCount) -> holdsCount + 1);
+        }
+    }
+
+    /**
+     * Releases a hold of the watermark by the update. The watermark moves when all holds are released.
+     * Doesn't access the database, see {@link #storeWatermark()}.
+     *
+     * @param updateId ID of processed update
+     */
+    public synchronized void markProcessed(Integer updateId) {
+        if (updateId != null) {
+            inProgressHoldsCounts.computeIfPresent(updateId, (id, holdsCount) -> holdsCount > 1 ? holdsCount - 1 : null);
+        }
+    }
+
+    /**
+     * @return the highest update ID, below which all received updates are processed
+     */
+    synchronized int getWatermark() {
+        return inProgressHoldsCounts.isEmpty() ? lastReceivedUpdateId : inProgressHoldsCounts.firstKey() - 1;
+    }
+
+    /**
+     * Stores processed updates watermark, if it is changed since the last store.
+     */
+    @PreDestroy
+    public void storeWatermark() {
+        int watermark = getWatermark();
+        synchronized (persistenceLock) {
+            if (watermark > 0 && watermark != storedWatermark) {
+                try {
+                    metaDataService.saveLastUpdateId(watermark);
+                    storedWatermark = watermark;
+                } catch (Exception exception) {
+                    log.error("Failed to store processed updates watermark " + watermark, exception);
+                }
+            }
+        }
+    }
+
+    private void register(int updateId) {
+        if (windowFilledSize == windowSize) {
+            windowIdsSet.remove(windowIds[windowPosition]);
+        } else {
+            windowFilledSize++;
+        }
+        windowIds[windowPosition] = updateId;
+        windowIdsSet.add(updateId);
+        windowPosition = (windowPosition + 1) % windowSize;
+    }
+}
@@ -0,0 +1,171 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of received updates. Updates are taken in order of arrival regardless of their priority.
+ * {@link UpdatePriority} is applied only on overflow: when the queue is full, the oldest queued update of lower
+ * priority than the received one is dropped to free the space, otherwise the received update itself is dropped.
+ */
+@Slf4j
+public class UpdateIngressQueue {
+    private static final UpdatePriority[] PRIORITIES = UpdatePriority.values();
+
+    private final int capacity;
+    private final Map<UpdatePriority, Deque<QueuedUpdate>> lanes = new EnumMap<>(UpdatePriority.class);
+    private final Map<UpdatePriority, Long> droppedCounts = new EnumMap<>(UpdatePriority.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int size;
+    private long queuedCount;
+    private long maxAgeNanos;
+
+    public UpdateIngressQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Updates queue capacity must be positive, but was " + capacity);
+        }
+        this.capacity = capacity;
+        for (UpdatePriority priority : PRIORITIES) {
+            lanes.put(priority, new ArrayDeque<>());
+            droppedCounts.put(priority, 0L);
+        }
+    }
+
+    /**
+     * Adds update to the queue, dropping lower priority update if the queue is full.
+     *
+     * @param update received update
+     * @return <code>true</code> if update is queued, <code>false</code> if it is dropped due to queue overflow
+     */
+    public boolean offer(Update update) {
+        UpdatePriority priority = UpdatePriority.of(update);
+        lock.lock();
+        try {
+            if (size == capacity && !evictLowerPriority(priority)) {
+                registerDrop(update, priority);
+                return false;
+            }
+            lanes.get(priority).addLast(new QueuedUpdate(update, queuedCount, System.nanoTime()));
+            size++;
+            queuedCount++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the earliest queued update, or <code>null</code> if the queue is empty
+     */
+    public Update poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the queue is not empty and returns the earliest queued update.
+     *
+     * @return the earliest queued update
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Update take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public IngressMetrics getMetrics() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            long oldestAgeNanos = lanes.values().stream()
+                    .filter(lane -> !lane.isEmpty())
+                    .mapToLong(lane -> now - lane.peekFirst().queuedNanos())
+                    .max().orElse(0L);
+            long maxObservedAgeNanos = Math.max(maxAgeNanos, oldestAgeNanos);
+            return new IngressMetrics(size, capacity, queuedCount, Map.copyOf(droppedCounts),
+                    TimeUnit.NANOSECONDS.toMillis(oldestAgeNanos), TimeUnit.NANOSECONDS.toMillis(maxObservedAgeNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean evictLowerPriority(UpdatePriority priority) {
+        for (int i = PRIORITIES.length - 1; i > priority.ordinal(); i--) {
+            QueuedUpdate evictedUpdate = lanes.get(PRIORITIES[i]).pollFirst();
+            if (evictedUpdate != null) {
+                size--;
+                registerDrop(evictedUpdate.update(), PRIORITIES[i]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void registerDrop(Update update, UpdatePriority priority) {
+        droppedCounts.merge(priority, 1L, Long::sum);
+        if (priority == UpdatePriority.LOW) {
+            log.debug("Updates queue is full. Dropped {} priority update {}", priority, update.getUpdateId());
+        } else {
+            log.warn("Updates queue is full. Dropped {} priority update {}", priority, update.getUpdateId());
+        }
+    }
+
+    private Update dequeue() {
+        Deque<QueuedUpdate> earliestLane = null;
+        for (Deque<QueuedUpdate> lane : lanes.values()) {
+            QueuedUpdate laneHead = lane.peekFirst();
+            if (laneHead != null && (earliestLane == null || laneHead.sequence() < earliestLane.peekFirst().sequence())) {
+                earliestLane = lane;
+            }
+        }
+        if (earliestLane == null) {
+            throw new IllegalStateException("Updates queue size is " + size + ", but all priority lanes are empty");
+        }
+        QueuedUpdate queuedUpdate = earliestLane.pollFirst();
+        size--;
+        maxAgeNanos = Math.max(maxAgeNanos, System.nanoTime() - queuedUpdate.queuedNanos());
+        return queuedUpdate.update();
+    }
+
+    /**
+     * @param sequence number of the update in order of arrival, as updates of different priorities are kept in separate lanes
+     */
+    private record QueuedUpdate(Update update, long sequence, long queuedNanos) {
+    }
+
+    /**
+     * @param size            count of currently queued updates
+     * @param capacity        maximal count of queued updates
+     * @param queuedCount     count of all updates accepted by the queue
+     * @param droppedCounts   count of updates dropped due to overflow by their priority
+     * @param oldestAgeMillis waiting time of the oldest currently queued update
+     * @param maxAgeMillis    maximal waiting time of an update in the queue since startup
+     */
+    public record IngressMetrics(int size, int capacity, long queuedCount, Map<UpdatePriority, Long> droppedCounts,
+                                 long oldestAgeMillis, long maxAgeMillis) {
+        public long droppedCount() {
+            return droppedCounts.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import ru.trainithard.dunebot.service.ActivePollIndex;
+import ru.trainithard.dunebot.service.telegram.command.Command;
+
+import java.util.Optional;
+
+/**
+ * Selects partition key of an update. All updates of the same match share <code>match_ID</code> key: poll answers are
+ * resolved by {@link ActivePollIndex}, callbacks by match ID prefix of callback data, <code>/submit</code> and
+ * <code>/resubmit</code> by match ID argument and <code>/cancel</code> by the latest <code>NEW</code> match owned by
+ * the sender. Updates not related to a known match fall back to poll or chat keys. Resolution never queries the database,
+ * as it runs on the single ingress thread.
+ */
+@Component
+@RequiredArgsConstructor
+public class UpdatePartitionKeyResolver {
+    private static final String POLL_PARTITION_KEY_PREFIX = "poll_";
+    private static final String MATCH_PARTITION_KEY_PREFIX = "match_";
+    private static final String CHAT_PARTITION_KEY_PREFIX = "chat_";
+    private static final String DEFAULT_PARTITION_KEY = "default";
+    private static final String CALLBACK_MATCH_ID_SEPARATOR = "_";
+    private static final String ARGUMENTS_SEPARATOR_REGEX = "\\s+";
+
+    private final ActivePollIndex activePollIndex;
+
+    public String getPartitionKey(Update update) {
+        if (update.hasPollAnswer()) {
+            return getPollPartitionKey(update.getPollAnswer().getPollId());
+        } else if (update.hasCallbackQuery()) {
+            String callbackData = update.getCallbackQuery().getData();
+            int matchIdEndIndex = callbackData == null ? -1 : callbackData.indexOf(CALLBACK_MATCH_ID_SEPARATOR);
+            return matchIdEndIndex > 0
+                    ? MATCH_PARTITION_KEY_PREFIX + callbackData.substring(0, matchIdEndIndex)
+                    : CHAT_PARTITION_KEY_PREFIX + update.getCallbackQuery().getFrom().getId();
+        } else if (update.hasMessage()) {
+            Message message = update.getMessage();
+            return getCommandMatchId(message)
+                    .map(matchId -> MATCH_PARTITION_KEY_PREFIX + matchId)
+                    .orElse(CHAT_PARTITION_KEY_PREFIX + message.getChatId());
+        }
+        return DEFAULT_PARTITION_KEY;
+    }
+
+    /**
+     * @param pollId external poll ID
+     * @return partition key of the poll's answers
+     */
+    public String getPollPartitionKey(String pollId) {
+        return activePollIndex.findMatchId(pollId)
+                .map(matchId -> MATCH_PARTITION_KEY_PREFIX + matchId)
+                .orElse(POLL_PARTITION_KEY_PREFIX + pollId);
+    }
+
+    private Optional<Long> getCommandMatchId(Message message) {
+        String text = message.getText();
+        if (text == null || !text.startsWith("/") || text.length() < 2) {
+            return Optional.empty();
+        }
+        String[] commandWithArguments = text.trim().substring(1).split(ARGUMENTS_SEPARATOR_REGEX);
+        Command command = Command.getCommand(commandWithArguments[0]);
+        if (command == Command.SUBMIT || command == Command.RESUBMIT) {
+            return commandWithArguments.length > 1 ? parseMatchId(commandWithArguments[1]) : Optional.empty();
+        } else if (command == Command.CANCEL && message.getFrom() != null) {
+            return activePollIndex.findOwnedMatchId(message.getFrom().getId());
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Long> parseMatchId(String argument) {
+        try {
+            return Optional.of(Long.parseLong(argument));
+        } catch (NumberFormatException exception) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Priority of received update in the ingress queue, which selects updates to drop on overflow.
+ * Declared from the highest to the lowest priority.
+ */
+public enum UpdatePriority {
+    /**
+     * Poll votes and callbacks: cheap to process and lost votes can't be restored by users.
+     */
+    HIGH,
+    /**
+     * Slash-prefixed commands and messages with attached files.
+     */
+    NORMAL,
+    /**
+     * Plain text and other updates, which are not parsed to commands and skipped by processing.
+     */
+    LOW;
+
+    public static UpdatePriority of(Update update) {
+        if (update.hasPollAnswer() || update.hasCallbackQuery()) {
+            return HIGH;
+        }
+        if (update.hasMessage() && isCommandMessage(update.getMessage())) {
+            return NORMAL;
+        }
+        return LOW;
+    }
+
+    private static boolean isCommandMessage(Message message) {
+        return message.hasText() && message.getText().startsWith("/") || message.hasDocument() || message.hasPhoto();
+    }
+}
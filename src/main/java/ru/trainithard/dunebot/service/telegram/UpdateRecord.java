@@ -0,0 +1,14 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Single entry of updates recording: either a received update or ID of a poll sent by the bot.
+ * Sent polls IDs are required on replay to bind recorded poll answers to polls created during replay.
+ *
+ * @param timestamp  epoch milliseconds of the event
+ * @param update     received update, or <code>null</code> for sent poll entry
+ * @param sentPollId ID of the poll sent by the bot, or <code>null</code> for received update entry
+ */
+public record UpdateRecord(long timestamp, Update update, String sentPollId) {
+}
@@ -0,0 +1,73 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+
+/**
+ * Records received updates and IDs of polls sent by the bot to a file for load testing replay. Each line of the file
+ * is a JSON serialized {@link UpdateRecord}. Recording is enabled only when the file path is configured.
+ */
+@Slf4j
+@Component
+public class UpdateRecorder {
+    private final ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private final Clock clock;
+    private final BufferedWriter writer;
+
+    public UpdateRecorder(@Value("${bot.updates.record-file:}") String recordFilePath, Clock clock) throws IOException {
+        this.clock = clock;
+        if (recordFilePath.isBlank()) {
+            this.writer = null;
+        } else {
+            this.writer = Files.newBufferedWriter(Path.of(recordFilePath), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info("Updates recording is enabled. File: {}", recordFilePath);
+        }
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    public void recordUpdate(Update update) {
+        if (writer != null) {
+            write(new UpdateRecord(clock.millis(), update, null));
+        }
+    }
+
+    public void recordSentPoll(String pollId) {
+        if (writer != null) {
+            write(new UpdateRecord(clock.millis(), null, pollId));
+        }
+    }
+
+    private synchronized void write(UpdateRecord updateRecord) {
+        try {
+            writer.write(objectMapper.writeValueAsString(updateRecord));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException exception) {
+            log.error("Failed to record update", exception);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
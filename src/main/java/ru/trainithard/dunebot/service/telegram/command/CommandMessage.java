@@ -53,6 +53,10 @@ public class CommandMessage {
      * If a message is an answer to a poll, this field contains such an answer.
      */
     private PollVote pollVote;
+    /**
+     * If a message is an answer to a poll, this field contains ID of the update delivered the answer.
+     */
+    private Integer updateId;
     /**
      * If a message is a callback, this field contains such a callback.
      */
@@ -71,8 +75,9 @@ public class CommandMessage {
     @Getter(AccessLevel.NONE)
     private String[] args;
 
-    private CommandMessage(PollAnswer pollAnswer) {
+    private CommandMessage(PollAnswer pollAnswer, Integer updateId) {
         this.command = Command.VOTE;
+        this.updateId = updateId;
         User user = pollAnswer.getUser();
         this.userId = user.getId();
         this.externalFirstName = user.getFirstName();
@@ -86,6 +91,10 @@ public class CommandMessage {
         this.chatId = externalUserId;
         this.callback = callbackQuery.getData();
         this.command = CallbackSymbol.getCommandBy(callback);
+        Message callbackMessage = callbackQuery.getMessage();
+        if (callbackMessage != null && callbackMessage.getMessageId() != null) {
+            this.messageId = callbackMessage.getMessageId();
+        }
     }
 
     private CommandMessage(Message message) {
@@ -133,8 +142,8 @@ public class CommandMessage {
         return new CommandMessage(callbackQuery);
     }
 
-    public static CommandMessage getPollAnswerInstance(PollAnswer pollAnswer) {
-        return new CommandMessage(pollAnswer);
+    public static CommandMessage getPollAnswerInstance(PollAnswer pollAnswer, Integer updateId) {
+        return new CommandMessage(pollAnswer, updateId);
     }
 
     /**
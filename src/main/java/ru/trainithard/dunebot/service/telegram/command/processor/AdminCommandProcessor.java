@@ -11,12 +11,14 @@ import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.ModType;
 import ru.trainithard.dunebot.service.AppSettingsService;
+import ru.trainithard.dunebot.service.LeaderCatalog;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 import ru.trainithard.dunebot.service.messaging.dto.FileMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.SetCommandsDto;
 import ru.trainithard.dunebot.service.report.RatingReportPdf;
 import ru.trainithard.dunebot.service.report.RatingReportPdfService;
+import ru.trainithard.dunebot.service.report.v2.RatingConsistencyChecker;
 import ru.trainithard.dunebot.service.report.v2.RatingService;
 import ru.trainithard.dunebot.service.task.ShutdownTask;
 import ru.trainithard.dunebot.service.telegram.command.Command;
@@ -50,6 +52,8 @@ public class AdminCommandProcessor extends CommandProcessor {
     private static final String MESSAGE_KEY = "message";
     private static final String REPORT_KEY = "report";
     private static final String RATING_KEY = "rating";
+    private static final String RATING_CHECK_KEY = "rating_check";
+    private static final String RELOAD_LEADERS_KEY = "reload_leaders";
     private static final String WRONG_SETTING_TEXT = "Неверное название настройки!";
     private static final String WRONG_SETTING_VALUE_TEXT = "Значение настройки должно быть числом!";
     private static final DateTimeFormatter DATE_FORAMTTER = DateTimeFormatter.ofPattern("dd.MM.yy");
@@ -59,6 +63,8 @@ public class AdminCommandProcessor extends CommandProcessor {
     private final DuneBotTaskScheduler taskScheduler;
     private final ShutdownTask shutdownTask;
     private final RatingService ratingService;
+    private final RatingConsistencyChecker ratingConsistencyChecker;
+    private final LeaderCatalog leaderCatalog;
     private final Clock clock;
 
     @Value("${bot.admin-pdf-directory}")
@@ -88,6 +94,11 @@ public class AdminCommandProcessor extends CommandProcessor {
             }
             case REPORT_KEY -> generateReport(commandMessage);
             case RATING_KEY -> ratingService.buildFullRating();
+            case RATING_CHECK_KEY -> {
+                ExternalMessage ratingCheckMessage = getRatingCheckMessage();
+                messageDto = new MessageDto(commandMessage, ratingCheckMessage, null);
+            }
+            case RELOAD_LEADERS_KEY -> leaderCatalog.reload();
             case SHUTDOWN_SUBCOMMAND -> shutdown(commandMessage);
             default -> {
                 log.debug("{}: wrong admin subcommand {}", logId(), subCommand);
@@ -110,6 +121,12 @@ public class AdminCommandProcessor extends CommandProcessor {
         messagingService.sendSetCommands(new SetCommandsDto(commands));
     }
 
+    private ExternalMessage getRatingCheckMessage() {
+        RatingConsistencyChecker.RatingConsistencyReport report = ratingConsistencyChecker.checkAndRepair();
+        return new ExternalMessage(String.format("Проверка рейтингов завершена. Исправлено записей игроков: %d, лидеров: %d.",
+                report.repairedPlayerRatings(), report.repairedLeaderRatings()));
+    }
+
     private void setCustomKeySetting(CommandMessage commandMessage) {
         String settingName = commandMessage.getArgument(2);
         AppSettingKey appSettingKey = AppSettingKey.getByName(settingName);
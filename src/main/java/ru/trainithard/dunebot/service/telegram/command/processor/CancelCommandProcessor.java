@@ -3,11 +3,15 @@ package ru.trainithard.dunebot.service.telegram.command.processor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
+import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
 import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.repository.MatchRepository;
-import ru.trainithard.dunebot.repository.PlayerRepository;
+import ru.trainithard.dunebot.service.ActivePollIndex;
+import ru.trainithard.dunebot.service.PlayerIdentityService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.telegram.command.Command;
@@ -24,29 +28,33 @@ import java.util.Optional;
 public class CancelCommandProcessor extends CommandProcessor {
     private static final String FINISHED_MATCH_EXCEPTION_MESSAGE = "Запрещено отменять завершенные матчи!";
 
-    private final PlayerRepository playerRepository;
+    private final PlayerIdentityService playerIdentityService;
     private final MatchRepository matchRepository;
+    private final ActivePollIndex activePollIndex;
+    private final DuneBotTaskScheduler taskScheduler;
 
     @Override
     public void process(CommandMessage commandMessage) {
         log.debug("{}: CANCEL started", logId());
 
-        playerRepository.findByExternalId(commandMessage.getUserId()).ifPresent(player -> {
-            log.debug("{}: player {} found", logId(), player.getId());
-            Optional<Match> latestOwnedMatchOptional = matchRepository.findLatestOwnedMatchWithMatchPlayersBy(player.getId());
+        playerIdentityService.findByExternalId(commandMessage.getUserId()).ifPresent(player -> {
+            log.debug("{}: player {} found", logId(), player.id());
+            Optional<Match> latestOwnedMatchOptional = matchRepository.findLatestOwnedMatchWithMatchPlayersBy(player.id());
             if (latestOwnedMatchOptional.isPresent()) {
                 Match latestOwnedMatch = latestOwnedMatchOptional.get();
                 log.debug("{}: to-cancel match {} found", logId(), latestOwnedMatch.getId());
                 //TODO: restrict onsubmit cancel
                 if (MatchState.getEndedMatchStates().contains(latestOwnedMatch.getState())) {
-                    throw new AnswerableDuneBotException(FINISHED_MATCH_EXCEPTION_MESSAGE, player.getExternalChatId());
+                    throw new AnswerableDuneBotException(FINISHED_MATCH_EXCEPTION_MESSAGE, player.externalChatId());
                 }
                 messagingService.deleteMessageAsync(latestOwnedMatch.getExternalPollId());
                 transactionTemplate.executeWithoutResult(status -> {
                     latestOwnedMatch.setState(MatchState.CANCELLED);
                     matchRepository.save(latestOwnedMatch);
+                    taskScheduler.cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.MATCH_EXPIRATION, latestOwnedMatch.getId()));
                     log.debug("{}: match and matchPlayers deleted", logId());
                 });
+                activePollIndex.evict(latestOwnedMatch.getId());
             } else {
                 log.debug("{}: no matches found to cancel, sending message...", logId());
                 MessageDto messageDto = new MessageDto(commandMessage,
@@ -4,10 +4,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
-import ru.trainithard.dunebot.model.Player;
 import ru.trainithard.dunebot.model.UserSetting;
 import ru.trainithard.dunebot.model.UserSettingKey;
-import ru.trainithard.dunebot.repository.PlayerRepository;
+import ru.trainithard.dunebot.service.PlayerIdentity;
+import ru.trainithard.dunebot.service.PlayerIdentityService;
 import ru.trainithard.dunebot.service.UserSettingsService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
@@ -24,19 +24,19 @@ import java.util.stream.Collectors;
 public class ConfigCommandProcessor extends CommandProcessor {
     private static final String SHOW_SUBCOMMAND = "SHOW";
     private final UserSettingsService userSettingsService;
-    private final PlayerRepository playerRepository;
+    private final PlayerIdentityService playerIdentityService;
 
     @Override
     public void process(CommandMessage commandMessage) {
         log.debug("{}: CONFIG started", logId());
         String[] args = commandMessage.getAllArguments().split("\\s");
         String subCommand = args[0];
-        Optional<Player> playerOptional = playerRepository.findByExternalId(commandMessage.getUserId());
+        Optional<PlayerIdentity> playerOptional = playerIdentityService.findByExternalId(commandMessage.getUserId());
         if (playerOptional.isEmpty()) {
             return;
         }
 
-        Player player = playerOptional.get();
+        PlayerIdentity player = playerOptional.get();
         if (SHOW_SUBCOMMAND.equalsIgnoreCase(subCommand)) {
             processShowSubcommand(commandMessage, player);
         } else {
@@ -45,9 +45,9 @@ public class ConfigCommandProcessor extends CommandProcessor {
         log.debug("{}: CONFIG ended", logId());
     }
 
-    private void processShowSubcommand(CommandMessage commandMessage, Player player) {
+    private void processShowSubcommand(CommandMessage commandMessage, PlayerIdentity player) {
         log.debug("{}: detected show subcommand...", logId());
-        Map<UserSettingKey, String> playerSettingsByKey = userSettingsService.getAllSettings(player.getId()).stream()
+        Map<UserSettingKey, String> playerSettingsByKey = userSettingsService.getAllSettings(player.id()).stream()
                 .collect(Collectors.toMap(UserSetting::getKey, UserSetting::getValue));
         log.debug("{}: settings found: {}", logId(), playerSettingsByKey.size());
         ExternalMessage externalMessage = new ExternalMessage("Ваши настройки:").newLine();
@@ -60,13 +60,13 @@ public class ConfigCommandProcessor extends CommandProcessor {
         messagingService.sendMessageAsync(new MessageDto(commandMessage, externalMessage, null));
     }
 
-    private void processHostSubCommand(CommandMessage commandMessage, String subCommand, Player player) {
+    private void processHostSubCommand(CommandMessage commandMessage, String subCommand, PlayerIdentity player) {
         log.debug("{}: detected host subcommand...", logId());
         UserSettingKey userSettingKey = UserSettingKey.getByName(subCommand)
                 .orElseThrow(() -> new AnswerableDuneBotException("Неверный аргумент!", commandMessage));
         String commandArgument = commandMessage.getAllArguments().substring(subCommand.length()).trim();
-        userSettingsService.saveSetting(player.getId(), userSettingKey, commandArgument);
-        log.debug("{}: saved host setting {} for player {}", logId(), commandArgument, player.getId());
+        userSettingsService.saveSetting(player.id(), userSettingKey, commandArgument);
+        log.debug("{}: saved host setting {} for player {}", logId(), commandArgument, player.id());
         messagingService.sendMessageAsync(new MessageDto(commandMessage, new ExternalMessage("Настройка сохранена"), null));
     }
 
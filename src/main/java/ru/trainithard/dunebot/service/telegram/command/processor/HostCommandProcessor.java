@@ -7,11 +7,13 @@ import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.model.Player;
 import ru.trainithard.dunebot.model.UserSettingKey;
 import ru.trainithard.dunebot.model.messaging.ExternalPollId;
 import ru.trainithard.dunebot.repository.MatchRepository;
 import ru.trainithard.dunebot.repository.PlayerRepository;
 import ru.trainithard.dunebot.service.AppSettingsService;
+import ru.trainithard.dunebot.service.PlayerIdentityService;
 import ru.trainithard.dunebot.service.UserSettingsService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
@@ -30,24 +32,26 @@ public class HostCommandProcessor extends CommandProcessor {
     private final MatchRepository matchRepository;
     private final UserSettingsService userSettingsService;
     private final PlayerRepository playerRepository;
+    private final PlayerIdentityService playerIdentityService;
     private final AppSettingsService appSettingsService;
     private final ExternalMessageFactory messageFactory;
 
     @Override
     public void process(CommandMessage commandMessage) {
         log.debug("{}: HOST started", logId());
-        playerRepository.findByExternalId(commandMessage.getUserId()).ifPresent(player ->
-                matchRepository.findLatestPlayerMatch(player.getId(), List.of(MatchState.NEW)).ifPresent(match ->
-                        userSettingsService.getSetting(player.getId(), UserSettingKey.HOST)
+        playerIdentityService.findByExternalId(commandMessage.getUserId()).ifPresent(player ->
+                matchRepository.findLatestPlayerMatch(player.id(), List.of(MatchState.NEW)).ifPresent(match ->
+                        userSettingsService.getSetting(player.id(), UserSettingKey.HOST)
                                 .ifPresentOrElse(setting -> {
                                     log.debug("{}: found setting {} for player {} match {}",
-                                            logId(), setting.getId(), player.getId(), match.getId());
+                                            logId(), setting.getId(), player.id(), match.getId());
                                     AppSettingKey appSettingKey = match.getModType() == ModType.CLASSIC ?
                                             AppSettingKey.TOPIC_ID_CLASSIC : AppSettingKey.TOPIC_ID_UPRISING;
                                     Integer matchTopic = appSettingsService.getIntSetting(appSettingKey);
                                     String chatId = appSettingsService.getStringSetting(AppSettingKey.CHAT_ID);
                                     String server = setting.getValue();
-                                    ExternalMessage externalMessage = messageFactory.getHostMessage(player, match, server);
+                                    Player hoster = playerRepository.findById(player.id()).orElseThrow();
+                                    ExternalMessage externalMessage = messageFactory.getHostMessage(hoster, match, server);
                                     ExternalPollId externalPollId = match.getExternalPollId();
                                     Integer pollId = externalPollId == null ? null : externalPollId.getMessageId();
                                     MessageDto messageDto = new MessageDto(chatId, externalMessage, matchTopic, pollId, null);
@@ -0,0 +1,116 @@
+package ru.trainithard.dunebot.service.telegram.command.processor;
+
+import lombok.Getter;
+import ru.trainithard.dunebot.model.Match;
+import ru.trainithard.dunebot.model.MatchPlayer;
+import ru.trainithard.dunebot.model.MatchState;
+import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies votes of a single match poll in order of receiving to in-memory registration state, so that resulting
+ * registrations, revocations and positive answers count of the whole batch can be persisted at once.
+ */
+class PollVotesBatch {
+    private static final int POSITIVE_POLL_OPTION_ID = 0;
+
+    @Getter
+    private final Match match;
+    /**
+     * Match state before the batch.
+     */
+    @Getter
+    private final MatchState initialState;
+    private final int initialPositiveAnswersCount;
+    private final Map<Long, MatchPlayer> initialMatchPlayers = new HashMap<>();
+    private final Set<Long> registeredUserIds = new HashSet<>();
+    private final Map<Long, CommandMessage> registrationVotes = new LinkedHashMap<>();
+    /**
+     * Whether the match became ready to start by the last of batch's start-affecting votes.
+     */
+    @Getter
+    private boolean startRescheduled;
+    /**
+     * Whether the match lost required players count at least once during the batch.
+     */
+    @Getter
+    private boolean startCancelled;
+
+    PollVotesBatch(Match match, List<MatchPlayer> matchPlayers) {
+        this.match = match;
+        this.initialState = match.getState();
+        this.initialPositiveAnswersCount = match.getPositiveAnswersCount();
+        for (MatchPlayer matchPlayer : matchPlayers) {
+            long externalId = matchPlayer.getPlayer().getExternalId();
+            initialMatchPlayers.put(externalId, matchPlayer);
+            registeredUserIds.add(externalId);
+        }
+    }
+
+    void apply(CommandMessage vote) {
+        long userId = vote.getUserId();
+        boolean isPositiveVote = vote.getPollVote().selectedAnswerId().contains(POSITIVE_POLL_OPTION_ID);
+        boolean isRegistered = registeredUserIds.contains(userId);
+        if (isPositiveVote && !isRegistered) {
+            register(vote);
+        } else if (!isPositiveVote && isRegistered && match.getState() == MatchState.NEW) {
+            unregister(userId);
+        }
+    }
+
+    private void register(CommandMessage vote) {
+        registeredUserIds.add(vote.getUserId());
+        if (!initialMatchPlayers.containsKey(vote.getUserId())) {
+            registrationVotes.put(vote.getUserId(), vote);
+        }
+        match.setPositiveAnswersCount(match.getPositiveAnswersCount() + 1);
+        if (match.isReadyToStart()) {
+            startRescheduled = true;
+            ModType modType = match.getModType();
+            if (modType == ModType.UPRISING_6 || modType == ModType.BUFF) {
+                match.setState(MatchState.FAILED);
+            }
+        }
+    }
+
+    private void unregister(long userId) {
+        registeredUserIds.remove(userId);
+        registrationVotes.remove(userId);
+        match.setPositiveAnswersCount(match.getPositiveAnswersCount() - 1);
+        if (match.hasMissingPlayers()) {
+            startRescheduled = false;
+            startCancelled = true;
+        }
+    }
+
+    /**
+     * @return change of match positive answers count made by the batch
+     */
+    int getPositiveAnswersDelta() {
+        return match.getPositiveAnswersCount() - initialPositiveAnswersCount;
+    }
+
+    /**
+     * @return votes of users, who were not registered before the batch and are registered after it, in order of registration
+     */
+    List<CommandMessage> getRegistrationVotes() {
+        return List.copyOf(registrationVotes.values());
+    }
+
+    /**
+     * @return match players registered before the batch and not registered after it
+     */
+    List<MatchPlayer> getRevokedMatchPlayers() {
+        return initialMatchPlayers.entrySet().stream()
+                .filter(entry -> !registeredUserIds.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+}
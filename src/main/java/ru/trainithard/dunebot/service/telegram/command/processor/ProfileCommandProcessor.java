@@ -9,6 +9,7 @@ import ru.trainithard.dunebot.exception.WrongNamesInputException;
 import ru.trainithard.dunebot.model.Player;
 import ru.trainithard.dunebot.repository.PlayerRepository;
 import ru.trainithard.dunebot.service.LogId;
+import ru.trainithard.dunebot.service.messaging.BlockedChatRegistry;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.telegram.command.Command;
@@ -34,6 +35,7 @@ public class ProfileCommandProcessor extends CommandProcessor {
             "Вам необходимо подтвердить регистрацию. Используйте команду '/profile Имя (Steam_никнейм) Фамилия'";
 
     private final PlayerRepository playerRepository;
+    private final BlockedChatRegistry blockedChatRegistry;
 
     @Override
     public void process(CommandMessage commandMessage) {
@@ -96,6 +98,7 @@ public class ProfileCommandProcessor extends CommandProcessor {
         player.setExternalFirstName(firstName);
         player.setExternalName(userName);
         player.setChatBlocked(false);
+        blockedChatRegistry.unblock(player.getExternalChatId());
         log.debug("{}: player telegram {} names saved (name: {}, username: {})", LogId.get(), player.getId(), firstName, userName);
     }
 
@@ -5,13 +5,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.trainithard.dunebot.model.AppSettingKey;
-import ru.trainithard.dunebot.model.Player;
 import ru.trainithard.dunebot.model.PlayerRating;
-import ru.trainithard.dunebot.repository.PlayerRatingRepository;
-import ru.trainithard.dunebot.repository.PlayerRepository;
 import ru.trainithard.dunebot.service.AppSettingsService;
+import ru.trainithard.dunebot.service.PlayerIdentityService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+import ru.trainithard.dunebot.service.report.v2.RatingService;
 import ru.trainithard.dunebot.service.report.v2.RatingStatsComparator;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
@@ -29,8 +28,8 @@ import java.util.Optional;
 @Slf4j
 @RequiredArgsConstructor
 public class StatsCommandProcessor extends CommandProcessor {
-    private final PlayerRepository playerRepository;
-    private final PlayerRatingRepository playerRatingRepository;
+    private final PlayerIdentityService playerIdentityService;
+    private final RatingService ratingService;
     private final AppSettingsService appSettingsService;
     private final ExternalMessageFactory messageFactory;
     private final RatingStatsComparator ratingStatsComparator;
@@ -42,10 +41,12 @@ public class StatsCommandProcessor extends CommandProcessor {
         log.debug("{}: STATS started", logId());
 
         LocalDate now = LocalDate.now(clock);
-        List<PlayerRating> playerRatings = playerRatingRepository
-                .findAllBy(now.withDayOfMonth(1), now.with(TemporalAdjusters.lastDayOfMonth()));
+        List<PlayerRating> playerRatings = ratingService
+                .getPlayerRatings(now.withDayOfMonth(1), now.with(TemporalAdjusters.lastDayOfMonth()))
+                .stream()
+                .sorted(ratingStatsComparator)
+                .toList();
         log.debug("{}: {} ratings found", logId(), playerRatings.size());
-        playerRatings.sort(ratingStatsComparator);
 
         if (playerRatings.isEmpty()) {
             sendEmptyRatingsMessage(commandMessage);
@@ -53,18 +54,18 @@ public class StatsCommandProcessor extends CommandProcessor {
         }
 
         Integer rowsCount = appSettingsService.getIntSetting(AppSettingKey.RATING_STAT_ROWS_COUNT);
-        Player player = playerRepository.findByExternalId(commandMessage.getUserId()).orElseThrow();
+        long playerId = playerIdentityService.findByExternalId(commandMessage.getUserId()).orElseThrow().id();
         if (playerRatings.size() < rowsCount) {
             log.debug("{}: ratings count lesser then selection count, returning full rating", logId());
-            sendPlayerStats(1, playerRatings, commandMessage, player);
+            sendPlayerStats(1, playerRatings, commandMessage, playerId);
         } else {
-            getPlayerIndex(playerRatings, player)
+            getPlayerIndex(playerRatings, playerId)
                     .ifPresentOrElse(index -> {
                         List<PlayerRating> closestEntitiesList =
                                 RatingCloseEntitiesUtil.getClosestEntitiesList(playerRatings, index, rowsCount);
                         int requestingPlayerPlace = index + 1;
-                        int firstPlayerPlace = getFirstPlayerPlace(closestEntitiesList, player, requestingPlayerPlace);
-                        sendPlayerStats(firstPlayerPlace, closestEntitiesList, commandMessage, player);
+                        int firstPlayerPlace = getFirstPlayerPlace(closestEntitiesList, playerId, requestingPlayerPlace);
+                        sendPlayerStats(firstPlayerPlace, closestEntitiesList, commandMessage, playerId);
                     }, () ->
                             sendNoOwnedRatingsMessage(commandMessage));
         }
@@ -72,10 +73,10 @@ public class StatsCommandProcessor extends CommandProcessor {
         log.debug("{}: STATS ended", logId());
     }
 
-    private int getFirstPlayerPlace(List<PlayerRating> closestEntitiesList, Player requestingPlayer, int requestingPlayerPlace) {
+    private int getFirstPlayerPlace(List<PlayerRating> closestEntitiesList, long requestingPlayerId, int requestingPlayerPlace) {
         Integer playerOrder = null;
         for (int i = 0; i < closestEntitiesList.size(); i++) {
-            if (closestEntitiesList.get(i).getPlayer().equals(requestingPlayer)) {
+            if (closestEntitiesList.get(i).getPlayer().getId() == requestingPlayerId) {
                 playerOrder = i;
                 break;
             }
@@ -95,15 +96,15 @@ public class StatsCommandProcessor extends CommandProcessor {
         messagingService.sendMessageAsync(messageDto);
     }
 
-    private void sendPlayerStats(int startingPlace, List<PlayerRating> closestEntitiesList, CommandMessage commandMessage, Player player) {
-        ExternalMessage noRatingsMessage = messageFactory.getRatingStatsMessage(startingPlace, closestEntitiesList, player);
+    private void sendPlayerStats(int startingPlace, List<PlayerRating> closestEntitiesList, CommandMessage commandMessage, long playerId) {
+        ExternalMessage noRatingsMessage = messageFactory.getRatingStatsMessage(startingPlace, closestEntitiesList, playerId);
         MessageDto messageDto = new MessageDto(commandMessage, noRatingsMessage, null);
         messagingService.sendMessageAsync(messageDto);
     }
 
-    private Optional<Integer> getPlayerIndex(List<PlayerRating> playerRatings, Player player) {
+    private Optional<Integer> getPlayerIndex(List<PlayerRating> playerRatings, long playerId) {
         for (int i = 0; i < playerRatings.size(); i++) {
-            if (playerRatings.get(i).getPlayer().equals(player)) {
+            if (playerRatings.get(i).getPlayer().getId() == playerId) {
                 return Optional.of(i);
             }
         }
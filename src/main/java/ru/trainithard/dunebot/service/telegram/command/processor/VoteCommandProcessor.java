@@ -3,7 +3,6 @@ package ru.trainithard.dunebot.service.telegram.command.processor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
 import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
 import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
 import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
@@ -12,9 +11,13 @@ import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
 import ru.trainithard.dunebot.repository.MatchPlayerRepository;
 import ru.trainithard.dunebot.repository.MatchRepository;
 import ru.trainithard.dunebot.repository.PlayerRepository;
+import ru.trainithard.dunebot.service.ActivePollIndex;
 import ru.trainithard.dunebot.service.AppSettingsService;
-import ru.trainithard.dunebot.service.messaging.ExternalMessage;
-import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
+import ru.trainithard.dunebot.service.VoteAggregator;
+import ru.trainithard.dunebot.service.messaging.CoalescingMessageEditor;
+import ru.trainithard.dunebot.service.messaging.DirectMessagingService;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.task.DuneScheduledTaskFactory;
 import ru.trainithard.dunebot.service.task.DunebotRunnable;
@@ -24,18 +27,22 @@ import ru.trainithard.dunebot.service.telegram.factory.messaging.ExternalMessage
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * Accepts the vote in a match poll from external messaging system.
+ * Accepts the vote in a match poll from external messaging system. Votes are collected by <code>VoteAggregator</code>
+ * and applied in batches of the same poll votes.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class VoteCommandProcessor extends CommandProcessor {
-    private static final int POSITIVE_POLL_OPTION_ID = 0;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
 
     private final PlayerRepository playerRepository;
     private final MatchPlayerRepository matchPlayerRepository;
@@ -45,82 +52,154 @@ public class VoteCommandProcessor extends CommandProcessor {
     private final ExternalMessageFactory externalMessageFactory;
     private final Clock clock;
     private final DuneScheduledTaskFactory taskFactory;
+    private final VoteAggregator voteAggregator;
+    private final ActivePollIndex activePollIndex;
+    private final DirectMessagingService directMessagingService;
+    private final CoalescingMessageEditor messageEditor;
 
     @Override
     public void process(CommandMessage commandMessage) {
-        log.debug("{}: VOTE started", logId());
-
-        List<Integer> selectedPollAnswers = commandMessage.getPollVote().selectedAnswerId();
-        log.debug("{}: option: {}", logId(), selectedPollAnswers);
-        if (selectedPollAnswers.contains(POSITIVE_POLL_OPTION_ID)) {
-            registerMatchPlayerVote(commandMessage);
-        } else {
-            unregisterMatchPlayerVote(commandMessage);
+        log.debug("{}: VOTE received. Option: {}", logId(), commandMessage.getPollVote().selectedAnswerId());
+        voteAggregator.submit(commandMessage, this::processVotes);
+    }
+
+    /**
+     * Applies votes of the same poll in order of receiving, persisting all resulting changes in a single transaction.
+     * The batch is applied again to the fresh match, if the match state was changed concurrently.
+     */
+    void processVotes(List<CommandMessage> votes) {
+        String pollId = votes.get(0).getPollVote().pollId();
+        log.debug("{}: VOTE started. Poll {}, votes: {}", logId(), pollId, votes.size());
+
+        boolean isApplied = false;
+        for (int attempt = 1; !isApplied && attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+            isApplied = applyVotes(pollId, votes);
+        }
+        if (!isApplied) {
+            log.warn("{}: poll {} votes are not applied due to concurrent match changes", logId(), pollId);
         }
 
         log.debug("{}: VOTE ended", logId());
     }
 
-    private void registerMatchPlayerVote(CommandMessage commandMessage) {
-        matchRepository.findByExternalPollIdPollId(commandMessage.getPollVote().pollId())
-                .ifPresentOrElse(match -> {
-                            log.debug("{}: match {} found", logId(), match.getId());
-                            Optional<Player> playerOptional = playerRepository.findByExternalId(commandMessage.getUserId());
-                            Player player;
-                            if (playerOptional.isEmpty()) {
-                                log.debug("{}: player {} not found. Creating guest...", logId(), commandMessage.getUserId());
-                                int nextGuestIndex = appSettingsService.getIntSetting(AppSettingKey.NEXT_GUEST_INDEX);
-                                Player guestPlayer = Player.createGuestPlayer(commandMessage, nextGuestIndex);
-                                appSettingsService.saveSetting(AppSettingKey.NEXT_GUEST_INDEX, Integer.toString(nextGuestIndex + 1));
-                                player = playerRepository.save(guestPlayer);
-                                log.debug("{}: player {} ({}) saved as guest", logId(), player.getId(), commandMessage.getUserId());
-                            } else {
-                                player = playerOptional.get();
-                                log.debug("{}: player {} found", logId(), player.getId());
-                            }
-                            if (player.isGuest()) {
-                                ExternalMessage guestVoteMessage = externalMessageFactory.getGuestMessageDto(player);
-                                MessageDto messageDto = new MessageDto(player.getExternalChatId(), guestVoteMessage, null, null);
-                                messagingService.sendMessageAsync(messageDto).exceptionally(processException(player, logId()));
-                            }
-                            processPlayerVoteRegistration(player, match);
-                        },
-                        () -> log.debug("{}: match not found", logId())
-                );
+    /**
+     * @return <code>false</code> if the match state was changed concurrently and the batch was rolled back
+     */
+    private boolean applyVotes(String pollId, List<CommandMessage> votes) {
+        Optional<Match> matchOptional = findMatch(pollId);
+        if (matchOptional.isEmpty()) {
+            log.debug("{}: match not found", logId());
+            return true;
+        }
+        Match match = matchOptional.get();
+        log.debug("{}: match {} (positiveAnswers: {}) found", logId(), match.getId(), match.getPositiveAnswersCount());
+        PollVotesBatch votesBatch = new PollVotesBatch(match, matchPlayerRepository.findWithPlayersByMatchId(match.getId()));
+        votes.forEach(votesBatch::apply);
+        List<Player> registeredPlayers = saveVotesBatch(votesBatch);
+        if (registeredPlayers == null) {
+            log.debug("{}: match {} state is changed concurrently, votes batch rolled back", logId(), match.getId());
+            return false;
+        }
+        sendGuestMessages(registeredPlayers);
+        updateMatchStart(votesBatch);
+        return true;
+    }
+
+    /**
+     * Match of a known poll is found by its ID. Poll missing in the index is looked up by poll ID, as the match might
+     * have left <code>NEW</code> state after the vote was received.
+     */
+    private Optional<Match> findMatch(String pollId) {
+        Optional<Match> indexedMatch = activePollIndex.findMatchId(pollId).flatMap(matchRepository::findById);
+        return indexedMatch.isPresent() ? indexedMatch : matchRepository.findByExternalPollIdPollId(pollId);
     }
 
-    private Function<Throwable, ExternalMessageDto> processException(Player player, int logId) {
-        return exception -> {
-            if (exception instanceof TelegramApiRequestException telegramException && telegramException.getErrorCode().equals(403)) {
-                player.setChatBlocked(true);
-                playerRepository.save(player);
-                log.debug("{}: player {} ({}) received chat_block flag", logId, player.getId(), player.getExternalChatId());
+    /**
+     * Updates only positive answers count and state of the match, conditionally on the state not changed since the batch
+     * was started, so concurrent submit, cancel or expiration is not overwritten.
+     *
+     * @return registered players, or <code>null</code> if the match state was changed concurrently
+     */
+    private List<Player> saveVotesBatch(PollVotesBatch votesBatch) {
+        Match match = votesBatch.getMatch();
+        List<MatchPlayer> revokedMatchPlayers = votesBatch.getRevokedMatchPlayers();
+        List<Player> registeredPlayers = transactionTemplate.execute(status -> {
+            int updatedMatchesCount = matchRepository.applyVotes(match.getId(), votesBatch.getPositiveAnswersDelta(),
+                    votesBatch.getInitialState(), match.getState());
+            if (updatedMatchesCount == 0) {
+                status.setRollbackOnly();
+                return null;
             }
+            List<Player> players = getOrCreatePlayers(votesBatch.getRegistrationVotes());
+            matchPlayerRepository.saveAll(players.stream().map(player -> new MatchPlayer(match, player)).toList());
+            matchPlayerRepository.deleteAll(revokedMatchPlayers);
+            return players;
+        });
+        if (registeredPlayers == null) {
             return null;
-        };
+        }
+        if (match.getState() != MatchState.NEW) {
+            activePollIndex.evict(match.getId());
+            taskScheduler.cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.MATCH_EXPIRATION, match.getId()));
+        }
+        log.debug("{}: match {} votes saved. Registered: {}, revoked: {}, positiveAnswers: {}", logId(), match.getId(),
+                registeredPlayers.size(), revokedMatchPlayers.size(), match.getPositiveAnswersCount());
+        return registeredPlayers;
     }
 
-    private void processPlayerVoteRegistration(Player player, Match match) {
-        log.debug("{}: match {} (positiveAnswers: {}) player {} vote registration...",
-                logId(), match.getId(), match.getPositiveAnswersCount(), player.getId());
+    /**
+     * Guest indexes are reserved under the setting's row lock, as batches of different polls run concurrently.
+     */
+    private List<Player> getOrCreatePlayers(List<CommandMessage> registrationVotes) {
+        if (registrationVotes.isEmpty()) {
+            return List.of();
+        }
+        List<Long> userIds = registrationVotes.stream().map(CommandMessage::getUserId).toList();
+        Map<Long, Player> playersByExternalId = playerRepository.findAllByExternalIdIn(userIds).stream()
+                .collect(Collectors.toMap(Player::getExternalId, Function.identity()));
+        int newGuestsCount = (int) userIds.stream().filter(userId -> !playersByExternalId.containsKey(userId)).count();
+        int nextGuestIndex = newGuestsCount == 0
+                ? 0
+                : appSettingsService.getAndAddIntSetting(AppSettingKey.NEXT_GUEST_INDEX, newGuestsCount);
+        List<Player> players = new ArrayList<>(registrationVotes.size());
+        for (CommandMessage vote : registrationVotes) {
+            Player player = playersByExternalId.get(vote.getUserId());
+            if (player == null) {
+                log.debug("{}: player {} not found. Creating guest...", logId(), vote.getUserId());
+                player = playerRepository.save(Player.createGuestPlayer(vote, nextGuestIndex++));
+                log.debug("{}: player {} ({}) saved as guest", logId(), player.getId(), vote.getUserId());
+            }
+            players.add(player);
+        }
+        return players;
+    }
 
-        int updatedPositiveAnswersCount = match.getPositiveAnswersCount() + 1;
-        match.setPositiveAnswersCount(updatedPositiveAnswersCount);
-        MatchPlayer matchPlayer = new MatchPlayer(match, player);
-        Match savedMatch = transactionTemplate.execute(status -> {
-            matchPlayerRepository.save(matchPlayer);
-            return matchRepository.save(match);
-        });
-        log.debug("{}: match {} player {} vote saved, positiveAnswers: {}",
-                logId(), match.getId(), player.getId(), savedMatch == null ? "null" : savedMatch.getPositiveAnswersCount());
+    private void sendGuestMessages(List<Player> registeredPlayers) {
+        List<MessageDto> guestMessages = registeredPlayers.stream()
+                .filter(Player::isGuest)
+                .map(player -> new MessageDto(player.getExternalChatId(), externalMessageFactory.getGuestMessageDto(player), null, null))
+                .toList();
+        if (!guestMessages.isEmpty()) {
+            directMessagingService.sendAsync(guestMessages);
+        }
+    }
 
-        if (match.isReadyToStart()) {
-            rescheduleNewMatchStart(match.getId());
-            ModType modType = match.getModType();
-            if (modType == ModType.UPRISING_6 || modType == ModType.BUFF) {
-                match.setState(MatchState.FAILED);
-                matchRepository.save(match);
+    private void updateMatchStart(PollVotesBatch votesBatch) {
+        Match match = votesBatch.getMatch();
+        if (votesBatch.isStartCancelled()) {
+            if (!votesBatch.isStartRescheduled()) {
+                taskScheduler.cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.START_MESSAGE, match.getId()));
             }
+            ExternalMessageId externalStartId = match.getExternalStartId();
+            if (externalStartId != null) {
+                EditMessageDto editMessageDto =
+                        new EditMessageDto(externalStartId, externalMessageFactory.getStartCancelledMessage(match), null);
+                editMessageDto.setPriority(MessagePriority.NOTIFICATION);
+                messageEditor.edit(editMessageDto);
+            }
+        }
+        if (votesBatch.isStartRescheduled()) {
+            rescheduleNewMatchStart(match.getId());
         }
     }
 
@@ -132,38 +211,6 @@ public class VoteCommandProcessor extends CommandProcessor {
         taskScheduler.rescheduleSingleRunTask(startMatchTask, duneBotTaskId, matchStartInstant);
     }
 
-    private void unregisterMatchPlayerVote(CommandMessage commandMessage) {
-        matchPlayerRepository
-                .findByMatchExternalPollIdPollIdAndPlayerExternalId(commandMessage.getPollVote().pollId(), commandMessage.getUserId())
-                .ifPresentOrElse(matchPlayer -> {
-                            Match match = matchPlayer.getMatch();
-                            log.debug("{}: match {} (positiveAnswers: {}) player {} found",
-                                    logId(), match.getId(), match.getPositiveAnswersCount(), matchPlayer.getPlayer().getId());
-
-                            if (match.getState() == MatchState.NEW) {
-                                int currentPositiveAnswersCount = match.getPositiveAnswersCount();
-                                match.setPositiveAnswersCount(currentPositiveAnswersCount - 1);
-                                Match savedMatch = transactionTemplate.execute(status -> {
-                                    matchPlayerRepository.delete(matchPlayer);
-                                    return matchRepository.save(match);
-                                });
-                                log.debug("{}: updated match {} player {} vote revoked. positiveAnswers: {}",
-                                        logId(), match.getId(), matchPlayer.getPlayer().getId(),
-                                        savedMatch == null ? "null" : savedMatch.getPositiveAnswersCount());
-
-                                if (match.hasMissingPlayers()) {
-                                    taskScheduler.cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.START_MESSAGE, match.getId()));
-                                    ExternalMessageId externalStartId = match.getExternalStartId();
-                                    if (externalStartId != null) {
-                                        messagingService.deleteMessageAsync(externalStartId);
-                                    }
-                                }
-                            }
-                        },
-                        () -> log.debug("{}: matchPlayer for player {} not found", logId(), commandMessage.getUserId())
-                );
-    }
-
     @Override
     public Command getCommand() {
         return Command.VOTE;
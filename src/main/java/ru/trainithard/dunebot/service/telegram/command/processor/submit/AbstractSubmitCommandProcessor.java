@@ -57,6 +57,10 @@ abstract class AbstractSubmitCommandProcessor extends CommandProcessor {
         rescheduleForcedFailFinish(submitTimeoutMatchNotificationTaskId, submitTimeoutMatchNotificationTime);
     }
 
+    void cancelExpiration(long matchId) {
+        taskScheduler.cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.MATCH_EXPIRATION, matchId));
+    }
+
     private void rescheduleForcedFailFinish(DuneBotTaskId submitTimeoutTaskId, Instant forcedFinishTime) {
         Instant startTime = forcedFinishTime;
         ScheduledFuture<?> oldFailFinishTask = taskScheduler.get(submitTimeoutTaskId);
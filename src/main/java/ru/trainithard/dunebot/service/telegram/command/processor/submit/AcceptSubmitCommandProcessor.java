@@ -1,11 +1,18 @@
 package ru.trainithard.dunebot.service.telegram.command.processor.submit;
 
+import org.springframework.lang.Nullable;
 import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.MatchState;
+import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.messaging.dto.ButtonDto;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 import ru.trainithard.dunebot.service.telegram.command.processor.CommandProcessor;
 
+import java.util.List;
+
 abstract class AcceptSubmitCommandProcessor extends CommandProcessor {
     private static final String FINISHED_MATCH_SUBMIT_MESSAGE_TEMPLATE = "Матч %d уже завершен. Регистрация результата более невозможна.";
 
@@ -15,4 +22,16 @@ abstract class AcceptSubmitCommandProcessor extends CommandProcessor {
             throw new AnswerableDuneBotException(message, commandMessage);
         }
     }
+
+    /**
+     * Replaces the message with pressed submit button, so that the submitter's chat keeps single message per submit.
+     * The message is sent anew if the pressed button's message is unknown.
+     */
+    void replaceCallbackMessage(CommandMessage commandMessage, ExternalMessage message, @Nullable List<List<ButtonDto>> keyboard) {
+        if (commandMessage.getMessageId() == 0) {
+            messagingService.sendMessageAsync(new MessageDto(commandMessage, message, keyboard));
+        } else {
+            messagingService.editMessageAsync(new EditMessageDto(commandMessage, message, keyboard));
+        }
+    }
 }
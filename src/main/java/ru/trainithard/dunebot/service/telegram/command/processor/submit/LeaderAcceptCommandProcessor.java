@@ -9,11 +9,14 @@ import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
 import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.*;
 import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
-import ru.trainithard.dunebot.repository.LeaderRepository;
 import ru.trainithard.dunebot.repository.MatchPlayerRepository;
 import ru.trainithard.dunebot.repository.MatchRepository;
 import ru.trainithard.dunebot.service.AppSettingsService;
+import ru.trainithard.dunebot.service.LeaderCatalog;
+import ru.trainithard.dunebot.service.messaging.DirectMessagingService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
+import ru.trainithard.dunebot.service.messaging.dto.DirectMessageResult;
 import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.task.DuneScheduledTaskFactory;
@@ -40,13 +43,14 @@ public class LeaderAcceptCommandProcessor extends AcceptSubmitCommandProcessor {
             "Вы уже назначили лидера %s игроку %s. Выберите другого лидера, или используйте команду '/resubmit %d', чтобы начать заново.";
     private final MatchRepository matchRepository;
     private final MatchPlayerRepository matchPlayerRepository;
-    private final LeaderRepository leaderRepository;
+    private final LeaderCatalog leaderCatalog;
     private final ExternalMessageFactory externalMessageFactory;
     private final DuneBotTaskScheduler taskScheduler;
     private final DuneScheduledTaskFactory taskFactory;
     private final Clock clock;
     private final AppSettingsService appSettingsService;
     private final ExternalMessageFactory messageFactory;
+    private final DirectMessagingService directMessagingService;
 
     @Override
     public void process(CommandMessage commandMessage) {
@@ -59,7 +63,7 @@ public class LeaderAcceptCommandProcessor extends AcceptSubmitCommandProcessor {
         validateMatchIsNotFinished(commandMessage, match);
         log.debug("{}: match {} found and validated", logId(), matchId);
 
-        Leader submittedLeader = leaderRepository.findById(leaderId).orElseThrow();
+        Leader submittedLeader = leaderCatalog.findById(leaderId).orElseThrow();
         log.debug("{}: leader {} found", logId(), submittedLeader.getId());
 
         MatchLeaderSubmit matchLeaderSubmit = getMatchLeaderSubmit(commandMessage, match, submittedLeader, matchId);
@@ -121,8 +125,7 @@ public class LeaderAcceptCommandProcessor extends AcceptSubmitCommandProcessor {
         int acceptSubmitTimeout = appSettingsService.getIntSetting(AppSettingKey.ACCEPT_SUBMIT_TIMEOUT);
         Instant startTime = Instant.now(clock).plus(acceptSubmitTimeout, ChronoUnit.MINUTES);
         taskScheduler.rescheduleSingleRunTask(submitAcceptTimeoutTask, taskId, startTime);
-        taskScheduler.cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT_NOTIFICATION, matchId));
-        taskScheduler.cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT, matchId));
+        taskScheduler.cancelSingleRunTasks(matchId, DuneTaskType.SUBMIT_TIMEOUT_NOTIFICATION, DuneTaskType.SUBMIT_TIMEOUT);
     }
 
     private void validateLeaderIsNotSubmitted(CommandMessage commandMessage, MatchPlayer matchPlayer, Leader leader, long matchId) {
@@ -135,22 +138,28 @@ public class LeaderAcceptCommandProcessor extends AcceptSubmitCommandProcessor {
 
     private void sendSubmitterSubmitCompletedMessages(CommandMessage commandMessage, List<MatchPlayer> matchPlayers) {
         ExternalMessage message = externalMessageFactory.getFinishedLeadersSubmitMessage(matchPlayers);
-        messagingService.sendMessageAsync(new MessageDto(commandMessage, message, null));
+        replaceCallbackMessage(commandMessage, message, null);
     }
 
     private void sendPlayersSubmitCompletedMessages(Match match) {
+        int logId = logId();
         Player submitter = match.getSubmitter();
         Integer acceptSubmitTimeout = appSettingsService.getIntSetting(AppSettingKey.ACCEPT_SUBMIT_TIMEOUT);
-        match.getMatchPlayers().stream()
+        List<MessageDto> participantMessages = match.getMatchPlayers().stream()
                 .filter(matchPlayer -> !matchPlayer.getPlayer().equals(submitter))
-                .forEach(matchPlayer -> {
+                .map(matchPlayer -> {
                     String chatId = Long.toString(matchPlayer.getPlayer().getExternalChatId());
                     String submitterName = submitter.getFriendlyName();
                     ExternalMessage message = externalMessageFactory
                             .getFinishedSubmitParticipantMessage(matchPlayer, submitterName, acceptSubmitTimeout);
                     MessageDto messageDto = new MessageDto(chatId, message, null, null);
-                    messagingService.sendMessageAsync(messageDto);
-                });
+                    messageDto.setPriority(MessagePriority.NOTIFICATION);
+                    return messageDto;
+                })
+                .toList();
+        directMessagingService.sendAsync(participantMessages).thenAccept(results ->
+                log.debug("{}: match {} submit finish messages delivered: {} of {}", logId, match.getId(),
+                        results.stream().filter(DirectMessageResult::isDelivered).count(), results.size()));
     }
 
     @Override
@@ -11,7 +11,6 @@ import ru.trainithard.dunebot.repository.MatchPlayerRepository;
 import ru.trainithard.dunebot.repository.MatchRepository;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 import ru.trainithard.dunebot.service.messaging.dto.ButtonDto;
-import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.telegram.command.CallbackSymbol;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
@@ -89,11 +88,11 @@ public class PlayersAcceptCommandProcessor extends AcceptSubmitCommandProcessor
     }
 
     private void sendPlayersSubmitCompletedMessages(CommandMessage commandMessage, Match match) {
-        ExternalMessage playerSubmitFinishMessage = externalMessageFactory.getFinishedPlayersSubmitMessage(match.getMatchPlayers());
-        messagingService.sendMessageAsync(new MessageDto(commandMessage, playerSubmitFinishMessage, null));
-        ExternalMessage leadersSubmitMessage = externalMessageFactory.getLeadersSubmitMessage(match.getId());
+        ExternalMessage submitMessage = externalMessageFactory.getFinishedPlayersSubmitMessage(match.getMatchPlayers())
+                .newLine().newLine()
+                .concat(externalMessageFactory.getLeadersSubmitMessage(match.getId()));
         List<List<ButtonDto>> leadersKeyboard = keyboardsFactory.getSubmitLeadersKeyboard(match);
-        messagingService.sendMessageAsync(new MessageDto(commandMessage, leadersSubmitMessage, leadersKeyboard));
+        replaceCallbackMessage(commandMessage, submitMessage, leadersKeyboard);
     }
 
     @Override
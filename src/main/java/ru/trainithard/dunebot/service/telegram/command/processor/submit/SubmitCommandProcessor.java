@@ -10,6 +10,8 @@ import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.model.Player;
 import ru.trainithard.dunebot.repository.MatchRepository;
 import ru.trainithard.dunebot.repository.PlayerRepository;
+import ru.trainithard.dunebot.service.ActivePollIndex;
+import ru.trainithard.dunebot.service.PlayerIdentityService;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 import ru.trainithard.dunebot.service.telegram.validator.SubmitMatchValidator;
@@ -25,7 +27,9 @@ import static ru.trainithard.dunebot.exception.MatchNotExistsException.MATCH_NOT
 public class SubmitCommandProcessor extends AbstractSubmitCommandProcessor {
     private final MatchRepository matchRepository;
     private final PlayerRepository playerRepository;
+    private final PlayerIdentityService playerIdentityService;
     private final SubmitMatchValidator submitMatchValidator;
+    private final ActivePollIndex activePollIndex;
 
     @Override
     public void process(CommandMessage commandMessage) {
@@ -36,10 +40,13 @@ public class SubmitCommandProcessor extends AbstractSubmitCommandProcessor {
             submitMatchValidator.validateSubmitMatch(commandMessage, match);
             long chatId = commandMessage.getChatId();
 
-            Player submitter = playerRepository.findByExternalId(chatId).orElseThrow();
+            long submitterId = playerIdentityService.findByExternalId(chatId).orElseThrow().id();
+            Player submitter = playerRepository.getReferenceById(submitterId);
             match.setState(MatchState.ON_SUBMIT);
             match.setSubmitter(submitter);
             matchRepository.save(match);
+            activePollIndex.evict(match.getId());
+            cancelExpiration(match.getId());
             log.debug("{}: match {} saved state: ON_SUBMIT, submitter: {}", logId(), match.getId(), submitter.getId());
 
             sendSubmitMessages(match, chatId);
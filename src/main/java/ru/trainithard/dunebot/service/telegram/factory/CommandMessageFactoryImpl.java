@@ -7,18 +7,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import ru.trainithard.dunebot.model.Match;
-import ru.trainithard.dunebot.repository.MatchRepository;
+import ru.trainithard.dunebot.service.ActivePollIndex;
 import ru.trainithard.dunebot.service.LogId;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 
-import java.util.Optional;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CommandMessageFactoryImpl implements CommandMessageFactory {
-    private final MatchRepository matchRepository;
+    private final ActivePollIndex activePollIndex;
     private final ObjectMapper mapper = new ObjectMapper();
 
     @Override
@@ -29,10 +26,8 @@ public class CommandMessageFactoryImpl implements CommandMessageFactory {
                 return CommandMessage.getMessageInstance(message);
             }
         } else if (hasPollAnswerOption(update)) {
-            String pollId = update.getPollAnswer().getPollId();
-            Optional<Match> matchOptional = matchRepository.findByExternalPollIdPollId(pollId);
-            if (matchOptional.isPresent()) {
-                return CommandMessage.getPollAnswerInstance(update.getPollAnswer());
+            if (activePollIndex.contains(update.getPollAnswer().getPollId())) {
+                return CommandMessage.getPollAnswerInstance(update.getPollAnswer(), update.getUpdateId());
             }
         } else if (hasNotBlankCallbackQuery(update)) {
             //TODO: add validation for callback owner (to avoid excessive processing when multiple bots in channel exist)
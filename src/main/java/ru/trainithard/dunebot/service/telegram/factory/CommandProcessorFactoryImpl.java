@@ -1,23 +1,51 @@
 package ru.trainithard.dunebot.service.telegram.factory;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.trainithard.dunebot.exception.DuneBotException;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.processor.CommandProcessor;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Routes commands to processors using routing table compiled on startup. Startup fails when a command has no
+ * processor, or when a command has several processors.
+ */
 @Service
-@RequiredArgsConstructor
 public class CommandProcessorFactoryImpl implements CommandProcessorFactory {
-    private final List<CommandProcessor> commandProcessors;
+    /**
+     * Legacy commands, which are still recognized, but are no longer processed.
+     */
+    private static final Set<Command> UNPROCESSED_COMMANDS = EnumSet.of(Command.ACCEPT_SUBMIT, Command.LEADER);
+
+    private final Map<Command, CommandProcessor> processorsByCommand = new EnumMap<>(Command.class);
+
+    public CommandProcessorFactoryImpl(List<CommandProcessor> commandProcessors) {
+        for (CommandProcessor commandProcessor : commandProcessors) {
+            CommandProcessor duplicateProcessor = processorsByCommand.put(commandProcessor.getCommand(), commandProcessor);
+            if (duplicateProcessor != null) {
+                throw new IllegalStateException("Command " + commandProcessor.getCommand() + " has several processors: " +
+                                                duplicateProcessor.getClass().getSimpleName() + ", " +
+                                                commandProcessor.getClass().getSimpleName());
+            }
+        }
+        Set<Command> missingProcessorCommands = EnumSet.complementOf(EnumSet.copyOf(UNPROCESSED_COMMANDS));
+        missingProcessorCommands.removeAll(processorsByCommand.keySet());
+        if (!missingProcessorCommands.isEmpty()) {
+            throw new IllegalStateException("Commands have no processors: " + missingProcessorCommands);
+        }
+    }
 
     @Override
     public CommandProcessor getProcessor(Command command) {
-        return commandProcessors.stream()
-                .filter(commandProcessor -> command.equals(commandProcessor.getCommand()))
-                .findFirst()
-                .orElseThrow(() -> new DuneBotException("Не найден обработчик команды!"));
+        CommandProcessor commandProcessor = processorsByCommand.get(command);
+        if (commandProcessor == null) {
+            throw new DuneBotException("Не найден обработчик команды!");
+        }
+        return commandProcessor;
     }
 }
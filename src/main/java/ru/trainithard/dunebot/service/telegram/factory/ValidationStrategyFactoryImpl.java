@@ -1,25 +1,37 @@
 package ru.trainithard.dunebot.service.telegram.factory;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.trainithard.dunebot.service.telegram.command.CommandType;
 import ru.trainithard.dunebot.service.telegram.validator.DefaultCommandMessageValidator;
 import ru.trainithard.dunebot.service.telegram.validator.ValidationStrategy;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Selects validators using routing table compiled on startup. Command types without specific validator are validated
+ * by <code>DefaultCommandMessageValidator</code>. Startup fails when a command type has several validators.
+ */
 @Service
-@RequiredArgsConstructor
 public class ValidationStrategyFactoryImpl implements ValidationStrategyFactory {
-    private final List<ValidationStrategy> validationStrategies;
-    private final DefaultCommandMessageValidator defaultCommandMessageValidator;
+    private final Map<CommandType, ValidationStrategy> validatorsByCommandType = new EnumMap<>(CommandType.class);
+
+    public ValidationStrategyFactoryImpl(List<ValidationStrategy> validationStrategies,
+                                         DefaultCommandMessageValidator defaultCommandMessageValidator) {
+        for (CommandType commandType : CommandType.values()) {
+            validatorsByCommandType.put(commandType, defaultCommandMessageValidator);
+        }
+        for (ValidationStrategy validationStrategy : validationStrategies) {
+            CommandType commandType = validationStrategy.getCommandType();
+            if (commandType != null && validatorsByCommandType.put(commandType, validationStrategy) != defaultCommandMessageValidator) {
+                throw new IllegalStateException("Command type " + commandType + " has several validators");
+            }
+        }
+    }
 
     @Override
     public ValidationStrategy getValidator(CommandType commandType) {
-
-        return validationStrategies.stream()
-                .filter(validationStrategy -> commandType.equals(validationStrategy.getCommandType()))
-                .findFirst()
-                .orElse(defaultCommandMessageValidator);
+        return validatorsByCommandType.get(commandType);
     }
 }
@@ -17,6 +17,8 @@ public interface ExternalMessageFactory {
     ExternalMessage getStartMessage(Match match, List<String> regularPlayerMentions,
                                     List<String> guestPlayerMentions, List<String> blockedChatGuests);
 
+    ExternalMessage getStartCancelledMessage(Match match);
+
     ExternalMessage getHostMessage(Player hoster, Match match, String server);
 
     ExternalMessage getMatchSuccessfulFinishMessage(Match match);
@@ -35,7 +37,7 @@ public interface ExternalMessageFactory {
 
     ExternalMessage getNoOwnedRatingsMessage();
 
-    ExternalMessage getRatingStatsMessage(int startingPlace, List<PlayerRating> playerRatings, Player requestingPlayer);
+    ExternalMessage getRatingStatsMessage(int startingPlace, List<PlayerRating> playerRatings, long requestingPlayerId);
 
     ExternalMessage getHelpMessage();
 
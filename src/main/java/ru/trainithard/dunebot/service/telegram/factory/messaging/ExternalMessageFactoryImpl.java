@@ -6,6 +6,7 @@ import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.MatchPlayer;
 import ru.trainithard.dunebot.model.Player;
 import ru.trainithard.dunebot.model.PlayerRating;
+import ru.trainithard.dunebot.service.PlayerMentionService;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 import ru.trainithard.dunebot.util.EmojiRandomizer;
 import ru.trainithard.dunebot.util.MarkdownEscaper;
@@ -21,29 +22,48 @@ import static ru.trainithard.dunebot.configuration.SettingConstants.EXTERNAL_LIN
 @Service
 public class ExternalMessageFactoryImpl implements ExternalMessageFactory {
     private static final String LEADER_EMOJI = "⭐️";
+    private static final String GUEST_MESSAGE_PREFIX = new ExternalMessage("""
+            Вас приветствует DuneBot! Вы ответили да в опросе по рейтинговой игре - это значит, что по завершении \
+            игры вам придет опрос, где нужно будет указать занятое в игре место (и загрузить скриншот матча в \
+            случае победы) - не волнуйтесь, бот подскажет что делать.""").newLine()
+            .append("Также вы автоматически зарегистрированы у бота как гость под именем ").getText();
+    private static final String GUEST_MESSAGE_SUFFIX = new ExternalMessage()
+            .append(" - это значит, что вы не можете выполнять некоторые команды бота и не будете включены " +
+                    "в результаты рейтинга.").newLine()
+            .append("Для того, чтобы подтвердить регистрацию, выполните в этом чате команду")
+            .appendBold(" '/profile Имя (ник в steam) Фамилия'").append(".").newLine()
+            .appendBold("Желательно это  сделать прямо сейчас.").newLine()
+            .append("Подробная информация о боте: /help.").getText();
+    private static final String RESUBMIT_MESSAGE = MarkdownEscaper.getEscaped(
+            "Если вы знаете все места и лидеров, вы можете выполнить перерегистрацию результата самостоятельно, " +
+            "иначе - запрос будет отправлен игроку, выполнившему предыдущую регистрацию результатов.");
+    private static final String NO_RATINGS_MESSAGE =
+            MarkdownEscaper.getEscaped("Рейтинг за текущий месяц еще не рассчитан, повторите запрос завтра.");
+    private static final String NO_OWNED_RATINGS_MESSAGE = MarkdownEscaper
+            .getEscaped("В рейтинге за текущий месяц нет матчей с вашим участием. Перерасчет рейтинга будет выполнен ночью.");
+    private final PlayerMentionService mentionService;
     @Value("${bot.version}")
     private String version;
+    /**
+     * Rendered help message. Built on the first request, as it depends on injected version.
+     */
+    private volatile String helpMessageText;
+
+    public ExternalMessageFactoryImpl(PlayerMentionService mentionService) {
+        this.mentionService = mentionService;
+    }
 
     @Override
     public ExternalMessage getGuestMessageDto(Player player) {
-        return new ExternalMessage("""
-                Вас приветствует DuneBot! Вы ответили да в опросе по рейтинговой игре - это значит, что по завершении \
-                игры вам придет опрос, где нужно будет указать занятое в игре место (и загрузить скриншот матча в \
-                случае победы) - не волнуйтесь, бот подскажет что делать.""").newLine()
-                .append("Также вы автоматически зарегистрированы у бота как гость под именем ")
+        return new ExternalMessage().appendRaw(GUEST_MESSAGE_PREFIX)
                 .append(player.getFirstName()).append(" (").append(player.getSteamName()).append(") ").append(player.getLastName())
-                .append(" - это значит, что вы не можете выполнять некоторые команды бота и не будете включены " +
-                        "в результаты рейтинга.").newLine()
-                .append("Для того, чтобы подтвердить регистрацию, выполните в этом чате команду")
-                .appendBold(" '/profile Имя (ник в steam) Фамилия'").append(".").newLine()
-                .appendBold("Желательно это  сделать прямо сейчас.").newLine()
-                .append("Подробная информация о боте: /help.");
+                .appendRaw(GUEST_MESSAGE_SUFFIX);
     }
 
     @Override
     public ExternalMessage getPartialSubmittedMatchFinishMessage(Match match) {
         Player submitter = match.getSubmitter();
-        String submitterMention = MarkdownEscaper.getEscapedMention(submitter.getMentionTag(), submitter.getExternalId());
+        String submitterMention = mentionService.getMention(submitter);
         return new ExternalMessage().startBold().append("Матч ").append(match.getId()).endBold()
                 .append(" завершен без результата, так как игрок ").appendRaw(submitterMention)
                 .append(" не закончил регистрацию результата.");
@@ -58,8 +78,7 @@ public class ExternalMessageFactoryImpl implements ExternalMessageFactory {
 
     @Override
     public ExternalMessage getResubmitMessage() {
-        return new ExternalMessage("Если вы знаете все места и лидеров, вы можете выполнить перерегистрацию результата самостоятельно, " +
-                                   "иначе - запрос будет отправлен игроку, выполнившему предыдущую регистрацию результатов.");
+        return new ExternalMessage().appendRaw(RESUBMIT_MESSAGE);
     }
 
     @Override
@@ -83,13 +102,17 @@ public class ExternalMessageFactoryImpl implements ExternalMessageFactory {
         return startMessage;
     }
 
+    @Override
+    public ExternalMessage getStartCancelledMessage(Match match) {
+        return new ExternalMessage()
+                .startBold().append("Матч ").append(match.getId()).endBold()
+                .append(" не собран: участников недостаточно. Сообщение обновится, когда игроки снова наберутся.");
+    }
+
     @Override
     public ExternalMessage getHostMessage(Player hoster, Match match, String server) {
         String mentionsRow = match.getMatchPlayers().stream()
-                .map(matchPlayer -> {
-                    Player player = matchPlayer.getPlayer();
-                    return MarkdownEscaper.getEscapedMention(player.getMentionTag(), player.getExternalId());
-                })
+                .map(matchPlayer -> mentionService.getMention(matchPlayer.getPlayer()))
                 .collect(Collectors.joining(", "));
 
         return new ExternalMessage()
@@ -140,7 +163,7 @@ public class ExternalMessageFactoryImpl implements ExternalMessageFactory {
                 .appendBold("⚠️ Внимание: ").append("осталось ").append(timeout).append(" минут на публикацию результатов ")
                 .startBold().append("матча ").append(match.getId()).endBold().append("!").newLine();
         Player submitter = match.getSubmitter();
-        String submitterMention = MarkdownEscaper.getEscapedMention(submitter.getMentionTag(), submitter.getExternalId());
+        String submitterMention = mentionService.getMention(submitter);
         message.append("Игрок ").appendRaw(submitterMention).append(" начал процесс регистрации, но еще не закончил его.");
         return message;
     }
@@ -215,16 +238,16 @@ public class ExternalMessageFactoryImpl implements ExternalMessageFactory {
 
     @Override
     public ExternalMessage getNoRatingsMessage() {
-        return new ExternalMessage("Рейтинг за текущий месяц еще не рассчитан, повторите запрос завтра.");
+        return new ExternalMessage().appendRaw(NO_RATINGS_MESSAGE);
     }
 
     @Override
     public ExternalMessage getNoOwnedRatingsMessage() {
-        return new ExternalMessage("В рейтинге за текущий месяц нет матчей с вашим участием. Перерасчет рейтинга будет выполнен ночью.");
+        return new ExternalMessage().appendRaw(NO_OWNED_RATINGS_MESSAGE);
     }
 
     @Override
-    public ExternalMessage getRatingStatsMessage(int startingPlace, List<PlayerRating> sortedRatings, Player requestingPlayer) {
+    public ExternalMessage getRatingStatsMessage(int startingPlace, List<PlayerRating> sortedRatings, long requestingPlayerId) {
         ExternalMessage message = new ExternalMessage("📋 Статистика текущего месяца").newLine().newLine();
         ExternalMessage playersMessage = new ExternalMessage();
         int currentPlace = startingPlace;
@@ -232,7 +255,7 @@ public class ExternalMessageFactoryImpl implements ExternalMessageFactory {
             PlayerRating currentRating = sortedRatings.get(i);
             String name = currentRating.getPlayer().getFriendlyName();
             String efficiency = String.format("%.2f", currentRating.getEfficiency());
-            if (requestingPlayer.equals(currentRating.getPlayer())) {
+            if (currentRating.getPlayer().getId() == requestingPlayerId) {
                 message.append("Сыграно матчей: ").append(currentRating.getMatchesCount()).newLine()
                         .append("Текущий страйк: ").append(currentRating.getCurrentStrikeLength()).newLine()
                         .append("Максимальный страйк: ").append(currentRating.getMaxStrikeLength()).newLine().newLine();
@@ -248,6 +271,15 @@ public class ExternalMessageFactoryImpl implements ExternalMessageFactory {
 
     @Override
     public ExternalMessage getHelpMessage() {
+        String helpText = helpMessageText;
+        if (helpText == null) {
+            helpText = buildHelpMessage().getText();
+            helpMessageText = helpText;
+        }
+        return new ExternalMessage().appendRaw(helpText);
+    }
+
+    private ExternalMessage buildHelpMessage() {
         return new ExternalMessage()
                 .startBold().append("Dunebot v").append(version).endBold().newLine().newLine()
                 .append("================================").newLine()
@@ -2,13 +2,11 @@ package ru.trainithard.dunebot.service.telegram.factory.messaging;
 
 import com.google.common.collect.Lists;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import ru.trainithard.dunebot.model.Leader;
 import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.MatchPlayer;
 import ru.trainithard.dunebot.model.Player;
-import ru.trainithard.dunebot.repository.LeaderRepository;
+import ru.trainithard.dunebot.service.LeaderCatalog;
 import ru.trainithard.dunebot.service.messaging.dto.ButtonDto;
 
 import java.util.Collection;
@@ -19,19 +17,16 @@ import static ru.trainithard.dunebot.service.telegram.command.CallbackSymbol.*;
 @Service
 @RequiredArgsConstructor
 public class KeyboardsFactoryImpl implements KeyboardsFactory {
-    private final LeaderRepository leaderRepository;
+    private final LeaderCatalog leaderCatalog;
 
     @Override
     public List<List<ButtonDto>> getSubmitLeadersKeyboard(Match match) {
-        List<Leader> leaders = leaderRepository
-                .findAllByModType(match.getModType(), Sort.sort(Leader.class).by(Leader::getName));
-        List<ButtonDto> leadersButtons = leaders.stream()
-                .map(leader -> {
-                    String callbackText = match.getId() + SUBMIT_LEADERS_CALLBACK_SYMBOL.getSymbol() + leader.getId();
-                    return new ButtonDto(leader.getShortName(), callbackText);
-                })
+        String matchId = match.getId().toString();
+        return leaderCatalog.getSubmitKeyboardTemplate(match.getModType()).stream()
+                .map(row -> row.stream()
+                        .map(button -> new ButtonDto(button.getText(), matchId + button.getCallback()))
+                        .toList())
                 .toList();
-        return Lists.partition(leadersButtons, 2);
     }
 
     @Override
@@ -5,16 +5,14 @@ import org.springframework.stereotype.Service;
 import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.messaging.ChatType;
-import ru.trainithard.dunebot.repository.PlayerRepository;
 import ru.trainithard.dunebot.service.AppSettingsService;
+import ru.trainithard.dunebot.service.PlayerIdentityService;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 import ru.trainithard.dunebot.service.telegram.command.CommandType;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -26,7 +24,7 @@ public class CommonCommandMessageValidator {
     private static final String BOT_NOT_CONFIGURED = "Бот не настроен. Разрешены только административные команды.";
     private static final int TOPIC_QUANTITY = 2;
 
-    private final PlayerRepository playerRepository;
+    private final PlayerIdentityService playerIdentityService;
     private final AppSettingsService appSettingsService;
 
     /**
@@ -39,7 +37,7 @@ public class CommonCommandMessageValidator {
     public boolean validate(CommandMessage commandMessage) {
         Command command = commandMessage.getCommand();
 
-        List<Integer> topicIds = getTopicIds();
+        List<Integer> topicIds = appSettingsService.getTopicIds();
         if (shouldSkipCommandProcessing(commandMessage, command, topicIds)) {
             return false;
         }
@@ -52,7 +50,8 @@ public class CommonCommandMessageValidator {
 
     private boolean shouldSkipCommandProcessing(CommandMessage commandMessage, Command command, Collection<Integer> topicIds) {
         boolean isPublicChat = commandMessage.getChatType() != ChatType.PRIVATE;
-        boolean isPublicUnknownTopic = isPublicChat && !topicIds.contains(commandMessage.getTopicId());
+        Integer topicId = commandMessage.getTopicId();
+        boolean isPublicUnknownTopic = isPublicChat && (topicId == null || !topicIds.contains(topicId));
         if (command == null && isPublicUnknownTopic) {
             return true;
         } else if (command == null) {
@@ -70,11 +69,15 @@ public class CommonCommandMessageValidator {
     }
 
     private void validateAnonymousCallForNonAnonymousCommand(CommandMessage commandMessage, Command command) {
-        if (!command.isAnonymous() && !playerRepository.existsNonGuestByTelegramId(commandMessage.getUserId())) {
+        if (!command.isAnonymous() && !isRegisteredPlayer(commandMessage.getUserId())) {
             throw new AnswerableDuneBotException(ANONYMOUS_COMMAND_CALL, commandMessage);
         }
     }
 
+    private boolean isRegisteredPlayer(long externalId) {
+        return playerIdentityService.findByExternalId(externalId).filter(player -> !player.guest()).isPresent();
+    }
+
     private void validateBotIsConfiguredForNonAdminCommands(CommandMessage commandMessage, Command command, Collection<Integer> topicIds) {
         if (command != Command.ADMIN) {
             String stringSetting = appSettingsService.getStringSetting(AppSettingKey.CHAT_ID);
@@ -92,12 +95,4 @@ public class CommonCommandMessageValidator {
             throw new AnswerableDuneBotException(PUBLIC_PROHIBITED_COMMAND_TEXT, commandMessage);
         }
     }
-
-    private List<Integer> getTopicIds() {
-        List<Integer> topicIds = new ArrayList<>();
-        topicIds.add(appSettingsService.getIntSetting(AppSettingKey.TOPIC_ID_CLASSIC));
-        topicIds.add(appSettingsService.getIntSetting(AppSettingKey.TOPIC_ID_UPRISING));
-        topicIds.removeIf(Objects::isNull);
-        return topicIds;
-    }
 }
@@ -1,27 +1,62 @@
 package ru.trainithard.dunebot.util;
 
-import java.util.Set;
-
 public class MarkdownEscaper {
-    private static final Set<Character> escapedChars =
-            Set.of('_', '*', '[', ']', '(', ')', '~', '`', '>', '#', '+', '-', '=', '|', '{', '}', '.', '!');
+    private static final String ESCAPED_CHARS = "_*[]()~`>#+-=|{}.!";
+    private static final boolean[] escapedCharsTable = new boolean[128];
+
+    static {
+        for (int i = 0; i < ESCAPED_CHARS.length(); i++) {
+            escapedCharsTable[ESCAPED_CHARS.charAt(i)] = true;
+        }
+    }
 
     private MarkdownEscaper() {
     }
 
     public static String getEscaped(String text) {
-        StringBuilder escapeTextBuilder = new StringBuilder();
-        for (char ch : text.toCharArray()) {
-            if (escapedChars.contains(ch)) {
-                escapeTextBuilder.append('\\').append(ch);
-            } else {
-                escapeTextBuilder.append(ch);
-            }
+        int firstEscapedIndex = getFirstEscapedIndex(text);
+        if (firstEscapedIndex < 0) {
+            return text;
         }
+        StringBuilder escapeTextBuilder = new StringBuilder(text.length() + 8).append(text, 0, firstEscapedIndex);
+        appendEscaped(escapeTextBuilder, text, firstEscapedIndex);
         return escapeTextBuilder.toString();
     }
 
+    /**
+     * Appends escaped text to the builder without intermediate copies of the text.
+     */
+    public static void appendEscaped(StringBuilder builder, String text) {
+        appendEscaped(builder, text, 0);
+    }
+
     public static String getEscapedMention(String mentionTag, long externalId) {
-        return String.format("[@%s](tg://user?id=%s)", getEscaped(mentionTag), externalId);
+        StringBuilder mentionBuilder = new StringBuilder(mentionTag.length() + 32).append("[@");
+        appendEscaped(mentionBuilder, mentionTag);
+        return mentionBuilder.append("](tg://user?id=").append(externalId).append(')').toString();
+    }
+
+    private static void appendEscaped(StringBuilder builder, String text, int fromIndex) {
+        int segmentStart = fromIndex;
+        for (int i = fromIndex; i < text.length(); i++) {
+            if (isEscaped(text.charAt(i))) {
+                builder.append(text, segmentStart, i).append('\\');
+                segmentStart = i;
+            }
+        }
+        builder.append(text, segmentStart, text.length());
+    }
+
+    private static int getFirstEscapedIndex(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isEscaped(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isEscaped(char ch) {
+        return ch < escapedCharsTable.length && escapedCharsTable[ch];
     }
 }
@@ -0,0 +1,21 @@
+CREATE TABLE OUTBOX_MESSAGES
+(
+    ID                 BIGSERIAL PRIMARY KEY,
+    MESSAGE_TYPE       VARCHAR                  NOT NULL,
+    STATUS             VARCHAR                  NOT NULL,
+    PRIORITY           VARCHAR                  NOT NULL,
+    CHAT_ID            VARCHAR                  NOT NULL,
+    TOPIC_ID           INT,
+    REPLY_ID           INT,
+    TEXT               VARCHAR                  NOT NULL,
+    POLL_OPTIONS       VARCHAR,
+    CALLBACK_TYPE      VARCHAR,
+    CALLBACK_ENTITY_ID BIGINT,
+    CALLBACK_DATA      VARCHAR,
+    ATTEMPTS           INT                      NOT NULL,
+    DELIVERED_AT       TIMESTAMP WITH TIME ZONE,
+    CREATED_AT         TIMESTAMP WITH TIME ZONE NOT NULL,
+    UPDATED_AT         TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX OUTBOX_MESSAGES_PENDING_IDX ON OUTBOX_MESSAGES (ID) WHERE STATUS = 'PENDING';
@@ -0,0 +1,8 @@
+CREATE TABLE UPLOADED_FILES
+(
+    ID           BIGSERIAL PRIMARY KEY,
+    CONTENT_HASH VARCHAR UNIQUE           NOT NULL,
+    FILE_ID      VARCHAR                  NOT NULL,
+    CREATED_AT   TIMESTAMP WITH TIME ZONE NOT NULL,
+    UPDATED_AT   TIMESTAMP WITH TIME ZONE
+);
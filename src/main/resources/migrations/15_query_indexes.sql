@@ -0,0 +1,14 @@
+CREATE INDEX EXTERNAL_MESSAGES_POLL_ID_IDX ON EXTERNAL_MESSAGES (POLL_ID) WHERE POLL_ID IS NOT NULL;
+
+CREATE INDEX MATCHES_STATE_FINISH_DATE_IDX ON MATCHES (STATE, FINISH_DATE);
+CREATE INDEX MATCHES_MOD_TYPE_STATE_FINISH_DATE_IDX ON MATCHES (MOD_TYPE, STATE, FINISH_DATE);
+CREATE INDEX MATCHES_OWNER_ID_CREATED_AT_IDX ON MATCHES (OWNER_ID, CREATED_AT DESC);
+
+CREATE INDEX MATCH_PLAYERS_PLAYER_ID_IDX ON MATCH_PLAYERS (PLAYER_ID);
+
+CREATE INDEX DUNEBOT_TASKS_TYPE_ENTITY_ID_STATUS_IDX ON DUNEBOT_TASKS (TASK_TYPE, ENTITY_ID, STATUS);
+CREATE INDEX DUNEBOT_TASKS_ACTIVE_STATUS_IDX ON DUNEBOT_TASKS (STATUS) WHERE STATUS IN ('SCHEDULED', 'RUN');
+
+CREATE INDEX PLAYER_RATINGS_PLAYER_ID_RATING_DATE_IDX ON PLAYER_RATINGS (PLAYER_ID, RATING_DATE DESC);
+CREATE INDEX PLAYER_RATINGS_RATING_DATE_IDX ON PLAYER_RATINGS (RATING_DATE);
+CREATE INDEX LEADER_RATINGS_LEADER_ID_RATING_DATE_IDX ON LEADER_RATINGS (LEADER_ID, RATING_DATE DESC);
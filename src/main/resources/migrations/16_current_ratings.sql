@@ -0,0 +1,21 @@
+CREATE TABLE CURRENT_PLAYER_RATINGS
+(
+    PLAYER_ID        BIGINT PRIMARY KEY REFERENCES PLAYERS (ID),
+    PLAYER_RATING_ID BIGINT UNIQUE REFERENCES PLAYER_RATINGS (ID) NOT NULL
+);
+
+CREATE TABLE CURRENT_LEADER_RATINGS
+(
+    LEADER_ID        BIGINT PRIMARY KEY REFERENCES LEADERS (ID),
+    LEADER_RATING_ID BIGINT UNIQUE REFERENCES LEADER_RATINGS (ID) NOT NULL
+);
+
+INSERT INTO CURRENT_PLAYER_RATINGS (PLAYER_ID, PLAYER_RATING_ID)
+SELECT DISTINCT ON (PLAYER_ID) PLAYER_ID, ID
+FROM PLAYER_RATINGS
+ORDER BY PLAYER_ID, RATING_DATE DESC, ID DESC;
+
+INSERT INTO CURRENT_LEADER_RATINGS (LEADER_ID, LEADER_RATING_ID)
+SELECT DISTINCT ON (LEADER_ID) LEADER_ID, ID
+FROM LEADER_RATINGS
+ORDER BY LEADER_ID, RATING_DATE DESC, ID DESC;
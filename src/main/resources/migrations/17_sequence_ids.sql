@@ -0,0 +1,15 @@
+ALTER SEQUENCE SETTINGS_ID_SEQ RENAME TO APP_SETTINGS_ID_SEQ;
+
+ALTER SEQUENCE EXTERNAL_MESSAGES_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE PLAYERS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE LEADERS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE MATCHES_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE MATCH_PLAYERS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE APP_SETTINGS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE USER_SETTINGS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE DUNEBOT_TASKS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE LEADER_RATINGS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE PLAYER_RATINGS_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE META_DATA_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE OUTBOX_MESSAGES_ID_SEQ INCREMENT BY 50;
+ALTER SEQUENCE UPLOADED_FILES_ID_SEQ INCREMENT BY 50;
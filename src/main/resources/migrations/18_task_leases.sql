@@ -0,0 +1,14 @@
+ALTER TABLE DUNEBOT_TASKS ADD COLUMN LOCKED_BY VARCHAR;
+ALTER TABLE DUNEBOT_TASKS ADD COLUMN LOCKED_UNTIL TIMESTAMP WITH TIME ZONE;
+
+UPDATE DUNEBOT_TASKS t
+SET STATUS = 'CANCELLED'
+WHERE t.STATUS = 'SCHEDULED'
+  AND EXISTS (SELECT 1
+              FROM DUNEBOT_TASKS d
+              WHERE d.STATUS = 'SCHEDULED'
+                AND d.TASK_TYPE = t.TASK_TYPE
+                AND d.ENTITY_ID IS NOT DISTINCT FROM t.ENTITY_ID
+                AND d.ID > t.ID);
+CREATE UNIQUE INDEX DUNEBOT_TASKS_SCHEDULED_UNIQUE_IDX ON DUNEBOT_TASKS (TASK_TYPE, ENTITY_ID) NULLS NOT DISTINCT
+    WHERE STATUS = 'SCHEDULED';
@@ -0,0 +1,4 @@
+ALTER TABLE OUTBOX_MESSAGES ADD COLUMN LOCKED_BY VARCHAR;
+ALTER TABLE OUTBOX_MESSAGES ADD COLUMN LOCKED_UNTIL TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX OUTBOX_MESSAGES_IN_FLIGHT_IDX ON OUTBOX_MESSAGES (LOCKED_UNTIL) WHERE STATUS = 'IN_FLIGHT';
@@ -0,0 +1,2 @@
+ALTER TABLE MATCHES
+    ADD COLUMN START_MENTIONED_PLAYER_IDS VARCHAR;
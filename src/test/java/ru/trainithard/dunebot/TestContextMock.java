@@ -23,5 +23,7 @@ public abstract class TestContextMock {
     @AfterEach
     void superAfterEach() {
         Objects.requireNonNull(cacheManager.getCache("settings")).invalidate();
+        Objects.requireNonNull(cacheManager.getCache("players")).invalidate();
+        Objects.requireNonNull(cacheManager.getCache("mentions")).invalidate();
     }
 }
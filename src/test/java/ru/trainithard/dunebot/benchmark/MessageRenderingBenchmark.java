@@ -0,0 +1,145 @@
+package ru.trainithard.dunebot.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.trainithard.dunebot.model.Leader;
+import ru.trainithard.dunebot.model.Match;
+import ru.trainithard.dunebot.model.MatchPlayer;
+import ru.trainithard.dunebot.model.Player;
+import ru.trainithard.dunebot.service.PlayerMentionServiceImpl;
+import ru.trainithard.dunebot.service.telegram.factory.messaging.ExternalMessageFactory;
+import ru.trainithard.dunebot.service.telegram.factory.messaging.ExternalMessageFactoryImpl;
+import ru.trainithard.dunebot.util.MarkdownEscaper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering of outgoing texts: markdown escaping, players mentions and message factory methods.
+ * Not executed in the regular test run, execute with: <code>mvn test -Dtest=MessageRenderingBenchmark</code>
+ * <p>
+ * Options (system properties):
+ * <ul>
+ * <li><code>benchmark.include</code> - regular expression of benchmark methods to run, all by default</li>
+ * <li><code>benchmark.profiler</code> - JMH profiler, e.g. <code>gc</code> to report allocation rate</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageRenderingBenchmark {
+    private static final int PLAYERS_COUNT = 4;
+
+    private final ExternalMessageFactory messageFactory = new ExternalMessageFactoryImpl(new PlayerMentionServiceImpl());
+    private final List<MatchPlayer> matchPlayers = new ArrayList<>();
+    private final List<String> mentionTags = new ArrayList<>();
+    private Player guest;
+    private String plainText;
+    private String markupText;
+
+    @Setup
+    public void setup() {
+        ReflectionTestUtils.setField(messageFactory, "version", "1.0");
+        Match match = new Match();
+        match.setId(15000L);
+        for (int i = 0; i < PLAYERS_COUNT; i++) {
+            Player player = new Player();
+            player.setExternalId(11000L + i);
+            player.setFirstName("Имя" + i);
+            player.setSteamName("steam_nick-" + i);
+            player.setLastName("Фамилия" + i);
+            player.setExternalName("tg_alias_" + i);
+            Leader leader = new Leader();
+            leader.setName("Leader " + i);
+            MatchPlayer matchPlayer = new MatchPlayer();
+            matchPlayer.setPlayer(player);
+            matchPlayer.setLeader(leader);
+            matchPlayer.setPlace(i + 1);
+            matchPlayer.setMatch(match);
+            matchPlayers.add(matchPlayer);
+            mentionTags.add(player.getMentionTag());
+        }
+        guest = matchPlayers.get(0).getPlayer();
+        plainText = "Рейтинг за текущий месяц еще не рассчитан, повторите запрос завтра";
+        markupText = "Игрок name (steam_nick) surname завершил регистрацию результатов матча 15000. Места: 1-4!";
+    }
+
+    @Benchmark
+    public String escapePlainText() {
+        return MarkdownEscaper.getEscaped(plainText);
+    }
+
+    @Benchmark
+    public String escapeMarkupText() {
+        return MarkdownEscaper.getEscaped(markupText);
+    }
+
+    @Benchmark
+    public String mention() {
+        return MarkdownEscaper.getEscapedMention(mentionTags.get(1), 11001L);
+    }
+
+    @Benchmark
+    public String startMessage() {
+        Match match = matchPlayers.get(0).getMatch();
+        return messageFactory.getStartMessage(match, getMentions(), List.of(), List.of()).getText();
+    }
+
+    @Benchmark
+    public String guestMessage() {
+        return messageFactory.getGuestMessageDto(guest).getText();
+    }
+
+    @Benchmark
+    public String helpMessage() {
+        return messageFactory.getHelpMessage().getText();
+    }
+
+    @Benchmark
+    public String finishedLeadersSubmitMessage() {
+        return messageFactory.getFinishedLeadersSubmitMessage(matchPlayers).getText();
+    }
+
+    @Benchmark
+    public String noRatingsMessage() {
+        return messageFactory.getNoRatingsMessage().getText();
+    }
+
+    private List<String> getMentions() {
+        List<String> mentions = new ArrayList<>(PLAYERS_COUNT);
+        for (MatchPlayer matchPlayer : matchPlayers) {
+            Player player = matchPlayer.getPlayer();
+            mentions.add(MarkdownEscaper.getEscapedMention(player.getMentionTag(), player.getExternalId()));
+        }
+        return mentions;
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(MessageRenderingBenchmark.class.getSimpleName() + "." + System.getProperty("benchmark.include", ".*"));
+        String profiler = System.getProperty("benchmark.profiler");
+        if (profiler != null) {
+            options.addProfiler(profiler);
+        }
+        new Runner(options.build()).run();
+    }
+}
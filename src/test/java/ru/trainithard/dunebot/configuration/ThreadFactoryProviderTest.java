@@ -0,0 +1,61 @@
+package ru.trainithard.dunebot.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.trainithard.dunebot.service.LogId;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThreadFactoryProviderTest {
+    private final ThreadFactoryProvider callbackPoolProvider = new ThreadFactoryProvider(2);
+
+    @AfterEach
+    void afterEach() {
+        callbackPoolProvider.shutdown();
+        LogId.clear();
+    }
+
+    @Test
+    void shouldReturnSameFutureWhenCallbackPoolDisabled() {
+        ThreadFactoryProvider provider = new ThreadFactoryProvider(0);
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        assertThat(provider.toCallbackThread(future)).isSameAs(future);
+    }
+
+    @Test
+    void shouldCreateThreadsWithPrefix() {
+        ThreadFactoryProvider provider = new ThreadFactoryProvider(0);
+
+        Thread thread = provider.getThreadFactory("dunebot-test-").newThread(() -> {
+        });
+
+        assertThat(thread.getName()).startsWith("dunebot-test-");
+    }
+
+    @Test
+    void shouldCompleteCallbackOnCallbackThreadWithCallerLogId() throws Exception {
+        LogId.init(12345);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> callbackFuture = callbackPoolProvider.toCallbackThread(future)
+                .thenApply(result -> result + " " + LogId.get() + " " + Thread.currentThread().getName());
+
+        future.complete("result");
+
+        assertThat(callbackFuture.get(5, TimeUnit.SECONDS)).startsWith("result 12345 dunebot-callback-");
+    }
+
+    @Test
+    void shouldCompleteCallbackExceptionallyOnCallbackThread() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> callbackFuture = callbackPoolProvider.toCallbackThread(future);
+
+        future.completeExceptionally(new IllegalStateException("failure"));
+
+        assertThatThrownBy(() -> callbackFuture.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
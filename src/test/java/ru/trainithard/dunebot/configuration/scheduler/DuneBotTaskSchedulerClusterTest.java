@@ -0,0 +1,190 @@
+package ru.trainithard.dunebot.configuration.scheduler;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.trainithard.dunebot.DunebotApplication;
+import ru.trainithard.dunebot.model.scheduler.TaskStatus;
+import ru.trainithard.dunebot.service.TaskRecoveryService;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two application instances against the same PostgreSQL database: every task must be run by exactly one instance,
+ * and tasks of a dead instance must be recovered by the alive one. Requires Docker, thus excluded from the default build:
+ * runs in CI workflow with <code>postgres-tests</code> Maven profile, locally with <code>mvn test -P postgres-tests</code>.
+ */
+@Tag("postgres")
+@Testcontainers(disabledWithoutDocker = true)
+class DuneBotTaskSchedulerClusterTest {
+    private static final int TASKS_COUNT = 200;
+    private static final long TASK_TIMEOUT_SECONDS = 30;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    private static ConfigurableApplicationContext firstInstance;
+    private static ConfigurableApplicationContext secondInstance;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void beforeAll() {
+        firstInstance = startInstance("instance_1");
+        secondInstance = startInstance("instance_2");
+        jdbcTemplate = firstInstance.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        secondInstance.close();
+        firstInstance.close();
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("delete from dunebot_tasks");
+    }
+
+    @Test
+    void shouldRunEveryTaskOnceWhenBothInstancesRunIt() throws Exception {
+        Map<Long, AtomicInteger> runsByEntityId = new ConcurrentHashMap<>();
+        List<DuneBotTaskId> taskIds = LongStream.range(0, TASKS_COUNT)
+                .peek(entityId -> insertScheduledTask(entityId, Instant.now().minus(1, ChronoUnit.MINUTES)))
+                .mapToObj(entityId -> new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT, entityId))
+                .toList();
+
+        List<ScheduledFuture<?>> futures = new ArrayList<>();
+        for (DuneBotTaskId taskId : taskIds) {
+            Runnable countingTask = () -> runsByEntityId.computeIfAbsent(taskId.getEntityId(), id -> new AtomicInteger()).incrementAndGet();
+            futures.add(runOverdueTask(firstInstance, countingTask, taskId));
+            futures.add(runOverdueTask(secondInstance, countingTask, taskId));
+        }
+        for (ScheduledFuture<?> future : futures) {
+            future.get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        assertThat(runsByEntityId).hasSize(TASKS_COUNT).allSatisfy((entityId, runs) -> assertThat(runs.get()).isOne());
+        assertThat(jdbcTemplate.queryForList("select distinct status from dunebot_tasks", String.class))
+                .containsExactly(TaskStatus.FINISHED.name());
+    }
+
+    @Test
+    void shouldNotRunTaskByStaleTimerWhenAnotherInstanceRescheduledIt() throws Exception {
+        DuneBotTaskId taskId = new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT, 1L);
+        AtomicInteger runs = new AtomicInteger();
+        DuneBotTaskScheduler firstScheduler = firstInstance.getBean(DuneBotTaskScheduler.class);
+        DuneBotTaskScheduler secondScheduler = secondInstance.getBean(DuneBotTaskScheduler.class);
+
+        firstScheduler.rescheduleSingleRunTask(runs::incrementAndGet, taskId, Instant.now().plusSeconds(1));
+        secondScheduler.rescheduleSingleRunTask(runs::incrementAndGet, taskId, Instant.now().plus(1, ChronoUnit.HOURS));
+        firstScheduler.get(taskId).get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        secondScheduler.cancelSingleRunTask(taskId);
+
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    void shouldKeepSingleScheduledTaskWhenBothInstancesScheduleItConcurrently() throws Exception {
+        Instant startTime = Instant.now().plus(1, ChronoUnit.HOURS);
+        DuneBotTaskScheduler firstScheduler = firstInstance.getBean(DuneBotTaskScheduler.class);
+        DuneBotTaskScheduler secondScheduler = secondInstance.getBean(DuneBotTaskScheduler.class);
+        List<DuneBotTaskId> taskIds = LongStream.range(0, TASKS_COUNT)
+                .mapToObj(entityId -> new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT, entityId))
+                .toList();
+
+        CompletableFuture<Void> firstScheduling = CompletableFuture.runAsync(() ->
+                taskIds.forEach(taskId -> firstScheduler.rescheduleSingleRunTask(() -> {
+                }, taskId, startTime)));
+        taskIds.forEach(taskId -> secondScheduler.rescheduleSingleRunTask(() -> {
+        }, taskId, startTime));
+        firstScheduling.get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        taskIds.forEach(taskId -> {
+            firstScheduler.cancelSingleRunTask(taskId);
+            secondScheduler.get(taskId).cancel(false);
+        });
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from dunebot_tasks", Long.class)).isEqualTo(TASKS_COUNT);
+    }
+
+    @Test
+    void shouldRecoverTaskOfDeadInstance() throws Exception {
+        Timestamp expiredLeaseTime = Timestamp.from(Instant.now().minus(10, ChronoUnit.MINUTES));
+        jdbcTemplate.update("insert into dunebot_tasks (task_type, entity_id, status, start_time, locked_by, locked_until, created_at) " +
+                            "values (?, 1, ?, ?, 'dead_instance', ?, now())",
+                DuneTaskType.MATCH_EXPIRATION.name(), TaskStatus.RUN.name(), expiredLeaseTime, expiredLeaseTime);
+        DuneBotTaskId taskId = new DuneBotTaskId(DuneTaskType.MATCH_EXPIRATION, 1L);
+
+        secondInstance.getBean(TaskRecoveryService.class).recoverTasks();
+        secondInstance.getBean(DuneBotTaskScheduler.class).get(taskId).get(TASK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Map<String, Object> actualTask = jdbcTemplate.queryForMap("select status, locked_by from dunebot_tasks where entity_id = 1");
+
+        assertThat(actualTask)
+                .containsEntry("status", TaskStatus.FINISHED.name())
+                .containsEntry("locked_by", "instance_2");
+    }
+
+    @Test
+    void shouldCancelTaskOfDeadInstanceWhenItIsScheduledAgain() {
+        Timestamp expiredLeaseTime = Timestamp.from(Instant.now().minus(10, ChronoUnit.MINUTES));
+        jdbcTemplate.update("insert into dunebot_tasks (task_type, entity_id, status, start_time, locked_by, locked_until, created_at) " +
+                            "values (?, 1, ?, ?, 'dead_instance', ?, now())",
+                DuneTaskType.START_MESSAGE.name(), TaskStatus.RUN.name(), expiredLeaseTime, expiredLeaseTime);
+        DuneBotTaskId taskId = new DuneBotTaskId(DuneTaskType.START_MESSAGE, 1L);
+        DuneBotTaskScheduler secondScheduler = secondInstance.getBean(DuneBotTaskScheduler.class);
+        secondScheduler.rescheduleSingleRunTask(() -> {
+        }, taskId, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        secondInstance.getBean(TaskRecoveryService.class).recoverTasks();
+        List<String> actualStatuses = jdbcTemplate.queryForList("select status from dunebot_tasks where entity_id = 1 order by id", String.class);
+        secondScheduler.cancelSingleRunTask(taskId);
+
+        assertThat(actualStatuses).containsExactly(TaskStatus.CANCELLED.name(), TaskStatus.SCHEDULED.name());
+    }
+
+    private static ConfigurableApplicationContext startInstance(String instanceId) {
+        return new SpringApplicationBuilder(DunebotApplication.class)
+                .properties(
+                        "spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "spring.datasource.username=" + POSTGRES.getUsername(),
+                        "spring.datasource.password=" + POSTGRES.getPassword(),
+                        "spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+                        "spring.sql.init.mode=never",
+                        "spring.liquibase.enabled=true",
+                        "spring.liquibase.change-log=classpath:changelog.xml",
+                        "bot.scheduler.instance-id=" + instanceId)
+                .run();
+    }
+
+    private static ScheduledFuture<?> runOverdueTask(ConfigurableApplicationContext instance, Runnable task, DuneBotTaskId taskId) {
+        DuneBotTaskScheduler scheduler = instance.getBean(DuneBotTaskScheduler.class);
+        scheduler.runOverdueTask(task, taskId);
+        return scheduler.get(taskId);
+    }
+
+    private void insertScheduledTask(long entityId, Instant startTime) {
+        jdbcTemplate.update("insert into dunebot_tasks (task_type, entity_id, status, start_time, created_at) values (?, ?, ?, ?, now())",
+                DuneTaskType.SUBMIT_TIMEOUT.name(), entityId, TaskStatus.SCHEDULED.name(), Timestamp.from(startTime));
+    }
+}
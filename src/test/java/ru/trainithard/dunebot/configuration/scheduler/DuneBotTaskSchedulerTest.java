@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
@@ -38,6 +39,8 @@ class DuneBotTaskSchedulerTest extends TestContextMock {
     private Clock clock;
     @SpyBean
     private DuneBotTaskScheduler duneBotTaskScheduler;
+    @Autowired
+    private DuneBotTaskLease taskLease;
 
     @BeforeEach
     void beforeEach() {
@@ -159,6 +162,53 @@ class DuneBotTaskSchedulerTest extends TestContextMock {
         assertThat((Future<?>) actualScheduledFuture2).isNotNull().isNotSameAs(actualScheduledFuture1);
     }
 
+    @Test
+    void shouldCancelRelatedTasksOfEntity() {
+        jdbcTemplate.execute("insert into dunebot_tasks (task_type, entity_id, start_time, status, created_at) values " +
+                             "('" + DuneTaskType.SUBMIT_TIMEOUT + "', 10000, '" + NOW + "', '" + TaskStatus.SCHEDULED + "', '2010-10-10')");
+        jdbcTemplate.execute("insert into dunebot_tasks (task_type, entity_id, start_time, status, created_at) values " +
+                             "('" + DuneTaskType.SUBMIT_TIMEOUT_NOTIFICATION + "', 10000, '" + NOW + "', '" + TaskStatus.SCHEDULED + "', '2010-10-10')");
+        jdbcTemplate.execute("insert into dunebot_tasks (task_type, entity_id, start_time, status, created_at) values " +
+                             "('" + DuneTaskType.START_MESSAGE + "', 10000, '" + NOW + "', '" + TaskStatus.SCHEDULED + "', '2010-10-10')");
+        jdbcTemplate.execute("insert into dunebot_tasks (task_type, entity_id, start_time, status, created_at) values " +
+                             "('" + DuneTaskType.SUBMIT_TIMEOUT + "', 10001, '" + NOW + "', '" + TaskStatus.SCHEDULED + "', '2010-10-10')");
+
+        duneBotTaskScheduler.cancelSingleRunTasks(10000L, DuneTaskType.SUBMIT_TIMEOUT, DuneTaskType.SUBMIT_TIMEOUT_NOTIFICATION);
+
+        List<String> actualStatuses = jdbcTemplate.queryForList("select status from dunebot_tasks " +
+                                                                "where entity_id between 10000 and 10001 order by entity_id, task_type", String.class);
+
+        assertThat(actualStatuses).containsExactly("SCHEDULED", "CANCELLED", "CANCELLED", "SCHEDULED");
+    }
+
+    @ParameterizedTest
+    @MethodSource("taskIdSource")
+    void shouldCancelScheduledTasksOnRelatedTasksCancel(DuneBotTaskId duneBotTaskId) {
+        duneBotTaskScheduler.rescheduleSingleRunTask(System.out::println, duneBotTaskId, SOON);
+        duneBotTaskScheduler.cancelSingleRunTasks(duneBotTaskId.getEntityId(), duneBotTaskId.getTaskType());
+
+        ScheduledFuture<?> actualScheduledFuture = duneBotTaskScheduler.get(duneBotTaskId);
+
+        assertThat((Future<?>) actualScheduledFuture).isNull();
+    }
+
+    @Test
+    void shouldRenewLeasesOfTasksRunByInstance() {
+        jdbcTemplate.execute("insert into dunebot_tasks (task_type, entity_id, start_time, status, locked_by, locked_until, created_at) values " +
+                             "('" + DuneTaskType.START_MESSAGE + "', 10000, '" + NOW + "', '" + TaskStatus.RUN + "', '" + taskLease.getInstanceId() + "', " +
+                             "'" + NOW + "', '2010-10-10')");
+        jdbcTemplate.execute("insert into dunebot_tasks (task_type, entity_id, start_time, status, locked_by, locked_until, created_at) values " +
+                             "('" + DuneTaskType.START_MESSAGE + "', 10001, '" + NOW + "', '" + TaskStatus.RUN + "', 'instance_2', " +
+                             "'" + NOW + "', '2010-10-10')");
+
+        duneBotTaskScheduler.renewLeases();
+
+        List<Instant> actualLeases = jdbcTemplate
+                .queryForList("select locked_until from dunebot_tasks where entity_id between 10000 and 10001 order by entity_id", Instant.class);
+
+        assertThat(actualLeases).containsExactly(NOW.plus(taskLease.getDuration()), NOW);
+    }
+
     private static Stream<Arguments> taskIdSource() {
         return Stream.of(
                 Arguments.of(new DuneBotTaskId(DuneTaskType.SHUTDOWN)),
@@ -0,0 +1,96 @@
+package ru.trainithard.dunebot.loadtest;
+
+import ru.trainithard.dunebot.service.telegram.command.Command;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects end-to-end latency of replayed updates, from receiving by the bot till the end of processing, grouped
+ * by detected command.
+ */
+class ReplayMetrics {
+    private static final String NO_COMMAND = "NONE";
+
+    private final Map<Integer, Long> receiveNanos = new ConcurrentHashMap<>();
+    private final Map<Integer, String> commands = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> latenciesByCommand = new HashMap<>();
+    private final CountDownLatch processedLatch;
+    private long startNanos;
+    private long endNanos;
+
+    ReplayMetrics(int updatesCount) {
+        this.processedLatch = new CountDownLatch(updatesCount);
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    void registerReceived(Integer updateId) {
+        receiveNanos.put(updateId, System.nanoTime());
+    }
+
+    void registerCommand(Integer updateId, Command command) {
+        if (command != null) {
+            commands.put(updateId, command.name());
+        }
+    }
+
+    void registerProcessed(Integer updateId) {
+        Long received = receiveNanos.remove(updateId);
+        if (received != null) {
+            long latency = System.nanoTime() - received;
+            String command = commands.getOrDefault(updateId, NO_COMMAND);
+            synchronized (latenciesByCommand) {
+                latenciesByCommand.computeIfAbsent(command, key -> new ArrayList<>()).add(latency);
+            }
+            processedLatch.countDown();
+        }
+    }
+
+    boolean awaitProcessed(long timeoutSeconds) throws InterruptedException {
+        boolean isProcessed = processedLatch.await(timeoutSeconds, TimeUnit.SECONDS);
+        endNanos = System.nanoTime();
+        return isProcessed;
+    }
+
+    long getProcessedCount() {
+        synchronized (latenciesByCommand) {
+            return latenciesByCommand.values().stream().mapToLong(List::size).sum();
+        }
+    }
+
+    double getThroughput() {
+        return getProcessedCount() / ((endNanos - startNanos) / 1e9);
+    }
+
+    /**
+     * @return lines of <code>command: count, p50, p90, p99, max</code> latencies in milliseconds
+     */
+    List<String> getLatencyReport() {
+        Map<String, List<Long>> sortedLatencies = new TreeMap<>();
+        synchronized (latenciesByCommand) {
+            latenciesByCommand.forEach((command, latencies) -> sortedLatencies.put(command, new ArrayList<>(latencies)));
+        }
+        List<String> report = new ArrayList<>();
+        sortedLatencies.forEach((command, latencies) -> {
+            latencies.sort(null);
+            report.add(String.format("%-16s n=%-6d p50 %8.2f ms, p90 %8.2f ms, p99 %8.2f ms, max %8.2f ms", command,
+                    latencies.size(), getPercentile(latencies, 50), getPercentile(latencies, 90),
+                    getPercentile(latencies, 99), latencies.get(latencies.size() - 1) / 1e6));
+        });
+        return report;
+    }
+
+    private static double getPercentile(List<Long> sortedLatencies, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.size()) - 1;
+        return sortedLatencies.get(Math.max(0, index)) / 1e6;
+    }
+}
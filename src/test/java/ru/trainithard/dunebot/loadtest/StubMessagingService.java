@@ -0,0 +1,121 @@
+package ru.trainithard.dunebot.loadtest;
+
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
+import ru.trainithard.dunebot.service.messaging.MessagingService;
+import ru.trainithard.dunebot.service.messaging.dto.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Messaging service stub for load testing. Completes outbound calls after simulated latency, fails configured share
+ * of them and counts calls by method. Sent polls receive IDs of polls recorded on real Telegram while available,
+ * so recorded poll answers are bound to polls created during replay.
+ */
+class StubMessagingService implements MessagingService {
+    private final ScheduledExecutorService responseExecutor = Executors.newScheduledThreadPool(2);
+    private final Map<String, AtomicLong> callCounts = new ConcurrentHashMap<>();
+    private final AtomicLong failuresCount = new AtomicLong();
+    private final AtomicInteger messageIdSequence = new AtomicInteger(1);
+    private final Queue<String> pollIds = new ConcurrentLinkedQueue<>();
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+
+    void reset(long simulatedLatencyMillis, double simulatedErrorRate, Collection<String> recordedPollIds) {
+        this.latencyMillis = simulatedLatencyMillis;
+        this.errorRate = simulatedErrorRate;
+        callCounts.clear();
+        failuresCount.set(0);
+        pollIds.clear();
+        pollIds.addAll(recordedPollIds);
+    }
+
+    Map<String, Long> getCallCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        callCounts.forEach((method, count) -> counts.put(method, count.get()));
+        return counts;
+    }
+
+    long getFailuresCount() {
+        return failuresCount.get();
+    }
+
+    @Override
+    public CompletableFuture<ExternalPollDto> sendPollAsync(PollMessageDto pollMessage) {
+        return respond("sendPoll", () -> {
+            ExternalPollDto externalPoll = new ExternalPollDto();
+            String recordedPollId = pollIds.poll();
+            externalPoll.setPollId(recordedPollId == null ? "stub_" + messageIdSequence.get() : recordedPollId);
+            fillMessage(externalPoll, pollMessage);
+            return externalPoll;
+        });
+    }
+
+    @Override
+    public CompletableFuture<ExternalMessageDto> sendMessageAsync(MessageDto message) {
+        return respond("sendMessage", () -> fillMessage(new ExternalMessageDto(), message));
+    }
+
+    @Override
+    public CompletableFuture<ExternalMessageDto> sendFileAsync(FileMessageDto fileMessage) {
+        return respond("sendFile", () -> fillMessage(new ExternalMessageDto(), fileMessage));
+    }
+
+    @Override
+    public CompletableFuture<Void> editMessageAsync(EditMessageDto editMessage) {
+        return respond("editMessage", () -> null);
+    }
+
+    @Override
+    public void deleteMessageAsync(ExternalMessageId externalMessageId) {
+        respond("deleteMessage", () -> null);
+    }
+
+    @Override
+    public CompletableFuture<TelegramFileDetailsDto> getFileDetails(String fileId) {
+        return respond("getFileDetails", () -> new TelegramFileDetailsDto(fileId, "stub/" + fileId, 0L));
+    }
+
+    @Override
+    public void sendSetCommands(SetCommandsDto setCommandsDto) {
+        respond("sendSetCommands", () -> null);
+    }
+
+    void shutdown() {
+        responseExecutor.shutdownNow();
+    }
+
+    private ExternalMessageDto fillMessage(ExternalMessageDto externalMessage, MessageDto message) {
+        externalMessage.setMessageId(messageIdSequence.getAndIncrement());
+        externalMessage.setChatId(Long.parseLong(message.getChatId()));
+        externalMessage.setReplyId(message.getTopicId());
+        return externalMessage;
+    }
+
+    private <T> CompletableFuture<T> respond(String method, Supplier<T> responseSupplier) {
+        callCounts.computeIfAbsent(method, key -> new AtomicLong()).incrementAndGet();
+        CompletableFuture<T> response = new CompletableFuture<>();
+        responseExecutor.schedule(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                failuresCount.incrementAndGet();
+                response.completeExceptionally(new TelegramApiRequestException("Simulated " + method + " failure"));
+            } else {
+                response.complete(responseSupplier.get());
+            }
+        }, latencyMillis, TimeUnit.MILLISECONDS);
+        return response;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.trainithard.dunebot.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.trainithard.dunebot.TestConstants;
+import ru.trainithard.dunebot.model.AppSettingKey;
+
+import java.util.Map;
+
+import static ru.trainithard.dunebot.loadtest.SyntheticRecording.FIRST_USER_ID;
+import static ru.trainithard.dunebot.loadtest.SyntheticRecording.USERS_PER_MATCH;
+import static ru.trainithard.dunebot.loadtest.SyntheticRecording.getUserId;
+
+/**
+ * Database state required by {@link SyntheticRecording}: configured bot settings and registered players.
+ */
+class SyntheticDataFixture {
+    private static final long FIRST_ID = 900_000L;
+    private static final Map<AppSettingKey, String> SETTINGS = Map.ofEntries(
+            Map.entry(AppSettingKey.ADMIN_USER_ID, Long.toString(TestConstants.ADMIN_USER_ID)),
+            Map.entry(AppSettingKey.CHAT_ID, TestConstants.CHAT_ID),
+            Map.entry(AppSettingKey.TOPIC_ID_CLASSIC, Integer.toString(TestConstants.TOPIC_ID_CLASSIC)),
+            Map.entry(AppSettingKey.TOPIC_ID_UPRISING, Integer.toString(TestConstants.TOPIC_ID_UPRISING)),
+            Map.entry(AppSettingKey.MATCH_START_DELAY, "1"),
+            Map.entry(AppSettingKey.SUBMIT_TIMEOUT, "120"),
+            Map.entry(AppSettingKey.ACCEPT_SUBMIT_TIMEOUT, "30"),
+            Map.entry(AppSettingKey.SUBMIT_TIMEOUT_WARNING_NOTIFICATION, "10"),
+            Map.entry(AppSettingKey.RESUBMITS_LIMIT, Integer.toString(TestConstants.RESUBMITS_LIMIT)),
+            Map.entry(AppSettingKey.MONTHLY_MATCHES_THRESHOLD, "5"),
+            Map.entry(AppSettingKey.NEXT_GUEST_INDEX, "1"),
+            Map.entry(AppSettingKey.RATING_STAT_ROWS_COUNT, "20"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int matchesCount;
+
+    SyntheticDataFixture(JdbcTemplate jdbcTemplate, int matchesCount) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.matchesCount = matchesCount;
+    }
+
+    void insert() {
+        long settingId = FIRST_ID;
+        for (Map.Entry<AppSettingKey, String> setting : SETTINGS.entrySet()) {
+            jdbcTemplate.update("insert into app_settings (id, key, value, created_at) values (?, ?, ?, '2010-10-10')",
+                    settingId++, setting.getKey().name(), setting.getValue());
+        }
+        for (int matchIndex = 0; matchIndex < matchesCount; matchIndex++) {
+            for (int userIndex = 0; userIndex < USERS_PER_MATCH; userIndex++) {
+                long userId = getUserId(matchIndex, userIndex);
+                jdbcTemplate.update("insert into players (id, external_id, external_chat_id, steam_name, first_name, last_name, " +
+                                    "external_first_name, created_at) values (?, ?, ?, ?, 'name', 'last', 'ext', '2010-10-10')",
+                        FIRST_ID + userId - FIRST_USER_ID, userId, userId, "steam_" + userId);
+            }
+        }
+    }
+
+    void delete() {
+        long lastUserId = getUserId(matchesCount, 0);
+        String matchesSubquery = "select id from matches where owner_id in (select id from players where external_id between ? and ?)";
+        jdbcTemplate.update("delete from match_players where match_id in (" + matchesSubquery + ")", FIRST_USER_ID, lastUserId);
+        jdbcTemplate.update("delete from matches where id in (" + matchesSubquery + ")", FIRST_USER_ID, lastUserId);
+        jdbcTemplate.update("delete from external_messages where chat_id = ? or chat_id between ? and ?",
+                Long.parseLong(TestConstants.CHAT_ID), FIRST_USER_ID, lastUserId);
+        jdbcTemplate.update("delete from players where external_id between ? and ?", FIRST_USER_ID, lastUserId);
+        jdbcTemplate.update("delete from app_settings where id between ? and ?", FIRST_ID, FIRST_ID + SETTINGS.size());
+    }
+}
@@ -0,0 +1,96 @@
+package ru.trainithard.dunebot.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
+import ru.trainithard.dunebot.model.messaging.ChatType;
+import ru.trainithard.dunebot.service.telegram.UpdateRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates recording of a typical game evening, used when no real recording is provided: each host creates a match,
+ * and four registered players vote for it. Each fifth poll additionally receives a guest vote and a revoked vote.
+ */
+class SyntheticRecording {
+    static final long FIRST_USER_ID = 900_000_000L;
+    static final int USERS_PER_MATCH = 4;
+    private static final int USER_ID_STEP = 10;
+    private static final long MATCHES_INTERVAL_MILLIS = 3000;
+    private static final long FIRST_VOTE_DELAY_MILLIS = 10_000;
+    private static final long VOTES_INTERVAL_MILLIS = 500;
+    private static final int GUEST_VOTE_PERIOD = 5;
+    private static final String POLL_ID_PREFIX = "synthetic_poll_";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<UpdateRecord> updateRecords = new ArrayList<>();
+
+    static long getUserId(int matchIndex, int userIndex) {
+        return FIRST_USER_ID + (long) matchIndex * USER_ID_STEP + userIndex;
+    }
+
+    List<String> generate(int matchesCount) throws JsonProcessingException {
+        for (int matchIndex = 0; matchIndex < matchesCount; matchIndex++) {
+            long matchStart = matchIndex * MATCHES_INTERVAL_MILLIS;
+            String pollId = POLL_ID_PREFIX + matchIndex;
+            updateRecords.add(new UpdateRecord(matchStart, getNewMatchUpdate(getUserId(matchIndex, 0)), null));
+            updateRecords.add(new UpdateRecord(matchStart + 1, null, pollId));
+            long voteTime = matchStart + FIRST_VOTE_DELAY_MILLIS;
+            for (int userIndex = 0; userIndex < USERS_PER_MATCH; userIndex++) {
+                voteTime += VOTES_INTERVAL_MILLIS;
+                updateRecords.add(new UpdateRecord(voteTime, getVoteUpdate(pollId, getUserId(matchIndex, userIndex), true), null));
+            }
+            if (matchIndex % GUEST_VOTE_PERIOD == 0) {
+                long guestId = getUserId(matchIndex, USERS_PER_MATCH);
+                updateRecords.add(new UpdateRecord(voteTime + VOTES_INTERVAL_MILLIS, getVoteUpdate(pollId, guestId, true), null));
+                long revokingUserId = getUserId(matchIndex, 1);
+                Update revokingVote = getVoteUpdate(pollId, revokingUserId, false);
+                updateRecords.add(new UpdateRecord(voteTime + 2 * VOTES_INTERVAL_MILLIS, revokingVote, null));
+            }
+        }
+        updateRecords.sort((first, second) -> Long.compare(first.timestamp(), second.timestamp()));
+        List<String> recordLines = new ArrayList<>();
+        for (UpdateRecord updateRecord : updateRecords) {
+            recordLines.add(objectMapper.writeValueAsString(updateRecord));
+        }
+        return recordLines;
+    }
+
+    private static Update getNewMatchUpdate(long userId) {
+        Chat chat = new Chat();
+        chat.setId(userId);
+        chat.setType(ChatType.PRIVATE.getValue());
+        Message message = new Message();
+        message.setMessageId(1);
+        message.setDate(0);
+        message.setChat(chat);
+        message.setFrom(getUser(userId));
+        message.setText("/new_dune");
+        Update update = new Update();
+        update.setMessage(message);
+        return update;
+    }
+
+    private static Update getVoteUpdate(String pollId, long userId, boolean isPositive) {
+        PollAnswer pollAnswer = new PollAnswer();
+        pollAnswer.setPollId(pollId);
+        pollAnswer.setUser(getUser(userId));
+        pollAnswer.setOptionIds(isPositive ? List.of(0) : List.of());
+        Update update = new Update();
+        update.setPollAnswer(pollAnswer);
+        return update;
+    }
+
+    private static User getUser(long userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setFirstName("user" + userId);
+        user.setIsBot(false);
+        return user;
+    }
+}
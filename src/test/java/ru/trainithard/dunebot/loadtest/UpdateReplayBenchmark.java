@@ -0,0 +1,160 @@
+package ru.trainithard.dunebot.loadtest;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import ru.trainithard.dunebot.service.MetaDataService;
+import ru.trainithard.dunebot.service.telegram.TelegramBot;
+import ru.trainithard.dunebot.service.telegram.TelegramUpdateProcessor;
+import ru.trainithard.dunebot.service.telegram.UpdateDeduplicator;
+import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
+import ru.trainithard.dunebot.service.telegram.factory.CommandMessageFactory;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Replays recorded updates against the whole application with stubbed Telegram API and reports throughput,
+ * end-to-end latency percentiles by command and count of executed DB statements for each replay speed.
+ * Not executed in the regular test run, execute with: <code>mvn test -Dtest=UpdateReplayBenchmark</code>
+ * <p>
+ * Options (system properties):
+ * <ul>
+ * <li><code>replay.file</code> - recording made with <code>bot.updates.record-file</code> property. Synthetic game
+ * evening is generated if omitted. Real recordings should be replayed against a copy of the production database.</li>
+ * <li><code>replay.matches</code> - matches count of synthetic recording, 20 by default</li>
+ * <li><code>replay.speeds</code> - comma separated replay speed multipliers, <code>10,100</code> by default</li>
+ * <li><code>replay.latency-ms</code> - simulated Telegram API latency, 20 ms by default</li>
+ * <li><code>replay.error-rate</code> - share of failing Telegram API calls, 0 by default</li>
+ * </ul>
+ * Local Postgres is used with <code>-Dspring.datasource.url=jdbc:postgresql://localhost:5432/postgres
+ * -Dspring.datasource.driver-class-name=org.postgresql.Driver -Dspring.sql.init.mode=never
+ * -Dspring.liquibase.enabled=true</code> and corresponding credentials.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UpdateReplayBenchmark {
+    private static final int QUEUE_CAPACITY = 100_000;
+    private static final long PROCESSING_TIMEOUT_SECONDS = 300;
+
+    @Autowired
+    private TelegramBot telegramBot;
+    @Autowired
+    private StubMessagingService messagingService;
+    @Autowired
+    private TelegramUpdateProcessor updateProcessor;
+    @Autowired
+    private MetaDataService metaDataService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @SpyBean
+    private UpdateDeduplicator updateDeduplicator;
+    @SpyBean
+    private CommandMessageFactory commandMessageFactory;
+    private SyntheticDataFixture syntheticDataFixture;
+    private ReplayMetrics replayMetrics;
+
+    @BeforeEach
+    void beforeEach() {
+        doAnswer(invocation -> {
+            CommandMessage commandMessage = (CommandMessage) invocation.callRealMethod();
+            Update update = invocation.getArgument(0);
+            replayMetrics.registerCommand(update.getUpdateId(), commandMessage == null ? null : commandMessage.getCommand());
+            return commandMessage;
+        }).when(commandMessageFactory).getInstance(any());
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            replayMetrics.registerProcessed(invocation.getArgument(0));
+            return null;
+        }).when(updateDeduplicator).markProcessed(any());
+    }
+
+    @AfterEach
+    void afterEach() {
+        if (syntheticDataFixture != null) {
+            syntheticDataFixture.delete();
+        }
+        messagingService.shutdown();
+    }
+
+    @Test
+    void replayUpdates() throws Exception {
+        UpdateReplayer replayer = getReplayer();
+        long latencyMillis = Long.getLong("replay.latency-ms", 20);
+        double errorRate = Double.parseDouble(System.getProperty("replay.error-rate", "0"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        updateProcessor.startProcessing();
+
+        String[] speeds = System.getProperty("replay.speeds", "10,100").split(",");
+        for (int run = 0; run < speeds.length; run++) {
+            final double speed = Double.parseDouble(speeds[run].trim());
+            UpdateReplayer.ReplayRun replayRun = replayer.prepareRun(metaDataService.findLastUpdateId() + 1, "_r" + run);
+            messagingService.reset(latencyMillis, errorRate, replayRun.sentPollIds());
+            statistics.clear();
+            replayMetrics = new ReplayMetrics(replayRun.updateRecords().size());
+
+            replayMetrics.start();
+            UpdateReplayer.replay(replayRun, speed, update -> {
+                replayMetrics.registerReceived(update.getUpdateId());
+                telegramBot.onUpdateReceived(update);
+            });
+            boolean isProcessed = replayMetrics.awaitProcessed(PROCESSING_TIMEOUT_SECONDS);
+
+            printReport(speed, replayRun.updateRecords().size(), statistics);
+            assertThat(isProcessed).isTrue();
+        }
+    }
+
+    private UpdateReplayer getReplayer() throws Exception {
+        String replayFile = System.getProperty("replay.file");
+        if (replayFile != null) {
+            return UpdateReplayer.fromFile(Path.of(replayFile));
+        }
+        int matchesCount = Integer.getInteger("replay.matches", 20);
+        syntheticDataFixture = new SyntheticDataFixture(jdbcTemplate, matchesCount);
+        syntheticDataFixture.insert();
+        return new UpdateReplayer(new SyntheticRecording().generate(matchesCount));
+    }
+
+    private void printReport(double speed, int updatesCount, Statistics statistics) {
+        long processedCount = replayMetrics.getProcessedCount();
+        System.out.printf("%n=== replay at %.0fx: %d of %d updates processed, throughput %.1f updates/s%n",
+                speed, processedCount, updatesCount, replayMetrics.getThroughput());
+        replayMetrics.getLatencyReport().forEach(System.out::println);
+        System.out.printf("DB statements: %d prepared (%.1f per update), %d transactions%n",
+                statistics.getPrepareStatementCount(), (double) statistics.getPrepareStatementCount() / Math.max(1, processedCount),
+                statistics.getTransactionCount());
+        System.out.printf("Telegram API calls: %s, simulated failures: %d, dropped by ingress queue: %d%n",
+                messagingService.getCallCounts(), messagingService.getFailuresCount(),
+                telegramBot.getIngressMetrics().droppedCount());
+    }
+
+    @TestConfiguration
+    static class ReplayConfiguration {
+        @Bean
+        TelegramBot telegramBot() {
+            return new TelegramBot("uName", "token", QUEUE_CAPACITY);
+        }
+
+        @Bean
+        @Primary
+        StubMessagingService stubMessagingService() {
+            return new StubMessagingService();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.trainithard.dunebot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import ru.trainithard.dunebot.service.telegram.UpdateRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Feeds recorded updates to the bot keeping recorded inter-arrival gaps divided by replay speed. Update IDs are
+ * renumbered and poll IDs are suffixed on each run, so consecutive runs neither clash with each other nor are
+ * considered redelivered updates.
+ */
+class UpdateReplayer {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> recordLines;
+
+    UpdateReplayer(List<String> recordLines) {
+        this.recordLines = List.copyOf(recordLines);
+    }
+
+    static UpdateReplayer fromFile(Path recordFile) throws IOException {
+        return new UpdateReplayer(Files.readAllLines(recordFile).stream().filter(line -> !line.isBlank()).toList());
+    }
+
+    /**
+     * @param runSuffix suffix appended to poll IDs of the run
+     * @return recording of the run with fresh update objects
+     */
+    ReplayRun prepareRun(int firstUpdateId, String runSuffix) throws IOException {
+        List<UpdateRecord> updateRecords = new ArrayList<>();
+        List<String> sentPollIds = new ArrayList<>();
+        int updateId = firstUpdateId;
+        for (String recordLine : recordLines) {
+            UpdateRecord updateRecord = objectMapper.readValue(recordLine, UpdateRecord.class);
+            if (updateRecord.sentPollId() != null) {
+                sentPollIds.add(updateRecord.sentPollId() + runSuffix);
+            } else {
+                Update update = updateRecord.update();
+                update.setUpdateId(updateId++);
+                if (update.hasPollAnswer()) {
+                    update.getPollAnswer().setPollId(update.getPollAnswer().getPollId() + runSuffix);
+                }
+                updateRecords.add(updateRecord);
+            }
+        }
+        return new ReplayRun(updateRecords, sentPollIds);
+    }
+
+    /**
+     * Passes run's updates to the receiver in the calling thread.
+     *
+     * @param speed replay speed multiplier, e.g. 10 replays a minute of recording in 6 seconds
+     */
+    static void replay(ReplayRun replayRun, double speed, Consumer<Update> updateReceiver) {
+        List<UpdateRecord> updateRecords = replayRun.updateRecords();
+        if (updateRecords.isEmpty()) {
+            return;
+        }
+        long recordingStart = updateRecords.get(0).timestamp();
+        long replayStartNanos = System.nanoTime();
+        for (UpdateRecord updateRecord : updateRecords) {
+            long dueNanos = replayStartNanos + (long) (TimeUnit.MILLISECONDS.toNanos(updateRecord.timestamp() - recordingStart) / speed);
+            long waitNanos = dueNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            updateReceiver.accept(updateRecord.update());
+        }
+    }
+
+    /**
+     * @param updateRecords received updates in order of receiving
+     * @param sentPollIds   IDs of polls sent by the bot in order of sending
+     */
+    record ReplayRun(List<UpdateRecord> updateRecords, List<String> sentPollIds) {
+    }
+}
@@ -0,0 +1,128 @@
+package ru.trainithard.dunebot.model.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskLease;
+import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
+import ru.trainithard.dunebot.repository.DunebotTaskRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class StateRunnableTest extends TestContextMock {
+    private static final Instant NOW = LocalDate.of(2010, 10, 20).atStartOfDay().toInstant(ZoneOffset.UTC);
+    private static final DuneBotTaskId TASK_ID = new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L);
+    private final Runnable runnable = mock(Runnable.class);
+    private final DuneBotTaskLease taskLease = new DuneBotTaskLease("instance_1", Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+    @Autowired
+    private DunebotTaskRepository taskRepository;
+    private StateRunnable stateRunnable;
+
+    @BeforeEach
+    void beforeEach() {
+        stateRunnable = new StateRunnable(taskRepository, taskLease, TASK_ID, runnable);
+        jdbcTemplate.execute("insert into dunebot_tasks (id, task_type, entity_id, status, start_time, created_at) " +
+                             "values (10000, '" + DuneTaskType.START_MESSAGE + "', 10000, '" + TaskStatus.SCHEDULED + "', '" + NOW + "', '2010-10-10')");
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("delete from dunebot_tasks where id = 10000");
+    }
+
+    @Test
+    void shouldRunDueTask() {
+        stateRunnable.run();
+
+        verify(runnable).run();
+    }
+
+    @Test
+    void shouldSetFinishedStatusAndReleaseLeaseAfterRun() {
+        stateRunnable.run();
+
+        Map<String, Object> actualTask = jdbcTemplate.queryForMap("select status, locked_by, locked_until from dunebot_tasks where id = 10000");
+
+        assertThat(actualTask)
+                .containsEntry("status", TaskStatus.FINISHED.name())
+                .containsEntry("locked_by", "instance_1")
+                .containsEntry("locked_until", null);
+    }
+
+    @Test
+    void shouldLockTaskByInstanceWhileRunning() {
+        doAnswer(invocation -> {
+            Map<String, Object> runningTask = jdbcTemplate.queryForMap("select status, locked_by from dunebot_tasks where id = 10000");
+            assertThat(runningTask).containsEntry("status", TaskStatus.RUN.name()).containsEntry("locked_by", "instance_1");
+            return null;
+        }).when(runnable).run();
+
+        stateRunnable.run();
+
+        verify(runnable).run();
+    }
+
+    @Test
+    void shouldSetFailedStatusWhenTaskThrows() {
+        doThrow(new IllegalStateException()).when(runnable).run();
+
+        stateRunnable.run();
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where id = 10000", TaskStatus.class);
+
+        assertThat(actualStatus).isEqualTo(TaskStatus.FAILED);
+    }
+
+    @Test
+    void shouldNotRunTaskBeforeStartTime() {
+        jdbcTemplate.execute("update dunebot_tasks set start_time = '" + NOW.plusSeconds(60) + "' where id = 10000");
+
+        stateRunnable.run();
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where id = 10000", TaskStatus.class);
+
+        verifyNoInteractions(runnable);
+        assertThat(actualStatus).isEqualTo(TaskStatus.SCHEDULED);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TaskStatus.class, mode = EnumSource.Mode.EXCLUDE, names = {"SCHEDULED"})
+    void shouldNotRunNotScheduledTask(TaskStatus taskStatus) {
+        jdbcTemplate.execute("update dunebot_tasks set status = '" + taskStatus + "', locked_by = 'instance_2' where id = 10000");
+
+        stateRunnable.run();
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where id = 10000", TaskStatus.class);
+
+        verifyNoInteractions(runnable);
+        assertThat(actualStatus).isEqualTo(taskStatus);
+    }
+
+    @Test
+    void shouldNotRunTaskClaimedByAnotherInstance() {
+        StateRunnable anotherInstanceRunnable = new StateRunnable(taskRepository,
+                new DuneBotTaskLease("instance_2", Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC)), TASK_ID, () -> stateRunnable.run());
+
+        anotherInstanceRunnable.run();
+
+        String actualLockedBy = jdbcTemplate.queryForObject("select locked_by from dunebot_tasks where id = 10000", String.class);
+
+        verifyNoInteractions(runnable);
+        assertThat(actualLockedBy).isEqualTo("instance_2");
+    }
+}
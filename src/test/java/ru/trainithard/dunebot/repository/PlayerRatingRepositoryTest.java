@@ -36,6 +36,7 @@ class PlayerRatingRepositoryTest extends TestContextMock {
 
     @AfterEach
     void afterEach() {
+        jdbcTemplate.execute("delete from current_player_ratings where player_id between 10000 and 10001");
         jdbcTemplate.execute("delete from player_ratings where player_id between 10000 and 10001");
         jdbcTemplate.execute("delete from matches where id between 10000 and 10000");
         jdbcTemplate.execute("delete from players where id between 10000 and 10001");
@@ -43,11 +44,45 @@ class PlayerRatingRepositoryTest extends TestContextMock {
 
     @Test
     void shouldReturnEmptyListWhenNoRecordsSet() {
+        List<PlayerRating> latestRatings = playerRatingRepository.findLatestPlayerRatingsFromHistory();
+
+        assertThat(latestRatings).isEmpty();
+    }
+
+    @Test
+    void shouldReturnEmptyCurrentRatingsWhenNoRecordsSet() {
         List<PlayerRating> latestRatings = playerRatingRepository.findLatestPlayerRatings();
 
         assertThat(latestRatings).isEmpty();
     }
 
+    @Test
+    void shouldReturnRatingsReferencedByCurrentRatings() {
+        jdbcTemplate.execute("insert into player_ratings (id, player_id, RATING_DATE, MATCHES_COUNT,EFFICIENCY, WIN_RATE, " +
+                             "FIRST_PLACE_COUNT, SECOND_PLACE_COUNT, THIRD_PLACE_COUNT, FOURTH_PLACE_COUNT, " +
+                             "CURRENT_STRIKE_LENGTH, MAX_STRIKE_LENGTH, created_at) " +
+                             "values (10000, 10000, '2010-10-2',0,0,0,0,0,0,0,0,0, '2010-10-10')");
+        jdbcTemplate.execute("insert into player_ratings (id, player_id, RATING_DATE, MATCHES_COUNT,EFFICIENCY, WIN_RATE, " +
+                             "FIRST_PLACE_COUNT, SECOND_PLACE_COUNT, THIRD_PLACE_COUNT, FOURTH_PLACE_COUNT, " +
+                             "CURRENT_STRIKE_LENGTH, MAX_STRIKE_LENGTH, created_at) " +
+                             "values (10001, 10000, '2010-11-3',0,0,0,0,0,0,0,0,0, '2010-10-10')");
+        jdbcTemplate.execute("insert into player_ratings (id, player_id, RATING_DATE, MATCHES_COUNT,EFFICIENCY, WIN_RATE, " +
+                             "FIRST_PLACE_COUNT, SECOND_PLACE_COUNT, THIRD_PLACE_COUNT, FOURTH_PLACE_COUNT, " +
+                             "CURRENT_STRIKE_LENGTH, MAX_STRIKE_LENGTH, created_at) " +
+                             "values (10002, 10001, '2010-10-1',0,0,0,0,0,0,0,0,0,'2010-10-10')");
+        jdbcTemplate.execute("insert into current_player_ratings (player_id, player_rating_id) values (10000, 10001)");
+        jdbcTemplate.execute("insert into current_player_ratings (player_id, player_rating_id) values (10001, 10002)");
+
+        List<PlayerRating> latestRatings = playerRatingRepository.findLatestPlayerRatings();
+
+        assertThat(latestRatings)
+                .map(PlayerRating::getId, playerRating -> playerRating.getPlayer().getId(), PlayerRating::getRatingDate)
+                .containsExactlyInAnyOrder(
+                        tuple(10001L, 10000L, LocalDate.of(2010, 11, 3)),
+                        tuple(10002L, 10001L, LocalDate.of(2010, 10, 1))
+                );
+    }
+
     @Test
     void shouldReturnOnlyLatestPlayerRatingDates() {
         jdbcTemplate.execute("insert into player_ratings (id, player_id, RATING_DATE, MATCHES_COUNT,EFFICIENCY, WIN_RATE, " +
@@ -63,7 +98,7 @@ class PlayerRatingRepositoryTest extends TestContextMock {
                              "CURRENT_STRIKE_LENGTH, MAX_STRIKE_LENGTH, created_at) " +
                              "values (10002, 10000, '2010-10-1',0,0,0,0,0,0,0,0,0,'2010-10-10')");
 
-        List<PlayerRating> latestRatings = playerRatingRepository.findLatestPlayerRatings();
+        List<PlayerRating> latestRatings = playerRatingRepository.findLatestPlayerRatingsFromHistory();
 
         assertThat(latestRatings)
                 .hasSize(1)
@@ -90,7 +125,7 @@ class PlayerRatingRepositoryTest extends TestContextMock {
                              "CURRENT_STRIKE_LENGTH, MAX_STRIKE_LENGTH, created_at) " +
                              "values (10003, 10001, '2010-10-2',0,0,0,0,0,0,0,0, 0,'2010-10-10')");
 
-        List<PlayerRating> latestRatings = playerRatingRepository.findLatestPlayerRatings();
+        List<PlayerRating> latestRatings = playerRatingRepository.findLatestPlayerRatingsFromHistory();
 
         assertThat(latestRatings)
                 .hasSize(2)
@@ -0,0 +1,215 @@
+package ru.trainithard.dunebot.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
+import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
+import ru.trainithard.dunebot.model.MatchState;
+import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.model.scheduler.TaskStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that hot repository queries use indexes. The queries are executed against PostgreSQL filled with
+ * synthetic data, and their plans are taken from <code>auto_explain</code> log of the database.
+ * Requires Docker, thus excluded from the default build: runs in CI workflow with <code>postgres-tests</code> Maven
+ * profile, locally with <code>mvn test -P postgres-tests</code>.
+ */
+@Tag("postgres")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+class QueryPlanTest extends TestContextMock {
+    private static final Pattern SEQ_SCAN_PATTERN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final long PLAN_LOG_TIMEOUT_MILLIS = 5000;
+    private static final LocalDate FROM = LocalDate.of(2022, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2022, 3, 3);
+    private static boolean isDataLoaded;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withCommand("postgres", "-c", "fsync=off", "-c", "shared_preload_libraries=auto_explain",
+                    "-c", "auto_explain.log_min_duration=0");
+
+    @Autowired
+    private MatchRepository matchRepository;
+    @Autowired
+    private MatchPlayerRepository matchPlayerRepository;
+    @Autowired
+    private PlayerRepository playerRepository;
+    @Autowired
+    private PlayerRatingRepository playerRatingRepository;
+    @Autowired
+    private DunebotTaskRepository taskRepository;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.sql.init.mode", () -> "never");
+        registry.add("spring.liquibase.enabled", () -> "true");
+        registry.add("spring.liquibase.change-log", () -> "classpath:changelog.xml");
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        if (isDataLoaded) {
+            return;
+        }
+        jdbcTemplate.execute("insert into players (id, external_id, external_chat_id, steam_name, first_name, last_name, " +
+                             "external_first_name, created_at) " +
+                             "select i, i, i, 'steam' || i, 'first', 'last', 'ext', now() from generate_series(1, 20000) i");
+        jdbcTemplate.execute("insert into external_messages (id, dtype, message_id, chat_id, poll_id, created_at) " +
+                             "select i, 'ExternalPollId', i, 1, 'poll' || i, now() from generate_series(1, 100000) i");
+        jdbcTemplate.execute("insert into matches (id, owner_id, mod_type, state, finish_date, external_poll_id, created_at) " +
+                             "select i, i % 20000 + 1, case when i % 2 = 0 then 'CLASSIC' else 'UPRISING_4' end, " +
+                             "case when i % 500 = 0 then 'NEW' else 'FINISHED' end, date '2021-01-01' + (i % 1095), i, " +
+                             "now() - i * interval '1 minute' from generate_series(1, 100000) i");
+        jdbcTemplate.execute("select setval('players_id_seq', 20000), setval('external_messages_id_seq', 100000), " +
+                             "setval('matches_id_seq', 100000)");
+        jdbcTemplate.execute("insert into match_players (match_id, player_id, place, created_at) " +
+                             "select m, (m * 4 + p) % 20000 + 1, p + 1, now() " +
+                             "from generate_series(1, 100000) m, generate_series(0, 3) p");
+        jdbcTemplate.execute("insert into dunebot_tasks (task_type, entity_id, status, start_time, locked_by, locked_until, " +
+                             "created_at) select (array['SUBMIT_TIMEOUT', 'SUBMIT_TIMEOUT_NOTIFICATION', 'SUBMIT_ACCEPT_TIMEOUT', " +
+                             "'START_MESSAGE'])[i % 4 + 1], i / 4, " +
+                             "case when i % 1000 = 0 then 'SCHEDULED' when i % 1000 = 1 then 'RUN' else 'FINISHED' end, now(), " +
+                             "case when i % 1000 = 1 then 'instance' end, case when i % 1000 = 1 then now() + interval '5 minutes' end, " +
+                             "now() from generate_series(1, 200000) i");
+        jdbcTemplate.execute("insert into player_ratings (player_id, rating_date, matches_count, efficiency, win_rate, " +
+                             "first_place_count, second_place_count, third_place_count, fourth_place_count, " +
+                             "current_strike_length, max_strike_length, is_previously_won, created_at) " +
+                             "select p, date '2021-01-01' + d * interval '1 month', 1, 0.5, 0.5, 0, 0, 0, 0, 0, 0, false, now() " +
+                             "from generate_series(1, 5000) p, generate_series(0, 35) d");
+        jdbcTemplate.execute("vacuum analyze");
+        isDataLoaded = true;
+    }
+
+    @Test
+    void shouldUseIndexesForMatchByPollIdSelection() throws InterruptedException {
+        assertIndexesUsed(() -> matchRepository.findByExternalPollIdPollId("poll777"), "external_messages", "matches");
+    }
+
+    @Test
+    void shouldUseIndexesForMatchesByStateSelection() throws InterruptedException {
+        assertIndexesUsed(() -> matchRepository.findAllByStateIn(Set.of(MatchState.NEW)), "matches");
+    }
+
+    @Test
+    void shouldUseIndexesForExpiredMatchIdsSelection() throws InterruptedException {
+        assertIndexesUsed(() -> matchRepository.findNewMatchIdsCreatedBefore(Instant.now().minus(1, ChronoUnit.DAYS)), "matches");
+    }
+
+    @Test
+    void shouldUseIndexesForMatchesByDatesAndStateSelection() throws InterruptedException {
+        assertIndexesUsed(() -> matchRepository.findAllByDatesAndState(FROM, TO, List.of(MatchState.FINISHED)),
+                "matches", "match_players");
+    }
+
+    @Test
+    void shouldUseIndexesForLatestOwnedMatchSelection() throws InterruptedException {
+        assertIndexesUsed(() -> matchRepository.findLatestOwnedMatchWithMatchPlayersBy(777L), "matches", "match_players");
+    }
+
+    @Test
+    void shouldUseIndexesForLatestPlayerMatchSelection() throws InterruptedException {
+        assertIndexesUsed(() -> matchRepository.findLatestPlayerMatch(777L, List.of(MatchState.NEW, MatchState.FINISHED)),
+                "matches", "match_players");
+    }
+
+    @Test
+    void shouldUseIndexesForMatchPlayersByMatchDatesSelection() throws InterruptedException {
+        assertIndexesUsed(() -> matchPlayerRepository.findByMatchDates(FROM, TO, MatchState.FINISHED, ModType.CLASSIC),
+                "matches", "match_players", "players", "external_messages");
+    }
+
+    @Test
+    void shouldUseIndexesForMatchPlayersByMatchIdSelection() throws InterruptedException {
+        assertIndexesUsed(() -> matchPlayerRepository.findWithPlayersByMatchId(777L), "match_players", "players");
+    }
+
+    @Test
+    void shouldUseIndexesForPlayerByExternalIdSelection() throws InterruptedException {
+        assertIndexesUsed(() -> playerRepository.findByExternalId(777L), "players");
+    }
+
+    @Test
+    void shouldUseIndexesForPlayerRatingsByDatesSelection() throws InterruptedException {
+        assertIndexesUsed(() -> playerRatingRepository.findAllBy(LocalDate.of(2022, 3, 1), LocalDate.of(2022, 3, 31)),
+                "player_ratings");
+    }
+
+    @Test
+    void shouldUseIndexesForTaskSelection() throws InterruptedException {
+        assertIndexesUsed(() -> taskRepository.reschedule(new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT, 777L), Instant.now()),
+                "dunebot_tasks");
+    }
+
+    @Test
+    void shouldUseIndexesForRelatedTasksCancel() throws InterruptedException {
+        assertIndexesUsed(() -> taskRepository.cancel(777L, List.of(DuneTaskType.SUBMIT_TIMEOUT, DuneTaskType.SUBMIT_TIMEOUT_NOTIFICATION)),
+                "dunebot_tasks");
+    }
+
+    @Test
+    void shouldUseIndexesForActiveTasksSelection() throws InterruptedException {
+        assertIndexesUsed(() -> taskRepository.findAllByStatusIn(List.of(TaskStatus.SCHEDULED, TaskStatus.RUN)), "dunebot_tasks");
+    }
+
+    private void assertIndexesUsed(Runnable query, String... tables) throws InterruptedException {
+        String plan = getPlan(query);
+
+        assertThat(getSeqScannedTables(plan)).as("Query plan:%n%s", plan).doesNotContain(tables);
+    }
+
+    private String getPlan(Runnable query) throws InterruptedException {
+        String startMarker = executeMarkerQuery();
+        query.run();
+        String endMarker = executeMarkerQuery();
+        long deadline = System.currentTimeMillis() + PLAN_LOG_TIMEOUT_MILLIS;
+        String logs = POSTGRES.getLogs();
+        while (!logs.contains(endMarker) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            logs = POSTGRES.getLogs();
+        }
+        assertThat(logs).contains(startMarker, endMarker);
+        return logs.substring(logs.indexOf(startMarker), logs.indexOf(endMarker));
+    }
+
+    private String executeMarkerQuery() {
+        String marker = "plan-marker-" + UUID.randomUUID();
+        jdbcTemplate.queryForObject("select '" + marker + "'", String.class);
+        return marker;
+    }
+
+    private List<String> getSeqScannedTables(String plan) {
+        List<String> tables = new ArrayList<>();
+        Matcher matcher = SEQ_SCAN_PATTERN.matcher(plan);
+        while (matcher.find()) {
+            tables.add(matcher.group(1));
+        }
+        return tables;
+    }
+}
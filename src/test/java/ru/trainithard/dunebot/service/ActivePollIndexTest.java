@@ -0,0 +1,84 @@
+package ru.trainithard.dunebot.service;
+
+import org.junit.jupiter.api.Test;
+import ru.trainithard.dunebot.model.Match;
+import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.model.Player;
+import ru.trainithard.dunebot.model.messaging.ExternalPollId;
+import ru.trainithard.dunebot.repository.MatchRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class ActivePollIndexTest {
+    private final MatchRepository matchRepository = mock(MatchRepository.class);
+    private final ActivePollIndex activePollIndex = new ActivePollIndex(matchRepository);
+
+    @Test
+    void shouldFindRegisteredPollMatchId() {
+        activePollIndex.register("100", 10L, 1000L);
+
+        assertThat(activePollIndex.findMatchId("100")).contains(10L);
+        assertThat(activePollIndex.contains("100")).isTrue();
+    }
+
+    @Test
+    void shouldNotFindUnknownPoll() {
+        activePollIndex.register("100", 10L, 1000L);
+
+        assertThat(activePollIndex.findMatchId("101")).isEmpty();
+        assertThat(activePollIndex.contains("101")).isFalse();
+    }
+
+    @Test
+    void shouldNotFindEvictedMatchPoll() {
+        activePollIndex.register("100", 10L, 1000L);
+        activePollIndex.register("101", 11L, 1100L);
+
+        activePollIndex.evict(10L);
+
+        assertThat(activePollIndex.contains("100")).isFalse();
+        assertThat(activePollIndex.contains("101")).isTrue();
+        assertThat(activePollIndex.findOwnedMatchId(1000L)).isEmpty();
+        assertThat(activePollIndex.findOwnedMatchId(1100L)).contains(11L);
+    }
+
+    @Test
+    void shouldFindLatestRegisteredOwnedMatchId() {
+        activePollIndex.register("100", 10L, 1000L);
+        activePollIndex.register("101", 11L, 1000L);
+
+        assertThat(activePollIndex.findOwnedMatchId(1000L)).contains(11L);
+    }
+
+    @Test
+    void shouldRebuildIndexFromNewMatches() {
+        doReturn(List.of(getMatch(10L, "100"), getMatch(11L, "101"), getMatch(12L, null), getMatch(9L, "99")))
+                .when(matchRepository).findAllByStateIn(any());
+        activePollIndex.register("200", 20L, 2000L);
+
+        activePollIndex.rebuild();
+
+        assertThat(activePollIndex.findMatchId("100")).contains(10L);
+        assertThat(activePollIndex.findMatchId("101")).contains(11L);
+        assertThat(activePollIndex.contains("200")).isFalse();
+        assertThat(activePollIndex.findOwnedMatchId(1000L)).contains(12L);
+        assertThat(activePollIndex.findOwnedMatchId(2000L)).isEmpty();
+    }
+
+    private static Match getMatch(long id, String pollId) {
+        Match match = new Match(ModType.CLASSIC);
+        match.setId(id);
+        Player owner = new Player();
+        owner.setExternalId(1000L);
+        match.setOwner(owner);
+        if (pollId != null) {
+            match.setExternalPollId(new ExternalPollId(1, 2L, pollId, 3));
+        }
+        return match;
+    }
+}
@@ -8,6 +8,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import ru.trainithard.dunebot.TestContextMock;
 import ru.trainithard.dunebot.model.AppSettingKey;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -24,7 +30,8 @@ class AppSettingsServiceImplTest extends TestContextMock {
 
     @AfterEach
     void afterEach() {
-        jdbcTemplate.execute("delete from app_settings where id between 10000 and 10002 or key = '" + AppSettingKey.CHAT_ID + "'");
+        jdbcTemplate.execute("delete from app_settings where id between 10000 and 10003 or key in ('" + AppSettingKey.CHAT_ID + "', '" +
+                             AppSettingKey.TOPIC_ID_UPRISING + "')");
     }
 
     @Test
@@ -84,4 +91,60 @@ class AppSettingsServiceImplTest extends TestContextMock {
 
         assertThat(secondRequest).isNotEqualTo(firstRequest).isEqualTo("newVal");
     }
+
+    @Test
+    void shouldReturnConfiguredTopicIds() {
+        List<Integer> actualTopicIds = appSettingsService.getTopicIds();
+
+        assertThat(actualTopicIds).containsExactly(5);
+    }
+
+    @Test
+    void shouldReturnCachedTopicIds() {
+        appSettingsService.getTopicIds();
+        jdbcTemplate.execute("insert into app_settings (id, key, value, created_at) values (10003, 'TOPIC_ID_UPRISING', '6', '2010-01-02')");
+
+        List<Integer> actualTopicIds = appSettingsService.getTopicIds();
+
+        assertThat(actualTopicIds).containsExactly(5);
+    }
+
+    @Test
+    void shouldRefreshTopicIdsOnTopicSettingSave() {
+        appSettingsService.getTopicIds();
+        appSettingsService.saveSetting(AppSettingKey.TOPIC_ID_UPRISING, "6");
+
+        List<Integer> actualTopicIds = appSettingsService.getTopicIds();
+
+        assertThat(actualTopicIds).containsExactly(5, 6);
+    }
+
+    @Test
+    void shouldReturnIntSettingValueBeforeAddition() {
+        int actualValue = appSettingsService.getAndAddIntSetting(AppSettingKey.TOPIC_ID_CLASSIC, 3);
+
+        Integer actualStoredValue = jdbcTemplate.queryForObject("select value from app_settings where id = 10001", Integer.class);
+
+        assertThat(actualValue).isEqualTo(5);
+        assertThat(actualStoredValue).isEqualTo(8);
+    }
+
+    @Test
+    void shouldNotLoseConcurrentIntSettingAdditions() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Integer>> additions = IntStream.range(0, 40)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                            appSettingsService.getAndAddIntSetting(AppSettingKey.TOPIC_ID_CLASSIC, 1), executor))
+                    .toList();
+            List<Integer> actualValues = additions.stream().map(CompletableFuture::join).toList();
+
+            Integer actualStoredValue = jdbcTemplate.queryForObject("select value from app_settings where id = 10001", Integer.class);
+
+            assertThat(actualValues).doesNotHaveDuplicates();
+            assertThat(actualStoredValue).isEqualTo(45);
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
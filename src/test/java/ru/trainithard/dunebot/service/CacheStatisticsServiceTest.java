@@ -0,0 +1,70 @@
+package ru.trainithard.dunebot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import ru.trainithard.dunebot.configuration.CacheConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheStatisticsServiceTest {
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    private final CacheStatisticsService statisticsService = new CacheStatisticsService(cacheManager);
+
+    @BeforeEach
+    void beforeEach() {
+        new CacheConfiguration("maximumSize=10", "maximumSize=2", "maximumSize=10", "maximumSize=10").customize(cacheManager);
+    }
+
+    @Test
+    void shouldRegisterOnlyConfiguredCaches() {
+        assertThat(cacheManager.getCacheNames()).containsExactlyInAnyOrder("settings", "playerRatings", "players", "mentions");
+        assertThat(cacheManager.getCache("unknown")).isNull();
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        Cache cache = cacheManager.getCache("settings");
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("key");
+        cache.get("absent");
+
+        assertThat(statisticsService.getStatistics())
+                .filteredOn(statistics -> statistics.name().equals("settings"))
+                .singleElement()
+                .satisfies(statistics -> {
+                    assertThat(statistics.size()).isEqualTo(1);
+                    assertThat(statistics.hitCount()).isEqualTo(2);
+                    assertThat(statistics.missCount()).isEqualTo(1);
+                    assertThat(statistics.hitRate()).isEqualTo(2.0 / 3);
+                });
+    }
+
+    @Test
+    void shouldEvictEntriesOverMaximumSize() {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                ((CaffeineCache) cacheManager.getCache("playerRatings")).getNativeCache();
+        for (int i = 0; i < 5; i++) {
+            nativeCache.put(i, "value" + i);
+        }
+        nativeCache.cleanUp();
+
+        assertThat(statisticsService.getStatistics())
+                .filteredOn(statistics -> statistics.name().equals("playerRatings"))
+                .singleElement()
+                .satisfies(statistics -> {
+                    assertThat(statistics.size()).isEqualTo(2);
+                    assertThat(statistics.evictionCount()).isEqualTo(3);
+                });
+    }
+
+    @Test
+    void shouldReturnFullHitRateWhenCacheIsNotUsed() {
+        assertThat(statisticsService.getStatistics())
+                .extracting(CacheStatisticsService.CacheStatistics::hitRate)
+                .containsOnly(1.0);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.trainithard.dunebot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import ru.trainithard.dunebot.model.Leader;
+import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.repository.LeaderRepository;
+import ru.trainithard.dunebot.service.messaging.dto.ButtonDto;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LeaderCatalogTest {
+    private final LeaderRepository leaderRepository = mock(LeaderRepository.class);
+    private final LeaderCatalog leaderCatalog = new LeaderCatalog(leaderRepository);
+
+    @BeforeEach
+    void beforeEach() {
+        doReturn(List.of(getLeader(1L, "a", ModType.CLASSIC), getLeader(2L, "b", ModType.UPRISING_4),
+                getLeader(3L, "c", ModType.CLASSIC), getLeader(4L, "d", ModType.CLASSIC)))
+                .when(leaderRepository).findAll(any(Sort.class));
+        leaderCatalog.reload();
+    }
+
+    @Test
+    void shouldFindLeaderById() {
+        assertThat(leaderCatalog.findById(3L)).map(Leader::getName).contains("c");
+        assertThat(leaderCatalog.findById(5L)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnModTypeLeaders() {
+        assertThat(leaderCatalog.getLeaders(ModType.CLASSIC))
+                .isUnmodifiable()
+                .extracting(Leader::getId)
+                .containsExactly(1L, 3L, 4L);
+        assertThat(leaderCatalog.getLeaders(ModType.UPRISING_6)).isEmpty();
+    }
+
+    @Test
+    void shouldPartitionKeyboardTemplateByTwoButtons() {
+        List<List<ButtonDto>> keyboard = leaderCatalog.getSubmitKeyboardTemplate(ModType.CLASSIC);
+
+        assertThat(keyboard).extracting(List::size).containsExactly(2, 1);
+        assertThat(keyboard.get(0))
+                .extracting(ButtonDto::getText, ButtonDto::getCallback)
+                .containsExactly(tuple("a_short", "_SL_1"), tuple("c_short", "_SL_3"));
+    }
+
+    @Test
+    void shouldReplaceLeadersOnReload() {
+        doReturn(List.of(getLeader(5L, "e", ModType.CLASSIC))).when(leaderRepository).findAll(any(Sort.class));
+
+        leaderCatalog.reload();
+
+        assertThat(leaderCatalog.findById(1L)).isEmpty();
+        assertThat(leaderCatalog.getLeaders(ModType.CLASSIC)).extracting(Leader::getId).containsExactly(5L);
+        assertThat(leaderCatalog.getLeaders(ModType.UPRISING_4)).isEmpty();
+    }
+
+    private Leader getLeader(long id, String name, ModType modType) {
+        Leader leader = new Leader();
+        leader.setId(id);
+        leader.setName(name);
+        leader.setShortName(name + "_short");
+        leader.setModType(modType);
+        return leader;
+    }
+}
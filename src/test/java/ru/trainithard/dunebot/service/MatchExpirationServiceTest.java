@@ -27,6 +27,8 @@ class MatchExpirationServiceTest extends TestContextMock {
     private Clock clock;
     @Autowired
     private MatchExpirationService expirationService;
+    @Autowired
+    private ActivePollIndex activePollIndex;
 
     @BeforeEach
     void beforeEach() {
@@ -70,6 +72,15 @@ class MatchExpirationServiceTest extends TestContextMock {
         assertThat(actualStates).containsExactly(MatchState.EXPIRED, MatchState.EXPIRED);
     }
 
+    @Test
+    void shouldEvictExpiredMatchesFromActivePollIndex() {
+        activePollIndex.register("10000", 10000L, 11000L);
+
+        expirationService.expireUnusedMatches();
+
+        assertThat(activePollIndex.contains("10000")).isFalse();
+    }
+
     @Test
     void shoulSetNotSubmittedForNewMatchesWhenTimeoutReachedAndRequiredPlayersPresented() {
         jdbcTemplate.execute("update matches set positive_answers_count = 4 where id between 10000 and 10001");
@@ -107,4 +118,57 @@ class MatchExpirationServiceTest extends TestContextMock {
 
         assertThat(actualStates).containsExactly(matchState, matchState);
     }
+
+    @Test
+    void shouldExpireMatchWithMissingPlayers() {
+        expirationService.expireMatch(10000L);
+
+        List<MatchState> actualStates = jdbcTemplate
+                .queryForList("select state from matches where id between 10000 and 10001 order by id", MatchState.class);
+
+        assertThat(actualStates).containsExactly(MatchState.EXPIRED, MatchState.NEW);
+    }
+
+    @Test
+    void shouldSetNotSubmittedForMatchWithRequiredPlayersPresented() {
+        jdbcTemplate.execute("update matches set positive_answers_count = 4 where id = 10000");
+
+        expirationService.expireMatch(10000L);
+
+        MatchState actualState = jdbcTemplate.queryForObject("select state from matches where id = 10000", MatchState.class);
+
+        assertThat(actualState).isEqualTo(MatchState.NOT_SUBMITTED);
+    }
+
+    @Test
+    void shouldExpireUprisingSixMatchWithMissingPlayers() {
+        jdbcTemplate.execute("update matches set mod_type = '" + ModType.UPRISING_6 + "', positive_answers_count = 4 where id = 10000");
+
+        expirationService.expireMatch(10000L);
+
+        MatchState actualState = jdbcTemplate.queryForObject("select state from matches where id = 10000", MatchState.class);
+
+        assertThat(actualState).isEqualTo(MatchState.EXPIRED);
+    }
+
+    @Test
+    void shouldEvictExpiredMatchFromActivePollIndex() {
+        activePollIndex.register("10000", 10000L, 11000L);
+
+        expirationService.expireMatch(10000L);
+
+        assertThat(activePollIndex.contains("10000")).isFalse();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = MatchState.class, mode = EnumSource.Mode.EXCLUDE, names = {"NEW"})
+    void shouldNotExpireMatchWhenStateIsNotNew(MatchState matchState) {
+        jdbcTemplate.execute("update matches set state = '" + matchState + "' where id = 10000");
+
+        expirationService.expireMatch(10000L);
+
+        MatchState actualState = jdbcTemplate.queryForObject("select state from matches where id = 10000", MatchState.class);
+
+        assertThat(actualState).isEqualTo(matchState);
+    }
 }
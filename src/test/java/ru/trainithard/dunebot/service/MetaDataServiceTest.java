@@ -8,6 +8,7 @@ import ru.trainithard.dunebot.repository.MetaDataRepository;
 import java.time.LocalDate;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 class MetaDataServiceTest {
@@ -42,4 +43,29 @@ class MetaDataServiceTest {
 
         verify(metaDataRepository).save(argThat(metaData -> metaData.getValue().equals("09-11-10")));
     }
+
+    @Test
+    void shouldReturnZeroLastUpdateIdWhenNotSaved() {
+        doReturn(Optional.empty()).when(metaDataRepository).findByType(MetaDataKey.LAST_UPDATE_ID);
+
+        assertThat(metaDataService.findLastUpdateId()).isZero();
+    }
+
+    @Test
+    void shouldReturnSavedLastUpdateId() {
+        doReturn(Optional.of(new MetaData(MetaDataKey.LAST_UPDATE_ID, "12345")))
+                .when(metaDataRepository).findByType(MetaDataKey.LAST_UPDATE_ID);
+
+        assertThat(metaDataService.findLastUpdateId()).isEqualTo(12345);
+    }
+
+    @Test
+    void shouldUpdateLastUpdateId() {
+        doReturn(Optional.of(new MetaData(MetaDataKey.LAST_UPDATE_ID, "12345")))
+                .when(metaDataRepository).findByType(MetaDataKey.LAST_UPDATE_ID);
+
+        metaDataService.saveLastUpdateId(12346);
+
+        verify(metaDataRepository).save(argThat(metaData -> metaData.getValue().equals("12346")));
+    }
 }
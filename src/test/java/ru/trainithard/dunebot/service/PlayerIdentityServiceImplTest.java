@@ -0,0 +1,83 @@
+package ru.trainithard.dunebot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.model.Player;
+import ru.trainithard.dunebot.repository.PlayerRepository;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class PlayerIdentityServiceImplTest extends TestContextMock {
+    @Autowired
+    private PlayerIdentityService playerIdentityService;
+    @SpyBean
+    private PlayerRepository playerRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate.execute("insert into players (id, external_id, external_chat_id, steam_name, first_name, last_name, " +
+                             "external_first_name, is_guest, created_at) " +
+                             "values (10000, 11000, 12000, 'st_pl', 'name', 'l1', 'e1', true, '2010-10-10')");
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("delete from players where id = 10000");
+    }
+
+    @Test
+    void shouldReturnPlayerIdentity() {
+        Optional<PlayerIdentity> actualIdentity = playerIdentityService.findByExternalId(11000L);
+
+        assertThat(actualIdentity).contains(new PlayerIdentity(10000L, 11000L, 12000L, true, false));
+    }
+
+    @Test
+    void shouldSelectPlayerOnceWhenIdentityIsCached() {
+        playerIdentityService.findByExternalId(11000L);
+        playerIdentityService.findByExternalId(11000L);
+
+        verify(playerRepository, times(1)).findByExternalId(11000L);
+    }
+
+    @Test
+    void shouldCacheAbsentPlayer() {
+        playerIdentityService.findByExternalId(11001L);
+        Optional<PlayerIdentity> actualIdentity = playerIdentityService.findByExternalId(11001L);
+
+        assertThat(actualIdentity).isEmpty();
+        verify(playerRepository, times(1)).findByExternalId(11001L);
+    }
+
+    @Test
+    void shouldRefreshIdentityWhenPlayerIsSaved() {
+        playerIdentityService.findByExternalId(11000L);
+        Player player = playerRepository.findById(10000L).orElseThrow();
+        player.setGuest(false);
+        playerRepository.save(player);
+
+        Optional<PlayerIdentity> actualIdentity = playerIdentityService.findByExternalId(11000L);
+
+        assertThat(actualIdentity).map(PlayerIdentity::guest).contains(false);
+    }
+
+    @Test
+    void shouldRefreshIdentityWhenChatIsBlocked() {
+        playerIdentityService.findByExternalId(11000L);
+        playerRepository.markChatBlocked(12000L);
+
+        Optional<PlayerIdentity> actualIdentity = playerIdentityService.findByExternalId(11000L);
+
+        assertThat(actualIdentity).map(PlayerIdentity::chatBlocked).contains(true);
+    }
+}
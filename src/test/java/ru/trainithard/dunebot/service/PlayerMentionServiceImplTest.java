@@ -0,0 +1,55 @@
+package ru.trainithard.dunebot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.model.Player;
+import ru.trainithard.dunebot.repository.PlayerRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PlayerMentionServiceImplTest extends TestContextMock {
+    @Autowired
+    private PlayerMentionService playerMentionService;
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate.execute("insert into players (id, external_id, external_chat_id, steam_name, first_name, last_name, " +
+                             "external_name, external_first_name, is_guest, created_at) " +
+                             "values (10000, 11000, 12000, 'st_pl', 'name', 'l1', 'old_name', 'e1', false, '2010-10-10')");
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("delete from players where id = 10000");
+    }
+
+    @Test
+    void shouldReturnCachedMention() {
+        Player player = playerRepository.findById(10000L).orElseThrow();
+        playerMentionService.getMention(player);
+        player.setExternalName("new_name");
+
+        String actualMention = playerMentionService.getMention(player);
+
+        assertThat(actualMention).isEqualTo("[@old\\_name](tg://user?id=11000)");
+    }
+
+    @Test
+    void shouldRefreshMentionWhenPlayerIsSaved() {
+        Player player = playerRepository.findById(10000L).orElseThrow();
+        playerMentionService.getMention(player);
+        player.setExternalName("new_name");
+        playerRepository.save(player);
+
+        String actualMention = playerMentionService.getMention(player);
+
+        assertThat(actualMention).isEqualTo("[@new\\_name](tg://user?id=11000)");
+    }
+}
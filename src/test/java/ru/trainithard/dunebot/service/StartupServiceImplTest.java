@@ -1,13 +1,11 @@
 package ru.trainithard.dunebot.service;
 
-import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.EnumSource;
-import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -16,7 +14,6 @@ import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
 import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
 import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
 import ru.trainithard.dunebot.model.scheduler.TaskStatus;
-import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.task.DuneScheduledTaskFactory;
 import ru.trainithard.dunebot.service.task.DunebotRunnable;
 
@@ -24,7 +21,6 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -55,13 +51,12 @@ class StartupServiceImplTest extends TestContextMock {
                              "values (10000, '" + DuneTaskType.START_MESSAGE + "', 10000, '" + TaskStatus.SCHEDULED + "', '" + SCHEDULED_TIME + "', '2010-10-10')");
         jdbcTemplate.execute("insert into app_settings (id, key, value, created_at) values (10000, 'CHAT_ID', '100500', '2010-01-02')");
         jdbcTemplate.execute("insert into app_settings (id, key, value, created_at) values (10001, 'TOPIC_ID_CLASSIC', '10001', '2010-01-02')");
-        jdbcTemplate.execute("insert into app_settings (id, key, value, created_at) values (10002, 'TOPIC_ID_UPRISING', '10002', '2010-01-02')");
     }
 
     @AfterEach
     void afterEach() {
-        jdbcTemplate.execute("delete from app_settings where id between 10000 and 10002");
-        jdbcTemplate.execute("delete from dunebot_tasks where id = 10000");
+        jdbcTemplate.execute("delete from app_settings where id between 10000 and 10001");
+        jdbcTemplate.execute("delete from dunebot_tasks where id between 10000 and 10001");
     }
 
     @ParameterizedTest
@@ -91,6 +86,47 @@ class StartupServiceImplTest extends TestContextMock {
         verify(taskScheduler).rescheduleSingleRunTask(same(runnableMock), eq(expectedTaskId), eq(RESTART_TIME.plusMinutes(1).toInstant(ZoneOffset.UTC)));
     }
 
+    @Test
+    void shouldNotRescheduleTaskRunByAnotherInstance() {
+        jdbcTemplate.execute("update dunebot_tasks set status = '" + TaskStatus.RUN + "', locked_by = 'instance_2', " +
+                             "locked_until = '" + SCHEDULED_TIME.plusMinutes(5) + "' where id = 10000");
+
+        startupService.startUp();
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where id = 10000", TaskStatus.class);
+
+        assertThat(actualStatus).isEqualTo(TaskStatus.RUN);
+        verify(taskScheduler, never()).rescheduleSingleRunTask(any(), any(), any());
+    }
+
+    @Test
+    void shouldRescheduleTaskWithExpiredLease() {
+        jdbcTemplate.execute("update dunebot_tasks set status = '" + TaskStatus.RUN + "', locked_by = 'instance_2', " +
+                             "locked_until = '" + SCHEDULED_TIME.minusMinutes(5) + "' where id = 10000");
+
+        startupService.startUp();
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where id = 10000", TaskStatus.class);
+
+        assertThat(actualStatus).isEqualTo(TaskStatus.SCHEDULED);
+        verify(taskScheduler).rescheduleSingleRunTask(same(runnableMock), eq(new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L)), any());
+    }
+
+    @Test
+    void shouldCancelTaskWithExpiredLeaseWhenItIsScheduledAgain() {
+        jdbcTemplate.execute("update dunebot_tasks set status = '" + TaskStatus.RUN + "', locked_by = 'instance_2', " +
+                             "locked_until = '" + SCHEDULED_TIME.minusMinutes(5) + "' where id = 10000");
+        jdbcTemplate.execute("insert into dunebot_tasks (id, task_type, entity_id, status, start_time, created_at) " +
+                             "values (10001, '" + DuneTaskType.START_MESSAGE + "', 10000, '" + TaskStatus.SCHEDULED + "', '" +
+                             SCHEDULED_TIME + "', '2010-10-10')");
+
+        startupService.startUp();
+
+        assertThat(jdbcTemplate.queryForList("select status from dunebot_tasks where id between 10000 and 10001 order by id", TaskStatus.class))
+                .containsExactly(TaskStatus.CANCELLED, TaskStatus.SCHEDULED);
+        verify(taskScheduler, times(1)).rescheduleSingleRunTask(same(runnableMock), eq(new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L)), any());
+    }
+
     @ParameterizedTest
     @CsvSource({"START_MESSAGE, FAILED", "START_MESSAGE, FINISHED", "START_MESSAGE, CANCELLED",
             "SUBMIT_TIMEOUT, FAILED", "SUBMIT_TIMEOUT, FINISHED", "SUBMIT_TIMEOUT, CANCELLED"})
@@ -128,59 +164,7 @@ class StartupServiceImplTest extends TestContextMock {
     }
 
     @Test
-    void shouldSendMessageOnBotRestartToAllTopics() {
-        startupService.startUp();
-
-        ArgumentCaptor<MessageDto> messageCaptor = ArgumentCaptor.forClass(MessageDto.class);
-        verify(messagingService, times(2)).sendMessageAsync(messageCaptor.capture());
-        List<MessageDto> actualMessage = messageCaptor.getAllValues();
-
-        assertThat(actualMessage)
-                .extracting(MessageDto::getChatId, MessageDto::getTopicId, MessageDto::getText)
-                .containsExactlyInAnyOrder(
-                        Tuple.tuple("100500", 10001, "⚠️ Бот был перезапущен, возможны задержки до двух минут в обработке команд или отправке сообщений бота\\."),
-                        Tuple.tuple("100500", 10002, "⚠️ Бот был перезапущен, возможны задержки до двух минут в обработке команд или отправке сообщений бота\\.")
-                );
-    }
-
-    @Test
-    void shouldSendTheOnlyMessageOnBotRestartWhenBothTopicsAreTheSame() {
-        jdbcTemplate.execute("update app_settings set value = '10001' where id = 10002");
-
-        startupService.startUp();
-
-        ArgumentCaptor<MessageDto> messageCaptor = ArgumentCaptor.forClass(MessageDto.class);
-        verify(messagingService).sendMessageAsync(messageCaptor.capture());
-        List<MessageDto> actualMessage = messageCaptor.getAllValues();
-
-        assertThat(actualMessage)
-                .extracting(MessageDto::getChatId, MessageDto::getTopicId, MessageDto::getText)
-                .containsExactly(
-                        Tuple.tuple("100500", 10001, "⚠️ Бот был перезапущен, возможны задержки до двух минут в обработке команд или отправке сообщений бота\\.")
-                );
-    }
-
-    @Test
-    void shouldSendTheOnlyMessageOnBotRestartWhenOnlyOneTopicPresented() {
-        jdbcTemplate.execute("delete from app_settings where id = 10001");
-
-        startupService.startUp();
-
-        ArgumentCaptor<MessageDto> messageCaptor = ArgumentCaptor.forClass(MessageDto.class);
-        verify(messagingService).sendMessageAsync(messageCaptor.capture());
-        List<MessageDto> actualMessage = messageCaptor.getAllValues();
-
-        assertThat(actualMessage)
-                .extracting(MessageDto::getChatId, MessageDto::getTopicId, MessageDto::getText)
-                .containsExactly(
-                        Tuple.tuple("100500", 10002, "⚠️ Бот был перезапущен, возможны задержки до двух минут в обработке команд или отправке сообщений бота\\.")
-                );
-    }
-
-    @Test
-    void shouldNotSendMessagesWhenChatSettingMissing() {
-        jdbcTemplate.execute("delete from app_settings where id = 10000");
-
+    void shouldNotSendMessagesOnBotRestart() {
         startupService.startUp();
 
         verifyNoInteractions(messagingService);
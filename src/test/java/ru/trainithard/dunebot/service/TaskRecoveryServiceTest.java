@@ -0,0 +1,140 @@
+package ru.trainithard.dunebot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
+import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
+import ru.trainithard.dunebot.model.scheduler.TaskStatus;
+import ru.trainithard.dunebot.service.task.DuneScheduledTaskFactory;
+import ru.trainithard.dunebot.service.task.DunebotRunnable;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class TaskRecoveryServiceTest extends TestContextMock {
+    private static final LocalDateTime NOW = LocalDateTime.of(2010, 10, 10, 12, 0);
+    private static final DuneBotTaskId TASK_ID = new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT, 10000L);
+    private final DunebotRunnable runnableMock = mock(DunebotRunnable.class);
+
+    @Autowired
+    private TaskRecoveryService recoveryService;
+    @MockBean
+    private DuneBotTaskScheduler taskScheduler;
+    @MockBean
+    private DuneScheduledTaskFactory taskFactory;
+    @MockBean
+    private Clock clock;
+
+    @BeforeEach
+    void beforeEach() {
+        Clock fixedClock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        doReturn(fixedClock.instant()).when(clock).instant();
+        doReturn(fixedClock.getZone()).when(clock).getZone();
+
+        doReturn(runnableMock).when(taskFactory).createInstance(any());
+
+        jdbcTemplate.execute("insert into dunebot_tasks (id, task_type, entity_id, status, start_time, locked_by, locked_until, created_at) " +
+                             "values (10000, '" + DuneTaskType.SUBMIT_TIMEOUT + "', 10000, '" + TaskStatus.RUN + "', '" + NOW.minusMinutes(10) + "', " +
+                             "'dead_instance', '" + NOW.minusMinutes(1) + "', '2010-10-10')");
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("delete from dunebot_tasks where id between 10000 and 10001");
+    }
+
+    @Test
+    void shouldReturnTaskWithExpiredLeaseToSchedule() {
+        recoveryService.recoverTasks();
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where id = 10000", TaskStatus.class);
+
+        assertThat(actualStatus).isEqualTo(TaskStatus.SCHEDULED);
+    }
+
+    @Test
+    void shouldRunTaskWithExpiredLease() {
+        recoveryService.recoverTasks();
+
+        verify(taskScheduler).runOverdueTask(same(runnableMock), eq(TASK_ID));
+    }
+
+    @Test
+    void shouldNotRecoverTaskWithActiveLease() {
+        jdbcTemplate.execute("update dunebot_tasks set locked_until = '" + NOW.plusMinutes(1) + "' where id = 10000");
+
+        recoveryService.recoverTasks();
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where id = 10000", TaskStatus.class);
+
+        assertThat(actualStatus).isEqualTo(TaskStatus.RUN);
+        verify(taskScheduler, never()).runOverdueTask(any(), any());
+    }
+
+    @Test
+    void shouldCancelTaskWithExpiredLeaseWhenItIsScheduledAgain() {
+        jdbcTemplate.execute("insert into dunebot_tasks (id, task_type, entity_id, status, start_time, created_at) " +
+                             "values (10001, '" + DuneTaskType.SUBMIT_TIMEOUT + "', 10000, '" + TaskStatus.SCHEDULED + "', '" +
+                             NOW.plusMinutes(10) + "', '2010-10-10')");
+
+        recoveryService.recoverTasks();
+
+        assertThat(jdbcTemplate.queryForList("select status from dunebot_tasks where id between 10000 and 10001 order by id", TaskStatus.class))
+                .containsExactly(TaskStatus.CANCELLED, TaskStatus.SCHEDULED);
+        verify(taskScheduler, never()).runOverdueTask(any(), any());
+    }
+
+    @Test
+    void shouldNotRecoverShutdownTask() {
+        jdbcTemplate.execute("update dunebot_tasks set task_type = '" + DuneTaskType.SHUTDOWN + "', entity_id = null where id = 10000");
+
+        recoveryService.recoverTasks();
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where id = 10000", TaskStatus.class);
+
+        assertThat(actualStatus).isEqualTo(TaskStatus.RUN);
+        verify(taskScheduler, never()).runOverdueTask(any(), any());
+    }
+
+    @Test
+    void shouldRunOverdueScheduledTask() {
+        jdbcTemplate.execute("update dunebot_tasks set status = '" + TaskStatus.SCHEDULED + "', locked_by = null, locked_until = null where id = 10000");
+
+        recoveryService.recoverTasks();
+
+        verify(taskScheduler).runOverdueTask(same(runnableMock), eq(TASK_ID));
+    }
+
+    @Test
+    void shouldNotRunScheduledTaskBeforeOverdueDelay() {
+        jdbcTemplate.execute("update dunebot_tasks set status = '" + TaskStatus.SCHEDULED + "', start_time = '" + NOW.minusSeconds(30) + "', " +
+                             "locked_by = null, locked_until = null where id = 10000");
+
+        recoveryService.recoverTasks();
+
+        verify(taskScheduler, never()).runOverdueTask(any(), any());
+    }
+
+    @Test
+    void shouldNotRunOverdueTaskScheduledByThisInstance() {
+        jdbcTemplate.execute("update dunebot_tasks set status = '" + TaskStatus.SCHEDULED + "', locked_by = null, locked_until = null where id = 10000");
+        ScheduledFuture<?> localTask = mock(ScheduledFuture.class);
+        doReturn(localTask).when(taskScheduler).get(TASK_ID);
+
+        recoveryService.recoverTasks();
+
+        verify(taskScheduler, never()).runOverdueTask(any(), any());
+    }
+}
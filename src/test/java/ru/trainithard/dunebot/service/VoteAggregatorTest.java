@@ -0,0 +1,180 @@
+package ru.trainithard.dunebot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
+import ru.trainithard.dunebot.service.telegram.PartitionedUpdateDispatcher;
+import ru.trainithard.dunebot.service.telegram.UpdateDeduplicator;
+import ru.trainithard.dunebot.service.telegram.UpdatePartitionKeyResolver;
+import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class VoteAggregatorTest {
+    private static final ThreadFactoryProvider THREAD_FACTORY_PROVIDER = new ThreadFactoryProvider(0);
+
+    private final UpdatePartitionKeyResolver partitionKeyResolver = mock(UpdatePartitionKeyResolver.class);
+    private final PartitionedUpdateDispatcher updateDispatcher =
+            new PartitionedUpdateDispatcher(true, 2, THREAD_FACTORY_PROVIDER, partitionKeyResolver);
+    private final MetaDataService metaDataService = mock(MetaDataService.class);
+    private final UpdateDeduplicator updateDeduplicator = new UpdateDeduplicator(metaDataService, 100);
+    private final VoteAggregator aggregator =
+            new VoteAggregator(200, THREAD_FACTORY_PROVIDER, updateDispatcher, partitionKeyResolver, updateDeduplicator);
+    private final List<List<CommandMessage>> processedBatches = new CopyOnWriteArrayList<>();
+    private final List<String> processingThreadNames = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        doReturn("match_1").when(partitionKeyResolver).getPollPartitionKey(anyString());
+    }
+
+    @AfterEach
+    void afterEach() {
+        aggregator.shutdown();
+        ReflectionTestUtils.invokeMethod(updateDispatcher, "shutdown");
+    }
+
+    @Test
+    void shouldProcessVoteImmediatelyWhenWindowIsZero() {
+        VoteAggregator immediateAggregator =
+                new VoteAggregator(0, THREAD_FACTORY_PROVIDER, updateDispatcher, partitionKeyResolver, updateDeduplicator);
+        CommandMessage vote = getVote("100", 1L);
+
+        immediateAggregator.submit(vote, processedBatches::add);
+
+        assertThat(processedBatches).containsExactly(List.of(vote));
+    }
+
+    @Test
+    void shouldProcessSamePollVotesAsSingleBatchInSubmissionOrder() throws InterruptedException {
+        CountDownLatch processedLatch = new CountDownLatch(1);
+        CommandMessage firstVote = getVote("100", 1L);
+        CommandMessage secondVote = getVote("100", 2L);
+        CommandMessage thirdVote = getVote("100", 3L);
+
+        aggregator.submit(firstVote, getBatchProcessor(processedLatch));
+        aggregator.submit(secondVote, getBatchProcessor(processedLatch));
+        aggregator.submit(thirdVote, getBatchProcessor(processedLatch));
+
+        assertThat(processedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processedBatches).containsExactly(List.of(firstVote, secondVote, thirdVote));
+    }
+
+    @Test
+    void shouldProcessDifferentPollsVotesInSeparateBatches() throws InterruptedException {
+        CountDownLatch processedLatch = new CountDownLatch(2);
+        CommandMessage firstPollVote = getVote("100", 1L);
+        CommandMessage secondPollVote = getVote("101", 1L);
+
+        aggregator.submit(firstPollVote, getBatchProcessor(processedLatch));
+        aggregator.submit(secondPollVote, getBatchProcessor(processedLatch));
+
+        assertThat(processedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processedBatches).containsExactlyInAnyOrder(List.of(firstPollVote), List.of(secondPollVote));
+    }
+
+    @Test
+    void shouldStartNewBatchForVotesSubmittedAfterBatchProcessing() throws InterruptedException {
+        CountDownLatch firstBatchLatch = new CountDownLatch(1);
+        CommandMessage firstVote = getVote("100", 1L);
+        aggregator.submit(firstVote, getBatchProcessor(firstBatchLatch));
+        assertThat(firstBatchLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CountDownLatch secondBatchLatch = new CountDownLatch(1);
+        CommandMessage secondVote = getVote("100", 2L);
+        aggregator.submit(secondVote, getBatchProcessor(secondBatchLatch));
+
+        assertThat(secondBatchLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processedBatches).containsExactly(List.of(firstVote), List.of(secondVote));
+    }
+
+    @Test
+    void shouldProcessBatchInPollPartitionWorker() throws InterruptedException {
+        CountDownLatch processedLatch = new CountDownLatch(1);
+
+        aggregator.submit(getVote("100", 1L), getBatchProcessor(processedLatch));
+
+        assertThat(processedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processingThreadNames).singleElement().asString().startsWith("dunebot-update-");
+    }
+
+    @Test
+    void shouldKeepVoteUpdateInProgressUntilBatchIsProcessed() throws InterruptedException {
+        CountDownLatch processedLatch = new CountDownLatch(1);
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        updateDeduplicator.isDuplicate(10);
+        aggregator.submit(getVote("100", 1L, 10), votes -> {
+            processedLatch.countDown();
+            awaitQuietly(releaseLatch);
+        });
+        updateDeduplicator.markProcessed(10);
+
+        assertThat(processedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        updateDeduplicator.storeWatermark();
+
+        verify(metaDataService, never()).saveLastUpdateId(10);
+
+        releaseLatch.countDown();
+        Thread.sleep(100);
+        updateDeduplicator.storeWatermark();
+
+        verify(metaDataService).saveLastUpdateId(10);
+    }
+
+    @Test
+    void shouldProcessPendingBatchesOnShutdown() {
+        VoteAggregator longWindowAggregator =
+                new VoteAggregator(60_000, THREAD_FACTORY_PROVIDER, updateDispatcher, partitionKeyResolver, updateDeduplicator);
+        CommandMessage vote = getVote("100", 1L);
+        longWindowAggregator.submit(vote, processedBatches::add);
+
+        longWindowAggregator.shutdown();
+
+        assertThat(processedBatches).containsExactly(List.of(vote));
+    }
+
+    private Consumer<List<CommandMessage>> getBatchProcessor(CountDownLatch processedLatch) {
+        return votes -> {
+            processingThreadNames.add(Thread.currentThread().getName());
+            processedBatches.add(votes);
+            processedLatch.countDown();
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CommandMessage getVote(String pollId, long userId) {
+        return getVote(pollId, userId, null);
+    }
+
+    private static CommandMessage getVote(String pollId, long userId, Integer updateId) {
+        User user = new User();
+        user.setId(userId);
+        PollAnswer pollAnswer = new PollAnswer();
+        pollAnswer.setUser(user);
+        pollAnswer.setOptionIds(List.of(0));
+        pollAnswer.setPollId(pollId);
+        return CommandMessage.getPollAnswerInstance(pollAnswer, updateId);
+    }
+}
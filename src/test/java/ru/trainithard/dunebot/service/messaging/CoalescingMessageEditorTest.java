@@ -0,0 +1,97 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+class CoalescingMessageEditorTest {
+    private static final long CHAT_ID = 100500L;
+    private static final long COALESCE_MILLIS = 1500;
+
+    private final MessagingService messagingService = mock(MessagingService.class);
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    private final CoalescingMessageEditor editor = new CoalescingMessageEditor(messagingService, executor, COALESCE_MILLIS);
+
+    @BeforeEach
+    void beforeEach() {
+        doReturn(CompletableFuture.completedFuture(null)).when(messagingService).editMessageAsync(any());
+    }
+
+    @Test
+    void shouldDelayEditForCoalescingPeriod() {
+        editor.edit(getEditMessage(9000, "text"));
+
+        verify(executor).schedule(any(Runnable.class), eq(COALESCE_MILLIS), eq(TimeUnit.MILLISECONDS));
+        verifyNoInteractions(messagingService);
+    }
+
+    @Test
+    void shouldSendOnlyLatestEditOfSameMessage() {
+        editor.edit(getEditMessage(9000, "first"));
+        editor.edit(getEditMessage(9000, "second"));
+        editor.edit(getEditMessage(9000, "third"));
+
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(1)).schedule(flushCaptor.capture(), anyLong(), any());
+        flushCaptor.getValue().run();
+
+        ArgumentCaptor<EditMessageDto> editMessageCaptor = ArgumentCaptor.forClass(EditMessageDto.class);
+        verify(messagingService, times(1)).editMessageAsync(editMessageCaptor.capture());
+
+        assertThat(editMessageCaptor.getValue().getText()).isEqualTo("third");
+    }
+
+    @Test
+    void shouldNotCoalesceEditsOfDifferentMessages() {
+        editor.edit(getEditMessage(9000, "first"));
+        editor.edit(getEditMessage(9001, "second"));
+
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(2)).schedule(flushCaptor.capture(), anyLong(), any());
+        flushCaptor.getAllValues().forEach(Runnable::run);
+
+        ArgumentCaptor<EditMessageDto> editMessageCaptor = ArgumentCaptor.forClass(EditMessageDto.class);
+        verify(messagingService, times(2)).editMessageAsync(editMessageCaptor.capture());
+
+        assertThat(editMessageCaptor.getAllValues())
+                .extracting(EditMessageDto::getMessageId, EditMessageDto::getText)
+                .containsExactly(tuple(9000, "first"), tuple(9001, "second"));
+    }
+
+    @Test
+    void shouldScheduleNewEditWhenPreviousEditIsSent() {
+        editor.edit(getEditMessage(9000, "first"));
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).schedule(flushCaptor.capture(), anyLong(), any());
+        flushCaptor.getValue().run();
+
+        editor.edit(getEditMessage(9000, "second"));
+
+        verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    void shouldNotThrowWhenEditFails() {
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException())).when(messagingService).editMessageAsync(any());
+        editor.edit(getEditMessage(9000, "text"));
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).schedule(flushCaptor.capture(), anyLong(), any());
+
+        assertThatCode(() -> flushCaptor.getValue().run()).doesNotThrowAnyException();
+    }
+
+    private EditMessageDto getEditMessage(int messageId, String text) {
+        return new EditMessageDto(new ExternalMessageId(messageId, CHAT_ID, null), new ExternalMessage().appendRaw(text), null);
+    }
+}
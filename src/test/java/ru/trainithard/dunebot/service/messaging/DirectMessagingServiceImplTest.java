@@ -0,0 +1,115 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import ru.trainithard.dunebot.exception.TelegramRetryException;
+import ru.trainithard.dunebot.repository.PlayerRepository;
+import ru.trainithard.dunebot.service.messaging.dto.DirectMessageResult;
+import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class DirectMessagingServiceImplTest {
+    private static final long CHAT_ID_1 = 10001L;
+    private static final long CHAT_ID_2 = 10002L;
+    private static final long CHAT_ID_3 = 10003L;
+
+    private final MessagingService messagingService = mock(MessagingService.class);
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private final BlockedChatRegistry blockedChatRegistry = new BlockedChatRegistry(playerRepository);
+    private final DirectMessagingService directMessagingService = new DirectMessagingServiceImpl(messagingService, blockedChatRegistry);
+
+    @Test
+    void shouldReturnOutcomesInMessagesOrder() {
+        ExternalMessageDto deliveredMessage = new ExternalMessageDto();
+        CompletableFuture<ExternalMessageDto> pendingFuture = new CompletableFuture<>();
+        doReturn(pendingFuture).when(messagingService).sendMessageAsync(argThat(message -> message.getChatId().equals("10001")));
+        doReturn(CompletableFuture.failedFuture(new TelegramRetryException(new RuntimeException())))
+                .when(messagingService).sendMessageAsync(argThat(message -> message.getChatId().equals("10002")));
+
+        CompletableFuture<List<DirectMessageResult>> actualFuture =
+                directMessagingService.sendAsync(List.of(getMessage(CHAT_ID_1), getMessage(CHAT_ID_2)));
+
+        assertThat(actualFuture).isNotDone();
+
+        pendingFuture.complete(deliveredMessage);
+
+        assertThat(actualFuture.join())
+                .extracting(result -> result.message().getChatId(), DirectMessageResult::status, DirectMessageResult::deliveredMessage)
+                .containsExactly(
+                        tuple("10001", DirectMessageResult.Status.DELIVERED, deliveredMessage),
+                        tuple("10002", DirectMessageResult.Status.FAILED, null)
+                );
+    }
+
+    @Test
+    void shouldRegisterBlockedChatOnForbiddenError() {
+        TelegramApiRequestException exception = mock(TelegramApiRequestException.class);
+        doReturn(403).when(exception).getErrorCode();
+        doReturn(new ResponseParameters()).when(exception).getParameters();
+        doReturn(CompletableFuture.failedFuture(exception)).when(messagingService).sendMessageAsync(any());
+
+        List<DirectMessageResult> actualResults = directMessagingService.sendAsync(List.of(getMessage(CHAT_ID_1))).join();
+
+        assertThat(actualResults).extracting(DirectMessageResult::status).containsExactly(DirectMessageResult.Status.BLOCKED);
+        assertThat(blockedChatRegistry.isBlocked(CHAT_ID_1)).isTrue();
+        verify(playerRepository).markChatBlocked(CHAT_ID_1);
+    }
+
+    @Test
+    void shouldSkipMessagesToBlockedChats() {
+        blockedChatRegistry.block(CHAT_ID_2);
+        doReturn(CompletableFuture.completedFuture(new ExternalMessageDto())).when(messagingService).sendMessageAsync(any());
+
+        List<DirectMessageResult> actualResults = directMessagingService
+                .sendAsync(List.of(getMessage(CHAT_ID_1), getMessage(CHAT_ID_2), getMessage(CHAT_ID_3))).join();
+
+        assertThat(actualResults).extracting(DirectMessageResult::status).containsExactly(
+                DirectMessageResult.Status.DELIVERED, DirectMessageResult.Status.SKIPPED_BLOCKED, DirectMessageResult.Status.DELIVERED);
+        verify(messagingService, times(2)).sendMessageAsync(any());
+        verify(messagingService, never()).sendMessageAsync(argThat(message -> message.getChatId().equals("10002")));
+    }
+
+    @Test
+    void shouldSendMessagesToUnblockedChats() {
+        blockedChatRegistry.block(CHAT_ID_1);
+        blockedChatRegistry.unblock(CHAT_ID_1);
+        doReturn(CompletableFuture.completedFuture(new ExternalMessageDto())).when(messagingService).sendMessageAsync(any());
+
+        List<DirectMessageResult> actualResults = directMessagingService.sendAsync(List.of(getMessage(CHAT_ID_1))).join();
+
+        assertThat(actualResults).extracting(DirectMessageResult::status).containsExactly(DirectMessageResult.Status.DELIVERED);
+    }
+
+    @Test
+    void shouldMarkMessageFailedWhenSendingThrows() {
+        doThrow(new IllegalStateException()).when(messagingService).sendMessageAsync(any());
+
+        List<DirectMessageResult> actualResults = directMessagingService.sendAsync(List.of(getMessage(CHAT_ID_1))).join();
+
+        assertThat(actualResults).extracting(DirectMessageResult::status).containsExactly(DirectMessageResult.Status.FAILED);
+    }
+
+    @Test
+    void shouldRestoreBlockedChatsFromPlayers() {
+        doReturn(List.of(CHAT_ID_3)).when(playerRepository).findBlockedChatIds();
+
+        blockedChatRegistry.restore();
+
+        assertThat(blockedChatRegistry.isBlocked(CHAT_ID_3)).isTrue();
+        assertThat(blockedChatRegistry.isBlocked(CHAT_ID_1)).isFalse();
+    }
+
+    private static MessageDto getMessage(long chatId) {
+        return new MessageDto(chatId, new ExternalMessage("la text"), null, null);
+    }
+}
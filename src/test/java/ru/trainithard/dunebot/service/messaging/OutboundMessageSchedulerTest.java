@@ -0,0 +1,249 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OutboundMessageSchedulerTest {
+    private static final String PRIVATE_CHAT_1 = "1001";
+    private static final String PRIVATE_CHAT_2 = "1002";
+    private static final String PRIVATE_CHAT_3 = "1003";
+    private static final String GROUP_CHAT = "-100500";
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ScheduledExecutorService dispatcher = mock(ScheduledExecutorService.class);
+    private final List<String> sentMessages = new ArrayList<>();
+    private long now = SECOND_NANOS;
+    private final TelegramCircuitBreaker circuitBreaker = new TelegramCircuitBreaker(1, 10000, 3, () -> now);
+
+    @Test
+    void shouldSendImmediatelyWhenLimitsAllow() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 20, 1);
+
+        scheduler.submit(PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, () -> sentMessages.add("m1"));
+        scheduler.submit(PRIVATE_CHAT_2, MessagePriority.INTERACTIVE, () -> sentMessages.add("m2"));
+
+        assertThat(sentMessages).containsExactly("m1", "m2");
+    }
+
+    @Test
+    void shouldQueueMessageWhenGlobalLimitIsExhausted() {
+        OutboundMessageScheduler scheduler = getScheduler(2, 20, 1);
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "m1");
+        submit(scheduler, PRIVATE_CHAT_2, MessagePriority.INTERACTIVE, "m2");
+        submit(scheduler, PRIVATE_CHAT_3, MessagePriority.INTERACTIVE, "m3");
+
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("m1", "m2");
+        verify(dispatcher).schedule(any(Runnable.class), eq(SECOND_NANOS / 2), eq(TimeUnit.NANOSECONDS));
+
+        now += SECOND_NANOS / 2;
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("m1", "m2", "m3");
+    }
+
+    @Test
+    void shouldSendHigherPriorityMessagesOfDifferentChatsFirst() {
+        OutboundMessageScheduler scheduler = getScheduler(1, 20, 1);
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "first");
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.BROADCAST, "broadcast");
+        submit(scheduler, PRIVATE_CHAT_2, MessagePriority.NOTIFICATION, "notification");
+        submit(scheduler, PRIVATE_CHAT_3, MessagePriority.INTERACTIVE, "reply");
+
+        for (int i = 0; i < 3; i++) {
+            now += SECOND_NANOS;
+            scheduler.dispatch();
+        }
+
+        assertThat(sentMessages).containsExactly("first", "reply", "notification", "broadcast");
+    }
+
+    @Test
+    void shouldPreserveSameChatMessagesOrderRegardlessOfPriority() {
+        OutboundMessageScheduler scheduler = getScheduler(1, 20, 1);
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "first");
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.BROADCAST, "broadcast");
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "reply");
+
+        for (int i = 0; i < 2; i++) {
+            now += SECOND_NANOS;
+            scheduler.dispatch();
+        }
+
+        assertThat(sentMessages).containsExactly("first", "broadcast", "reply");
+    }
+
+    @Test
+    void shouldLimitGroupChatMessagesPerMinute() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 2, 1);
+        submit(scheduler, GROUP_CHAT, MessagePriority.BROADCAST, "m1");
+        submit(scheduler, GROUP_CHAT, MessagePriority.BROADCAST, "m2");
+        submit(scheduler, GROUP_CHAT, MessagePriority.BROADCAST, "m3");
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.BROADCAST, "private");
+
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("m1", "m2", "private");
+        verify(dispatcher).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toNanos(30)), eq(TimeUnit.NANOSECONDS));
+
+        now += TimeUnit.SECONDS.toNanos(30);
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("m1", "m2", "private", "m3");
+    }
+
+    @Test
+    void shouldNotLimitRequestsWithoutChatByChatLimits() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 20, 1);
+
+        for (int i = 0; i < 5; i++) {
+            submit(scheduler, null, MessagePriority.INTERACTIVE, "m" + i);
+        }
+
+        assertThat(sentMessages).containsExactly("m0", "m1", "m2", "m3", "m4");
+    }
+
+    @Test
+    void shouldReportQueueDepthAndWaitTimeByPriority() {
+        OutboundMessageScheduler scheduler = getScheduler(1, 20, 1);
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "m1");
+        submit(scheduler, PRIVATE_CHAT_2, MessagePriority.NOTIFICATION, "m2");
+        submit(scheduler, PRIVATE_CHAT_3, MessagePriority.NOTIFICATION, "m3");
+
+        Map<MessagePriority, OutboundMessageScheduler.PriorityMetrics> queuedMetrics = scheduler.getMetrics();
+
+        assertThat(queuedMetrics.get(MessagePriority.INTERACTIVE))
+                .isEqualTo(new OutboundMessageScheduler.PriorityMetrics(0, 1, 0, 0));
+        assertThat(queuedMetrics.get(MessagePriority.NOTIFICATION))
+                .isEqualTo(new OutboundMessageScheduler.PriorityMetrics(2, 0, 0, 0));
+
+        now += SECOND_NANOS;
+        scheduler.dispatch();
+        now += SECOND_NANOS;
+        scheduler.dispatch();
+
+        assertThat(scheduler.getMetrics().get(MessagePriority.NOTIFICATION))
+                .isEqualTo(new OutboundMessageScheduler.PriorityMetrics(0, 2, 1500, 2000));
+    }
+
+    @Test
+    void shouldContinueDispatchingWhenSendActionFails() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 20, 1);
+        scheduler.submit(PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, () -> {
+            throw new IllegalStateException();
+        });
+
+        submit(scheduler, PRIVATE_CHAT_2, MessagePriority.INTERACTIVE, "m2");
+
+        assertThat(sentMessages).containsExactly("m2");
+    }
+
+    @Test
+    void shouldHoldMessagesWhileCircuitIsOpen() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 20, 1);
+        circuitBreaker.recordFailure(null, new TelegramApiFailure(TelegramApiFailure.Type.TRANSIENT, 502, 0));
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "m1");
+        submit(scheduler, PRIVATE_CHAT_2, MessagePriority.INTERACTIVE, "m2");
+
+        scheduler.dispatch();
+
+        assertThat(sentMessages).isEmpty();
+        verify(dispatcher).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toNanos(10)), eq(TimeUnit.NANOSECONDS));
+
+        now += TimeUnit.SECONDS.toNanos(10);
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("m1");
+
+        circuitBreaker.recordSuccess();
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("m1", "m2");
+    }
+
+    @Test
+    void shouldHoldPausedChatMessagesForRequestedTime() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 20, 1);
+        scheduler.pause(PRIVATE_CHAT_1, 5000);
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "m1");
+        submit(scheduler, PRIVATE_CHAT_2, MessagePriority.INTERACTIVE, "other");
+
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("other");
+        verify(dispatcher).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toNanos(5)), eq(TimeUnit.NANOSECONDS));
+
+        now += TimeUnit.SECONDS.toNanos(5);
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("other", "m1");
+    }
+
+    @Test
+    void shouldHoldSameChatMessagesUntilSentMessageIsCompleted() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 20, 1);
+        scheduler.submit(PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, () -> sentMessages.add("m1"));
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "m2");
+        submit(scheduler, PRIVATE_CHAT_2, MessagePriority.INTERACTIVE, "other");
+
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("m1", "other");
+
+        scheduler.complete(PRIVATE_CHAT_1);
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("m1", "other", "m2");
+    }
+
+    @Test
+    void shouldSendRetryAheadOfLaterSameChatMessages() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 20, 1);
+        scheduler.submit(PRIVATE_CHAT_1, MessagePriority.NOTIFICATION, () -> sentMessages.add("start"));
+        submit(scheduler, PRIVATE_CHAT_1, MessagePriority.INTERACTIVE, "finish");
+
+        scheduler.resubmit(PRIVATE_CHAT_1, MessagePriority.NOTIFICATION, () -> sentMessages.add("start retry"));
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("start", "start retry");
+
+        scheduler.complete(PRIVATE_CHAT_1);
+        scheduler.dispatch();
+
+        assertThat(sentMessages).containsExactly("start", "start retry", "finish");
+    }
+
+    @Test
+    void shouldNotHoldRequestsWithoutChat() {
+        OutboundMessageScheduler scheduler = getScheduler(30, 20, 1);
+
+        scheduler.submit(null, MessagePriority.BROADCAST, () -> sentMessages.add("m1"));
+        scheduler.submit(null, MessagePriority.BROADCAST, () -> sentMessages.add("m2"));
+
+        assertThat(sentMessages).containsExactly("m1", "m2");
+    }
+
+    private void submit(OutboundMessageScheduler scheduler, String chatId, MessagePriority priority, String message) {
+        scheduler.submit(chatId, priority, () -> {
+            sentMessages.add(message);
+            scheduler.complete(chatId);
+        });
+    }
+
+    private OutboundMessageScheduler getScheduler(int globalRatePerSecond, int groupChatRatePerMinute, int privateChatRatePerSecond) {
+        return new OutboundMessageScheduler(globalRatePerSecond, groupChatRatePerMinute, privateChatRatePerSecond,
+                dispatcher, () -> now, circuitBreaker);
+    }
+}
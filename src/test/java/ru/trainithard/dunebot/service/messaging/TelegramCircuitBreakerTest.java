@@ -0,0 +1,132 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelegramCircuitBreakerTest {
+    private static final TelegramApiFailure TRANSIENT_FAILURE = new TelegramApiFailure(TelegramApiFailure.Type.TRANSIENT, 502, 0);
+    private static final TelegramApiFailure RATE_LIMIT_FAILURE = new TelegramApiFailure(TelegramApiFailure.Type.RATE_LIMITED, 429, 5000);
+    private static final String CHAT_ID = "12345";
+    private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private long now = 1000;
+    private final TelegramCircuitBreaker circuitBreaker = new TelegramCircuitBreaker(3, 30000, 2, () -> now);
+
+    @Test
+    void shouldPermitRequestsWhenClosed() {
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.nanosUntilPermission()).isZero();
+    }
+
+    @Test
+    void shouldOpenAfterConsecutiveTransientFailures() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+        }
+
+        assertThat(circuitBreaker.isOpen()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.nanosUntilPermission()).isEqualTo(OPEN_NANOS);
+    }
+
+    @Test
+    void shouldResetFailuresCountOnSuccess() {
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+
+        assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void shouldNotCountClientErrorsAsFailures() {
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+        circuitBreaker.recordFailure(CHAT_ID, new TelegramApiFailure(TelegramApiFailure.Type.CLIENT_ERROR, 403, 0));
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+
+        assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void shouldNotOpenOnSingleChatRateLimitErrors() {
+        circuitBreaker.recordFailure(CHAT_ID, RATE_LIMIT_FAILURE);
+        circuitBreaker.recordFailure(CHAT_ID, RATE_LIMIT_FAILURE);
+
+        assertThat(circuitBreaker.isOpen()).isFalse();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void shouldOpenForRetryAfterTimeOnRateLimitErrorsOfSeveralChats() {
+        circuitBreaker.recordFailure(CHAT_ID, RATE_LIMIT_FAILURE);
+        circuitBreaker.recordFailure("54321", RATE_LIMIT_FAILURE);
+
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.nanosUntilPermission()).isEqualTo(TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void shouldNotOpenOnRateLimitErrorsOfSeveralChatsOutsideOfWindow() {
+        circuitBreaker.recordFailure(CHAT_ID, RATE_LIMIT_FAILURE);
+        now += TimeUnit.MINUTES.toNanos(1);
+        circuitBreaker.recordFailure("54321", RATE_LIMIT_FAILURE);
+
+        assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void shouldOpenForRetryAfterTimeOnRateLimitErrorOfRequestWithoutChat() {
+        circuitBreaker.recordFailure(null, RATE_LIMIT_FAILURE);
+
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.nanosUntilPermission()).isEqualTo(TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void shouldPermitSingleTrialRequestWhenOpenPeriodElapses() {
+        openCircuit();
+        now += OPEN_NANOS;
+
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.nanosUntilPermission()).isPositive();
+    }
+
+    @Test
+    void shouldCloseOnTrialRequestSuccess() {
+        openCircuit();
+        now += OPEN_NANOS;
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.recordSuccess();
+
+        assertThat(circuitBreaker.isOpen()).isFalse();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void shouldReopenOnTrialRequestFailure() {
+        openCircuit();
+        now += OPEN_NANOS;
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.nanosUntilPermission()).isEqualTo(OPEN_NANOS);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.recordFailure(CHAT_ID, TRANSIENT_FAILURE);
+        }
+    }
+}
@@ -3,32 +3,46 @@ package ru.trainithard.dunebot.service.messaging;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.telegram.telegrambots.meta.api.methods.GetFile;
 import org.telegram.telegrambots.meta.api.methods.commands.SetMyCommands;
 import org.telegram.telegrambots.meta.api.methods.polls.SendPoll;
 import org.telegram.telegrambots.meta.api.methods.send.SendDocument;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Document;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.commands.BotCommand;
 import org.telegram.telegrambots.meta.api.objects.commands.scope.BotCommandScopeDefault;
 import org.telegram.telegrambots.meta.api.objects.polls.Poll;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
+import ru.trainithard.dunebot.exception.TelegramRetryException;
 import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
+import ru.trainithard.dunebot.model.messaging.UploadedFile;
+import ru.trainithard.dunebot.repository.UploadedFileRepository;
 import ru.trainithard.dunebot.service.messaging.dto.*;
 import ru.trainithard.dunebot.service.telegram.TelegramBot;
+import ru.trainithard.dunebot.service.telegram.UpdateRecorder;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.groups.Tuple.tuple;
 import static org.mockito.Mockito.*;
 
@@ -41,10 +55,20 @@ class TelegramMessagingServiceTest {
     private static final String FILE_ID = "randomFileId";
 
     private final TelegramBot telegramBot = mock(TelegramBot.class);
-    private final TelegramMessagingService telegramMessagingService = new TelegramMessagingService(telegramBot);
+    private final ThreadFactoryProvider threadFactoryProvider = new ThreadFactoryProvider(0);
+    private final TelegramCircuitBreaker circuitBreaker = new TelegramCircuitBreaker(5, 30000, 3);
+    private final OutboundMessageScheduler outboundMessageScheduler =
+            new OutboundMessageScheduler(1000, 1000, 1000, threadFactoryProvider, circuitBreaker);
+    private final TelegramRequestExecutor requestExecutor =
+            new TelegramRequestExecutor(outboundMessageScheduler, new TelegramRetryPolicy(3, 50, 1000), circuitBreaker);
+    private final UploadedFileRepository uploadedFileRepository = mock(UploadedFileRepository.class);
+    private final TelegramFileIdCache fileIdCache = new TelegramFileIdCache(uploadedFileRepository);
+    private final TelegramMessagingService telegramMessagingService = new TelegramMessagingService(telegramBot, threadFactoryProvider,
+            mock(UpdateRecorder.class), requestExecutor, fileIdCache);
 
     @Test
     void shouldInvokeDeleteCall() throws TelegramApiException {
+        doReturn(CompletableFuture.completedFuture(true)).when(telegramBot).executeAsync(ArgumentMatchers.any(DeleteMessage.class));
         ExternalMessageId externalMessageId = new ExternalMessageId(MESSAGE_ID, CHAT_ID, TOPIC_ID);
 
         telegramMessagingService.deleteMessageAsync(externalMessageId);
@@ -58,6 +82,16 @@ class TelegramMessagingServiceTest {
                 .containsExactly(MESSAGE_ID, CHAT_ID.toString());
     }
 
+    @Test
+    void shouldHoldDeleteCallWhileCircuitBreakerIsOpen() throws TelegramApiException {
+        doReturn(CompletableFuture.completedFuture(true)).when(telegramBot).executeAsync(ArgumentMatchers.any(DeleteMessage.class));
+        circuitBreaker.recordFailure(null, TelegramApiFailure.of(getRequestException(429, 30)));
+
+        telegramMessagingService.deleteMessageAsync(new ExternalMessageId(MESSAGE_ID, CHAT_ID, TOPIC_ID));
+
+        verify(telegramBot, never()).executeAsync(ArgumentMatchers.any(DeleteMessage.class));
+    }
+
     @Test
     void shouldInvokeSendPollCall() throws TelegramApiException {
         doReturn(CompletableFuture.completedFuture(getPollMessageReply())).when(telegramBot).executeAsync(ArgumentMatchers.any(SendPoll.class));
@@ -117,12 +151,39 @@ class TelegramMessagingServiceTest {
     }
 
     @Test
-    void shouldRetrySendMessageOnCallbackException() throws TelegramApiException, InterruptedException, ReflectiveOperationException {
-        Map<Integer, Long> testRetryDelays = Map.of(1, 50L, 2, 100L, 3, 250L, 4, 1L);
-        Field field = TelegramMessagingService.class.getDeclaredField("retryDelayByTryNumber");
-        field.setAccessible(true);
-        field.set(telegramMessagingService, testRetryDelays);
+    void shouldInvokeEditMessageCall() throws TelegramApiException {
+        doReturn(CompletableFuture.completedFuture(getTextMessageReply())).when(telegramBot).executeAsync(ArgumentMatchers.any(EditMessageText.class));
+        ExternalMessageId externalMessageId = new ExternalMessageId(MESSAGE_ID, CHAT_ID, TOPIC_ID);
+
+        telegramMessagingService.editMessageAsync(new EditMessageDto(externalMessageId, new ExternalMessage("la text"), getKeyboard()));
+
+        ArgumentCaptor<EditMessageText> editMessageCaptor = ArgumentCaptor.forClass(EditMessageText.class);
+        verify(telegramBot, times(1)).executeAsync(editMessageCaptor.capture());
+
+        EditMessageText actualEditMessage = editMessageCaptor.getValue();
+        assertThat(actualEditMessage)
+                .extracting(EditMessageText::getChatId, EditMessageText::getMessageId, EditMessageText::getText)
+                .containsExactly(CHAT_ID.toString(), MESSAGE_ID, "la text");
+        assertThat(actualEditMessage.getReplyMarkup().getKeyboard().stream().flatMap(Collection::stream).toList())
+                .extracting(InlineKeyboardButton::getText)
+                .containsExactly("t1", "t2", "t3");
+    }
+
+    @Test
+    void shouldRemoveKeyboardOnEditWithoutKeyboard() throws TelegramApiException {
+        doReturn(CompletableFuture.completedFuture(getTextMessageReply())).when(telegramBot).executeAsync(ArgumentMatchers.any(EditMessageText.class));
+        ExternalMessageId externalMessageId = new ExternalMessageId(MESSAGE_ID, CHAT_ID, TOPIC_ID);
+
+        telegramMessagingService.editMessageAsync(new EditMessageDto(externalMessageId, new ExternalMessage("la text"), null));
 
+        ArgumentCaptor<EditMessageText> editMessageCaptor = ArgumentCaptor.forClass(EditMessageText.class);
+        verify(telegramBot, times(1)).executeAsync(editMessageCaptor.capture());
+
+        assertThat(editMessageCaptor.getValue().getReplyMarkup()).isNull();
+    }
+
+    @Test
+    void shouldRetrySendMessageOnCallbackException() throws TelegramApiException, InterruptedException {
         when(telegramBot.executeAsync(any(SendMessage.class)))
                 .thenThrow(new TelegramApiException("xxx"))
                 .thenReturn(CompletableFuture.failedFuture(new TelegramApiException("yyy")))
@@ -146,12 +207,7 @@ class TelegramMessagingServiceTest {
     }
 
     @Test
-    void shouldNotRetrySendMessageWithoutException() throws TelegramApiException, InterruptedException, ReflectiveOperationException {
-        Map<Integer, Long> testRetryDelays = Map.of(1, 50L, 2, 100L, 3, 250L, 4, 1L);
-        Field field = TelegramMessagingService.class.getDeclaredField("retryDelayByTryNumber");
-        field.setAccessible(true);
-        field.set(telegramMessagingService, testRetryDelays);
-
+    void shouldNotRetrySendMessageWithoutException() throws TelegramApiException, InterruptedException {
         when(telegramBot.executeAsync(any(SendMessage.class)))
                 .thenReturn(CompletableFuture.completedFuture(getTextMessageReply()));
 
@@ -166,12 +222,7 @@ class TelegramMessagingServiceTest {
     }
 
     @Test
-    void shouldDoTheOnlyRetryWhenOnlyOneExceptionOccurs() throws TelegramApiException, InterruptedException, ReflectiveOperationException {
-        Map<Integer, Long> testRetryDelays = Map.of(1, 50L, 2, 100L, 3, 250L, 4, 1L);
-        Field field = TelegramMessagingService.class.getDeclaredField("retryDelayByTryNumber");
-        field.setAccessible(true);
-        field.set(telegramMessagingService, testRetryDelays);
-
+    void shouldDoTheOnlyRetryWhenOnlyOneExceptionOccurs() throws TelegramApiException, InterruptedException {
         when(telegramBot.executeAsync(any(SendMessage.class)))
                 .thenThrow(new TelegramApiException("xxx"))
                 .thenReturn(CompletableFuture.completedFuture(getTextMessageReply()))
@@ -187,6 +238,105 @@ class TelegramMessagingServiceTest {
         assertThat(actualFeature.isCompletedExceptionally()).isFalse();
     }
 
+    @Test
+    void shouldNotRetrySendMessageOnClientError() throws TelegramApiException, InterruptedException {
+        TelegramApiRequestException exception = getRequestException(403, null);
+        when(telegramBot.executeAsync(any(SendMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(exception))
+                .thenReturn(CompletableFuture.completedFuture(getTextMessageReply()));
+
+        MessageDto messageDto = new MessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, REPLY_ID, getKeyboard());
+
+        CompletableFuture<ExternalMessageDto> actualFeature = telegramMessagingService.sendMessageAsync(messageDto);
+        Thread.sleep(200);
+
+        verify(telegramBot, times(1)).executeAsync(ArgumentMatchers.any(SendMessage.class));
+        assertThat(actualFeature).isCompletedExceptionally();
+        assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void shouldReleaseHalfOpenCircuitBreakerWhenTrialRequestThrows() throws TelegramApiException, InterruptedException {
+        circuitBreaker.recordFailure(null, TelegramApiFailure.of(getRequestException(429, 0)));
+        when(telegramBot.executeAsync(any(SendMessage.class))).thenThrow(new IllegalStateException("client failure"));
+
+        MessageDto messageDto = new MessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, REPLY_ID, getKeyboard());
+
+        CompletableFuture<ExternalMessageDto> actualFeature = telegramMessagingService.sendMessageAsync(messageDto);
+        Thread.sleep(200);
+
+        verify(telegramBot, times(1)).executeAsync(ArgumentMatchers.any(SendMessage.class));
+        assertThatThrownBy(actualFeature::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(circuitBreaker.isOpen()).isTrue();
+        assertThat(circuitBreaker.nanosUntilPermission()).isGreaterThan(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void shouldRetryRateLimitedSendMessageAfterRequestedTime() throws TelegramApiException, InterruptedException {
+        TelegramApiRequestException exception = getRequestException(429, 1);
+        when(telegramBot.executeAsync(any(SendMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(exception))
+                .thenReturn(CompletableFuture.completedFuture(getTextMessageReply()));
+
+        MessageDto messageDto = new MessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, REPLY_ID, getKeyboard());
+
+        final CompletableFuture<ExternalMessageDto> actualFeature = telegramMessagingService.sendMessageAsync(messageDto);
+        Thread.sleep(500);
+
+        verify(telegramBot, times(1)).executeAsync(ArgumentMatchers.any(SendMessage.class));
+        assertThat(circuitBreaker.isOpen()).isFalse();
+
+        Thread.sleep(1000);
+
+        verify(telegramBot, times(2)).executeAsync(ArgumentMatchers.any(SendMessage.class));
+        assertThat(actualFeature.isDone()).isTrue();
+        assertThat(actualFeature.isCompletedExceptionally()).isFalse();
+        assertThat(circuitBreaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void shouldSendRetriedMessageBeforeLaterMessagesOfSameChat() throws TelegramApiException, InterruptedException {
+        TelegramApiRequestException exception = getRequestException(502, null);
+        List<String> sentTexts = new CopyOnWriteArrayList<>();
+        AtomicBoolean isFirstAttempt = new AtomicBoolean(true);
+        when(telegramBot.executeAsync(any(SendMessage.class))).thenAnswer(invocation -> {
+            SendMessage sendMessage = invocation.getArgument(0);
+            sentTexts.add(sendMessage.getText());
+            return isFirstAttempt.getAndSet(false)
+                    ? CompletableFuture.failedFuture(exception)
+                    : CompletableFuture.completedFuture(getTextMessageReply());
+        });
+
+        telegramMessagingService.sendMessageAsync(new MessageDto(CHAT_ID.toString(), new ExternalMessage("start"), TOPIC_ID, null, null));
+        telegramMessagingService.sendMessageAsync(new MessageDto(CHAT_ID.toString(), new ExternalMessage("finish"), TOPIC_ID, null, null));
+        Thread.sleep(500);
+
+        assertThat(sentTexts).containsExactly("start", "start", "finish");
+    }
+
+    @Test
+    void shouldFailSendMessageWhenRetriesAreExhausted() throws TelegramApiException, InterruptedException {
+        TelegramApiRequestException exception = getRequestException(502, null);
+        when(telegramBot.executeAsync(any(SendMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(exception));
+
+        MessageDto messageDto = new MessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, REPLY_ID, getKeyboard());
+
+        CompletableFuture<ExternalMessageDto> actualFeature = telegramMessagingService.sendMessageAsync(messageDto);
+        Thread.sleep(600);
+
+        verify(telegramBot, times(4)).executeAsync(ArgumentMatchers.any(SendMessage.class));
+        assertThat(actualFeature).isCompletedExceptionally();
+        assertThatThrownBy(actualFeature::join).hasCauseInstanceOf(TelegramRetryException.class);
+    }
+
+    private static TelegramApiRequestException getRequestException(int errorCode, Integer retryAfter) {
+        TelegramApiRequestException exception = mock(TelegramApiRequestException.class);
+        doReturn(errorCode).when(exception).getErrorCode();
+        doReturn(new ResponseParameters(null, retryAfter)).when(exception).getParameters();
+        return exception;
+    }
+
     private List<List<ButtonDto>> getKeyboard() {
         return List.of(
                 List.of(new ButtonDto("t1", "c1")),
@@ -226,8 +376,103 @@ class TelegramMessagingServiceTest {
         assertThat(actualFile).containsExactly(referenceFileContent);
     }
 
+    @Test
+    void shouldCacheUploadedFileId() {
+        doReturn(CompletableFuture.completedFuture(getDocumentReply())).when(telegramBot).executeAsync(ArgumentMatchers.any(SendDocument.class));
+        byte[] fileContent = "la_file_content".getBytes();
+
+        telegramMessagingService.sendFileAsync(new FileMessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, fileContent, "file.txt"));
+
+        assertThat(fileIdCache.findFileId(TelegramFileIdCache.getContentHash(fileContent))).contains(FILE_ID);
+        verify(uploadedFileRepository).save(argThat(uploadedFile -> FILE_ID.equals(uploadedFile.getFileId())));
+    }
+
+    @Test
+    void shouldCompleteFileSendWhenFileIdCachingFails() {
+        doReturn(CompletableFuture.completedFuture(getDocumentReply())).when(telegramBot).executeAsync(ArgumentMatchers.any(SendDocument.class));
+        doThrow(new IllegalStateException()).when(uploadedFileRepository).save(any());
+
+        CompletableFuture<ExternalMessageDto> actualFuture = telegramMessagingService
+                .sendFileAsync(new FileMessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, "la_file_content".getBytes(), "file.txt"));
+
+        assertThat(actualFuture).isCompleted();
+    }
+
+    @Test
+    void shouldUpdateUploadedFileIdSavedConcurrently() {
+        byte[] fileContent = "la_file_content".getBytes();
+        String contentHash = TelegramFileIdCache.getContentHash(fileContent);
+        UploadedFile concurrentlyUploadedFile = new UploadedFile(contentHash, "concurrentFileId");
+        doReturn(Optional.empty(), Optional.of(concurrentlyUploadedFile)).when(uploadedFileRepository).findByContentHash(contentHash);
+        doThrow(new DataIntegrityViolationException("duplicate")).doReturn(concurrentlyUploadedFile).when(uploadedFileRepository).save(any());
+
+        fileIdCache.put(contentHash, FILE_ID);
+
+        verify(uploadedFileRepository, times(2)).save(any());
+        assertThat(concurrentlyUploadedFile.getFileId()).isEqualTo(FILE_ID);
+    }
+
+    @Test
+    void shouldSendCachedFileById() {
+        byte[] fileContent = "la_file_content".getBytes();
+        fileIdCache.put(TelegramFileIdCache.getContentHash(fileContent), FILE_ID);
+        doReturn(CompletableFuture.completedFuture(getDocumentReply())).when(telegramBot).executeAsync(ArgumentMatchers.any(SendDocument.class));
+
+        telegramMessagingService.sendFileAsync(new FileMessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, fileContent, "file.txt"));
+
+        ArgumentCaptor<SendDocument> sendDocumentCaptor = ArgumentCaptor.forClass(SendDocument.class);
+        verify(telegramBot, times(1)).executeAsync(sendDocumentCaptor.capture());
+        SendDocument actualDocument = sendDocumentCaptor.getValue();
+
+        assertThat(actualDocument.getFile().isNew()).isFalse();
+        assertThat(actualDocument.getFile().getAttachName()).isEqualTo(FILE_ID);
+    }
+
+    @Test
+    void shouldUploadFileWhenCachedFileIdIsRejected() throws IOException {
+        byte[] fileContent = "la_file_content".getBytes();
+        String contentHash = TelegramFileIdCache.getContentHash(fileContent);
+        fileIdCache.put(contentHash, "staleFileId");
+        TelegramApiRequestException exception = getRequestException(400, null);
+        when(telegramBot.executeAsync(ArgumentMatchers.any(SendDocument.class)))
+                .thenReturn(CompletableFuture.failedFuture(exception))
+                .thenReturn(CompletableFuture.completedFuture(getDocumentReply()));
+
+        CompletableFuture<ExternalMessageDto> actualFuture = telegramMessagingService
+                .sendFileAsync(new FileMessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, fileContent, "file.txt"));
+
+        ArgumentCaptor<SendDocument> sendDocumentCaptor = ArgumentCaptor.forClass(SendDocument.class);
+        verify(telegramBot, times(2)).executeAsync(sendDocumentCaptor.capture());
+        byte[] actualFile = sendDocumentCaptor.getAllValues().get(1).getFile().getNewMediaStream().readAllBytes();
+
+        assertThat(actualFile).containsExactly(fileContent);
+        assertThat(actualFuture.isCompletedExceptionally()).isFalse();
+        assertThat(fileIdCache.findFileId(contentHash)).contains(FILE_ID);
+    }
+
+    @Test
+    void shouldRetryFileUploadWithFreshContentOnTransientFailure() throws InterruptedException, IOException {
+        byte[] fileContent = "la_file_content".getBytes();
+        when(telegramBot.executeAsync(ArgumentMatchers.any(SendDocument.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TelegramApiException("xxx")))
+                .thenReturn(CompletableFuture.completedFuture(getDocumentReply()));
+
+        CompletableFuture<ExternalMessageDto> actualFuture = telegramMessagingService
+                .sendFileAsync(new FileMessageDto(CHAT_ID.toString(), new ExternalMessage("la text"), TOPIC_ID, fileContent, "file.txt"));
+        Thread.sleep(300);
+
+        ArgumentCaptor<SendDocument> sendDocumentCaptor = ArgumentCaptor.forClass(SendDocument.class);
+        verify(telegramBot, times(2)).executeAsync(sendDocumentCaptor.capture());
+        byte[] actualFile = sendDocumentCaptor.getAllValues().get(1).getFile().getNewMediaStream().readAllBytes();
+
+        assertThat(actualFile).containsExactly(fileContent);
+        assertThat(actualFuture.isDone()).isTrue();
+        assertThat(actualFuture.isCompletedExceptionally()).isFalse();
+    }
+
     @Test
     void shouldInvokeSendCommands() throws TelegramApiException {
+        doReturn(CompletableFuture.completedFuture(true)).when(telegramBot).executeAsync(ArgumentMatchers.any(SetMyCommands.class));
         SetCommandsDto setCommandsDto = new SetCommandsDto(Map.of("1", "a", "2", "b"));
 
         telegramMessagingService.sendSetCommands(setCommandsDto);
@@ -257,4 +502,12 @@ class TelegramMessagingServiceTest {
         message.setMessageThreadId(TOPIC_ID);
         return message;
     }
+
+    private Message getDocumentReply() {
+        Message message = getTextMessageReply();
+        Document document = new Document();
+        document.setFileId(FILE_ID);
+        message.setDocument(document);
+        return message;
+    }
 }
@@ -0,0 +1,64 @@
+package ru.trainithard.dunebot.service.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class TelegramRetryPolicyTest {
+    private final TelegramRetryPolicy retryPolicy = new TelegramRetryPolicy(3, 1000, 3000);
+
+    @Test
+    void shouldNotRetryClientErrors() {
+        TelegramApiFailure failure = TelegramApiFailure.of(getRequestException(400, null));
+
+        assertThat(failure.type()).isEqualTo(TelegramApiFailure.Type.CLIENT_ERROR);
+        assertThat(retryPolicy.getRetryDelayMillis(failure, 0)).isEmpty();
+    }
+
+    @Test
+    void shouldRetryRateLimitedRequestAfterRequestedTime() {
+        TelegramApiFailure failure = TelegramApiFailure.of(new CompletionException(getRequestException(429, 7)));
+
+        assertThat(failure).isEqualTo(new TelegramApiFailure(TelegramApiFailure.Type.RATE_LIMITED, 429, 7000));
+        assertThat(retryPolicy.getRetryDelayMillis(failure, 0).getAsLong()).isBetween(7000L, 8400L);
+    }
+
+    @Test
+    void shouldRetryServerErrorsWithExponentialBackoff() {
+        TelegramApiFailure failure = TelegramApiFailure.of(getRequestException(502, null));
+
+        assertThat(failure.type()).isEqualTo(TelegramApiFailure.Type.TRANSIENT);
+        assertThat(retryPolicy.getRetryDelayMillis(failure, 0).getAsLong()).isBetween(1000L, 1200L);
+        assertThat(retryPolicy.getRetryDelayMillis(failure, 1).getAsLong()).isBetween(2000L, 2400L);
+        assertThat(retryPolicy.getRetryDelayMillis(failure, 2).getAsLong()).isBetween(3000L, 3600L);
+    }
+
+    @Test
+    void shouldRetryNetworkErrors() {
+        TelegramApiFailure failure = TelegramApiFailure.of(new TelegramApiException("connection reset"));
+
+        assertThat(failure).isEqualTo(new TelegramApiFailure(TelegramApiFailure.Type.TRANSIENT, null, 0));
+        assertThat(retryPolicy.getRetryDelayMillis(failure, 0)).isPresent();
+    }
+
+    @Test
+    void shouldNotRetryWhenRetriesAreExhausted() {
+        TelegramApiFailure failure = TelegramApiFailure.of(getRequestException(500, null));
+
+        assertThat(retryPolicy.getRetryDelayMillis(failure, 3)).isEmpty();
+    }
+
+    private static TelegramApiRequestException getRequestException(int errorCode, Integer retryAfter) {
+        TelegramApiRequestException exception = mock(TelegramApiRequestException.class);
+        doReturn(errorCode).when(exception).getErrorCode();
+        doReturn(new ResponseParameters(null, retryAfter)).when(exception).getParameters();
+        return exception;
+    }
+}
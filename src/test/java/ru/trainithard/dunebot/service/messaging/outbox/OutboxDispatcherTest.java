@@ -0,0 +1,239 @@
+package ru.trainithard.dunebot.service.messaging.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.exception.TelegramRetryException;
+import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.model.messaging.OutboxCallbackType;
+import ru.trainithard.dunebot.model.messaging.OutboxStatus;
+import ru.trainithard.dunebot.service.ActivePollIndex;
+import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.messaging.MessagePriority;
+import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.ExternalPollDto;
+import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
+import ru.trainithard.dunebot.service.messaging.dto.PollMessageDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class OutboxDispatcherTest extends TestContextMock {
+    private static final String CHAT_ID = "12345";
+    private static final int TOPIC_ID = 4;
+
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ActivePollIndex activePollIndex;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("delete from outbox_messages");
+    }
+
+    @Test
+    void shouldSendMessageOnlyAfterTransactionCommit() {
+        doReturn(CompletableFuture.completedFuture(new ExternalMessageDto())).when(messagingService).sendMessageAsync(any());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.enqueue(getMessage());
+            verifyNoInteractions(messagingService);
+        });
+
+        verify(messagingService).sendMessageAsync(any());
+    }
+
+    @Test
+    void shouldNotSendMessageOfRolledBackTransaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.enqueue(getMessage());
+            status.setRollbackOnly();
+        });
+
+        verifyNoInteractions(messagingService);
+        assertThat(getOutboxMessagesCount()).isZero();
+    }
+
+    @Test
+    void shouldSendStoredMessageContent() {
+        doReturn(CompletableFuture.completedFuture(new ExternalMessageDto())).when(messagingService).sendMessageAsync(any());
+        MessageDto message = getMessage();
+        message.setPriority(MessagePriority.NOTIFICATION);
+
+        outboxService.enqueue(message);
+
+        ArgumentCaptor<MessageDto> messageCaptor = ArgumentCaptor.forClass(MessageDto.class);
+        verify(messagingService).sendMessageAsync(messageCaptor.capture());
+        MessageDto actualMessage = messageCaptor.getValue();
+        assertThat(actualMessage)
+                .extracting(MessageDto::getChatId, MessageDto::getTopicId, MessageDto::getText, MessageDto::getPriority)
+                .containsExactly(CHAT_ID, TOPIC_ID, "la text", MessagePriority.NOTIFICATION);
+    }
+
+    @Test
+    void shouldMarkSentMessageDelivered() {
+        doReturn(CompletableFuture.completedFuture(new ExternalMessageDto())).when(messagingService).sendMessageAsync(any());
+
+        outboxService.enqueue(getMessage());
+
+        assertThat(getStatus()).isEqualTo(OutboxStatus.DELIVERED.name());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox_messages where delivered_at is not null", Long.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepMessagePendingOnTransientFailure() {
+        doReturn(CompletableFuture.failedFuture(new TelegramRetryException(new RuntimeException())))
+                .when(messagingService).sendMessageAsync(any());
+
+        outboxService.enqueue(getMessage());
+
+        assertThat(getStatus()).isEqualTo(OutboxStatus.PENDING.name());
+        assertThat(jdbcTemplate.queryForObject("select attempts from outbox_messages", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailMessageOnClientError() {
+        TelegramApiRequestException exception = mock(TelegramApiRequestException.class);
+        doReturn(403).when(exception).getErrorCode();
+        doReturn(new ResponseParameters()).when(exception).getParameters();
+        doReturn(CompletableFuture.failedFuture(exception)).when(messagingService).sendMessageAsync(any());
+
+        outboxService.enqueue(getMessage());
+
+        assertThat(getStatus()).isEqualTo(OutboxStatus.FAILED.name());
+    }
+
+    @Test
+    void shouldFailMessageWhenAttemptsAreExhausted() {
+        insertPendingMessage(10000L, 4);
+        doReturn(CompletableFuture.failedFuture(new TelegramRetryException(new RuntimeException())))
+                .when(messagingService).sendMessageAsync(any());
+
+        outboxDispatcher.dispatchPending();
+
+        assertThat(getStatus()).isEqualTo(OutboxStatus.FAILED.name());
+    }
+
+    @Test
+    void shouldDispatchPendingMessages() {
+        insertPendingMessage(10000L, 0);
+        insertPendingMessage(10001L, 1);
+        jdbcTemplate.execute("insert into outbox_messages (id, message_type, status, priority, chat_id, text, attempts, created_at) " +
+                             "values (10002, 'MESSAGE', 'DELIVERED', 'BROADCAST', '" + CHAT_ID + "', 'text', 0, '2010-10-10')");
+        doReturn(CompletableFuture.completedFuture(new ExternalMessageDto())).when(messagingService).sendMessageAsync(any());
+
+        outboxDispatcher.dispatchPending();
+
+        verify(messagingService, times(2)).sendMessageAsync(any());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox_messages where status = 'DELIVERED'", Long.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotSendMessageClaimedByAnotherInstance() {
+        insertInFlightMessage(10000L, "other-instance", "2100-10-10");
+
+        outboxDispatcher.dispatchPending();
+
+        verifyNoInteractions(messagingService);
+        assertThat(getStatus()).isEqualTo(OutboxStatus.IN_FLIGHT.name());
+    }
+
+    @Test
+    void shouldSendMessageWithExpiredLease() {
+        insertInFlightMessage(10000L, "dead-instance", "2010-10-10");
+        doReturn(CompletableFuture.completedFuture(new ExternalMessageDto())).when(messagingService).sendMessageAsync(any());
+
+        outboxDispatcher.dispatchPending();
+
+        verify(messagingService).sendMessageAsync(any());
+        assertThat(getStatus()).isEqualTo(OutboxStatus.DELIVERED.name());
+    }
+
+    @Test
+    void shouldKeepMessageInFlightUntilDeliveryIsRecorded() throws InterruptedException {
+        CompletableFuture<ExternalMessageDto> sendFuture = new CompletableFuture<>();
+        doReturn(sendFuture).when(messagingService).sendMessageAsync(any());
+
+        outboxService.enqueue(getMessage());
+
+        assertThat(getStatus()).isEqualTo(OutboxStatus.IN_FLIGHT.name());
+        assertThat(outboxDispatcher.awaitInFlight(Duration.ofMillis(100))).isFalse();
+
+        sendFuture.complete(new ExternalMessageDto());
+
+        assertThat(outboxDispatcher.awaitInFlight(Duration.ofMillis(100))).isTrue();
+        assertThat(getStatus()).isEqualTo(OutboxStatus.DELIVERED.name());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox_messages where locked_by is null", Long.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotFailDispatchWhenMessagingServiceThrows() {
+        doThrow(new IllegalStateException()).when(messagingService).sendMessageAsync(any());
+
+        outboxService.enqueue(getMessage());
+
+        assertThat(getStatus()).isEqualTo(OutboxStatus.PENDING.name());
+    }
+
+    @Test
+    void shouldFailDeliveredMessageWhenCallbackFails() {
+        ExternalPollDto deliveredPoll = new ExternalPollDto();
+        deliveredPoll.setPollId("10000");
+        deliveredPoll.setMessageId(10000);
+        deliveredPoll.setChatId(12345L);
+        doReturn(CompletableFuture.completedFuture(deliveredPoll)).when(messagingService).sendPollAsync(any());
+        PollMessageDto poll = new PollMessageDto(CHAT_ID, new ExternalMessage("la poll"), TOPIC_ID, List.of("yes", "no"));
+
+        outboxService.enqueue(poll, OutboxCallbackType.NEW_MATCH_POLL, 10000L, ModType.CLASSIC.name());
+
+        assertThat(getStatus()).isEqualTo(OutboxStatus.FAILED.name());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox_messages where attempts = 1 and delivered_at is not null " +
+                                               "and locked_by is null", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from external_messages where poll_id = '10000'", Long.class)).isZero();
+        assertThat(activePollIndex.contains("10000")).isFalse();
+    }
+
+    private void insertPendingMessage(long id, int attempts) {
+        jdbcTemplate.execute("insert into outbox_messages (id, message_type, status, priority, chat_id, topic_id, text, attempts, created_at) " +
+                             "values (" + id + ", 'MESSAGE', 'PENDING', 'BROADCAST', '" + CHAT_ID + "', " + TOPIC_ID + ", 'text', " +
+                             attempts + ", '2010-10-10')");
+    }
+
+    private void insertInFlightMessage(long id, String lockedBy, String lockedUntil) {
+        jdbcTemplate.execute("insert into outbox_messages (id, message_type, status, priority, chat_id, text, attempts, locked_by, " +
+                             "locked_until, created_at) values (" + id + ", 'MESSAGE', 'IN_FLIGHT', 'BROADCAST', '" + CHAT_ID +
+                             "', 'text', 0, '" + lockedBy + "', '" + lockedUntil + "', '2010-10-10')");
+    }
+
+    private String getStatus() {
+        return jdbcTemplate.queryForObject("select status from outbox_messages order by id limit 1", String.class);
+    }
+
+    private Long getOutboxMessagesCount() {
+        return jdbcTemplate.queryForObject("select count(*) from outbox_messages", Long.class);
+    }
+
+    private static MessageDto getMessage() {
+        return new MessageDto(CHAT_ID, new ExternalMessage("la text"), TOPIC_ID, null);
+    }
+}
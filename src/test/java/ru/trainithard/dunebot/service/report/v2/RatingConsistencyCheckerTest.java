@@ -0,0 +1,100 @@
+package ru.trainithard.dunebot.service.report.v2;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.model.ModType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class RatingConsistencyCheckerTest extends TestContextMock {
+    @Autowired
+    private RatingConsistencyChecker checker;
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate.execute("insert into players (id, external_id, external_chat_id, steam_name, first_name, last_name, external_first_name, created_at) " +
+                             "values (10000, 10000, '10000', 'st_pl1', 'name1', 'l1', 'e1', '2010-10-10') ");
+        jdbcTemplate.execute("insert into players (id, external_id, external_chat_id, steam_name, first_name, last_name, external_first_name, created_at) " +
+                             "values (10001, 10001, '10001', 'st_pl2', 'name2', 'l2', 'e2', '2010-10-10') ");
+        jdbcTemplate.execute("insert into leaders (id, name, short_name, mod_type, created_at) " +
+                             "values (10000, 'la', 'la', '" + ModType.CLASSIC + "', '2010-10-10')");
+        insertPlayerRating(10000, 10000, "2010-10-02");
+        insertPlayerRating(10001, 10000, "2010-11-03");
+        insertPlayerRating(10002, 10001, "2010-10-01");
+        jdbcTemplate.execute("insert into leader_ratings (id, leader_id, rating_date, matches_count, efficiency, win_rate, " +
+                             "first_place_count, second_place_count, third_place_count, fourth_place_count, created_at) " +
+                             "values (10000, 10000, '2010-10-02', 0, 0, 0, 0, 0, 0, 0, '2010-10-10')");
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.execute("delete from current_player_ratings where player_id between 10000 and 10001");
+        jdbcTemplate.execute("delete from current_leader_ratings where leader_id = 10000");
+        jdbcTemplate.execute("delete from player_ratings where player_id between 10000 and 10001");
+        jdbcTemplate.execute("delete from leader_ratings where leader_id = 10000");
+        jdbcTemplate.execute("delete from players where id between 10000 and 10001");
+        jdbcTemplate.execute("delete from leaders where id = 10000");
+    }
+
+    @Test
+    void shouldReportConsistentRatingsWhenCurrentRatingsAreLatest() {
+        jdbcTemplate.execute("insert into current_player_ratings (player_id, player_rating_id) values (10000, 10001), (10001, 10002)");
+        jdbcTemplate.execute("insert into current_leader_ratings (leader_id, leader_rating_id) values (10000, 10000)");
+
+        RatingConsistencyChecker.RatingConsistencyReport report = checker.checkAndRepair();
+
+        assertThat(report.isConsistent()).isTrue();
+    }
+
+    @Test
+    void shouldRepairMissingCurrentRatings() {
+        RatingConsistencyChecker.RatingConsistencyReport report = checker.checkAndRepair();
+
+        assertThat(report).isEqualTo(new RatingConsistencyChecker.RatingConsistencyReport(2, 1));
+        assertThat(getCurrentPlayerRatingIds()).containsExactly(10001L, 10002L);
+        assertThat(jdbcTemplate.queryForList("select leader_rating_id from current_leader_ratings where leader_id = 10000", Long.class))
+                .containsExactly(10000L);
+    }
+
+    @Test
+    void shouldRepairOutdatedCurrentRating() {
+        jdbcTemplate.execute("insert into current_player_ratings (player_id, player_rating_id) values (10000, 10000), (10001, 10002)");
+        jdbcTemplate.execute("insert into current_leader_ratings (leader_id, leader_rating_id) values (10000, 10000)");
+
+        RatingConsistencyChecker.RatingConsistencyReport report = checker.checkAndRepair();
+
+        assertThat(report).isEqualTo(new RatingConsistencyChecker.RatingConsistencyReport(1, 0));
+        assertThat(getCurrentPlayerRatingIds()).containsExactly(10001L, 10002L);
+    }
+
+    @Test
+    void shouldDeleteCurrentRatingOfPlayerWithoutRatingHistory() {
+        jdbcTemplate.execute("update player_ratings set player_id = 10000 where id = 10002");
+        jdbcTemplate.execute("insert into current_player_ratings (player_id, player_rating_id) values (10000, 10001), (10001, 10002)");
+        jdbcTemplate.execute("insert into current_leader_ratings (leader_id, leader_rating_id) values (10000, 10000)");
+
+        RatingConsistencyChecker.RatingConsistencyReport report = checker.checkAndRepair();
+
+        assertThat(report).isEqualTo(new RatingConsistencyChecker.RatingConsistencyReport(1, 0));
+        assertThat(getCurrentPlayerRatingIds()).containsExactly(10001L);
+    }
+
+    private List<Long> getCurrentPlayerRatingIds() {
+        return jdbcTemplate.queryForList("select player_rating_id from current_player_ratings " +
+                                         "where player_id between 10000 and 10001 order by player_id", Long.class);
+    }
+
+    private void insertPlayerRating(long id, long playerId, String ratingDate) {
+        jdbcTemplate.execute("insert into player_ratings (id, player_id, rating_date, matches_count, efficiency, win_rate, " +
+                             "first_place_count, second_place_count, third_place_count, fourth_place_count, " +
+                             "current_strike_length, max_strike_length, created_at) " +
+                             "values (" + id + ", " + playerId + ", '" + ratingDate + "', 0, 0, 0, 0, 0, 0, 0, 0, 0, '2010-10-10')");
+    }
+}
@@ -0,0 +1,109 @@
+package ru.trainithard.dunebot.service.report.v2;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.model.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures saving of full rating rebuild: statements count and wall time for {@value RATINGS_COUNT} new player ratings.
+ * Not executed in the regular test run, execute with: <code>mvn test -Dtest=RatingSaveBenchmark</code>
+ * <p>
+ * Options (system properties):
+ * <ul>
+ * <li><code>benchmark.batch-size</code> - JDBC batch size, 50 by default; 1 disables batching for comparison</li>
+ * <li><code>benchmark.iterations</code> - count of measured rebuilds, 5 by default</li>
+ * </ul>
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=${benchmark.batch-size:50}"
+})
+class RatingSaveBenchmark extends TestContextMock {
+    private static final int RATINGS_COUNT = 10_000;
+    private static final int MATCH_PLAYERS_COUNT = 4;
+    private static final long FIRST_PLAYER_ID = 100_000;
+    private static final LocalDate MATCHES_DATE = LocalDate.of(2024, 6, 10);
+
+    @Autowired
+    private PlayerRatingUpdateService playerRatingUpdateService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private final List<Match> matches = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        List<Object[]> players = new ArrayList<>();
+        for (long playerId = FIRST_PLAYER_ID; playerId < FIRST_PLAYER_ID + RATINGS_COUNT; playerId++) {
+            players.add(new Object[]{playerId, playerId, playerId, "st_" + playerId});
+        }
+        jdbcTemplate.batchUpdate("insert into players (id, external_id, external_chat_id, steam_name, first_name, last_name, " +
+                                 "external_first_name, created_at) values (?, ?, ?, ?, 'name', 'l', 'e', '2010-10-10')", players);
+        for (int matchIndex = 0; matchIndex < RATINGS_COUNT / MATCH_PLAYERS_COUNT; matchIndex++) {
+            matches.add(getMatch(FIRST_PLAYER_ID + (long) matchIndex * MATCH_PLAYERS_COUNT));
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        deleteRatings();
+        jdbcTemplate.execute("delete from meta_data");
+        jdbcTemplate.execute("delete from players where id >= " + FIRST_PLAYER_ID);
+    }
+
+    @Test
+    void runBenchmark() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        int iterations = Integer.getInteger("benchmark.iterations", 5);
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            deleteRatings();
+            statistics.clear();
+            long startNanos = System.nanoTime();
+
+            playerRatingUpdateService.updateRatings(matches, Collections.emptyList(), MATCHES_DATE);
+
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            System.out.printf("Iteration %d: %d rating rows, %d inserts, %d statements, %d ms%n", iteration, RATINGS_COUNT,
+                    statistics.getEntityInsertCount(), statistics.getPrepareStatementCount(), elapsedMillis);
+        }
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from current_player_ratings", Long.class)).isEqualTo(RATINGS_COUNT);
+    }
+
+    private void deleteRatings() {
+        jdbcTemplate.execute("delete from current_player_ratings");
+        jdbcTemplate.execute("delete from player_ratings");
+    }
+
+    private Match getMatch(long firstPlayerId) {
+        Match match = new Match();
+        match.setFinishDate(MATCHES_DATE);
+        match.setState(MatchState.FINISHED);
+        List<MatchPlayer> matchPlayers = new ArrayList<>();
+        for (int place = 1; place <= MATCH_PLAYERS_COUNT; place++) {
+            Player player = new Player();
+            player.setId(firstPlayerId + place - 1);
+            MatchPlayer matchPlayer = new MatchPlayer();
+            matchPlayer.setId(player.getId());
+            matchPlayer.setPlayer(player);
+            matchPlayer.setPlace(place);
+            matchPlayer.setMatch(match);
+            matchPlayers.add(matchPlayer);
+        }
+        match.setMatchPlayers(matchPlayers);
+        return match;
+    }
+}
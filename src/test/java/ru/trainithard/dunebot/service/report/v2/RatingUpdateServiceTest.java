@@ -7,6 +7,7 @@ import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionTemplate;
 import ru.trainithard.dunebot.model.*;
+import ru.trainithard.dunebot.repository.CurrentPlayerRatingRepository;
 import ru.trainithard.dunebot.repository.PlayerRatingRepository;
 import ru.trainithard.dunebot.service.MetaDataService;
 
@@ -35,7 +36,9 @@ class RatingUpdateServiceTest {
     private final PlayerRating rating3 = new PlayerRating(player3, date(1, 7));
     private final PlayerRating rating4 = new PlayerRating(player4, date(1, 10));
     private final PlayerRatingRepository playerRatingRepository = mock(PlayerRatingRepository.class);
-    private final RatingUpdateService<PlayerRating> ratingUpdateService = new PlayerRatingUpdateService(playerRatingRepository);
+    private final CurrentPlayerRatingRepository currentPlayerRatingRepository = mock(CurrentPlayerRatingRepository.class);
+    private final RatingUpdateService<PlayerRating> ratingUpdateService =
+            new PlayerRatingUpdateService(playerRatingRepository, currentPlayerRatingRepository);
     private final MetaDataService metaDataService = mock(MetaDataService.class);
     private final LocalDate TODAY = date(10, 1);
 
@@ -52,6 +55,7 @@ class RatingUpdateServiceTest {
         player2.setId(10001L);
         player3.setId(10002L);
         player4.setId(10003L);
+        doAnswer(invocation -> List.copyOf(invocation.getArgument(0))).when(playerRatingRepository).saveAll(any());
     }
 
     @Test
@@ -244,6 +248,27 @@ class RatingUpdateServiceTest {
                 .contains(tuple(10003L, date(1, 10), 3, 0.5, 0.3333333333333333));
     }
 
+    @Test
+    void shouldSaveManagedInstancesOfPersistedRatings() {
+        rating4.setId(10003L);
+        rating4.setRatingDate(date(1, 1));
+        PlayerRating managedRating4 = new PlayerRating(player4, date(1, 1));
+        managedRating4.setId(10003L);
+        doReturn(List.of(managedRating4)).when(playerRatingRepository).findAllById(List.of(10003L));
+
+        ratingUpdateService.updateRatings(List.of(match1, match2, match3), List.of(rating4), TODAY);
+
+        ArgumentCaptor<List<PlayerRating>> ratingsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(playerRatingRepository).saveAll(ratingsCaptor.capture());
+        List<PlayerRating> actualRatings = ratingsCaptor.getValue();
+
+        assertThat(actualRatings).hasSize(4).anySatisfy(rating -> assertThat(rating).isSameAs(managedRating4));
+        assertThat(managedRating4)
+                .extracting(PlayerRating::getRatingDate, PlayerRating::getMatchesCount, PlayerRating::getWinRate,
+                        PlayerRating::getCurrentStrikeLength, PlayerRating::getMaxStrikeLength)
+                .containsExactly(date(1, 10), 3, rating4.getWinRate(), rating4.getCurrentStrikeLength(), rating4.getMaxStrikeLength());
+    }
+
     @Test
     void shouldSplitRatingsAndMatchesByMonth() {
         rating4.setRatingDate(date(1, 1));
@@ -260,6 +285,24 @@ class RatingUpdateServiceTest {
                 .contains(tuple(10003L, date(1, 5), 2), tuple(10003L, date(2, 10), 1));
     }
 
+    @Test
+    void shouldSaveLatestMonthRatingsAsCurrentRatings() {
+        match3.setFinishDate(date(2, 10));
+
+        ratingUpdateService.updateRatings(List.of(match1, match2, match3), Collections.emptyList(), TODAY);
+
+        ArgumentCaptor<List<CurrentPlayerRating>> currentRatingsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(currentPlayerRatingRepository, times(2)).saveAll(currentRatingsCaptor.capture());
+        List<CurrentPlayerRating> latestCurrentRatings = currentRatingsCaptor.getAllValues().get(1);
+
+        assertThat(latestCurrentRatings)
+                .extracting(CurrentPlayerRating::getPlayerId, currentRating -> currentRating.getPlayerRating().getRatingDate())
+                .containsExactlyInAnyOrder(
+                        tuple(10000L, date(2, 10)), tuple(10001L, date(2, 10)),
+                        tuple(10002L, date(2, 10)), tuple(10003L, date(2, 10))
+                );
+    }
+
     @Test
     void shouldSaveMetaDataKeyForRatings() {
         rating4.setRatingDate(date(1, 1));
@@ -0,0 +1,19 @@
+package ru.trainithard.dunebot.service.task;
+
+import org.junit.jupiter.api.Test;
+import ru.trainithard.dunebot.service.MatchExpirationService;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class MatchExpirationTaskTest {
+    private final MatchExpirationService matchExpirationService = mock(MatchExpirationService.class);
+    private final MatchExpirationTask matchExpirationTask = new MatchExpirationTask(matchExpirationService, 10000L);
+
+    @Test
+    void shouldExpireMatchWhenRun() {
+        matchExpirationTask.run();
+
+        verify(matchExpirationService).expireMatch(10000L);
+    }
+}
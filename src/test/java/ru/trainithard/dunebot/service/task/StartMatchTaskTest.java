@@ -17,6 +17,8 @@ import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
 import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
 import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 
@@ -199,34 +201,68 @@ class StartMatchTaskTest extends TestContextMock {
     }
 
     @Test
-    void shouldSendDeleteMessageWhenMatchAlreadyHasId() {
-        jdbcTemplate.execute("insert into external_messages (id, dtype, message_id, chat_id, reply_id, created_at) " +
-                             "values (10001, 'ExternalMessageId', 9000, " + CHAT_ID + ", " + TOPIC_ID + ", '2020-10-10')");
-        jdbcTemplate.execute("update matches set positive_answers_count = 5, external_start_id = 10001 where id = 10000");
+    void shouldEditStartMessageWhenMentionedPlayersAreNotAdded() {
+        insertStartMessage("10000,10001,10002,10003,10004");
 
         DunebotRunnable task = taskFactory.createInstance(new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L));
         task.run();
 
-        verify(messagingService).deleteMessageAsync(argThat(messageDto ->
-                messageDto.getMessageId().equals(9000) && messageDto.getChatId().equals(CHAT_ID) && messageDto.getReplyId().equals(TOPIC_ID)));
+        ArgumentCaptor<EditMessageDto> editMessageDtoCaptor = ArgumentCaptor.forClass(EditMessageDto.class);
+        verify(messagingService, timeout(1000)).editMessageAsync(editMessageDtoCaptor.capture());
+        EditMessageDto actualEditMessageDto = editMessageDtoCaptor.getValue();
+
+        assertThat(actualEditMessageDto)
+                .extracting(EditMessageDto::getChatId, EditMessageDto::getMessageId, EditMessageDto::getKeyboard)
+                .containsExactly(Long.toString(CHAT_ID), 9000, null);
+        assertThat(actualEditMessageDto.getText()).startsWith("*Матч 10000* собран\\. Участники:");
     }
 
     @Test
-    void shouldSaveNewStartMessageWhenMatchAlreadyHasStartMessage() {
-        jdbcTemplate.execute("insert into external_messages (id, dtype, message_id, chat_id, reply_id, created_at) " +
-                             "values (10001, 'ExternalMessageId', 9000, " + CHAT_ID + ", " + TOPIC_ID + ", '2020-10-10')");
-        jdbcTemplate.execute("update matches set positive_answers_count = 5, external_start_id = 10001 where id = 10000");
-        doReturn(CompletableFuture.completedFuture(getSubmitExternalMessage())).when(messagingService).sendMessageAsync(any(MessageDto.class));
+    void shouldNotSendNewStartMessageWhenMentionedPlayersAreNotAdded() {
+        insertStartMessage("10000,10001,10002,10003,10004");
 
         DunebotRunnable task = taskFactory.createInstance(new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L));
         task.run();
 
-        ExternalMessageDto actualMessage = jdbcTemplate
-                .queryForObject("select * from external_messages where chat_id = 12348", new BeanPropertyRowMapper<>(ExternalMessageDto.class));
+        Long actualStartId = jdbcTemplate.queryForObject("select external_start_id from matches where id = 10000", Long.class);
 
-        assertThat(actualMessage).isNotNull()
-                .extracting(ExternalMessageDto::getChatId, ExternalMessageDto::getReplyId, ExternalMessageDto::getMessageId)
-                .containsExactly(12348L, 11111, 22222);
+        assertThat(actualStartId).isEqualTo(10001L);
+        verify(messagingService, never()).sendMessageAsync(any());
+        verify(messagingService, never()).deleteMessageAsync(any());
+    }
+
+    @Test
+    void shouldSaveMentionedPlayersOfEditedStartMessage() {
+        insertStartMessage("10000,10001,10002,10003,10004");
+
+        DunebotRunnable task = taskFactory.createInstance(new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L));
+        task.run();
+
+        String actualMentionedPlayerIds = jdbcTemplate
+                .queryForObject("select start_mentioned_player_ids from matches where id = 10000", String.class);
+
+        assertThat(actualMentionedPlayerIds).isEqualTo("10000,10001,10002,10003");
+    }
+
+    @Test
+    void shouldSendNewStartMessageInsteadOfExistingWhenMentionedPlayersAreAdded() {
+        insertStartMessage("10000,10001,10002");
+        doReturn(CompletableFuture.completedFuture(getSubmitExternalMessage())).when(messagingService).sendMessageAsync(any(MessageDto.class));
+
+        DunebotRunnable task = taskFactory.createInstance(new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L));
+        task.run();
+
+        ArgumentCaptor<ExternalMessageId> deletedMessageCaptor = ArgumentCaptor.forClass(ExternalMessageId.class);
+        verify(messagingService).sendMessageAsync(any(MessageDto.class));
+        verify(messagingService).deleteMessageAsync(deletedMessageCaptor.capture());
+        verify(messagingService, never()).editMessageAsync(any());
+        String actualMentionedPlayerIds = jdbcTemplate
+                .queryForObject("select start_mentioned_player_ids from matches where id = 10000", String.class);
+
+        assertThat(deletedMessageCaptor.getValue())
+                .extracting(ExternalMessageId::getMessageId, ExternalMessageId::getChatId)
+                .containsExactly(9000, CHAT_ID);
+        assertThat(actualMentionedPlayerIds).isEqualTo("10000,10001,10002,10003");
     }
 
     @Test
@@ -245,6 +281,13 @@ class StartMatchTaskTest extends TestContextMock {
                 .containsExactly(12348L, 11111, 22222);
     }
 
+    private void insertStartMessage(String mentionedPlayerIds) {
+        jdbcTemplate.execute("insert into external_messages (id, dtype, message_id, chat_id, reply_id, created_at) " +
+                             "values (10001, 'ExternalMessageId', 9000, " + CHAT_ID + ", " + TOPIC_ID + ", '2020-10-10')");
+        jdbcTemplate.execute("update matches set positive_answers_count = 5, external_start_id = 10001, " +
+                             "start_mentioned_player_ids = '" + mentionedPlayerIds + "' where id = 10000");
+    }
+
     private ExternalMessageDto getSubmitExternalMessage() {
         Message replyMessage = new Message();
         replyMessage.setMessageId(11111);
@@ -0,0 +1,206 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
+import ru.trainithard.dunebot.configuration.ThreadFactoryProvider;
+import ru.trainithard.dunebot.service.ActivePollIndex;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class PartitionedUpdateDispatcherTest {
+    private static final int PARTITIONS_COUNT = 4;
+    private static final ThreadFactoryProvider THREAD_FACTORY_PROVIDER = new ThreadFactoryProvider(0);
+
+    private static final long MATCH_ID = 10000L;
+    private static final long OWNER_EXTERNAL_ID = 12345L;
+
+    private final ActivePollIndex activePollIndex = mock(ActivePollIndex.class);
+    private final UpdatePartitionKeyResolver keyResolver = new UpdatePartitionKeyResolver(activePollIndex);
+    private final PartitionedUpdateDispatcher dispatcher =
+            new PartitionedUpdateDispatcher(true, PARTITIONS_COUNT, THREAD_FACTORY_PROVIDER, keyResolver);
+
+    @AfterEach
+    void afterEach() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void shouldProcessUpdatesInCallingThreadWhenParallelProcessingDisabled() {
+        PartitionedUpdateDispatcher singleThreadedDispatcher = new PartitionedUpdateDispatcher(false, PARTITIONS_COUNT, THREAD_FACTORY_PROVIDER, keyResolver);
+        AtomicReference<Thread> processingThread = new AtomicReference<>();
+
+        singleThreadedDispatcher.dispatch(getPollAnswerUpdate("100"), () -> processingThread.set(Thread.currentThread()));
+
+        assertThat(processingThread.get()).isEqualTo(Thread.currentThread());
+        assertThat(singleThreadedDispatcher.getPartitionMetrics()).isEmpty();
+    }
+
+    @Test
+    void shouldExecuteKeyedTaskAfterDispatchedUpdatesOfSamePartition() throws Exception {
+        doReturn(Optional.of(MATCH_ID)).when(activePollIndex).findMatchId("poll_of_match");
+        List<String> processedTasks = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(getPollAnswerUpdate("poll_of_match"), () -> processedTasks.add("update"));
+
+        dispatcher.dispatch("match_" + MATCH_ID, () -> processedTasks.add("task")).get(5, TimeUnit.SECONDS);
+
+        assertThat(processedTasks).containsExactly("update", "task");
+    }
+
+    @Test
+    void shouldExecuteKeyedTaskInCallingThreadWhenParallelProcessingDisabled() {
+        PartitionedUpdateDispatcher singleThreadedDispatcher = new PartitionedUpdateDispatcher(false, PARTITIONS_COUNT, THREAD_FACTORY_PROVIDER, keyResolver);
+        AtomicReference<Thread> processingThread = new AtomicReference<>();
+
+        singleThreadedDispatcher.dispatch("match_1", () -> processingThread.set(Thread.currentThread()));
+
+        assertThat(processingThread.get()).isEqualTo(Thread.currentThread());
+    }
+
+    @Test
+    void shouldKeepOrderOfSameMatchUpdates() throws InterruptedException {
+        List<Integer> processedUpdates = new CopyOnWriteArrayList<>();
+        CountDownLatch processingLatch = new CountDownLatch(100);
+
+        IntStream.range(0, 100).forEach(i -> dispatcher.dispatch(getCallbackUpdate("10000_SP_" + i), () -> {
+            processedUpdates.add(i);
+            processingLatch.countDown();
+        }));
+
+        assertThat(processingLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processedUpdates).isEqualTo(IntStream.range(0, 100).boxed().toList());
+    }
+
+    @Test
+    void shouldProcessUnrelatedMatchesUpdatesConcurrently() throws InterruptedException {
+        Update firstMatchUpdate = getPollAnswerUpdate("100");
+        Update secondMatchUpdate = getDifferentPartitionPollAnswerUpdate(firstMatchUpdate);
+        CountDownLatch secondMatchLatch = new CountDownLatch(1);
+        CountDownLatch firstMatchLatch = new CountDownLatch(1);
+
+        dispatcher.dispatch(firstMatchUpdate, () -> {
+            try {
+                if (secondMatchLatch.await(5, TimeUnit.SECONDS)) {
+                    firstMatchLatch.countDown();
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+        dispatcher.dispatch(secondMatchUpdate, secondMatchLatch::countDown);
+
+        assertThat(firstMatchLatch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldReportPartitionQueueDepth() throws InterruptedException {
+        Update update = getPollAnswerUpdate("100");
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        CountDownLatch blockingLatch = new CountDownLatch(1);
+        dispatcher.dispatch(update, () -> {
+            startedLatch.countDown();
+            try {
+                blockingLatch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertThat(startedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.dispatch(update, () -> {
+        });
+        dispatcher.dispatch(update, () -> {
+        });
+
+        int partition = dispatcher.getPartition(update);
+        assertThat(dispatcher.getPartitionMetrics())
+                .hasSize(PARTITIONS_COUNT)
+                .filteredOn(metrics -> metrics.partition() == partition)
+                .extracting(PartitionedUpdateDispatcher.PartitionMetrics::queueDepth)
+                .containsExactly(2);
+        blockingLatch.countDown();
+    }
+
+    @Test
+    void shouldKeepOrderOfVotesCallbacksAndCommandsOfSameMatch() throws InterruptedException {
+        doReturn(Optional.of(MATCH_ID)).when(activePollIndex).findMatchId("poll_of_match");
+        doReturn(Optional.of(MATCH_ID)).when(activePollIndex).findOwnedMatchId(OWNER_EXTERNAL_ID);
+        List<Update> matchUpdates = List.of(getPollAnswerUpdate("poll_of_match"), getMessageUpdate("/submit " + MATCH_ID),
+                getCallbackUpdate(MATCH_ID + "_SP_1"), getPollAnswerUpdate("poll_of_match"), getMessageUpdate("/cancel"),
+                getMessageUpdate("/resubmit " + MATCH_ID));
+        List<Integer> processedUpdates = new CopyOnWriteArrayList<>();
+        CountDownLatch processingLatch = new CountDownLatch(matchUpdates.size() * 20);
+
+        for (int i = 0; i < matchUpdates.size() * 20; i++) {
+            int updateNumber = i;
+            dispatcher.dispatch(matchUpdates.get(i % matchUpdates.size()), () -> {
+                processedUpdates.add(updateNumber);
+                processingLatch.countDown();
+            });
+        }
+
+        assertThat(processingLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processedUpdates).isEqualTo(IntStream.range(0, matchUpdates.size() * 20).boxed().toList());
+        assertThat(matchUpdates).extracting(dispatcher::getPartition).containsOnly(dispatcher.getPartition(matchUpdates.get(0)));
+    }
+
+    @Test
+    void shouldThrowOnNonPositivePartitionsCount() {
+        assertThatThrownBy(() -> new PartitionedUpdateDispatcher(true, 0, THREAD_FACTORY_PROVIDER, keyResolver))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Update getDifferentPartitionPollAnswerUpdate(Update update) {
+        int partition = dispatcher.getPartition(update);
+        return IntStream.range(101, 200)
+                .mapToObj(i -> getPollAnswerUpdate(Integer.toString(i)))
+                .filter(otherUpdate -> dispatcher.getPartition(otherUpdate) != partition)
+                .findFirst().orElseThrow();
+    }
+
+    private static Update getPollAnswerUpdate(String pollId) {
+        PollAnswer pollAnswer = new PollAnswer();
+        pollAnswer.setPollId(pollId);
+        Update update = new Update();
+        update.setPollAnswer(pollAnswer);
+        return update;
+    }
+
+    private static Update getMessageUpdate(String text) {
+        User user = new User();
+        user.setId(OWNER_EXTERNAL_ID);
+        Chat chat = new Chat();
+        chat.setId(OWNER_EXTERNAL_ID);
+        Message message = new Message();
+        message.setFrom(user);
+        message.setChat(chat);
+        message.setText(text);
+        Update update = new Update();
+        update.setMessage(message);
+        return update;
+    }
+
+    private static Update getCallbackUpdate(String callbackData) {
+        User user = new User();
+        user.setId(10000L);
+        CallbackQuery callbackQuery = new CallbackQuery();
+        callbackQuery.setData(callbackData);
+        callbackQuery.setFrom(user);
+        Update update = new Update();
+        update.setCallbackQuery(callbackQuery);
+        return update;
+    }
+}
@@ -1,9 +1,11 @@
 package ru.trainithard.dunebot.service.telegram;
 
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -11,7 +13,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class TelegramBotTest {
-    private final TelegramBot telegramBot = new TelegramBot("uName", "token");
+    private final TelegramBot telegramBot = new TelegramBot("uName", "token", 100_000);
 
     @RepeatedTest(10)
     void shouldCorrectlyProcessMultithreadedPushPolls() {
@@ -65,4 +67,26 @@ class TelegramBotTest {
         }
         assertThat(updatesConsumed).hasSize(100_000);
     }
+
+    @Test
+    void shouldWakeUpWaitingConsumerOnUpdateReceive() throws Exception {
+        CompletableFuture<Update> takenUpdate = CompletableFuture.supplyAsync(() -> {
+            try {
+                return telegramBot.take();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Update update = new Update();
+        update.setUpdateId(12345);
+
+        telegramBot.onUpdateReceived(update);
+
+        assertThat(takenUpdate.get(5, TimeUnit.SECONDS)).isSameAs(update);
+    }
+
+    @Test
+    void shouldReturnNullOnPollWhenNoUpdatesReceived() {
+        assertThat(telegramBot.poll()).isNull();
+    }
 }
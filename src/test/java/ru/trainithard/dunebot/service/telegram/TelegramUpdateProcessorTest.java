@@ -18,8 +18,10 @@ import ru.trainithard.dunebot.TestContextMock;
 import ru.trainithard.dunebot.exception.DuneBotException;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.MatchState;
+import ru.trainithard.dunebot.model.MetaDataKey;
 import ru.trainithard.dunebot.model.ModType;
 import ru.trainithard.dunebot.model.messaging.ChatType;
+import ru.trainithard.dunebot.service.ActivePollIndex;
 import ru.trainithard.dunebot.service.AppSettingsService;
 import ru.trainithard.dunebot.service.messaging.dto.ExternalPollDto;
 import ru.trainithard.dunebot.service.messaging.dto.PollMessageDto;
@@ -33,9 +35,11 @@ import ru.trainithard.dunebot.service.telegram.validator.CommonCommandMessageVal
 import ru.trainithard.dunebot.service.telegram.validator.DefaultCommandMessageValidator;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.Mockito.*;
 
@@ -51,6 +55,10 @@ class TelegramUpdateProcessorTest extends TestContextMock {
     private TelegramUpdateProcessor updateProcessor;
     @Autowired
     private DefaultCommandMessageValidator defaultValidator;
+    @Autowired
+    private ActivePollIndex activePollIndex;
+    @Autowired
+    private UpdateDeduplicator updateDeduplicator;
     @MockBean
     private AppSettingsService appSettingsService;
     @MockBean
@@ -68,6 +76,7 @@ class TelegramUpdateProcessorTest extends TestContextMock {
         doReturn("100").when(appSettingsService).getStringSetting(AppSettingKey.CHAT_ID);
         doReturn(124).when(appSettingsService).getIntSetting(AppSettingKey.TOPIC_ID_CLASSIC);
         doReturn(125).when(appSettingsService).getIntSetting(AppSettingKey.TOPIC_ID_UPRISING);
+        doReturn(List.of(124, 125)).when(appSettingsService).getTopicIds();
 
         jdbcTemplate.execute("insert into players (id, external_id, external_chat_id, steam_name, first_name, last_name, external_first_name, created_at) " +
                              "values (10000, " + TELEGRAM_USER_ID_1 + ", " + TELEGRAM_CHAT_ID_1 + " , 'st_pl1', 'name1', 'l1', 'e1', '2010-10-10') ");
@@ -77,14 +86,17 @@ class TelegramUpdateProcessorTest extends TestContextMock {
                              "values (10001, 'ExternalPollId', 10001, 10004, 10005, 100001, '2020-10-10')");
         jdbcTemplate.execute("insert into matches (id, external_poll_id, external_start_id, owner_id, mod_type, state, created_at) " +
                              "values (10001, 10001, null, 10000, '" + ModType.CLASSIC + "', '" + MatchState.NEW + "', '2010-10-10') ");
+        activePollIndex.register("100001", 10001L, TELEGRAM_USER_ID_1);
     }
 
     @AfterEach
     void afterEach() {
+        activePollIndex.evict(10001L);
         jdbcTemplate.execute("delete from match_players where match_id = 10000");
         jdbcTemplate.execute("delete from matches where id in (10000, 10001) or external_poll_id = (select id from external_messages where poll_id = '100001')");
         jdbcTemplate.execute("delete from players where id in (10000, 10001)");
         jdbcTemplate.execute("delete from external_messages where id in (10000, 10001)");
+        jdbcTemplate.execute("delete from meta_data where type = '" + MetaDataKey.LAST_UPDATE_ID + "'");
     }
 
     @Test
@@ -117,6 +129,30 @@ class TelegramUpdateProcessorTest extends TestContextMock {
         verify(commandProcessorFactory, never()).getProcessor(any());
     }
 
+    @Test
+    void shouldSkipRedeliveredUpdate() {
+        Update update = getTextUpdate(TELEGRAM_USER_ID_1, TELEGRAM_CHAT_ID_1, null, "just text");
+        update.setUpdateId(900_000);
+        when(telegramBot.poll()).thenReturn(update).thenReturn(update).thenReturn(null);
+
+        updateProcessor.process();
+
+        verify(commandMessageFactory, times(1)).getInstance(any());
+    }
+
+    @Test
+    void shouldStoreProcessedUpdatesWatermark() {
+        Update update = getTextUpdate(TELEGRAM_USER_ID_1, TELEGRAM_CHAT_ID_1, null, "just text");
+        update.setUpdateId(900_001);
+        when(telegramBot.poll()).thenReturn(update).thenReturn(null);
+
+        updateProcessor.process();
+        updateDeduplicator.storeWatermark();
+
+        String lastUpdateId = jdbcTemplate.queryForObject("select value from meta_data where type = '" + MetaDataKey.LAST_UPDATE_ID + "'", String.class);
+        assertThat(lastUpdateId).isEqualTo("900001");
+    }
+
     @ParameterizedTest
     @MethodSource("exceptionsProvider")
     void shouldNotThrowOnException(Class<? extends Exception> anException) {
@@ -187,7 +223,7 @@ class TelegramUpdateProcessorTest extends TestContextMock {
                 Arguments.of(textUpdate, CommandMessage.getMessageInstance(textUpdate.getMessage())),
                 Arguments.of(textUpdate, CommandMessage.getMessageInstance(textUpdate.getMessage())),
                 Arguments.of(getFileUploadUpdate(), CommandMessage.getMessageInstance(getFileUploadUpdate().getMessage())),
-                Arguments.of(getPollAnswerUpdate(), CommandMessage.getPollAnswerInstance(getPollAnswerUpdate().getPollAnswer())),
+                Arguments.of(getPollAnswerUpdate(), CommandMessage.getPollAnswerInstance(getPollAnswerUpdate().getPollAnswer(), null)),
                 Arguments.of(getCallbackQueryUpdate("10000__-1"), CommandMessage.getCallbackInstance(getCallbackQueryUpdate("10000__-1").getCallbackQuery()))
         );
     }
@@ -0,0 +1,168 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import org.junit.jupiter.api.Test;
+import ru.trainithard.dunebot.service.MetaDataService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class UpdateDeduplicatorTest {
+    private static final int WINDOW_SIZE = 3;
+
+    private final MetaDataService metaDataService = mock(MetaDataService.class);
+    private final UpdateDeduplicator deduplicator = new UpdateDeduplicator(metaDataService, WINDOW_SIZE);
+
+    @Test
+    void shouldDetectDuplicatedUpdate() {
+        assertThat(deduplicator.isDuplicate(100)).isFalse();
+        assertThat(deduplicator.isDuplicate(100)).isTrue();
+    }
+
+    @Test
+    void shouldNotDetectDuplicateForUpdatesWithoutId() {
+        assertThat(deduplicator.isDuplicate(null)).isFalse();
+        assertThat(deduplicator.isDuplicate(null)).isFalse();
+    }
+
+    @Test
+    void shouldForgetUpdatesOutOfWindow() {
+        deduplicator.isDuplicate(100);
+        deduplicator.isDuplicate(101);
+        deduplicator.isDuplicate(102);
+        deduplicator.isDuplicate(103);
+
+        assertThat(deduplicator.isDuplicate(100)).isFalse();
+        assertThat(deduplicator.isDuplicate(103)).isTrue();
+    }
+
+    @Test
+    void shouldDetectUpdatesPrecedingStoredLastProcessedUpdateAfterRestore() {
+        doReturn(200).when(metaDataService).findLastUpdateId();
+
+        deduplicator.restoreWindow();
+
+        assertThat(deduplicator.isDuplicate(198)).isTrue();
+        assertThat(deduplicator.isDuplicate(200)).isTrue();
+        assertThat(deduplicator.isDuplicate(197)).isFalse();
+    }
+
+    @Test
+    void shouldNotAccessDatabaseOnProcessedUpdateMark() {
+        deduplicator.isDuplicate(100);
+
+        deduplicator.markProcessed(100);
+
+        verify(metaDataService, never()).saveLastUpdateId(anyInt());
+    }
+
+    @Test
+    void shouldStoreLastUpdateIdWhenAllReceivedUpdatesAreProcessed() {
+        deduplicator.isDuplicate(100);
+        deduplicator.isDuplicate(101);
+        deduplicator.markProcessed(101);
+        deduplicator.markProcessed(100);
+
+        deduplicator.storeWatermark();
+
+        verify(metaDataService).saveLastUpdateId(101);
+    }
+
+    @Test
+    void shouldNotStoreWatermarkAboveNotProcessedUpdate() {
+        deduplicator.isDuplicate(100);
+        deduplicator.isDuplicate(101);
+        deduplicator.isDuplicate(102);
+        deduplicator.markProcessed(100);
+        deduplicator.markProcessed(102);
+
+        deduplicator.storeWatermark();
+
+        verify(metaDataService).saveLastUpdateId(100);
+        verify(metaDataService, never()).saveLastUpdateId(102);
+    }
+
+    @Test
+    void shouldKeepRetainedUpdateInProgressUntilAllHoldsReleased() {
+        deduplicator.isDuplicate(100);
+        deduplicator.retain(100);
+        deduplicator.markProcessed(100);
+
+        deduplicator.storeWatermark();
+
+        verify(metaDataService).saveLastUpdateId(99);
+
+        deduplicator.markProcessed(100);
+        deduplicator.storeWatermark();
+
+        verify(metaDataService).saveLastUpdateId(100);
+    }
+
+    @Test
+    void shouldNotRetainProcessedUpdate() {
+        deduplicator.isDuplicate(100);
+        deduplicator.markProcessed(100);
+        deduplicator.retain(100);
+
+        deduplicator.storeWatermark();
+
+        verify(metaDataService).saveLastUpdateId(100);
+    }
+
+    @Test
+    void shouldNotDetectNotProcessedUpdateAsDuplicateAfterRestore() {
+        deduplicator.isDuplicate(100);
+        deduplicator.isDuplicate(101);
+        deduplicator.markProcessed(101);
+        deduplicator.storeWatermark();
+        doReturn(99).when(metaDataService).findLastUpdateId();
+        UpdateDeduplicator restartedDeduplicator = new UpdateDeduplicator(metaDataService, WINDOW_SIZE);
+
+        restartedDeduplicator.restoreWindow();
+
+        verify(metaDataService).saveLastUpdateId(99);
+        assertThat(restartedDeduplicator.isDuplicate(100)).isFalse();
+        assertThat(restartedDeduplicator.isDuplicate(101)).isFalse();
+    }
+
+    @Test
+    void shouldNotStoreUnchangedWatermark() {
+        deduplicator.isDuplicate(100);
+        deduplicator.markProcessed(100);
+
+        deduplicator.storeWatermark();
+        deduplicator.storeWatermark();
+
+        verify(metaDataService, times(1)).saveLastUpdateId(100);
+    }
+
+    @Test
+    void shouldStoreWatermarkAfterIdsSequenceRestart() {
+        deduplicator.isDuplicate(100);
+        deduplicator.markProcessed(100);
+        deduplicator.storeWatermark();
+        deduplicator.isDuplicate(5);
+        deduplicator.markProcessed(5);
+
+        deduplicator.storeWatermark();
+
+        verify(metaDataService).saveLastUpdateId(5);
+    }
+
+    @Test
+    void shouldRetryStoreAfterFailure() {
+        doThrow(new IllegalStateException("db failure")).doNothing().when(metaDataService).saveLastUpdateId(anyInt());
+        deduplicator.isDuplicate(100);
+        deduplicator.markProcessed(100);
+
+        deduplicator.storeWatermark();
+        deduplicator.storeWatermark();
+
+        verify(metaDataService, times(2)).saveLastUpdateId(100);
+    }
+
+    @Test
+    void shouldThrowOnNonPositiveWindowSize() {
+        assertThatThrownBy(() -> new UpdateDeduplicator(metaDataService, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares fixed delay polling of updates queue with signalled hand-off used by <code>TelegramUpdateProcessor</code>.
+ * Not executed in the regular test run, execute with: <code>mvn test -Dtest=UpdateHandOffBenchmark</code>
+ */
+class UpdateHandOffBenchmark {
+    private static final long POLLING_DELAY_MILLIS = 5;
+    private static final long IDLE_MEASUREMENT_MILLIS = 3000;
+    private static final int UPDATES_COUNT = 3000;
+    private static final long UPDATES_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(700);
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Map<Integer, Long> enqueueTimes = new ConcurrentHashMap<>();
+    private final Set<Long> consumerThreadIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong wakeUpsCount = new AtomicLong();
+    private long[] latencies;
+    private CountDownLatch processedLatch;
+
+    @Test
+    void fixedDelayPolling() throws InterruptedException {
+        TelegramBot telegramBot = new TelegramBot("uName", "token", UPDATES_COUNT);
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        scheduler.scheduleWithFixedDelay(() -> {
+            wakeUpsCount.incrementAndGet();
+            consumerThreadIds.add(Thread.currentThread().getId());
+            Update update = telegramBot.poll();
+            while (update != null) {
+                registerProcessed(update);
+                update = telegramBot.poll();
+            }
+        }, 0, POLLING_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+        runBenchmark("fixed delay polling", telegramBot);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void signalledHandOff() throws InterruptedException {
+        TelegramBot telegramBot = new TelegramBot("uName", "token", UPDATES_COUNT);
+        Thread consumer = new Thread(() -> {
+            consumerThreadIds.add(Thread.currentThread().getId());
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Update update = telegramBot.take();
+                    wakeUpsCount.incrementAndGet();
+                    while (update != null) {
+                        registerProcessed(update);
+                        update = telegramBot.poll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+
+        runBenchmark("signalled hand-off", telegramBot);
+        consumer.interrupt();
+    }
+
+    private void runBenchmark(String name, TelegramBot telegramBot) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(100);
+        final long idleCpuNanos = measureIdleCpu();
+        final long idleWakeUps = wakeUpsCount.get();
+
+        latencies = new long[UPDATES_COUNT];
+        processedLatch = new CountDownLatch(UPDATES_COUNT);
+        for (int i = 0; i < UPDATES_COUNT; i++) {
+            Update update = new Update();
+            update.setUpdateId(i);
+            enqueueTimes.put(i, System.nanoTime());
+            telegramBot.onUpdateReceived(update);
+            LockSupport.parkNanos(UPDATES_INTERVAL_NANOS);
+        }
+        assertThat(processedLatch.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: idle CPU %.2f ms per %d ms (%d wake-ups), " +
+                          "enqueue-to-process latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                name, idleCpuNanos / 1e6, IDLE_MEASUREMENT_MILLIS, idleWakeUps,
+                getPercentile(50) / 1e6, getPercentile(99) / 1e6, latencies[UPDATES_COUNT - 1] / 1e6);
+    }
+
+    private long measureIdleCpu() throws InterruptedException {
+        long startCpuNanos = getConsumersCpuTime();
+        wakeUpsCount.set(0);
+        TimeUnit.MILLISECONDS.sleep(IDLE_MEASUREMENT_MILLIS);
+        return getConsumersCpuTime() - startCpuNanos;
+    }
+
+    private long getConsumersCpuTime() {
+        return consumerThreadIds.stream()
+                .mapToLong(threadMXBean::getThreadCpuTime)
+                .filter(cpuTime -> cpuTime > 0)
+                .sum();
+    }
+
+    private void registerProcessed(Update update) {
+        long latency = System.nanoTime() - enqueueTimes.remove(update.getUpdateId());
+        latencies[update.getUpdateId()] = latency;
+        processedLatch.countDown();
+    }
+
+    private long getPercentile(int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * UPDATES_COUNT) - 1;
+        return latencies[index];
+    }
+}
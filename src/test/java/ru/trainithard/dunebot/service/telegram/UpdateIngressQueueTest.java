@@ -0,0 +1,162 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpdateIngressQueueTest {
+    private final UpdateIngressQueue queue = new UpdateIngressQueue(3);
+
+    @Test
+    void shouldReturnDifferentPriorityUpdatesInArrivalOrder() {
+        Update commandUpdate = getTextUpdate(1, "/submit 15");
+        Update textUpdate = getTextUpdate(2, "hello");
+        Update pollAnswerUpdate = getPollAnswerUpdate(3);
+        queue.offer(commandUpdate);
+        queue.offer(textUpdate);
+        queue.offer(pollAnswerUpdate);
+
+        assertThat(queue.poll()).isSameAs(commandUpdate);
+        assertThat(queue.poll()).isSameAs(textUpdate);
+        assertThat(queue.poll()).isSameAs(pollAnswerUpdate);
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void shouldReturnSamePriorityUpdatesInArrivalOrder() {
+        Update firstUpdate = getPollAnswerUpdate(1);
+        Update secondUpdate = getCallbackUpdate(2);
+        Update thirdUpdate = getPollAnswerUpdate(3);
+        queue.offer(firstUpdate);
+        queue.offer(secondUpdate);
+        queue.offer(thirdUpdate);
+
+        assertThat(queue.poll()).isSameAs(firstUpdate);
+        assertThat(queue.poll()).isSameAs(secondUpdate);
+        assertThat(queue.poll()).isSameAs(thirdUpdate);
+    }
+
+    @Test
+    void shouldDropReceivedLowPriorityUpdateWhenFull() {
+        fillQueueWithPollAnswers();
+
+        boolean isQueued = queue.offer(getTextUpdate(10, "hello"));
+
+        assertThat(isQueued).isFalse();
+        assertThat(queue.getMetrics().droppedCounts()).containsEntry(UpdatePriority.LOW, 1L);
+        assertThat(queue.getMetrics().size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldEvictOldestLowPriorityUpdateWhenFullAndHighPriorityUpdateReceived() {
+        Update firstTextUpdate = getTextUpdate(1, "first");
+        Update secondTextUpdate = getTextUpdate(2, "second");
+        Update commandUpdate = getTextUpdate(3, "/cancel");
+        queue.offer(firstTextUpdate);
+        queue.offer(secondTextUpdate);
+        queue.offer(commandUpdate);
+        Update pollAnswerUpdate = getPollAnswerUpdate(4);
+
+        boolean isQueued = queue.offer(pollAnswerUpdate);
+
+        assertThat(isQueued).isTrue();
+        assertThat(queue.poll()).isSameAs(secondTextUpdate);
+        assertThat(queue.poll()).isSameAs(commandUpdate);
+        assertThat(queue.poll()).isSameAs(pollAnswerUpdate);
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.getMetrics().droppedCounts()).containsEntry(UpdatePriority.LOW, 1L);
+    }
+
+    @Test
+    void shouldEvictNormalPriorityUpdateWhenNoLowPriorityUpdatesQueued() {
+        queue.offer(getPollAnswerUpdate(1));
+        queue.offer(getPollAnswerUpdate(2));
+        queue.offer(getTextUpdate(3, "/cancel"));
+
+        queue.offer(getCallbackUpdate(4));
+
+        assertThat(queue.getMetrics().droppedCounts()).containsEntry(UpdatePriority.NORMAL, 1L);
+    }
+
+    @Test
+    void shouldDropReceivedHighPriorityUpdateWhenQueueIsFullOfHighPriorityUpdates() {
+        fillQueueWithPollAnswers();
+
+        boolean isQueued = queue.offer(getCallbackUpdate(10));
+
+        assertThat(isQueued).isFalse();
+        assertThat(queue.getMetrics().droppedCounts()).containsEntry(UpdatePriority.HIGH, 1L);
+    }
+
+    @Test
+    void shouldCountQueuedAndDroppedUpdates() {
+        fillQueueWithPollAnswers();
+        queue.offer(getTextUpdate(10, "hello"));
+        queue.offer(getCallbackUpdate(11));
+
+        UpdateIngressQueue.IngressMetrics metrics = queue.getMetrics();
+
+        assertThat(metrics.queuedCount()).isEqualTo(3);
+        assertThat(metrics.droppedCount()).isEqualTo(2);
+        assertThat(metrics.capacity()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReportQueuedUpdatesAge() throws InterruptedException {
+        queue.offer(getPollAnswerUpdate(1));
+        TimeUnit.MILLISECONDS.sleep(20);
+
+        assertThat(queue.getMetrics().oldestAgeMillis()).isGreaterThanOrEqualTo(20);
+
+        queue.poll();
+
+        UpdateIngressQueue.IngressMetrics metrics = queue.getMetrics();
+        assertThat(metrics.oldestAgeMillis()).isZero();
+        assertThat(metrics.maxAgeMillis()).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    void shouldThrowOnNonPositiveCapacity() {
+        assertThatThrownBy(() -> new UpdateIngressQueue(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void fillQueueWithPollAnswers() {
+        queue.offer(getPollAnswerUpdate(1));
+        queue.offer(getPollAnswerUpdate(2));
+        queue.offer(getPollAnswerUpdate(3));
+    }
+
+    private static Update getTextUpdate(int updateId, String text) {
+        Message message = new Message();
+        message.setText(text);
+        Update update = new Update();
+        update.setUpdateId(updateId);
+        update.setMessage(message);
+        return update;
+    }
+
+    private static Update getPollAnswerUpdate(int updateId) {
+        PollAnswer pollAnswer = new PollAnswer();
+        pollAnswer.setPollId("100");
+        Update update = new Update();
+        update.setUpdateId(updateId);
+        update.setPollAnswer(pollAnswer);
+        return update;
+    }
+
+    private static Update getCallbackUpdate(int updateId) {
+        CallbackQuery callbackQuery = new CallbackQuery();
+        callbackQuery.setData("10000_SP_1");
+        Update update = new Update();
+        update.setUpdateId(updateId);
+        update.setCallbackQuery(callbackQuery);
+        return update;
+    }
+}
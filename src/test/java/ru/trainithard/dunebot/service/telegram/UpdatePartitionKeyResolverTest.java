@@ -0,0 +1,116 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
+import ru.trainithard.dunebot.service.ActivePollIndex;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class UpdatePartitionKeyResolverTest {
+    private static final long USER_ID = 9000L;
+
+    private final ActivePollIndex activePollIndex = mock(ActivePollIndex.class);
+    private final UpdatePartitionKeyResolver resolver = new UpdatePartitionKeyResolver(activePollIndex);
+
+    @Test
+    void shouldSelectMatchKeyForActivePollAnswer() {
+        doReturn(Optional.of(15L)).when(activePollIndex).findMatchId("12345");
+
+        assertThat(resolver.getPartitionKey(getPollAnswerUpdate("12345"))).isEqualTo("match_15");
+    }
+
+    @Test
+    void shouldSelectPollKeyForUnknownPollAnswer() {
+        assertThat(resolver.getPartitionKey(getPollAnswerUpdate("12345"))).isEqualTo("poll_12345");
+    }
+
+    @Test
+    void shouldSelectMatchKeyByCallbackMatchId() {
+        assertThat(resolver.getPartitionKey(getCallbackUpdate("10000_SL_15"))).isEqualTo("match_10000");
+    }
+
+    @Test
+    void shouldSelectChatKeyForCallbackWithoutMatchId() {
+        assertThat(resolver.getPartitionKey(getCallbackUpdate("callback"))).isEqualTo("chat_10000");
+    }
+
+    @Test
+    void shouldSelectMatchKeyBySubmitArgument() {
+        assertThat(resolver.getPartitionKey(getMessageUpdate("/submit 15"))).isEqualTo("match_15");
+    }
+
+    @Test
+    void shouldSelectMatchKeyByResubmitArgument() {
+        assertThat(resolver.getPartitionKey(getMessageUpdate("/resubmit  15"))).isEqualTo("match_15");
+    }
+
+    @Test
+    void shouldSelectChatKeyForSubmitWithInvalidArgument() {
+        assertThat(resolver.getPartitionKey(getMessageUpdate("/submit abc"))).isEqualTo("chat_9000");
+    }
+
+    @Test
+    void shouldSelectMatchKeyByOwnedNewMatchForCancel() {
+        doReturn(Optional.of(15L)).when(activePollIndex).findOwnedMatchId(USER_ID);
+
+        assertThat(resolver.getPartitionKey(getMessageUpdate("/cancel"))).isEqualTo("match_15");
+    }
+
+    @Test
+    void shouldSelectChatKeyForCancelWithoutOwnedNewMatch() {
+        assertThat(resolver.getPartitionKey(getMessageUpdate("/cancel"))).isEqualTo("chat_9000");
+    }
+
+    @Test
+    void shouldSelectChatKeyForOtherMessages() {
+        assertThat(resolver.getPartitionKey(getMessageUpdate("/new_dune"))).isEqualTo("chat_9000");
+        assertThat(resolver.getPartitionKey(getMessageUpdate("text"))).isEqualTo("chat_9000");
+    }
+
+    @Test
+    void shouldSelectDefaultKeyForOtherUpdates() {
+        assertThat(resolver.getPartitionKey(new Update())).isEqualTo("default");
+    }
+
+    private static Update getPollAnswerUpdate(String pollId) {
+        PollAnswer pollAnswer = new PollAnswer();
+        pollAnswer.setPollId(pollId);
+        Update update = new Update();
+        update.setPollAnswer(pollAnswer);
+        return update;
+    }
+
+    private static Update getCallbackUpdate(String callbackData) {
+        User user = new User();
+        user.setId(10000L);
+        CallbackQuery callbackQuery = new CallbackQuery();
+        callbackQuery.setData(callbackData);
+        callbackQuery.setFrom(user);
+        Update update = new Update();
+        update.setCallbackQuery(callbackQuery);
+        return update;
+    }
+
+    private static Update getMessageUpdate(String text) {
+        User user = new User();
+        user.setId(USER_ID);
+        Chat chat = new Chat();
+        chat.setId(USER_ID);
+        Message message = new Message();
+        message.setFrom(user);
+        message.setChat(chat);
+        message.setText(text);
+        Update update = new Update();
+        update.setMessage(message);
+        return update;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.trainithard.dunebot.service.telegram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpdateRecorderTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(1_000_000L), ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    @TempDir
+    private Path tempDirectory;
+
+    @Test
+    void shouldNotBeEnabledWhenFileIsNotConfigured() throws Exception {
+        UpdateRecorder recorder = new UpdateRecorder("", CLOCK);
+
+        recorder.recordUpdate(new Update());
+
+        assertThat(recorder.isEnabled()).isFalse();
+    }
+
+    @Test
+    void shouldRecordReceivedUpdatesAndSentPolls() throws Exception {
+        Path recordFile = tempDirectory.resolve("updates.jsonl");
+        UpdateRecorder recorder = new UpdateRecorder(recordFile.toString(), CLOCK);
+        Update update = getPollAnswerUpdate();
+
+        recorder.recordSentPoll("100500");
+        recorder.recordUpdate(update);
+        recorder.close();
+
+        List<String> lines = Files.readAllLines(recordFile);
+        UpdateRecord sentPollRecord = objectMapper.readValue(lines.get(0), UpdateRecord.class);
+        UpdateRecord updateRecord = objectMapper.readValue(lines.get(1), UpdateRecord.class);
+        assertThat(lines).hasSize(2);
+        assertThat(sentPollRecord).isEqualTo(new UpdateRecord(1_000_000L, null, "100500"));
+        assertThat(updateRecord.timestamp()).isEqualTo(1_000_000L);
+        assertThat(updateRecord.update()).isEqualTo(update);
+    }
+
+    @Test
+    void shouldAppendToExistingRecording() throws Exception {
+        Path recordFile = tempDirectory.resolve("updates.jsonl");
+        UpdateRecorder firstRecorder = new UpdateRecorder(recordFile.toString(), CLOCK);
+        firstRecorder.recordSentPoll("1");
+        firstRecorder.close();
+
+        UpdateRecorder secondRecorder = new UpdateRecorder(recordFile.toString(), CLOCK);
+        secondRecorder.recordSentPoll("2");
+        secondRecorder.close();
+
+        assertThat(Files.readAllLines(recordFile)).hasSize(2);
+    }
+
+    private static Update getPollAnswerUpdate() {
+        PollAnswer pollAnswer = new PollAnswer();
+        pollAnswer.setPollId("100500");
+        pollAnswer.setOptionIds(List.of(0));
+        Update update = new Update();
+        update.setUpdateId(12345);
+        update.setPollAnswer(pollAnswer);
+        return update;
+    }
+}
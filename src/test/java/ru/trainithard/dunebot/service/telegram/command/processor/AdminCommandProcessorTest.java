@@ -15,8 +15,10 @@ import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.messaging.ChatType;
 import ru.trainithard.dunebot.service.AppSettingsService;
+import ru.trainithard.dunebot.service.LeaderCatalog;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.SetCommandsDto;
+import ru.trainithard.dunebot.service.report.v2.RatingConsistencyChecker;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 
@@ -37,6 +39,10 @@ class AdminCommandProcessorTest extends TestContextMock {
 
     @MockBean
     private AppSettingsService appSettingsService;
+    @MockBean
+    private LeaderCatalog leaderCatalog;
+    @MockBean
+    private RatingConsistencyChecker ratingConsistencyChecker;
 
     @Test
     void shouldInvokeSetCommandsServiceOnInitSubcommand() {
@@ -57,6 +63,26 @@ class AdminCommandProcessorTest extends TestContextMock {
         assertThat(actualCommands).containsExactlyEntriesOf(expectedCommands);
     }
 
+    @Test
+    void shouldReloadLeaderCatalogOnReloadLeadersSubcommand() {
+        processor.process(getCommandMessage("reload_leaders", 10000));
+
+        verify(leaderCatalog, times(1)).reload();
+    }
+
+    @Test
+    void shouldSendRatingCheckReportOnRatingCheckSubcommand() {
+        when(ratingConsistencyChecker.checkAndRepair()).thenReturn(new RatingConsistencyChecker.RatingConsistencyReport(2, 0));
+
+        processor.process(getCommandMessage("rating_check", 10000));
+
+        ArgumentCaptor<MessageDto> messageDtoCaptor = ArgumentCaptor.forClass(MessageDto.class);
+        verify(messagingService, times(1)).sendMessageAsync(messageDtoCaptor.capture());
+
+        assertThat(messageDtoCaptor.getValue().getText())
+                .isEqualTo("Проверка рейтингов завершена\\. Исправлено записей игроков: 2, лидеров: 0\\.");
+    }
+
     @Test
     void shouldInvokeSaveChatIdSettingOnTopicInitSubcommand() {
         processor.process(getCommandMessage("set_chat", 10000));
@@ -10,18 +10,23 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.telegram.telegrambots.meta.api.objects.Chat;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.User;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import ru.trainithard.dunebot.TestConstants;
 import ru.trainithard.dunebot.TestContextMock;
+import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
+import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
 import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.exception.TelegramApiCallException;
 import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.model.ModType;
 import ru.trainithard.dunebot.model.messaging.ChatType;
 import ru.trainithard.dunebot.model.messaging.ExternalMessageId;
+import ru.trainithard.dunebot.model.scheduler.TaskStatus;
+import ru.trainithard.dunebot.service.ActivePollIndex;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
@@ -39,6 +44,10 @@ class CancelCommandProcessorTest extends TestContextMock {
 
     @Autowired
     private CancelCommandProcessor processor;
+    @Autowired
+    private ActivePollIndex activePollIndex;
+    @SpyBean
+    private DuneBotTaskScheduler taskScheduler;
 
     @BeforeEach
     @SneakyThrows
@@ -57,6 +66,7 @@ class CancelCommandProcessorTest extends TestContextMock {
 
     @AfterEach
     void afterEach() {
+        jdbcTemplate.execute("delete from dunebot_tasks where entity_id = 10000");
         jdbcTemplate.execute("delete from match_players where match_id = (select id from matches where id in (10000, 10001))");
         jdbcTemplate.execute("delete from matches where id = 10000");
         jdbcTemplate.execute("delete from players where id in (10000, 10001)");
@@ -85,6 +95,40 @@ class CancelCommandProcessorTest extends TestContextMock {
         assertThat(actualMatchState).isEqualTo(MatchState.CANCELLED);
     }
 
+    @Test
+    void shouldEvictCancelledMatchFromActivePollIndex() {
+        activePollIndex.register("12346", 10000L, 12345L);
+
+        processor.process(commandMessage);
+
+        assertThat(activePollIndex.contains("12346")).isFalse();
+    }
+
+    @Test
+    void shouldNotEvictMatchFromActivePollIndexWhenCancelIsRolledBack() {
+        activePollIndex.register("12346", 10000L, 12345L);
+        doThrow(new IllegalStateException("scheduler failure")).when(taskScheduler).cancelSingleRunTask(any());
+
+        assertThatThrownBy(() -> processor.process(commandMessage)).isInstanceOf(IllegalStateException.class);
+
+        MatchState actualState = jdbcTemplate.queryForObject("select state from matches where id = 10000", MatchState.class);
+        assertThat(actualState).isEqualTo(MatchState.NEW);
+        assertThat(activePollIndex.contains("12346")).isTrue();
+        activePollIndex.evict(10000L);
+    }
+
+    @Test
+    void shouldCancelMatchExpirationTask() {
+        jdbcTemplate.execute("insert into dunebot_tasks (task_type, entity_id, status, start_time, created_at) " +
+                             "values ('" + DuneTaskType.MATCH_EXPIRATION + "', 10000, '" + TaskStatus.SCHEDULED + "', '2010-10-11', '2010-10-10')");
+
+        processor.process(commandMessage);
+
+        TaskStatus actualStatus = jdbcTemplate.queryForObject("select status from dunebot_tasks where entity_id = 10000", TaskStatus.class);
+
+        assertThat(actualStatus).isEqualTo(TaskStatus.CANCELLED);
+    }
+
     @Test
     void shouldThrowOnFailedCancel() {
         doThrow(new TelegramApiCallException("", new TelegramApiException())).when(messagingService).deleteMessageAsync(ArgumentMatchers.any(ExternalMessageId.class));
@@ -140,6 +184,7 @@ class CancelCommandProcessorTest extends TestContextMock {
 
     @Test
     void shouldSendMessageOnInvalidIdMatchCancelRequest() {
+        jdbcTemplate.execute("delete from dunebot_tasks where entity_id = 10000");
         jdbcTemplate.execute("delete from match_players where match_id = (select id from matches where id in (10000, 10001))");
         jdbcTemplate.execute("delete from matches where id = 10000");
 
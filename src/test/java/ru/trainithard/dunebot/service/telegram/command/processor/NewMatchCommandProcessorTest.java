@@ -20,6 +20,7 @@ import ru.trainithard.dunebot.exception.TelegramApiCallException;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.model.messaging.ChatType;
+import ru.trainithard.dunebot.service.ActivePollIndex;
 import ru.trainithard.dunebot.service.messaging.dto.ExternalPollDto;
 import ru.trainithard.dunebot.service.messaging.dto.PollMessageDto;
 import ru.trainithard.dunebot.service.telegram.command.Command;
@@ -42,6 +43,8 @@ class NewMatchCommandProcessorTest extends TestContextMock {
 
     @Autowired
     private NewDuneCommandProcessor processor;
+    @Autowired
+    private ActivePollIndex activePollIndex;
     private final CommandMessage pollCommandMessage = getCommandMessage(Command.NEW_DUNE.name());
 
     @BeforeEach
@@ -91,6 +94,17 @@ class NewMatchCommandProcessorTest extends TestContextMock {
         assertThat(actualMatchState).isNotNull().isEqualTo(MatchState.NEW);
     }
 
+    @Test
+    void shouldRegisterNewMatchPollInActivePollIndex() {
+        processor.process(pollCommandMessage);
+
+        Long actualMatchId = jdbcTemplate.queryForObject("select id from matches where external_poll_id = " +
+                                                         "(select id from external_messages where poll_id = '" + POLL_ID + "')", Long.class);
+
+        assertThat(activePollIndex.findMatchId(POLL_ID)).contains(actualMatchId);
+        assertThat(activePollIndex.findOwnedMatchId(USER_ID)).contains(actualMatchId);
+    }
+
     @Test
     void shouldNotCreateAnyMatchPlayer() {
         processor.process(pollCommandMessage);
@@ -3,7 +3,7 @@ package ru.trainithard.dunebot.service.telegram.command.processor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.telegram.telegrambots.meta.api.objects.Chat;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.User;
@@ -20,7 +20,7 @@ import static org.mockito.Mockito.verify;
 class StartCommandProcessorTest extends TestContextMock {
     @Autowired
     private StartCommandProcessor startCommandProcessor;
-    @MockBean
+    @SpyBean
     private HelpCommandProcessor helpCommandProcessor;
 
     @Test
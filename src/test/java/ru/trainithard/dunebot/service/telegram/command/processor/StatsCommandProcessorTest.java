@@ -21,6 +21,7 @@ import ru.trainithard.dunebot.model.messaging.ChatType;
 import ru.trainithard.dunebot.repository.PlayerRatingRepository;
 import ru.trainithard.dunebot.repository.PlayerRepository;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.report.v2.RatingService;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 import ru.trainithard.dunebot.service.telegram.factory.messaging.ExternalMessageFactory;
 
@@ -33,6 +34,7 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -52,6 +54,8 @@ class StatsCommandProcessorTest extends TestContextMock {
     private StatsCommandProcessor processor;
     @Autowired
     private CacheManager cacheManager;
+    @Autowired
+    private RatingService ratingService;
 
     @BeforeEach
     void beforeEach() {
@@ -142,6 +146,32 @@ class StatsCommandProcessorTest extends TestContextMock {
                 .findAllBy(LocalDate.of(2010, 10, 1), LocalDate.of(2010, 10, 31));
     }
 
+    @Test
+    void shouldSelectRatingsOnceWhenRatingsAreCached() {
+        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), anyLong());
+
+        processor.process(getCommandMessage(10001));
+        processor.process(getCommandMessage(10002));
+
+        verify(playerRatingRepository, times(1)).findAllBy(any(), any());
+    }
+
+    @Test
+    void shouldKeepCachedRatingsOrderWhenRatingsAreSorted() {
+        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), anyLong());
+        LocalDate from = LocalDate.of(2010, 10, 1);
+        LocalDate to = LocalDate.of(2010, 10, 31);
+        List<PlayerRating> cachedRatings = ratingService.getPlayerRatings(from, to);
+        List<Long> cachedRatingIds = cachedRatings.stream().map(PlayerRating::getId).toList();
+
+        processor.process(getCommandMessage(10001));
+
+        assertThat(ratingService.getPlayerRatings(from, to))
+                .isUnmodifiable()
+                .extracting(PlayerRating::getId)
+                .containsExactlyElementsOf(cachedRatingIds);
+    }
+
     @Test
     void shouldDoNothingWhenNoRatingsForMonth() {
         Clock fixedClock = Clock.fixed(NOW.plus(90, ChronoUnit.DAYS), ZoneOffset.UTC);
@@ -178,12 +208,12 @@ class StatsCommandProcessorTest extends TestContextMock {
 
     @Test
     void shouldPassClosestPlayersWhenPlayerIsInMidstOfRating() {
-        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), any());
+        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), anyLong());
 
         processor.process(getCommandMessage(10001));
 
         ArgumentCaptor<List<PlayerRating>> ratingsCaptor = ArgumentCaptor.forClass(List.class);
-        verify(messageFactory).getRatingStatsMessage(anyInt(), ratingsCaptor.capture(), any());
+        verify(messageFactory).getRatingStatsMessage(anyInt(), ratingsCaptor.capture(), anyLong());
         List<PlayerRating> actualRatings = ratingsCaptor.getValue();
 
         assertThat(actualRatings)
@@ -193,12 +223,12 @@ class StatsCommandProcessorTest extends TestContextMock {
 
     @Test
     void shouldPassClosestPlayersWhenPlayerIsInTheEnd() {
-        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), any());
+        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), anyLong());
 
         processor.process(getCommandMessage(10002));
 
         ArgumentCaptor<List<PlayerRating>> ratingsCaptor = ArgumentCaptor.forClass(List.class);
-        verify(messageFactory).getRatingStatsMessage(anyInt(), ratingsCaptor.capture(), any());
+        verify(messageFactory).getRatingStatsMessage(anyInt(), ratingsCaptor.capture(), anyLong());
         List<PlayerRating> actualRatings = ratingsCaptor.getValue();
 
         assertThat(actualRatings)
@@ -208,12 +238,12 @@ class StatsCommandProcessorTest extends TestContextMock {
 
     @Test
     void shouldPassClosestPlayersWhenPlayerIsInTheBeginning() {
-        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), any());
+        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), anyLong());
 
         processor.process(getCommandMessage(10006));
 
         ArgumentCaptor<List<PlayerRating>> ratingsCaptor = ArgumentCaptor.forClass(List.class);
-        verify(messageFactory).getRatingStatsMessage(anyInt(), ratingsCaptor.capture(), any());
+        verify(messageFactory).getRatingStatsMessage(anyInt(), ratingsCaptor.capture(), anyLong());
         List<PlayerRating> actualRatings = ratingsCaptor.getValue();
 
         assertThat(actualRatings)
@@ -223,13 +253,13 @@ class StatsCommandProcessorTest extends TestContextMock {
 
     @Test
     void shouldReturnAllPlayersWhenRatingsCountLesserThanSelectionSize() {
-        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), any());
+        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), anyLong());
         jdbcTemplate.execute("delete from player_ratings where id between 10000 and 10004");
 
         processor.process(getCommandMessage(10006));
 
         ArgumentCaptor<List<PlayerRating>> ratingsCaptor = ArgumentCaptor.forClass(List.class);
-        verify(messageFactory).getRatingStatsMessage(anyInt(), ratingsCaptor.capture(), any());
+        verify(messageFactory).getRatingStatsMessage(anyInt(), ratingsCaptor.capture(), anyLong());
         List<PlayerRating> actualRatings = ratingsCaptor.getValue();
 
         assertThat(actualRatings)
@@ -240,12 +270,12 @@ class StatsCommandProcessorTest extends TestContextMock {
     @ParameterizedTest
     @CsvSource({"10004, 1", "10000, 4", "10003, 3", "10007, 4", "10006, 1", "10002, 4"})
     void shouldPassFirstPlayerPlaceRelatedToPlayer(int playerId, int expectedPlace) {
-        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), any());
+        doReturn(new ExternalMessage("abc")).when(messageFactory).getRatingStatsMessage(anyInt(), any(), anyLong());
 
         processor.process(getCommandMessage(playerId));
 
         ArgumentCaptor<Integer> firstPlaceCaptor = ArgumentCaptor.forClass(Integer.class);
-        verify(messageFactory).getRatingStatsMessage(firstPlaceCaptor.capture(), any(), any());
+        verify(messageFactory).getRatingStatsMessage(firstPlaceCaptor.capture(), any(), anyLong());
         Integer actualFirstPlace = firstPlaceCaptor.getValue();
 
         assertThat(actualFirstPlace).isEqualTo(expectedPlace);
@@ -11,6 +11,7 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.telegram.telegrambots.meta.api.objects.ApiResponse;
 import org.telegram.telegrambots.meta.api.objects.Chat;
@@ -24,9 +25,14 @@ import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskId;
 import ru.trainithard.dunebot.configuration.scheduler.DuneBotTaskScheduler;
 import ru.trainithard.dunebot.configuration.scheduler.DuneTaskType;
 import ru.trainithard.dunebot.model.AppSettingKey;
+import ru.trainithard.dunebot.model.MatchPlayer;
 import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.model.ModType;
 import ru.trainithard.dunebot.model.Player;
+import ru.trainithard.dunebot.repository.MatchPlayerRepository;
+import ru.trainithard.dunebot.service.ActivePollIndex;
+import ru.trainithard.dunebot.service.messaging.BlockedChatRegistry;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.telegram.command.Command;
@@ -57,10 +63,16 @@ class VoteCommandProcessorTest extends TestContextMock {
 
     @Autowired
     private VoteCommandProcessor processor;
+    @Autowired
+    private ActivePollIndex activePollIndex;
+    @Autowired
+    private BlockedChatRegistry blockedChatRegistry;
     @MockBean
     private DuneBotTaskScheduler dunebotTaskScheduler;
     @MockBean
     private Clock clock;
+    @SpyBean
+    private MatchPlayerRepository matchPlayerRepository;
 
     @BeforeEach
     @SneakyThrows
@@ -98,12 +110,14 @@ class VoteCommandProcessorTest extends TestContextMock {
 
     @AfterEach
     void afterEach() {
+        activePollIndex.evict(10000L);
+        blockedChatRegistry.unblock(GUEST_ID);
         jdbcTemplate.execute("delete from app_settings where id between 10000 and 10001");
         jdbcTemplate.execute("delete from match_players where match_id = 10000");
         jdbcTemplate.execute("delete from matches where id = 10000");
-        jdbcTemplate.execute("delete from players where id between 10000 and 10004 or external_id in (" + USER_2_ID + ", " + GUEST_ID + ")");
+        jdbcTemplate.execute("delete from players where id between 10000 and 10004 or external_id in (" + USER_2_ID + ", " + GUEST_ID + ", " + (GUEST_ID + 1) + ")");
         jdbcTemplate.execute("delete from external_messages where id between 10000 and 10001 or chat_id between 12345 and 12348 " +
-                             "or chat_id in (" + CHAT_ID + ", " + GUEST_ID + ")");
+                             "or chat_id in (" + CHAT_ID + ", " + GUEST_ID + ", " + (GUEST_ID + 1) + ")");
     }
 
     @Test
@@ -256,7 +270,7 @@ class VoteCommandProcessorTest extends TestContextMock {
     }
 
     @Test
-    void shouldSendDeleteStartMessageOnPositiveRegistrationRevocationWhenNotEnoughPlayersLeft() {
+    void shouldEditStartMessageOnPositiveRegistrationRevocationWhenNotEnoughPlayersLeft() {
         jdbcTemplate.execute("insert into external_messages (id, dtype, message_id, chat_id, reply_id, created_at) " +
                              "values (10001, 'ExternalMessageId', 9000, " + CHAT_ID + ", " + TOPIC_ID + ", '2020-10-10')");
         jdbcTemplate.execute("update matches set positive_answers_count = 4, external_start_id = 10001 where id = 10000");
@@ -265,8 +279,15 @@ class VoteCommandProcessorTest extends TestContextMock {
 
         processor.process(getPollAnswerCommandMessage(1, USER_2_ID));
 
-        verify(messagingService, times(1)).deleteMessageAsync(argThat(messageDto ->
-                messageDto.getMessageId().equals(9000) && messageDto.getChatId().equals(CHAT_ID) && messageDto.getReplyId().equals(TOPIC_ID)));
+        ArgumentCaptor<EditMessageDto> editMessageDtoCaptor = ArgumentCaptor.forClass(EditMessageDto.class);
+        verify(messagingService, timeout(1000)).editMessageAsync(editMessageDtoCaptor.capture());
+        EditMessageDto actualEditMessageDto = editMessageDtoCaptor.getValue();
+
+        assertThat(actualEditMessageDto)
+                .extracting(EditMessageDto::getChatId, EditMessageDto::getMessageId, EditMessageDto::getText)
+                .containsExactly(Long.toString(CHAT_ID), 9000,
+                        "*Матч 10000* не собран: участников недостаточно\\. Сообщение обновится, когда игроки снова наберутся\\.");
+        verify(messagingService, never()).deleteMessageAsync(any());
     }
 
     @Test
@@ -284,7 +305,7 @@ class VoteCommandProcessorTest extends TestContextMock {
     }
 
     @Test
-    void shouldNotSendDeleteStartMessageOnPositiveRegistrationRevocationWhenEnoughPlayersLeft() {
+    void shouldNotEditStartMessageOnPositiveRegistrationRevocationWhenEnoughPlayersLeft() {
         jdbcTemplate.execute("insert into external_messages (id, dtype, message_id, chat_id, reply_id, created_at) " +
                              "values (10001, 'ExternalMessageId', 9000, " + CHAT_ID + ", " + TOPIC_ID + ", '2020-10-10')");
         jdbcTemplate.execute("update matches set positive_answers_count = 5, external_start_id = 10001 where id = 10000");
@@ -293,7 +314,7 @@ class VoteCommandProcessorTest extends TestContextMock {
 
         processor.process(getPollAnswerCommandMessage(1, USER_2_ID));
 
-        verify(messagingService, never()).deleteMessageAsync(any());
+        verify(messagingService, after(200).never()).editMessageAsync(any());
     }
 
     @Test
@@ -393,6 +414,27 @@ class VoteCommandProcessorTest extends TestContextMock {
         assertThat(actualMatchState).isEqualTo(MatchState.FAILED);
     }
 
+    @Test
+    void shouldEvictFailedUprising6MatchFromActivePollIndex() {
+        doReturn(CompletableFuture.completedFuture(getSubmitExternalMessage())).when(messagingService).sendMessageAsync(any(MessageDto.class));
+        jdbcTemplate.execute("update matches set mod_type = '" + ModType.UPRISING_6 + "', positive_answers_count = 5 where id = 10000");
+        activePollIndex.register(POLL_ID, 10000L, USER_1_ID);
+
+        processor.process(getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, USER_2_ID));
+
+        assertThat(activePollIndex.contains(POLL_ID)).isFalse();
+    }
+
+    @Test
+    void shouldRegisterVoteOfIndexedPollMatch() {
+        activePollIndex.register(POLL_ID, 10000L, USER_1_ID);
+
+        processor.process(getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, USER_2_ID));
+
+        List<Long> actualPlayerIds = jdbcTemplate.queryForList("select player_id from match_players where match_id = 10000", Long.class);
+        assertThat(actualPlayerIds).containsExactlyInAnyOrder(10000L, 10001L);
+    }
+
     @Test
     void shouldSendPrivateMessageOnNewGuestPlayerPositiveRegistration() {
         processor.process(getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, GUEST_ID));
@@ -441,6 +483,99 @@ class VoteCommandProcessorTest extends TestContextMock {
         assertThat(messageDto.getTopicId()).isNull();
     }
 
+    @Test
+    void shouldSaveAllBatchVotesRegistrations() {
+        processor.processVotes(List.of(
+                getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, USER_2_ID),
+                getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, 12347L)
+        ));
+
+        List<Long> actualPlayerIds = jdbcTemplate.queryForList("select player_id from match_players where match_id = 10000", Long.class);
+        Long actualPlayersCount = jdbcTemplate.queryForObject("select positive_answers_count from matches where id = 10000", Long.class);
+
+        assertThat(actualPlayerIds).containsExactlyInAnyOrder(10000L, 10001L, 10002L);
+        assertThat(actualPlayersCount).isEqualTo(3);
+    }
+
+    @Test
+    void shouldApplyBatchVotesOfSameUserInOrder() {
+        processor.processVotes(List.of(
+                getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, USER_2_ID),
+                getPollAnswerCommandMessage(null, USER_2_ID),
+                getPollAnswerCommandMessage(null, USER_1_ID)
+        ));
+
+        List<Long> actualPlayerIds = jdbcTemplate.queryForList("select player_id from match_players where match_id = 10000", Long.class);
+        Long actualPlayersCount = jdbcTemplate.queryForObject("select positive_answers_count from matches where id = 10000", Long.class);
+
+        assertThat(actualPlayerIds).isEmpty();
+        assertThat(actualPlayersCount).isZero();
+    }
+
+    @Test
+    void shouldRescheduleStartMessageTaskOnceForBatch() {
+        jdbcTemplate.execute("update matches set positive_answers_count = 3 where id = 10000");
+
+        processor.processVotes(List.of(
+                getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, USER_2_ID),
+                getPollAnswerCommandMessage(null, USER_2_ID),
+                getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, USER_2_ID)
+        ));
+
+        DuneBotTaskId expectedTaskId = new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L);
+        verify(dunebotTaskScheduler, times(1)).rescheduleSingleRunTask(any(), eq(expectedTaskId), any());
+        verify(dunebotTaskScheduler, never()).cancelSingleRunTask(any());
+    }
+
+    @Test
+    void shouldCancelStartMessageTaskWhenBatchEndsWithNotEnoughPlayers() {
+        jdbcTemplate.execute("update matches set positive_answers_count = 3 where id = 10000");
+
+        processor.processVotes(List.of(
+                getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, USER_2_ID),
+                getPollAnswerCommandMessage(null, USER_2_ID)
+        ));
+
+        verify(dunebotTaskScheduler, never()).rescheduleSingleRunTask(any(), any(), any());
+        verify(dunebotTaskScheduler, times(1)).cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.START_MESSAGE, 10000L));
+    }
+
+    @Test
+    void shouldSendPrivateMessageToEachNewGuestOfBatch() {
+        processor.processVotes(List.of(
+                getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, GUEST_ID),
+                getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, GUEST_ID + 1)
+        ));
+
+        List<String> actualGuestNames = jdbcTemplate.queryForList("select p.steam_name from players p " +
+                                                                  "join match_players mp on p.id = mp.player_id " +
+                                                                  "where mp.match_id = 10000 and p.is_guest", String.class);
+        Integer actualNextIndex = jdbcTemplate.queryForObject("select value from app_settings where id = 10001", Integer.class);
+
+        verify(messagingService, times(2)).sendMessageAsync(any());
+        assertThat(actualGuestNames).containsExactlyInAnyOrder("guest1", "guest2");
+        assertThat(actualNextIndex).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotOverwriteMatchStateChangedDuringBatch() {
+        List<MatchPlayer> matchPlayers = matchPlayerRepository.findWithPlayersByMatchId(10000L);
+        doAnswer(invocation -> {
+            jdbcTemplate.execute("update matches set state = '" + MatchState.CANCELLED + "' where id = 10000");
+            return matchPlayers;
+        }).doReturn(matchPlayers).when(matchPlayerRepository).findWithPlayersByMatchId(10000L);
+
+        processor.processVotes(List.of(getPollAnswerCommandMessage(TestConstants.POSITIVE_POLL_OPTION_ID, USER_2_ID)));
+
+        String actualState = jdbcTemplate.queryForObject("select state from matches where id = 10000", String.class);
+        Long actualPlayersCount = jdbcTemplate.queryForObject("select positive_answers_count from matches where id = 10000", Long.class);
+        List<Long> actualPlayerIds = jdbcTemplate.queryForList("select player_id from match_players where match_id = 10000", Long.class);
+
+        assertThat(actualState).isEqualTo(MatchState.CANCELLED.name());
+        assertThat(actualPlayersCount).isEqualTo(2);
+        assertThat(actualPlayerIds).containsExactlyInAnyOrder(10000L, 10001L);
+    }
+
     @Test
     void shouldReturnVoteCommand() {
         Command actualCommand = processor.getCommand();
@@ -469,6 +604,6 @@ class VoteCommandProcessorTest extends TestContextMock {
         pollAnswer.setUser(user);
         pollAnswer.setOptionIds(optionId == null ? Collections.emptyList() : Collections.singletonList(optionId));
         pollAnswer.setPollId(POLL_ID);
-        return CommandMessage.getPollAnswerInstance(pollAnswer);
+        return CommandMessage.getPollAnswerInstance(pollAnswer, null);
     }
 }
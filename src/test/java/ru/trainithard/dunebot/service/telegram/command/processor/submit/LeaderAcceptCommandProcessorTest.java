@@ -20,7 +20,9 @@ import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.service.LeaderCatalog;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.ExternalMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.task.SubmitAcceptTimeoutTask;
@@ -46,10 +48,13 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
     private static final Instant NOW = LocalDate.of(2010, 10, 20).atTime(5, 0).toInstant(ZoneOffset.UTC);
     private static final Long CHAT_ID = 12000L;
     private static final Long USER_ID = 11000L;
+    private static final int CALLBACK_MESSAGE_ID = 10500;
     private final ExternalMessage finishMessage = new ExternalMessage("finishtext");
 
     @Autowired
     private LeaderAcceptCommandProcessor processor;
+    @Autowired
+    private LeaderCatalog leaderCatalog;
     @MockBean
     private DuneBotTaskScheduler taskScheduler;
     @MockBean
@@ -103,6 +108,7 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
                              "(10203, 'la leader 4', 'la leader 4', '" + ModType.CLASSIC + "', '2010-10-10')");
         jdbcTemplate.execute("insert into app_settings (id, key, value, created_at) " +
                              "values (10000, '" + AppSettingKey.ACCEPT_SUBMIT_TIMEOUT + "', 13, '2010-10-10')");
+        leaderCatalog.reload();
     }
 
     @AfterEach
@@ -110,6 +116,7 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
         jdbcTemplate.execute("delete from app_settings where id = 10000");
         jdbcTemplate.execute("delete from match_players where match_id in (15000, 15001)");
         jdbcTemplate.execute("delete from leaders where id between 10200 and 10203");
+        leaderCatalog.reload();
         jdbcTemplate.execute("delete from matches where id in (15000, 15001)");
         jdbcTemplate.execute("delete from players where id between 10000 and 10004");
         jdbcTemplate.execute("delete from external_messages where chat_id between 12000 and 12006 or message_id = 12345");
@@ -138,21 +145,22 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
     }
 
     @Test
-    void shouldSendLeadersSubmitMessageOnLastLeaderSubmit() {
+    void shouldEditSubmitMessageToLeadersSubmitMessageOnLastLeaderSubmit() {
         jdbcTemplate.execute("update match_players set leader = 10201 where id = 10101");
         jdbcTemplate.execute("update match_players set leader = 10202 where id = 10102");
         jdbcTemplate.execute("update match_players set leader = 10203 where id = 10103");
 
         processor.process(getCallbackMessage("15000_SL_10200"));
 
-        ArgumentCaptor<MessageDto> messageDtoCaptor = ArgumentCaptor.forClass(MessageDto.class);
-        verify(messagingService, times(5)).sendMessageAsync(messageDtoCaptor.capture());
-        List<MessageDto> actualMessageDtos = messageDtoCaptor.getAllValues();
+        ArgumentCaptor<EditMessageDto> editMessageDtoCaptor = ArgumentCaptor.forClass(EditMessageDto.class);
+        verify(messagingService).editMessageAsync(editMessageDtoCaptor.capture());
+        EditMessageDto actualEditMessageDto = editMessageDtoCaptor.getValue();
 
-        assertThat(actualMessageDtos)
-                .filteredOn(messageDto -> messageDto.getChatId().equals("11000"))
-                .map(MessageDto::getText)
-                .containsExactly("""
+        assertThat(actualEditMessageDto)
+                .extracting(EditMessageDto::getChatId, EditMessageDto::getMessageId, EditMessageDto::getKeyboard)
+                .containsExactly("11000", CALLBACK_MESSAGE_ID, null);
+        assertThat(actualEditMessageDto.getText())
+                .isEqualTo("""
                         Следующие результаты зарегистрированы для *матча 15000*:
                         1: name4 \\(st\\_pl4\\) l4 \\- la leader 4
                         2: name3 \\(st\\_pl3\\) l3 \\- la leader 3
@@ -171,7 +179,7 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
         processor.process(getCallbackMessage("15000_SL_10200"));
 
         ArgumentCaptor<MessageDto> messageDtoCaptor = ArgumentCaptor.forClass(MessageDto.class);
-        verify(messagingService, times(5)).sendMessageAsync(messageDtoCaptor.capture());
+        verify(messagingService, times(4)).sendMessageAsync(messageDtoCaptor.capture());
         List<MessageDto> actualMessageDtos = messageDtoCaptor.getAllValues();
 
         assertThat(actualMessageDtos)
@@ -216,12 +224,12 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
         processor.process(getCallbackMessage("15000_SL_10200"));
 
         ArgumentCaptor<MessageDto> messageDtoCaptor = ArgumentCaptor.forClass(MessageDto.class);
-        verify(messagingService, times(5)).sendMessageAsync(messageDtoCaptor.capture());
+        verify(messagingService, times(4)).sendMessageAsync(messageDtoCaptor.capture());
         List<MessageDto> actualMessageDtos = messageDtoCaptor.getAllValues();
 
         assertThat(actualMessageDtos)
                 .extracting(MessageDto::getChatId)
-                .containsExactly("11000", "11001", "11002", "11003", "12000");
+                .containsExactly("11001", "11002", "11003", "12000");
         assertThat(actualMessageDtos)
                 .filteredOn(messageDto -> messageDto.getChatId().equals("11001"))
                 .extracting(MessageDto::getText)
@@ -275,7 +283,7 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
 
         processor.process(getCallbackMessage("15000_SL_10202"));
 
-        verify(taskScheduler, never()).cancelSingleRunTask(any());
+        verify(taskScheduler, never()).cancelSingleRunTasks(any(), any());
         verify(taskScheduler, never()).rescheduleSingleRunTask(any(), any(), any());
     }
 
@@ -293,27 +301,14 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
     }
 
     @Test
-    void shouldCancelSubmitTimeoutTaskOnLastLeaderSubmit() {
-        jdbcTemplate.execute("update match_players set leader = 10201 where id = 10101");
-        jdbcTemplate.execute("update match_players set leader = 10202 where id = 10102");
-        jdbcTemplate.execute("update match_players set leader = 10203 where id = 10103");
-
-        processor.process(getCallbackMessage("15000_SL_10200"));
-
-        DuneBotTaskId taskId = new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT, 15000L);
-        verify(taskScheduler).cancelSingleRunTask(taskId);
-    }
-
-    @Test
-    void shouldCancelSubmitTimeoutNotificationTaskOnLastLeaderSubmit() {
+    void shouldCancelSubmitTimeoutTasksOnLastLeaderSubmit() {
         jdbcTemplate.execute("update match_players set leader = 10201 where id = 10101");
         jdbcTemplate.execute("update match_players set leader = 10202 where id = 10102");
         jdbcTemplate.execute("update match_players set leader = 10203 where id = 10103");
 
         processor.process(getCallbackMessage("15000_SL_10200"));
 
-        DuneBotTaskId taskId = new DuneBotTaskId(DuneTaskType.SUBMIT_TIMEOUT_NOTIFICATION, 15000L);
-        verify(taskScheduler).cancelSingleRunTask(taskId);
+        verify(taskScheduler).cancelSingleRunTasks(15000L, DuneTaskType.SUBMIT_TIMEOUT_NOTIFICATION, DuneTaskType.SUBMIT_TIMEOUT);
     }
 
     @Test
@@ -352,6 +347,7 @@ class LeaderAcceptCommandProcessorTest extends TestContextMock {
         user.setId(USER_ID);
         Message message = new Message();
         message.setFrom(user);
+        message.setMessageId(CALLBACK_MESSAGE_ID);
         Chat chat = new Chat();
         chat.setId(USER_ID);
         message.setChat(chat);
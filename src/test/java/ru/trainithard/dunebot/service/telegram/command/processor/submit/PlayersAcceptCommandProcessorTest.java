@@ -15,22 +15,28 @@ import ru.trainithard.dunebot.exception.AnswerableDuneBotException;
 import ru.trainithard.dunebot.model.AppSettingKey;
 import ru.trainithard.dunebot.model.MatchState;
 import ru.trainithard.dunebot.model.ModType;
+import ru.trainithard.dunebot.service.LeaderCatalog;
 import ru.trainithard.dunebot.service.messaging.dto.ButtonDto;
+import ru.trainithard.dunebot.service.messaging.dto.EditMessageDto;
 import ru.trainithard.dunebot.service.messaging.dto.MessageDto;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @SpringBootTest
 class PlayersAcceptCommandProcessorTest extends TestContextMock {
     private static final Long CHAT_ID = 12000L;
     private static final Long USER_ID = 11000L;
+    private static final int CALLBACK_MESSAGE_ID = 10500;
 
     @Autowired
     private PlayersAcceptCommandProcessor processor;
+    @Autowired
+    private LeaderCatalog leaderCatalog;
 
     @BeforeEach
     void beforeEach() {
@@ -62,12 +68,14 @@ class PlayersAcceptCommandProcessorTest extends TestContextMock {
                              "(10201, 'la leader 2', 'la leader 2', '" + ModType.CLASSIC + "', '2010-10-10')");
         jdbcTemplate.execute("insert into app_settings (id, key, value, created_at) " +
                              "values (10000, '" + AppSettingKey.SUBMIT_TIMEOUT + "', 120, '2010-10-10')");
+        leaderCatalog.reload();
     }
 
     @AfterEach
     void afterEach() {
         jdbcTemplate.execute("delete from app_settings where id = 10000");
         jdbcTemplate.execute("delete from leaders where id between 10200 and 10201");
+        leaderCatalog.reload();
         jdbcTemplate.execute("delete from match_players where match_id in (15000, 15001)");
         jdbcTemplate.execute("delete from matches where id in (15000, 15001)");
         jdbcTemplate.execute("delete from players where id between 10000 and 10004");
@@ -97,49 +105,66 @@ class PlayersAcceptCommandProcessorTest extends TestContextMock {
     }
 
     @Test
-    void shouldSendAcceptPlayerSubmitMessageOnLastPlaceSubmit() {
+    void shouldEditSubmitMessageToAcceptedPlayersMessageOnLastPlaceSubmit() {
         jdbcTemplate.execute("update match_players set place = 1 where id = 10101");
         jdbcTemplate.execute("update match_players set place = 2 where id = 10102");
         jdbcTemplate.execute("update match_players set place = 3 where id = 10103");
 
-        processor.process(getCallbackMessage("15000_SP_10100"));
+        processor.process(getCallbackMessage("15000_SP_10100", CALLBACK_MESSAGE_ID));
 
-        ArgumentCaptor<MessageDto> messageDtoCaptor = ArgumentCaptor.forClass(MessageDto.class);
-        verify(messagingService, times(2)).sendMessageAsync(messageDtoCaptor.capture());
-        MessageDto actualMessageDto = messageDtoCaptor.getAllValues().get(0);
+        ArgumentCaptor<EditMessageDto> editMessageDtoCaptor = ArgumentCaptor.forClass(EditMessageDto.class);
+        verify(messagingService).editMessageAsync(editMessageDtoCaptor.capture());
+        EditMessageDto actualEditMessageDto = editMessageDtoCaptor.getValue();
 
-        assertThat(actualMessageDto.getChatId()).isEqualTo(USER_ID.toString());
-        assertThat(actualMessageDto.getText()).isEqualTo("""
+        assertThat(actualEditMessageDto)
+                .extracting(EditMessageDto::getChatId, EditMessageDto::getMessageId)
+                .containsExactly(USER_ID.toString(), CALLBACK_MESSAGE_ID);
+        assertThat(actualEditMessageDto.getText()).isEqualTo("""
                 Следующие результаты зарегистрированы для *матча 15000*:
                 1: name2 \\(st\\_pl2\\) l2
                 2: name3 \\(st\\_pl3\\) l3
                 3: name4 \\(st\\_pl4\\) l4
-                4: name1 \\(st\\_pl1\\) l1""");
+                4: name1 \\(st\\_pl1\\) l1
+                
+                Теперь выберите лидеров для *матча 15000*\\. Нажмите по очереди кнопки с именами лидеров, \
+                начиная от лидера победителя и заканчивая лидером, занявшим последнее место\\.""");
     }
 
     @Test
-    void shouldSendLeadersSubmitMessageOnLastPlaceSubmit() {
+    void shouldEditSubmitMessageKeyboardToLeadersKeyboardOnLastPlaceSubmit() {
         jdbcTemplate.execute("update match_players set place = 1 where id = 10101");
         jdbcTemplate.execute("update match_players set place = 2 where id = 10102");
         jdbcTemplate.execute("update match_players set place = 3 where id = 10103");
 
-        processor.process(getCallbackMessage("15000_SP_10100"));
+        processor.process(getCallbackMessage("15000_SP_10100", CALLBACK_MESSAGE_ID));
 
-        ArgumentCaptor<MessageDto> messageDtoCaptor = ArgumentCaptor.forClass(MessageDto.class);
-        verify(messagingService, times(2)).sendMessageAsync(messageDtoCaptor.capture());
-        MessageDto actualMessageDto = messageDtoCaptor.getAllValues().get(1);
+        ArgumentCaptor<EditMessageDto> editMessageDtoCaptor = ArgumentCaptor.forClass(EditMessageDto.class);
+        verify(messagingService).editMessageAsync(editMessageDtoCaptor.capture());
 
-        assertThat(actualMessageDto.getChatId()).isEqualTo(USER_ID.toString());
-        assertThat(actualMessageDto.getText()).isEqualTo("""
-                Теперь выберите лидеров для *матча 15000*\\. Нажмите по очереди кнопки с именами лидеров, \
-                начиная от лидера победителя и заканчивая лидером, занявшим последнее место\\.""");
-        assertThat(actualMessageDto.getKeyboard())
+        assertThat(editMessageDtoCaptor.getValue().getKeyboard())
                 .flatExtracting(buttonDtos -> buttonDtos)
                 .extracting(ButtonDto::getText, ButtonDto::getCallback)
                 .containsExactly(
                         tuple("la leader 1", "15000_SL_10200"),
                         tuple("la leader 2", "15000_SL_10201")
                 );
+        verify(messagingService, never()).sendMessageAsync(any());
+    }
+
+    @Test
+    void shouldSendNewLeadersSubmitMessageOnLastPlaceSubmitWhenSubmitMessageIsUnknown() {
+        jdbcTemplate.execute("update match_players set place = 1 where id = 10101");
+        jdbcTemplate.execute("update match_players set place = 2 where id = 10102");
+        jdbcTemplate.execute("update match_players set place = 3 where id = 10103");
+
+        processor.process(getCallbackMessage("15000_SP_10100"));
+
+        ArgumentCaptor<MessageDto> messageDtoCaptor = ArgumentCaptor.forClass(MessageDto.class);
+        verify(messagingService).sendMessageAsync(messageDtoCaptor.capture());
+
+        assertThat(messageDtoCaptor.getValue().getChatId()).isEqualTo(USER_ID.toString());
+        assertThat(messageDtoCaptor.getValue().getKeyboard()).isNotEmpty();
+        verify(messagingService, never()).editMessageAsync(any());
     }
 
     @Test
@@ -185,10 +210,15 @@ class PlayersAcceptCommandProcessorTest extends TestContextMock {
     }
 
     private static CommandMessage getCallbackMessage(String callbackData) {
+        return getCallbackMessage(callbackData, null);
+    }
+
+    private static CommandMessage getCallbackMessage(String callbackData, Integer messageId) {
         User user = new User();
         user.setId(USER_ID);
         Message message = new Message();
         message.setFrom(user);
+        message.setMessageId(messageId);
         Chat chat = new Chat();
         chat.setId(USER_ID);
         message.setChat(chat);
@@ -248,6 +248,13 @@ class SubmitCommandProcessorTest extends TestContextMock {
         verify(taskScheduler).rescheduleSingleRunTask(any(), eq(expectedTaskId), eq(expectedInstant));
     }
 
+    @Test
+    void shouldCancelMatchExpirationTaskOnSubmit() {
+        processor.process(submitCommandMessage);
+
+        verify(taskScheduler).cancelSingleRunTask(new DuneBotTaskId(DuneTaskType.MATCH_EXPIRATION, 15000L));
+    }
+
     @Test
     void shouldReturnSubmitCommand() {
         Command actualCommand = processor.getCommand();
@@ -6,14 +6,12 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.telegram.telegrambots.meta.api.objects.*;
 import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
-import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.messaging.ChatType;
-import ru.trainithard.dunebot.repository.MatchRepository;
+import ru.trainithard.dunebot.service.ActivePollIndex;
 import ru.trainithard.dunebot.service.telegram.command.Command;
 import ru.trainithard.dunebot.service.telegram.command.CommandMessage;
 
 import java.util.Collections;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
@@ -28,8 +26,8 @@ class CommandMessageFactoryImplTest {
     private static final String PLAYER_ACCEPT_CALLBACK_DATA = "10000_SP_10000";
     private static final String LEADER_ACCEPT_CALLBACK_DATA = "10000_SL_10000";
     private static final String LEADER_CALLBACK_DATA = "10000_L_2";
-    private final MatchRepository matchRepository = mock(MatchRepository.class);
-    private final CommandMessageFactoryImpl factory = new CommandMessageFactoryImpl(matchRepository);
+    private final ActivePollIndex activePollIndex = mock(ActivePollIndex.class);
+    private final CommandMessageFactoryImpl factory = new CommandMessageFactoryImpl(activePollIndex);
 
     @Test
     void shouldCreateCommandMessageForSlashTextUpdate() {
@@ -128,7 +126,7 @@ class CommandMessageFactoryImplTest {
 
     @Test
     void shouldCreateCommandMessageForPollAnswerCommandUpdateWhenMatchWithSamePollIdExists() {
-        doReturn(Optional.of(new Match())).when(matchRepository).findByExternalPollIdPollId(POLL_ID);
+        doReturn(true).when(activePollIndex).contains(POLL_ID);
         Update pollAnswerUpdate = getPollAnswerUpdate();
 
         CommandMessage commandMessage = factory.getInstance(pollAnswerUpdate);
@@ -144,7 +142,7 @@ class CommandMessageFactoryImplTest {
 
     @Test
     void shouldNotCreateCommandMessageForPollAnswerCommandUpdateWhenNoMatchWithSamePollIdExists() {
-        doReturn(Optional.empty()).when(matchRepository).findByExternalPollIdPollId(POLL_ID);
+        doReturn(false).when(activePollIndex).contains(POLL_ID);
         Update pollAnswerUpdate = getPollAnswerUpdate();
 
         CommandMessage commandMessage = factory.getInstance(pollAnswerUpdate);
@@ -154,7 +152,7 @@ class CommandMessageFactoryImplTest {
 
     @Test
     void shouldCreateCommandMessageForPollAnswerWithoutOptionsCommandUpdate() {
-        doReturn(Optional.of(new Match())).when(matchRepository).findByExternalPollIdPollId(POLL_ID);
+        doReturn(true).when(activePollIndex).contains(POLL_ID);
         Update pollAnswerUpdate = getPollAnswerUpdate();
         pollAnswerUpdate.getPollAnswer().setOptionIds(Collections.emptyList());
 
@@ -0,0 +1,64 @@
+package ru.trainithard.dunebot.service.telegram.factory;
+
+import org.junit.jupiter.api.Test;
+import ru.trainithard.dunebot.exception.DuneBotException;
+import ru.trainithard.dunebot.service.telegram.command.Command;
+import ru.trainithard.dunebot.service.telegram.command.processor.CommandProcessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class CommandProcessorFactoryImplTest {
+    private final List<CommandProcessor> processors = new ArrayList<>(Arrays.stream(Command.values())
+            .filter(command -> command != Command.ACCEPT_SUBMIT && command != Command.LEADER)
+            .map(CommandProcessorFactoryImplTest::getProcessor)
+            .toList());
+
+    @Test
+    void shouldReturnCommandProcessor() {
+        CommandProcessorFactoryImpl factory = new CommandProcessorFactoryImpl(processors);
+
+        for (Command command : Command.values()) {
+            if (command != Command.ACCEPT_SUBMIT && command != Command.LEADER) {
+                assertThat(factory.getProcessor(command).getCommand()).isEqualTo(command);
+            }
+        }
+    }
+
+    @Test
+    void shouldThrowForUnprocessedCommand() {
+        CommandProcessorFactoryImpl factory = new CommandProcessorFactoryImpl(processors);
+
+        assertThatThrownBy(() -> factory.getProcessor(Command.LEADER)).isInstanceOf(DuneBotException.class);
+    }
+
+    @Test
+    void shouldFailOnMissingProcessor() {
+        processors.removeIf(processor -> processor.getCommand() == Command.VOTE);
+
+        assertThatThrownBy(() -> new CommandProcessorFactoryImpl(processors))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(Command.VOTE.name());
+    }
+
+    @Test
+    void shouldFailOnDuplicateProcessor() {
+        processors.add(getProcessor(Command.HELP));
+
+        assertThatThrownBy(() -> new CommandProcessorFactoryImpl(processors))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(Command.HELP.name());
+    }
+
+    private static CommandProcessor getProcessor(Command command) {
+        CommandProcessor processor = mock(CommandProcessor.class);
+        doReturn(command).when(processor).getCommand();
+        return processor;
+    }
+}
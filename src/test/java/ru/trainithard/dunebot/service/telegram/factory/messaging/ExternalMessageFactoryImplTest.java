@@ -5,6 +5,7 @@ import ru.trainithard.dunebot.model.Leader;
 import ru.trainithard.dunebot.model.Match;
 import ru.trainithard.dunebot.model.MatchPlayer;
 import ru.trainithard.dunebot.model.Player;
+import ru.trainithard.dunebot.service.PlayerMentionServiceImpl;
 import ru.trainithard.dunebot.service.messaging.ExternalMessage;
 
 import java.util.List;
@@ -12,7 +13,7 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class ExternalMessageFactoryImplTest {
-    private final ExternalMessageFactory messageFactory = new ExternalMessageFactoryImpl();
+    private final ExternalMessageFactory messageFactory = new ExternalMessageFactoryImpl(new PlayerMentionServiceImpl());
 
     @Test
     void getFinishedPlayersSubmitMessage() {
@@ -198,7 +198,7 @@ class CommonCommandMessageValidatorTest extends TestContextMock {
         pollAnswer.setPollId("100001");
         Update update = new Update();
         update.setPollAnswer(pollAnswer);
-        CommandMessage pollAnswerMessage = CommandMessage.getPollAnswerInstance(pollAnswer);
+        CommandMessage pollAnswerMessage = CommandMessage.getPollAnswerInstance(pollAnswer, null);
 
         assertThatCode(() -> validator.validate(pollAnswerMessage)).doesNotThrowAnyException();
     }
@@ -32,4 +32,27 @@ class MarkdownEscaperTest {
 
         assertThat(actualText).isEqualTo("[@AZabzАЯабя019,\\<'?:;%^&$@](tg://user?id=11111)");
     }
+
+    @Test
+    void shouldEscapeFirstAndLastChars() {
+        String actualText = MarkdownEscaper.getEscaped("_a_b_");
+
+        assertThat(actualText).isEqualTo("\\_a\\_b\\_");
+    }
+
+    @Test
+    void shouldNotCopyTextWithoutEscapedChars() {
+        String text = "Рейтинг за текущий месяц";
+
+        assertThat(MarkdownEscaper.getEscaped(text)).isSameAs(text);
+    }
+
+    @Test
+    void shouldAppendEscapedText() {
+        StringBuilder builder = new StringBuilder("*bold* ");
+
+        MarkdownEscaper.appendEscaped(builder, "a.b");
+
+        assertThat(builder).hasToString("*bold* a\\.b");
+    }
 }
@@ -1,3 +1,5 @@
+DROP TABLE IF EXISTS CURRENT_PLAYER_RATINGS;
+DROP TABLE IF EXISTS CURRENT_LEADER_RATINGS;
 DROP TABLE IF EXISTS PLAYER_RATINGS;
 DROP TABLE IF EXISTS LEADER_RATINGS;
 DROP TABLE IF EXISTS MATCH_PLAYERS;
@@ -11,10 +13,26 @@ DROP TABLE IF EXISTS DUNEBOT_TASKS;
 DROP TABLE IF EXISTS PLAYER_RATINGS;
 DROP TABLE IF EXISTS LEADER_RATINGS;
 DROP TABLE IF EXISTS META_DATA;
+DROP TABLE IF EXISTS OUTBOX_MESSAGES;
+DROP TABLE IF EXISTS UPLOADED_FILES;
+
+CREATE SEQUENCE IF NOT EXISTS EXTERNAL_MESSAGES_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS PLAYERS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS LEADERS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS MATCHES_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS MATCH_PLAYERS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS APP_SETTINGS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS USER_SETTINGS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS DUNEBOT_TASKS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS LEADER_RATINGS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS PLAYER_RATINGS_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS META_DATA_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS OUTBOX_MESSAGES_ID_SEQ INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS UPLOADED_FILES_ID_SEQ INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS EXTERNAL_MESSAGES
 (
-    ID         BIGSERIAL PRIMARY KEY,
+    ID         BIGINT DEFAULT NEXT VALUE FOR EXTERNAL_MESSAGES_ID_SEQ PRIMARY KEY,
     DTYPE      VARCHAR,
     MESSAGE_ID BIGINT,
     CHAT_ID    BIGINT,
@@ -26,7 +44,7 @@ CREATE TABLE IF NOT EXISTS EXTERNAL_MESSAGES
 
 CREATE TABLE IF NOT EXISTS PLAYERS
 (
-    ID                  BIGSERIAL PRIMARY KEY,
+    ID                  BIGINT DEFAULT NEXT VALUE FOR PLAYERS_ID_SEQ PRIMARY KEY,
     EXTERNAL_ID         BIGINT                   NOT NULL,
     EXTERNAL_CHAT_ID    BIGINT                   NOT NULL,
     STEAM_NAME          VARCHAR                  NOT NULL,
@@ -46,7 +64,7 @@ CREATE INDEX IDX_STEAM_NAME ON PLAYERS (STEAM_NAME);
 
 CREATE TABLE IF NOT EXISTS LEADERS
 (
-    ID         BIGSERIAL PRIMARY KEY,
+    ID         BIGINT DEFAULT NEXT VALUE FOR LEADERS_ID_SEQ PRIMARY KEY,
     NAME       VARCHAR                  NOT NULL,
     SHORT_NAME VARCHAR                  NOT NULL,
     MOD_TYPE   VARCHAR                  NOT NULL,
@@ -56,10 +74,11 @@ CREATE TABLE IF NOT EXISTS LEADERS
 
 CREATE TABLE IF NOT EXISTS MATCHES
 (
-    ID                     BIGSERIAL PRIMARY KEY,
+    ID                     BIGINT DEFAULT NEXT VALUE FOR MATCHES_ID_SEQ PRIMARY KEY,
     EXTERNAL_POLL_ID       BIGINT REFERENCES EXTERNAL_MESSAGES (ID),
     EXTERNAL_START_ID      BIGINT REFERENCES EXTERNAL_MESSAGES (ID),
     EXTERNAL_SUBMIT_ID     BIGINT REFERENCES EXTERNAL_MESSAGES (ID),
+    START_MENTIONED_PLAYER_IDS VARCHAR,
     OWNER_ID               BIGINT REFERENCES PLAYERS (ID),
     SUBMITTER_ID           BIGINT REFERENCES PLAYERS (ID),
     POSITIVE_ANSWERS_COUNT INTEGER                  NOT NULL DEFAULT 0,
@@ -75,7 +94,7 @@ CREATE TABLE IF NOT EXISTS MATCHES
 
 CREATE TABLE IF NOT EXISTS MATCH_PLAYERS
 (
-    ID              BIGSERIAL PRIMARY KEY,
+    ID              BIGINT DEFAULT NEXT VALUE FOR MATCH_PLAYERS_ID_SEQ PRIMARY KEY,
     MATCH_ID        BIGINT REFERENCES MATCHES (ID),
     PLAYER_ID       BIGINT REFERENCES PLAYERS (ID),
     LEADER          BIGINT REFERENCES LEADERS (ID) NULL,
@@ -88,7 +107,7 @@ CREATE TABLE IF NOT EXISTS MATCH_PLAYERS
 
 CREATE TABLE IF NOT EXISTS APP_SETTINGS
 (
-    ID         BIGSERIAL PRIMARY KEY,
+    ID         BIGINT DEFAULT NEXT VALUE FOR APP_SETTINGS_ID_SEQ PRIMARY KEY,
     KEY        VARCHAR UNIQUE           NOT NULL,
     VALUE      VARCHAR,
     CREATED_AT TIMESTAMP WITH TIME ZONE NOT NULL,
@@ -97,7 +116,7 @@ CREATE TABLE IF NOT EXISTS APP_SETTINGS
 
 CREATE TABLE IF NOT EXISTS USER_SETTINGS
 (
-    ID         BIGSERIAL PRIMARY KEY,
+    ID         BIGINT DEFAULT NEXT VALUE FOR USER_SETTINGS_ID_SEQ PRIMARY KEY,
     PLAYER_ID  BIGINT REFERENCES PLAYERS (ID),
     KEY        VARCHAR                  NOT NULL,
     VALUE      VARCHAR                  NOT NULL,
@@ -107,18 +126,20 @@ CREATE TABLE IF NOT EXISTS USER_SETTINGS
 
 CREATE TABLE IF NOT EXISTS DUNEBOT_TASKS
 (
-    ID         BIGSERIAL PRIMARY KEY,
-    TASK_TYPE  VARCHAR                  NOT NULL,
-    ENTITY_ID  BIGINT,
-    STATUS     VARCHAR                  NOT NULL,
-    START_TIME TIMESTAMP WITH TIME ZONE NOT NULL,
-    CREATED_AT TIMESTAMP WITH TIME ZONE NOT NULL,
-    UPDATED_AT TIMESTAMP WITH TIME ZONE
+    ID           BIGINT DEFAULT NEXT VALUE FOR DUNEBOT_TASKS_ID_SEQ PRIMARY KEY,
+    TASK_TYPE    VARCHAR                  NOT NULL,
+    ENTITY_ID    BIGINT,
+    STATUS       VARCHAR                  NOT NULL,
+    START_TIME   TIMESTAMP WITH TIME ZONE NOT NULL,
+    LOCKED_BY    VARCHAR,
+    LOCKED_UNTIL TIMESTAMP WITH TIME ZONE,
+    CREATED_AT   TIMESTAMP WITH TIME ZONE NOT NULL,
+    UPDATED_AT   TIMESTAMP WITH TIME ZONE
 );
 
 CREATE TABLE IF NOT EXISTS LEADER_RATINGS
 (
-    ID                 BIGSERIAL PRIMARY KEY,
+    ID                 BIGINT DEFAULT NEXT VALUE FOR LEADER_RATINGS_ID_SEQ PRIMARY KEY,
     LEADER_ID          BIGINT REFERENCES LEADERS (ID) NOT NULL,
     RATING_DATE        DATE                           NOT NULL,
     MATCHES_COUNT      INT                            NOT NULL,
@@ -134,7 +155,7 @@ CREATE TABLE IF NOT EXISTS LEADER_RATINGS
 
 CREATE TABLE IF NOT EXISTS PLAYER_RATINGS
 (
-    ID                    BIGSERIAL PRIMARY KEY,
+    ID                    BIGINT DEFAULT NEXT VALUE FOR PLAYER_RATINGS_ID_SEQ PRIMARY KEY,
     PLAYER_ID             BIGINT REFERENCES PLAYERS (ID) NOT NULL,
     RATING_DATE           DATE                           NOT NULL,
     MATCHES_COUNT         INT                            NOT NULL,
@@ -153,9 +174,52 @@ CREATE TABLE IF NOT EXISTS PLAYER_RATINGS
 
 CREATE TABLE IF NOT EXISTS META_DATA
 (
-    ID         BIGSERIAL PRIMARY KEY,
+    ID         BIGINT DEFAULT NEXT VALUE FOR META_DATA_ID_SEQ PRIMARY KEY,
     TYPE       VARCHAR                  NOT NULL,
     VALUE      VARCHAR,
     CREATED_AT TIMESTAMP WITH TIME ZONE NOT NULL,
     UPDATED_AT TIMESTAMP WITH TIME ZONE
-)
+);
+
+CREATE TABLE IF NOT EXISTS OUTBOX_MESSAGES
+(
+    ID                 BIGINT DEFAULT NEXT VALUE FOR OUTBOX_MESSAGES_ID_SEQ PRIMARY KEY,
+    MESSAGE_TYPE       VARCHAR                  NOT NULL,
+    STATUS             VARCHAR                  NOT NULL,
+    PRIORITY           VARCHAR                  NOT NULL,
+    CHAT_ID            VARCHAR                  NOT NULL,
+    TOPIC_ID           INT,
+    REPLY_ID           INT,
+    TEXT               VARCHAR                  NOT NULL,
+    POLL_OPTIONS       VARCHAR,
+    CALLBACK_TYPE      VARCHAR,
+    CALLBACK_ENTITY_ID BIGINT,
+    CALLBACK_DATA      VARCHAR,
+    ATTEMPTS           INT                      NOT NULL,
+    DELIVERED_AT       TIMESTAMP WITH TIME ZONE,
+    LOCKED_BY          VARCHAR,
+    LOCKED_UNTIL       TIMESTAMP WITH TIME ZONE,
+    CREATED_AT         TIMESTAMP WITH TIME ZONE NOT NULL,
+    UPDATED_AT         TIMESTAMP WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS UPLOADED_FILES
+(
+    ID           BIGINT DEFAULT NEXT VALUE FOR UPLOADED_FILES_ID_SEQ PRIMARY KEY,
+    CONTENT_HASH VARCHAR UNIQUE           NOT NULL,
+    FILE_ID      VARCHAR                  NOT NULL,
+    CREATED_AT   TIMESTAMP WITH TIME ZONE NOT NULL,
+    UPDATED_AT   TIMESTAMP WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS CURRENT_PLAYER_RATINGS
+(
+    PLAYER_ID        BIGINT PRIMARY KEY REFERENCES PLAYERS (ID),
+    PLAYER_RATING_ID BIGINT UNIQUE REFERENCES PLAYER_RATINGS (ID) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS CURRENT_LEADER_RATINGS
+(
+    LEADER_ID        BIGINT PRIMARY KEY REFERENCES LEADERS (ID),
+    LEADER_RATING_ID BIGINT UNIQUE REFERENCES LEADER_RATINGS (ID) NOT NULL
+);